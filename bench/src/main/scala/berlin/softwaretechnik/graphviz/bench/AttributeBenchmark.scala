@@ -0,0 +1,66 @@
+package berlin.softwaretechnik.graphviz.bench
+
+import java.io.Writer
+import java.util.concurrent.TimeUnit
+
+import berlin.softwaretechnik.graphviz.attributes.Shape.box
+import berlin.softwaretechnik.graphviz.attributes.Style.dashed
+import berlin.softwaretechnik.graphviz.attributes._
+import berlin.softwaretechnik.graphviz.{Node, RenderContext}
+import org.openjdk.jmh.annotations._
+import org.openjdk.jmh.infra.Blackhole
+
+/**
+  * Visiting and rendering the attributes of a typical styled node. Run with `-prof gc`
+  * to see the allocations per operation.
+  */
+@State(Scope.Thread)
+@BenchmarkMode(Array(Mode.AverageTime))
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+class AttributeBenchmark {
+
+  val attributes: NodeAttributes = NodeAttributes(shape = box, style = dashed, color = Color("#FF0000"), fontsize = 12)
+
+  val graphAttributes: GraphAttributes = GraphAttributes(fontname = "Helvetica", fontsize = 16)
+
+  val node: Node = Node("A", attributes)
+
+  val attributeMap: Seq[(String, Any)] = attributes.toAttributeMap()
+
+  val context = new RenderContext(Writer.nullWriter())
+
+  var visitor: AttributeVisitor = _
+
+  @Setup
+  def setup(blackhole: Blackhole): Unit = {
+    visitor = (k, v) => { blackhole.consume(k); blackhole.consume(v) }
+  }
+
+  @Benchmark
+  def toAttributeMap(blackhole: Blackhole): Unit = {
+    attributes.toAttributeMap().foreach { case (k, v) => blackhole.consume(k); blackhole.consume(v) }
+  }
+
+  @Benchmark
+  def foreachSet(): Unit = attributes.foreachSet(visitor)
+
+  @Benchmark
+  def graphToAttributeMap(blackhole: Blackhole): Unit = {
+    graphAttributes.toAttributeMap().foreach { case (k, v) => blackhole.consume(k); blackhole.consume(v) }
+  }
+
+  @Benchmark
+  def graphForeachSet(): Unit = graphAttributes.foreachSet(visitor)
+
+  @Benchmark
+  def renderWithBrackets(): String = node.renderWithBrackets(attributeMap)
+
+  @Benchmark
+  def renderNode(): Unit = {
+    node.renderTo(context)
+    context.flush()
+  }
+}
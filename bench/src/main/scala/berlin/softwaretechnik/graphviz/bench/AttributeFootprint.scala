@@ -0,0 +1,36 @@
+package berlin.softwaretechnik.graphviz.bench
+
+import berlin.softwaretechnik.graphviz.GraphBuilder
+import berlin.softwaretechnik.graphviz.attributes.Shape.box
+import berlin.softwaretechnik.graphviz.attributes.{Color, NodeAttributes, Plain}
+import org.openjdk.jol.info.GraphLayout
+
+/**
+  * Reports the retained heap of a graph with a million nodes, every tenth of which has three
+  * attributes, as measured by JOL: built with [[GraphBuilder]], which stores the attributes
+  * as [[berlin.softwaretechnik.graphviz.attributes.SparseNodeAttributes]], and as the
+  * [[berlin.softwaretechnik.graphviz.Graph]] of [[berlin.softwaretechnik.graphviz.Node]]
+  * elements it turns into. The attributes are what the graph takes beyond the same nodes
+  * without attributes.
+  */
+object AttributeFootprint {
+
+  def main(args: Array[String]): Unit = {
+    val nodes = if (args.nonEmpty) args(0).toInt else 1000000
+    val plain = new GraphBuilder()
+    val styled = new GraphBuilder()
+    (0 until nodes).foreach { i =>
+      plain.node(s"n$i")
+      if (i % 10 == 0) styled.node(s"n$i", NodeAttributes(shape = box, label = Plain(s"Node $i"), color = Color("#FF0000")))
+      else styled.node(s"n$i")
+    }
+    println(f"$nodes%d nodes, every tenth with attributes")
+    report("builder", GraphLayout.parseInstance(styled).totalSize(), GraphLayout.parseInstance(plain).totalSize())
+    report("graph", GraphLayout.parseInstance(styled.result()).totalSize(), GraphLayout.parseInstance(plain.result()).totalSize())
+  }
+
+  private def report(name: String, size: Long, withoutAttributes: Long): Unit =
+    println(f"  $name%-8s ${mb(size)}, of which attributes ${mb(size - withoutAttributes)}")
+
+  private def mb(bytes: Long): String = f"${bytes / 1024.0 / 1024.0}%.1f MB"
+}
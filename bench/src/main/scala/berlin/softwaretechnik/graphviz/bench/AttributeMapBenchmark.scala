@@ -0,0 +1,57 @@
+package berlin.softwaretechnik.graphviz.bench
+
+import java.util.concurrent.TimeUnit
+
+import berlin.softwaretechnik.graphviz.attributes.Shape.box
+import berlin.softwaretechnik.graphviz.attributes.Style.{dashed, filled}
+import berlin.softwaretechnik.graphviz.attributes._
+import berlin.softwaretechnik.graphviz.attributes.html.{Align, TableAttributes, TableCellAttributes}
+import org.openjdk.jmh.annotations._
+import org.openjdk.jmh.infra.Blackhole
+
+/**
+  * `toAttributeMap` on every generated attribute class, with four or five attributes set
+  * as they typically are. Run with `-prof gc` to see the allocations per operation.
+  */
+@State(Scope.Thread)
+@BenchmarkMode(Array(Mode.AverageTime))
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+class AttributeMapBenchmark {
+
+  @Param(Array("node", "edge", "graph", "subgraph", "table", "tableCell"))
+  var attributes: String = _
+
+  var toAttributeMap: () => Seq[(String, Any)] = _
+
+  @Setup
+  def setup(): Unit = {
+    toAttributeMap = attributes match {
+      case "node" =>
+        val node = NodeAttributes(shape = box, style = filled, fillcolor = Color("#EEEEEE"), label = Plain("Service"), fontsize = 12)
+        () => node.toAttributeMap()
+      case "edge" =>
+        val edge = EdgeAttributes(style = dashed, color = Color("#0000FF"), label = Plain("calls"), arrowhead = ArrowType.none)
+        () => edge.toAttributeMap()
+      case "graph" =>
+        val graph = GraphAttributes(fontname = "Helvetica", fontsize = 16, label = Plain("Services"), rankdir = RankDir.LR)
+        () => graph.toAttributeMap()
+      case "subgraph" =>
+        val subgraph = SubgraphAttributes(label = Plain("Cluster"), style = filled, bgcolor = Color("#F0F0F0"), fontcolor = Color("#333333"))
+        () => subgraph.toAttributeMap()
+      case "table" =>
+        val table = TableAttributes(border = 0, cellBorder = 1, cellPadding = 4, bgcolor = Color("#FFFFFF"))
+        () => table.toAttributeMap()
+      case "tableCell" =>
+        val cell = TableCellAttributes(align = Align.Left, bgcolor = Color("#FFFFCC"), colspan = 2, port = "p1")
+        () => cell.toAttributeMap()
+    }
+  }
+
+  @Benchmark
+  def toAttributeMap(blackhole: Blackhole): Unit = {
+    toAttributeMap().foreach { case (k, v) => blackhole.consume(k); blackhole.consume(v) }
+  }
+}
@@ -0,0 +1,66 @@
+package berlin.softwaretechnik.graphviz.bench
+
+import java.nio.charset.StandardCharsets.UTF_8
+import java.nio.file.{Files, Path}
+import java.util.concurrent.TimeUnit
+
+import berlin.softwaretechnik.graphviz.attributes.{NodeAttributes, Plain}
+import berlin.softwaretechnik.graphviz.{BatchLayout, Edge, Graph, Node}
+import org.openjdk.jmh.annotations._
+
+/**
+  * Lays out many small graphs through [[BatchLayout]]; the scores are graphs per second.
+  * A batch size of one starts a process per graph, like [[Graph.layout]] does.
+  *
+  * By default the layout program is a shell script that copies its input files, which
+  * stands in for `dot -Tdot -O` and only measures the cost of the processes and files. With Graphviz installed,
+  * run with `-p engine=dot` to include the actual layout.
+  */
+@State(Scope.Benchmark)
+@BenchmarkMode(Array(Mode.Throughput))
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+class BatchLayoutBenchmark {
+  import BatchLayoutBenchmark._
+
+  @Param(Array("stub"))
+  var engine: String = _
+
+  @Param(Array("1", "10", "100", "1000"))
+  var batchSize: Int = _
+
+  var program: String = _
+  var stub: Path = _
+
+  val graphs: Seq[Graph] = (0 until Graphs).map { s =>
+    Graph(id = Some(s"service$s"), elements = (0 until 10).flatMap { i =>
+      Seq(Node(s"c$i", NodeAttributes(label = Plain(s"Component $i"))), Edge(s"c$i", s"c${(i * 3 + 1) % 10}"))
+    })
+  }
+
+  @Setup
+  def setup(): Unit = {
+    if (engine == "stub") {
+      stub = Files.createTempFile("graphviz-stub", ".sh")
+      // Copies every input file to its output, as `dot -Tdot -O` would lay it out.
+      Files.write(stub, "#!/bin/sh\nfor f; do case \"$f\" in -*) ;; *) cp \"$f\" \"$f.dot\";; esac; done\n".getBytes(UTF_8))
+      stub.toFile.setExecutable(true)
+      program = stub.toString
+    } else {
+      program = engine
+    }
+  }
+
+  @TearDown
+  def tearDown(): Unit = if (stub != null) Files.delete(stub)
+
+  @Benchmark
+  @OperationsPerInvocation(Graphs)
+  def layout(): Seq[Array[Byte]] = new BatchLayout(program, "dot", batchSize = batchSize).layout(graphs)
+}
+
+object BatchLayoutBenchmark {
+  final val Graphs = 1000
+}
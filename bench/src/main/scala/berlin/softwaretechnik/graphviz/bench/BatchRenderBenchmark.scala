@@ -0,0 +1,119 @@
+package berlin.softwaretechnik.graphviz.bench
+
+import java.io.ByteArrayOutputStream
+import java.util.concurrent.{ExecutorService, Executors, Future, TimeUnit}
+
+import berlin.softwaretechnik.graphviz.attributes.{NodeAttributes, Plain}
+import berlin.softwaretechnik.graphviz.{BatchRenderer, Edge, ElementSource, Graph, GraphElement, Node}
+import org.openjdk.jmh.annotations._
+
+import scala.collection.mutable
+
+/**
+  * Renders a batch of report graphs with [[BatchRenderer]] and, for comparison, with a
+  * fixed pool of one platform thread per core; the scores are graphs per second.
+  *
+  * With `blockMillis` above zero, every graph waits that long for its rows when it is
+  * rendered, like a graph filled from a database query, see [[BatchRenderBenchmark.graph]].
+  * Whether the renderer runs on virtual threads is printed during setup.
+  */
+@State(Scope.Benchmark)
+@BenchmarkMode(Array(Mode.Throughput))
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+class BatchRenderBenchmark {
+  import BatchRenderBenchmark._
+
+  @Param(Array("0", "1"))
+  var blockMillis: Int = _
+
+  var batch: Seq[Graph] = _
+  var renderer: BatchRenderer = _
+  var pool: ExecutorService = _
+
+  @Setup
+  def setup(): Unit = {
+    println(s"virtual threads: ${BatchRenderer.usesVirtualThreads}")
+    batch = graphs(Graphs, blockMillis)
+    renderer = new BatchRenderer()
+    pool = Executors.newFixedThreadPool(Runtime.getRuntime.availableProcessors)
+  }
+
+  @TearDown
+  def tearDown(): Unit = pool.shutdown()
+
+  @Benchmark
+  @OperationsPerInvocation(Graphs)
+  def batchRendererInOrder(): Long = {
+    var bytes = 0L
+    renderer.render(batch)(bytes += _.size)
+    bytes
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(Graphs)
+  def batchRendererAsCompleted(): Long = {
+    var bytes = 0L
+    renderer.render(batch, inOrder = false)(bytes += _.size)
+    bytes
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(Graphs)
+  def fixedPool(): Long = {
+    var bytes = 0L
+    renderOnPool(pool, batch.iterator, 1024)((_, output) => bytes += output.length)
+    bytes
+  }
+}
+
+object BatchRenderBenchmark {
+  final val Graphs = 2000
+
+  /** [[graph]]s `0` until `count`. */
+  def graphs(count: Int, blockMillis: Int): Seq[Graph] = (0 until count).map(graph(_, blockMillis))
+
+  /**
+    * The `g`th graph of a report job: mostly 20 to 200 nodes and edges, every hundredth one
+    * 20,000. With `blockMillis` above zero, its rows come from an [[ElementSource]] that
+    * sleeps that long before it returns the first one.
+    */
+  def graph(g: Int, blockMillis: Int): Graph = {
+    val size = if (g % 100 == 99) 20000 else 20 + (g * 37) % 180
+    val rows = (0 until size).map[GraphElement] { i =>
+      if (i % 2 == 0) Node(s"n$i", NodeAttributes(label = Plain(s"Row $i of report $g")))
+      else Edge(s"n${i - 1}", s"n${i / 2}")
+    }
+    val elements =
+      if (blockMillis == 0) rows
+      else Seq(ElementSource { () =>
+        Thread.sleep(blockMillis)
+        rows.iterator
+      })
+    Graph(id = Some(s"report$g"), elements = elements)
+  }
+
+  /**
+    * The usual way to render in parallel without [[BatchRenderer]]: every graph is rendered
+    * into a byte array on `pool`, at most `maxInFlight` at once, and delivered in order.
+    */
+  def renderOnPool(pool: ExecutorService, graphs: Iterator[Graph], maxInFlight: Int)(deliver: (Long, Array[Byte]) => Unit): Unit = {
+    val inFlight = mutable.Queue[Future[Array[Byte]]]()
+    var delivered = 0L
+    def deliverOldest(): Unit = {
+      deliver(delivered, inFlight.dequeue().get())
+      delivered += 1
+    }
+    graphs.foreach { graph =>
+      inFlight.enqueue(pool.submit { () =>
+        val out = new ByteArrayOutputStream()
+        graph.writeTo(out)
+        out.toByteArray
+      })
+      if (inFlight.size >= maxInFlight) deliverOldest()
+    }
+    while (inFlight.nonEmpty) deliverOldest()
+  }
+}
@@ -0,0 +1,53 @@
+package berlin.softwaretechnik.graphviz.bench
+
+import java.util.concurrent.Executors
+
+import berlin.softwaretechnik.graphviz.{BatchRenderer, Graph}
+
+/**
+  * Reports the latency of single graphs in the batches of [[BatchRenderBenchmark]], from
+  * the moment a graph is taken from the input until it is delivered, together with the
+  * throughput and the most heap used after a collection. Graphs are built as they are
+  * taken, so the heap holds what the renders buffer:
+  * {{{
+  * BatchRenderLatencyReport [graphs] [blockMillis]
+  * }}}
+  */
+object BatchRenderLatencyReport {
+
+  def main(args: Array[String]): Unit = {
+    val count = if (args.nonEmpty) args(0).toInt else 20000
+    val blockMillis = if (args.length > 1) args(1).toInt else 0
+    def graphs(g: Int): Graph = BatchRenderBenchmark.graph(g, blockMillis)
+    val renderer = new BatchRenderer()
+    val pool = Executors.newFixedThreadPool(Runtime.getRuntime.availableProcessors)
+    println(s"$count graphs, blocking $blockMillis ms each, ${Runtime.getRuntime.availableProcessors} cores, virtual threads: ${BatchRenderer.usesVirtualThreads}")
+
+    val runs = Seq[(String, (Iterator[Int], Long => Unit) => Unit)](
+      "BatchRenderer in order" -> ((taken, deliver) => renderer.render(taken.map(graphs))(result => deliver(result.index))),
+      "BatchRenderer as completed" -> ((taken, deliver) => renderer.render(taken.map(graphs), inOrder = false)(result => deliver(result.index))),
+      "fixed pool" -> ((taken, deliver) => BatchRenderBenchmark.renderOnPool(pool, taken.map(graphs), 1024)((index, _) => deliver(index)))
+    )
+    try {
+      // The first round warms up.
+      (0 until 2).foreach { round =>
+        runs.foreach { case (name, run) =>
+          val started = new Array[Long](count)
+          val latencies = new Array[Long](count)
+          val heap = new HeapSampler
+          val start = System.nanoTime()
+          run(Iterator.range(0, count).map { i => started(i) = System.nanoTime(); i }, index => latencies(index.toInt) = System.nanoTime() - started(index.toInt))
+          val seconds = (System.nanoTime() - start) / 1e9
+          heap.stop()
+          java.util.Arrays.sort(latencies)
+          def percentile(p: Double): Double = latencies(math.min(count - 1, (p * count).toInt)) / 1e6
+          if (round > 0) {
+            println(f"$name%-27s ${count / seconds}%,9.0f graphs/s   p50 ${percentile(0.5)}%8.2f ms   p99 ${percentile(0.99)}%8.2f ms   max ${latencies(count - 1) / 1e6}%8.2f ms   heap after GC ${heap.maxUsedAfterGc / 1048576.0}%6.1f MB")
+          }
+        }
+      }
+    } finally {
+      pool.shutdown()
+    }
+  }
+}
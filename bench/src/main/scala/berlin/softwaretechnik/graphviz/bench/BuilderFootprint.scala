@@ -0,0 +1,53 @@
+package berlin.softwaretechnik.graphviz.bench
+
+import berlin.softwaretechnik.graphviz.GraphBuilder
+import berlin.softwaretechnik.graphviz.attributes.{EdgeAttributes, Style}
+import org.openjdk.jol.info.GraphLayout
+
+/**
+  * Reports the retained heap per edge of a graph built with [[GraphBuilder]] and of the
+  * same graph as [[berlin.softwaretechnik.graphviz.Graph]], as measured by JOL.
+  *
+  * The sizes per edge leave out the nodes. Edges have no attributes, or a tenth of them
+  * share one attribute instance.
+  */
+object BuilderFootprint {
+
+  def main(args: Array[String]): Unit = {
+    val nodes = if (args.nonEmpty) args(0).toInt else 1000000
+    val edges = if (args.length > 1) args(1).toInt else 4 * nodes
+    println(f"$nodes%d nodes, $edges%d edges")
+    report("without edge attributes", nodes, edges, attributed = false)
+    report("a tenth with attributes", nodes, edges, attributed = true)
+  }
+
+  private def report(name: String, nodes: Int, edges: Int, attributed: Boolean): Unit = {
+    val dashed = EdgeAttributes(style = Style.dashed)
+    val builder = new GraphBuilder()
+    (0 until nodes).foreach(i => builder.node(s"n$i"))
+    val nodesSize = GraphLayout.parseInstance(builder).totalSize()
+    val nodesGraphSize = GraphLayout.parseInstance(builder.result()).totalSize()
+    var start = System.nanoTime()
+    (0 until edges).foreach { e =>
+      val (from, to) = (e % nodes, ((e.toLong * 31 + 7) % nodes).toInt)
+      if (attributed && e % 10 == 0) builder.edge(from, to, dashed) else builder.edge(from, to)
+    }
+    val built = millis(start)
+    val builderSize = GraphLayout.parseInstance(builder).totalSize()
+
+    start = System.nanoTime()
+    val graph = builder.result()
+    val converted = millis(start)
+    val graphSize = GraphLayout.parseInstance(graph).totalSize()
+
+    println(name)
+    println(f"  builder: ${mb(builderSize)}, ${(builderSize - nodesSize).toDouble / edges}%.1f bytes per edge, " +
+      f"edges added in $built ms")
+    println(f"  graph:   ${mb(graphSize)}, ${(graphSize - nodesGraphSize).toDouble / edges}%.1f bytes " +
+      f"per edge, converted in $converted ms")
+  }
+
+  private def millis(start: Long): Long = (System.nanoTime() - start) / 1000000
+
+  private def mb(bytes: Long): String = f"${bytes / 1024.0 / 1024.0}%.1f MB"
+}
@@ -0,0 +1,20 @@
+package berlin.softwaretechnik.graphviz.bench
+
+import java.nio.ByteBuffer
+import java.nio.channels.WritableByteChannel
+
+/** Discards what is written to it and counts the bytes. */
+final class CountingChannel extends WritableByteChannel {
+  var bytes = 0L
+
+  override def write(src: ByteBuffer): Int = {
+    val remaining = src.remaining()
+    src.position(src.limit())
+    bytes += remaining
+    remaining
+  }
+
+  override def isOpen: Boolean = true
+
+  override def close(): Unit = ()
+}
@@ -0,0 +1,57 @@
+package berlin.softwaretechnik.graphviz.bench
+
+import java.io.Writer
+import java.util.concurrent.TimeUnit
+
+import berlin.softwaretechnik.graphviz.attributes.{EdgeAttributes, Plain}
+import berlin.softwaretechnik.graphviz.{Edge, EdgeBatch, Graph}
+import org.openjdk.jmh.annotations._
+
+/**
+  * Building and rendering a call graph of a million bare edges, optionally each with a
+  * label of its own, as an [[Edge]] per edge and as a single [[EdgeBatch]].
+  */
+@State(Scope.Benchmark)
+@BenchmarkMode(Array(Mode.AverageTime))
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgs = Array("-Xmx2g"))
+class EdgeBatchBenchmark {
+
+  @Param(Array("false", "true"))
+  var labels: Boolean = _
+
+  val size = 1000000
+
+  var sources: Array[String] = _
+  var targets: Array[String] = _
+  var labelColumn: Array[String] = _
+
+  var edges: Graph = _
+  var batch: Graph = _
+
+  @Setup
+  def setup(): Unit = {
+    sources = Array.tabulate(size)(i => s"f${i / 4}")
+    targets = Array.tabulate(size)(i => s"f${(i * 7919L % size).toInt / 4}")
+    labelColumn = if (labels) Array.tabulate(size)(i => s"${i % 100} calls") else null
+    edges = buildEdges()
+    batch = buildBatch()
+  }
+
+  @Benchmark
+  def buildEdges(): Graph = Graph(elements = (0 until size).map { i =>
+    if (labelColumn == null) Edge(sources(i), targets(i))
+    else Edge(sources(i), targets(i), EdgeAttributes(label = Plain(labelColumn(i))))
+  })
+
+  @Benchmark
+  def buildBatch(): Graph = Graph(elements = Seq(new EdgeBatch(sources, targets, labelColumn)))
+
+  @Benchmark
+  def renderEdges(): Unit = edges.renderTo(Writer.nullWriter())
+
+  @Benchmark
+  def renderBatch(): Unit = batch.renderTo(Writer.nullWriter())
+}
@@ -0,0 +1,62 @@
+package berlin.softwaretechnik.graphviz.bench
+
+import java.util.concurrent.TimeUnit
+
+import berlin.softwaretechnik.graphviz.DotStrings
+import org.apache.commons.text.StringEscapeUtils
+import org.openjdk.jmh.annotations._
+import org.openjdk.jmh.infra.Blackhole
+
+/** Escaping label strings with the dot escaper and with commons-text's `escapeJava`, which we used before. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Array(Mode.AverageTime))
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+class EscapeBenchmark {
+
+  @Param(Array("ascii", "mixed", "cjk"))
+  var corpus: String = _
+
+  var labels: Array[String] = _
+
+  @Setup
+  def setup(): Unit = {
+    labels = EscapeBenchmark.corpus(corpus)
+  }
+
+  @Benchmark
+  def escapeJava(blackhole: Blackhole): Unit = {
+    labels.foreach(label => blackhole.consume(StringEscapeUtils.escapeJava(label)))
+  }
+
+  @Benchmark
+  def dotStrings(blackhole: Blackhole): Unit = {
+    labels.foreach(label => blackhole.consume(DotStrings.escape(label)))
+  }
+}
+
+object EscapeBenchmark {
+
+  /** 1000 labels of up to 60 characters in the given alphabet. */
+  def corpus(name: String): Array[String] = {
+    val random = new scala.util.Random(42)
+    val alphabet = name match {
+      case "ascii" => ('a' to 'z') ++ ('A' to 'Z') ++ ('0' to '9') ++ Seq(' ', '.', '-', '_')
+      case "mixed" => ('a' to 'z') ++ Seq(' ', ' ', '"', '\n', '\\', 'ä', 'ß', 'é')
+      case "cjk" => ('一' to '俿') ++ Seq(' ', '、')
+    }
+    Array.fill(1000)(Seq.fill(1 + random.nextInt(60))(alphabet(random.nextInt(alphabet.length))).mkString)
+  }
+
+  /** Prints how much each escaper grows the corpora. */
+  def main(args: Array[String]): Unit = {
+    Seq("ascii", "mixed", "cjk").foreach { name =>
+      val labels = corpus(name)
+      def utf8(strings: Array[String]): Int = strings.map(_.getBytes("UTF-8").length).sum
+      println(f"$name%-6s input ${utf8(labels)}%7d bytes, escapeJava ${utf8(labels.map(StringEscapeUtils.escapeJava))}%7d bytes, " +
+        f"dot ${utf8(labels.map(DotStrings.escape))}%7d bytes")
+    }
+  }
+}
@@ -0,0 +1,59 @@
+package berlin.softwaretechnik.graphviz.bench
+
+import java.nio.file.{Files, Paths}
+
+import berlin.softwaretechnik.graphviz.GraphStore
+import berlin.softwaretechnik.graphviz.attributes.{EdgeAttributes, NodeAttributes, Plain, Shape, Style}
+
+/**
+  * Builds a dependency graph of `edges` edges between `edges / 5` nodes in a [[GraphStore]],
+  * renders it as DOT, and reports the heap it needed, which should not depend on the size
+  * of the graph. Every hundredth node and every tenth edge is styled.
+  *
+  * Run with a small heap, e.g. `-Xmx64m`, to see that it fits:
+  * {{{
+  * GraphStoreReport [edges] [directory]
+  * }}}
+  */
+object GraphStoreReport {
+
+  def main(args: Array[String]): Unit = {
+    val edges = if (args.nonEmpty) args(0).toLong else 100000000L
+    val nodes = (edges / 5).toInt
+    val directory = if (args.length > 1) Paths.get(args(1)) else Files.createTempDirectory("graph-store")
+    val store = new GraphStore(directory.resolve("store"))
+    try {
+      val heap = new HeapSampler
+      val dashed = EdgeAttributes(style = Style.dashed)
+      var start = System.nanoTime()
+      var i = 0
+      while (i < nodes) {
+        if (i % 100 == 0) store.node(s"service$i", NodeAttributes(shape = Shape.box, label = Plain(s"Service $i")))
+        else store.node(s"service$i")
+        i += 1
+      }
+      var e = 0L
+      while (e < edges) {
+        val (from, to) = ((e % nodes).toInt, ((e * 7919) % nodes).toInt)
+        if (e % 10 == 0) store.edge(from, to, dashed) else store.edge(from, to)
+        e += 1
+      }
+      val built = (System.nanoTime() - start) / 1e9
+      println(f"built $nodes%d nodes and $edges%d edges in $built%.1f s")
+
+      val out = new CountingChannel
+      start = System.nanoTime()
+      store.writeTo(out)
+      val rendered = (System.nanoTime() - start) / 1e9
+      heap.stop()
+
+      println(f"rendered ${out.bytes / 1e9}%.2f GB of DOT in $rendered%.1f s, ${out.bytes / rendered / 1e6}%.1f MB/s")
+      println(f"max heap:                ${Runtime.getRuntime.maxMemory / 1048576.0}%.0f MB")
+      println(f"max heap used:           ${heap.maxUsed / 1048576.0}%.1f MB")
+      println(f"max heap used after GC:  ${heap.maxUsedAfterGc / 1048576.0}%.1f MB")
+    } finally {
+      store.close()
+      if (args.length <= 1) Files.delete(directory)
+    }
+  }
+}
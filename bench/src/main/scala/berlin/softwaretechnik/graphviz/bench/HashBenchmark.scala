@@ -0,0 +1,55 @@
+package berlin.softwaretechnik.graphviz.bench
+
+import java.util.concurrent.TimeUnit
+
+import berlin.softwaretechnik.graphviz.{ContentHash, Graph, Node}
+import org.openjdk.jmh.annotations._
+
+import scala.util.hashing.MurmurHash3
+
+/**
+  * Hashing a graph of a million nodes and edges, flat or in nested clusters, and comparing
+  * it to one that differs in a single element.
+  *
+  * `caseClass` walks the elements like the generated case class `hashCode` did (nested
+  * clusters now contribute their memoized hashes), `cold` computes the content hash of a
+  * fresh instance, and `memoized` and `unequal` are what repeated use as a map key costs.
+  */
+@State(Scope.Benchmark)
+@BenchmarkMode(Array(Mode.AverageTime))
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgs = Array("-Xmx4g"))
+class HashBenchmark {
+
+  @Param(Array("flat", "nested"))
+  var shape: String = _
+
+  var graph: Graph = _
+
+  var other: Graph = _
+
+  @Setup
+  def setup(): Unit = {
+    graph = shape match {
+      case "flat" => SyntheticGraphs.flat(1000000)
+      case "nested" => SyntheticGraphs.nested(10, 1000000)
+    }
+    other = graph.copy(elements = graph.elements.updated(0, Node("changed")))
+    graph.hashCode
+    other.hashCode
+  }
+
+  @Benchmark
+  def caseClass(): Int = MurmurHash3.productHash(graph)
+
+  @Benchmark
+  def cold(): ContentHash = graph.copy().contentHash
+
+  @Benchmark
+  def memoized(): Int = graph.hashCode
+
+  @Benchmark
+  def unequal(): Boolean = graph == other
+}
@@ -0,0 +1,30 @@
+package berlin.softwaretechnik.graphviz.bench
+
+import java.lang.management.{ManagementFactory, MemoryType}
+
+import scala.jdk.CollectionConverters._
+
+/** Samples the heap usage, in total and as left by the last collection, every 50 ms. */
+final class HeapSampler {
+  private val memory = ManagementFactory.getMemoryMXBean
+  private val pools = ManagementFactory.getMemoryPoolMXBeans.asScala.filter(_.getType == MemoryType.HEAP)
+  @volatile private var running = true
+  @volatile var maxUsed = 0L
+  @volatile var maxUsedAfterGc = 0L
+
+  private val thread = new Thread(() =>
+    while (running) {
+      maxUsed = math.max(maxUsed, memory.getHeapMemoryUsage.getUsed)
+      val afterGc = pools.flatMap(pool => Option(pool.getCollectionUsage)).map(_.getUsed).sum
+      maxUsedAfterGc = math.max(maxUsedAfterGc, afterGc)
+      Thread.sleep(50)
+    }
+  )
+  thread.setDaemon(true)
+  thread.start()
+
+  def stop(): Unit = {
+    running = false
+    thread.join()
+  }
+}
@@ -0,0 +1,29 @@
+package berlin.softwaretechnik.graphviz.bench
+
+import berlin.softwaretechnik.graphviz.{Graph, Optimizer}
+
+/** Reports how much [[Optimizer.hoistDefaults]] shrinks the rendered benchmark graphs. */
+object HoistDefaultsReport {
+
+  def main(args: Array[String]): Unit = {
+    val corpus = Seq[(String, () => Graph)](
+      "catalogue 20k/30k" -> (() => InternFootprint.catalogue(20000, 30000)),
+      "flat 100k" -> (() => SyntheticGraphs.flat(100000)),
+      "clustered 100x1k" -> (() => SyntheticGraphs.clustered(100, 1000)),
+      "nested 10/100k" -> (() => SyntheticGraphs.nested(10, 100000))
+    )
+    corpus.foreach { case (name, graph) =>
+      val original = graph()
+      val optimized = Optimizer.hoistDefaults(original)
+      // The best of a few runs, once the JIT has caught up.
+      val millis = (0 until 10).map { _ =>
+        val start = System.nanoTime()
+        Optimizer.hoistDefaults(original)
+        (System.nanoTime() - start) / 1000000
+      }.min
+      val before = original.render.length
+      val after = optimized.render.length
+      println(f"$name%-20s $before%,12d -> $after%,12d chars (${100.0 * (before - after) / before}%5.1f%% smaller, $millis ms)")
+    }
+  }
+}
@@ -0,0 +1,50 @@
+package berlin.softwaretechnik.graphviz.bench
+
+import java.io.Writer
+import java.util.concurrent.TimeUnit
+
+import berlin.softwaretechnik.graphviz.attributes.html._
+import berlin.softwaretechnik.graphviz.attributes.{Color, NodeAttributes}
+import berlin.softwaretechnik.graphviz.{Node, RenderContext}
+import org.openjdk.jmh.annotations._
+
+/**
+  * Renders a node labelled with a `Table` of `rows` rows of four cells, with styled text and
+  * attributes on the table and on every cell, like a record of a database table.
+  */
+@State(Scope.Thread)
+@BenchmarkMode(Array(Mode.AverageTime))
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+class HtmlLabelBenchmark {
+
+  @Param(Array("3", "50"))
+  var rows: Int = _
+
+  var node: Node = _
+
+  val context = new RenderContext(Writer.nullWriter())
+
+  @Setup
+  def setup(): Unit = {
+    val header = Seq(Cell(TableCellAttributes(colspan = 4, bgcolor = Color("#DDDDDD")), b("orders")))
+    val body = (0 until rows).map { r =>
+      Seq(
+        Cell(TableCellAttributes(align = Align.Left, port = s"c$r"), plain(s"column_$r")),
+        Cell(TableCellAttributes(align = Align.Left), i("varchar(255)")),
+        Cell(plain(if (r % 3 == 0) "NOT NULL" else "")),
+        Cell(TableCellAttributes(bgcolor = Color("#FFFFCC")), textAttr(color = Color("#008000"))(s"index <$r> & 'key'"))
+      )
+    }
+    val label = Table(TableAttributes(border = 0, cellBorder = 1, cellSpacing = 0), header +: body)
+    node = Node("orders", NodeAttributes(label = label))
+  }
+
+  @Benchmark
+  def renderNode(): Unit = {
+    node.renderTo(context)
+    context.flush()
+  }
+}
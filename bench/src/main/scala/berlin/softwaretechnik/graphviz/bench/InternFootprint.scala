@@ -0,0 +1,59 @@
+package berlin.softwaretechnik.graphviz.bench
+
+import berlin.softwaretechnik.graphviz.attributes.Shape.{box, ellipse}
+import berlin.softwaretechnik.graphviz.attributes._
+import berlin.softwaretechnik.graphviz.{Edge, Graph, Interner, Node, SubGraph}
+import org.openjdk.jol.info.GraphLayout
+
+/**
+  * Reports the retained heap of a service catalogue like graph before and after
+  * interning, as measured by JOL.
+  *
+  * Every value is built from a fresh string, as it would be when the graph is read from
+  * an external source, so nothing is shared to begin with.
+  */
+object InternFootprint {
+
+  private val teams = Seq("payments", "search", "identity", "catalogue", "checkout", "shipping", "billing", "platform")
+  private val colors = Seq("#1F77B4", "#FF7F0E", "#2CA02C", "#D62728", "#9467BD", "#8C564B", "#E377C2", "#7F7F7F")
+
+  private def fresh(s: String): String = new String(s.toCharArray)
+
+  def catalogue(services: Int, dependencies: Int): Graph = Graph(
+    elements = teams.indices.map { t =>
+      SubGraph(
+        id = Some(fresh(s"cluster_${teams(t)}")),
+        attributes = SubgraphAttributes(label = Plain(fresh(teams(t)))),
+        elements = (t until services by teams.size).map { s =>
+          Node(fresh(s"svc$s"), NodeAttributes(
+            shape = if (s % 5 == 0) ellipse else box,
+            fontname = fresh("Helvetica"),
+            fontsize = 10.0,
+            color = Color(fresh(colors(t))),
+            style = Style.filled,
+            fillcolor = Color(fresh("#FFFFFF"))
+          ))
+        }
+      )
+    } ++ (0 until dependencies).map { d =>
+      Edge(fresh(s"svc${d % services}"), fresh(s"svc${(d * 31 + 7) % services}"), EdgeAttributes(
+        color = Color(fresh("#999999")),
+        fontname = fresh("Helvetica"),
+        style = if (d % 7 == 0) Style.dashed else null
+      ))
+    }
+  )
+
+  def main(args: Array[String]): Unit = {
+    val services = if (args.nonEmpty) args(0).toInt else 200000
+    val graph = catalogue(services, services * 3 / 2)
+    println(f"graph:          ${GraphLayout.parseInstance(graph).totalSize() / 1024.0 / 1024.0}%.1f MB")
+
+    val interner = new Interner()
+    val start = System.nanoTime()
+    val interned = interner(graph)
+    val millis = (System.nanoTime() - start) / 1000000
+    println(f"interned graph: ${GraphLayout.parseInstance(interned).totalSize() / 1024.0 / 1024.0}%.1f MB")
+    println(s"interning took $millis ms, ${interner.size} canonical instances")
+  }
+}
@@ -0,0 +1,53 @@
+package berlin.softwaretechnik.graphviz.bench
+
+import java.io.Writer
+import java.util.concurrent.TimeUnit
+
+import berlin.softwaretechnik.graphviz.Graph
+import org.openjdk.jmh.annotations._
+
+/**
+  * Renders the same number of elements at increasing cluster nesting depths.
+  *
+  * The `outputChars` counter is reported as a rate next to the primary result, so a
+  * renderer that is linear in its output shows a constant rate across all depths.
+  */
+@State(Scope.Benchmark)
+@BenchmarkMode(Array(Mode.Throughput))
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+class NestingBenchmark {
+
+  @Param(Array("1", "5", "10", "25", "50"))
+  var depth: Int = _
+
+  var graph: Graph = _
+
+  var outputChars: Int = _
+
+  @Setup
+  def setup(): Unit = {
+    graph = SyntheticGraphs.nested(depth, 10000)
+    outputChars = graph.render.length
+  }
+
+  @Benchmark
+  def renderToWriter(counters: NestingBenchmark.OutputCounters): Unit = {
+    graph.renderTo(Writer.nullWriter())
+    counters.outputChars += outputChars
+  }
+}
+
+object NestingBenchmark {
+
+  @State(Scope.Thread)
+  @AuxCounters(AuxCounters.Type.OPERATIONS)
+  class OutputCounters {
+    var outputChars: Long = _
+
+    @Setup(Level.Iteration)
+    def reset(): Unit = outputChars = 0
+  }
+}
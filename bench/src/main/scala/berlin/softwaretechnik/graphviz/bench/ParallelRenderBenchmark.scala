@@ -0,0 +1,45 @@
+package berlin.softwaretechnik.graphviz.bench
+
+import java.io.Writer
+import java.util.concurrent.{ForkJoinPool, TimeUnit}
+
+import berlin.softwaretechnik.graphviz.{Graph, ParallelRenderer}
+import org.openjdk.jmh.annotations._
+
+/** Scaling of the parallel renderer with the number of threads, on an edge-heavy graph. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Array(Mode.AverageTime))
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgs = Array("-Xmx6g"))
+class ParallelRenderBenchmark {
+
+  @Param(Array("2000000"))
+  var elements: Int = _
+
+  @Param(Array("1", "2", "4", "8", "16", "32"))
+  var threads: Int = _
+
+  var graph: Graph = _
+
+  var pool: ForkJoinPool = _
+
+  var renderer: ParallelRenderer = _
+
+  @Setup
+  def setup(): Unit = {
+    graph = SyntheticGraphs.flat(elements)
+    pool = new ForkJoinPool(threads)
+    renderer = new ParallelRenderer(pool)
+  }
+
+  @TearDown
+  def tearDown(): Unit = pool.shutdown()
+
+  @Benchmark
+  def sequential(): Unit = graph.renderTo(Writer.nullWriter())
+
+  @Benchmark
+  def parallel(): Unit = renderer.renderTo(graph, Writer.nullWriter())
+}
@@ -0,0 +1,64 @@
+package berlin.softwaretechnik.graphviz.bench
+
+import java.nio.file.{Files, Path}
+import java.util.concurrent.TimeUnit
+
+import berlin.softwaretechnik.graphviz.{DotParser, Graph}
+import org.openjdk.jmh.annotations._
+
+/**
+  * Parses rendered graphs from memory-mapped files.
+  *
+  * The `inputBytes` counter is reported as a rate next to the primary result, i.e. as the
+  * parser's throughput in bytes per second.
+  */
+@State(Scope.Benchmark)
+@BenchmarkMode(Array(Mode.Throughput))
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgs = Array("-Xmx4g"))
+class ParseBenchmark {
+
+  @Param(Array("flat", "nested"))
+  var shape: String = _
+
+  var file: Path = _
+
+  var inputBytes: Long = _
+
+  val parser = new DotParser()
+
+  @Setup
+  def setup(): Unit = {
+    val graph = shape match {
+      case "flat" => SyntheticGraphs.flat(1000000)
+      case "nested" => SyntheticGraphs.nested(25, 1000000)
+    }
+    file = Files.createTempFile("parse-benchmark", ".dot")
+    graph.writeTo(file)
+    inputBytes = Files.size(file)
+  }
+
+  @TearDown
+  def tearDown(): Unit = Files.delete(file)
+
+  @Benchmark
+  def parse(counters: ParseBenchmark.InputCounters): Graph = {
+    val graph = parser.parse(file)
+    counters.inputBytes += inputBytes
+    graph
+  }
+}
+
+object ParseBenchmark {
+
+  @State(Scope.Thread)
+  @AuxCounters(AuxCounters.Type.OPERATIONS)
+  class InputCounters {
+    var inputBytes: Long = _
+
+    @Setup(Level.Iteration)
+    def reset(): Unit = inputBytes = 0
+  }
+}
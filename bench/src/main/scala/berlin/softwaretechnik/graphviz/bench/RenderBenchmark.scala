@@ -0,0 +1,42 @@
+package berlin.softwaretechnik.graphviz.bench
+
+import java.io.Writer
+import java.util.concurrent.TimeUnit
+
+import berlin.softwaretechnik.graphviz.Graph
+import org.openjdk.jmh.annotations._
+
+/**
+  * Renders graphs of a single scope, either [[SyntheticGraphs.flat]] or
+  * [[SyntheticGraphs.edgeHeavy]]. See [[NestingBenchmark]] for nested clusters.
+  */
+@State(Scope.Benchmark)
+@BenchmarkMode(Array(Mode.AverageTime))
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgs = Array("-Xmx4g"))
+class RenderBenchmark {
+
+  @Param(Array("flat", "edgeHeavy"))
+  var shape: String = _
+
+  @Param(Array("1000", "100000", "1000000"))
+  var elements: Int = _
+
+  var graph: Graph = _
+
+  @Setup
+  def setup(): Unit = {
+    graph = shape match {
+      case "flat" => SyntheticGraphs.flat(elements)
+      case "edgeHeavy" => SyntheticGraphs.edgeHeavy(elements)
+    }
+  }
+
+  @Benchmark
+  def render(): String = graph.render
+
+  @Benchmark
+  def renderToWriter(): Unit = graph.renderTo(Writer.nullWriter())
+}
@@ -0,0 +1,61 @@
+package berlin.softwaretechnik.graphviz.bench
+
+import java.io.Writer
+import java.util.concurrent.TimeUnit
+
+import berlin.softwaretechnik.graphviz.{Graph, RenderCache, SubGraph}
+import org.openjdk.jmh.annotations._
+
+/**
+  * Re-rendering a clustered graph of which `changed` percent of the clusters are new
+  * instances on every render, as when a dashboard updates a few clusters at a time.
+  */
+@State(Scope.Benchmark)
+@BenchmarkMode(Array(Mode.AverageTime))
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+class RenderCacheBenchmark {
+
+  @Param(Array("5", "100"))
+  var changed: Int = _
+
+  var base: Graph = _
+
+  var graph: Graph = _
+
+  var cache: RenderCache = _
+
+  var identityCache: RenderCache = _
+
+  var structuralCache: RenderCache = _
+
+  var round = 0
+
+  @Setup(Level.Trial)
+  def setupTrial(): Unit = {
+    base = SyntheticGraphs.clustered(1000, 100)
+    identityCache = new RenderCache(maxChars = 64L * 1024 * 1024)
+    structuralCache = new RenderCache(maxChars = 64L * 1024 * 1024, structural = true)
+  }
+
+  @Setup(Level.Invocation)
+  def setupInvocation(): Unit = {
+    round += 1
+    // A different share of the clusters is replaced by fresh, but equal, copies each time.
+    graph = base.copy(elements = base.elements.zipWithIndex.map {
+      case (cluster: SubGraph, i) if (i + round) % 100 < changed => cluster.copy()
+      case (element, _) => element
+    })
+  }
+
+  @Benchmark
+  def uncached(): Unit = graph.renderTo(Writer.nullWriter())
+
+  @Benchmark
+  def identity(): Unit = identityCache.renderTo(graph, Writer.nullWriter())
+
+  @Benchmark
+  def structural(): Unit = structuralCache.renderTo(graph, Writer.nullWriter())
+}
@@ -0,0 +1,73 @@
+package berlin.softwaretechnik.graphviz.bench
+
+import java.lang.management.ManagementFactory
+import java.nio.charset.StandardCharsets
+import java.nio.file.{Files, Path}
+import java.util.concurrent.atomic.AtomicLong
+
+import berlin.softwaretechnik.graphviz.Graph
+import com.sun.management.GarbageCollectionNotificationInfo
+import javax.management.openmbean.CompositeData
+import javax.management.{Notification, NotificationEmitter, NotificationListener}
+
+import scala.jdk.CollectionConverters._
+
+/**
+  * Compares the live heap while writing a large graph to a file through `render` and through `renderTo`.
+  *
+  * The live heap is the largest heap occupancy seen after any garbage collection during the write, so it
+  * is best run with a small young generation, e.g. `-XX:+UseSerialGC -Xmn32m -Xmx4g`.
+  */
+object RenderFootprint {
+
+  def main(args: Array[String]): Unit = {
+    val sizes = if (args.nonEmpty) args.toSeq.map(_.toInt) else Seq(100000, 1000000)
+    val file = Files.createTempFile("graphviz-footprint", ".dot")
+    try {
+      sizes.foreach { elements =>
+        val graph = SyntheticGraphs.flat(elements)
+        val model = settledHeap()
+        val viaString = liveHeapDuring(Files.write(file, graph.render.getBytes(StandardCharsets.UTF_8)))
+        val streaming = liveHeapDuring(renderToFile(graph, file))
+        println(f"$elements%9d elements, ${mb(Files.size(file))} output: " +
+          f"model ${mb(model)}, render ${mb(viaString)}, renderTo ${mb(streaming)}")
+      }
+    } finally {
+      Files.delete(file)
+    }
+  }
+
+  private def renderToFile(graph: Graph, file: Path): Unit = {
+    val writer = Files.newBufferedWriter(file)
+    try graph.renderTo(writer) finally writer.close()
+  }
+
+  private def mb(bytes: Long): String = f"${bytes / 1024.0 / 1024.0}%.1f MB"
+
+  private def settledHeap(): Long = {
+    System.gc()
+    ManagementFactory.getMemoryMXBean.getHeapMemoryUsage.getUsed
+  }
+
+  private def liveHeapDuring(body: => Unit): Long = {
+    settledHeap()
+    val peak = new AtomicLong()
+    val listener: NotificationListener = (notification: Notification, _: AnyRef) => {
+      if (notification.getType == GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION) {
+        val info = GarbageCollectionNotificationInfo.from(notification.getUserData.asInstanceOf[CompositeData])
+        val used = info.getGcInfo.getMemoryUsageAfterGc.values().asScala.map(_.getUsed).sum
+        peak.accumulateAndGet(used, math.max)
+      }
+    }
+    val emitters = ManagementFactory.getGarbageCollectorMXBeans.asScala.collect { case e: NotificationEmitter => e }
+    emitters.foreach(_.addNotificationListener(listener, null, null))
+    try {
+      body
+      // Notifications are delivered asynchronously.
+      Thread.sleep(100)
+    } finally {
+      emitters.foreach(_.removeNotificationListener(listener))
+    }
+    peak.get
+  }
+}
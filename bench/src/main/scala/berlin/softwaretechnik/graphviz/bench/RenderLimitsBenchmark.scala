@@ -0,0 +1,43 @@
+package berlin.softwaretechnik.graphviz.bench
+
+import java.io.Writer
+import java.util.concurrent.TimeUnit
+
+import berlin.softwaretechnik.graphviz.{Graph, RenderLimits}
+import org.openjdk.jmh.annotations._
+
+/**
+  * Renders [[SyntheticGraphs.flat]] graphs without limits and with [[RenderLimits]] that
+  * are never reached, for the cost of checking them.
+  */
+@State(Scope.Benchmark)
+@BenchmarkMode(Array(Mode.AverageTime))
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgs = Array("-Xmx4g"))
+class RenderLimitsBenchmark {
+
+  @Param(Array("100000"))
+  var elements: Int = _
+
+  var graph: Graph = _
+
+  val limits: RenderLimits = RenderLimits(
+    maxOutputChars = Long.MaxValue - 1,
+    maxElements = Long.MaxValue - 1,
+    maxDepth = 1000,
+    maxLabelLength = 100000
+  )
+
+  @Setup
+  def setup(): Unit = {
+    graph = SyntheticGraphs.flat(elements)
+  }
+
+  @Benchmark
+  def unlimited(): Unit = graph.renderTo(Writer.nullWriter())
+
+  @Benchmark
+  def limited(): Unit = limits.renderTo(graph, Writer.nullWriter())
+}
@@ -0,0 +1,84 @@
+package berlin.softwaretechnik.graphviz.bench
+
+import java.nio.channels.FileChannel
+import java.nio.file.StandardOpenOption.{CREATE, TRUNCATE_EXISTING, WRITE}
+import java.nio.file.{Files, Path, Paths}
+
+import berlin.softwaretechnik.graphviz.attributes.Shape.box
+import berlin.softwaretechnik.graphviz.attributes.Style.dashed
+import berlin.softwaretechnik.graphviz.attributes._
+import berlin.softwaretechnik.graphviz.{DotParser, DotTransform, DotWriter}
+
+/**
+  * Streams a synthetic DOT file of several gigabytes through a parse, transform and write
+  * pipeline and reports the heap it needed, which should not depend on the size of the file.
+  *
+  * The input is written with a [[DotWriter]] as well, so it never exists as a `Graph`.
+  * Run with a small heap, e.g. `-Xmx64m`, to see that it fits:
+  * {{{
+  * StreamingTransformReport [gigabytes] [file]
+  * }}}
+  */
+object StreamingTransformReport {
+
+  def main(args: Array[String]): Unit = {
+    val gigabytes = if (args.nonEmpty) args(0).toDouble else 5.0
+    val file = if (args.length > 1) Paths.get(args(1)) else Files.createTempFile("streaming", ".dot")
+    try {
+      var start = System.nanoTime()
+      write(file, (gigabytes * (1L << 30)).toLong)
+      val inputBytes = Files.size(file)
+      println(f"wrote ${inputBytes / 1e9}%.2f GB of DOT in ${(System.nanoTime() - start) / 1e9}%.1f s")
+
+      val heap = new HeapSampler
+      val transform = DotTransform.filterEdges((_, _, attributes) => attributes.style != dashed)
+        .andThen(DotTransform.mapNodes((_, attributes) => attributes.copy(color = Color("#1F77B4"))))
+        .andThen(DotTransform.renameNodes(id => "v" + id))
+      val out = new CountingChannel
+      start = System.nanoTime()
+      new DotParser().parse(file, transform.to(DotWriter(out)))
+      val seconds = (System.nanoTime() - start) / 1e9
+      heap.stop()
+
+      println(f"streamed in $seconds%.1f s, ${inputBytes / seconds / 1e6}%.1f MB/s, wrote ${out.bytes / 1e9}%.2f GB")
+      println(f"max heap:                ${Runtime.getRuntime.maxMemory / 1048576.0}%.0f MB")
+      println(f"max heap used:           ${heap.maxUsed / 1048576.0}%.1f MB")
+      println(f"max heap used after GC:  ${heap.maxUsedAfterGc / 1048576.0}%.1f MB")
+    } finally {
+      if (args.length <= 1) Files.delete(file)
+    }
+  }
+
+  /** Writes clusters of nodes and edges like [[SyntheticGraphs.flat]] until `bytes` are written. */
+  private def write(file: Path, bytes: Long): Unit = {
+    val channel = FileChannel.open(file, CREATE, TRUNCATE_EXISTING, WRITE)
+    try {
+      val writer = DotWriter(channel)
+      writer.onGraphStart(Some("G"))
+      writer.onGraphAttributes(GraphAttributes(fontname = "Helvetica"))
+      writer.onNodeDefaults(NodeAttributes(fontname = "Helvetica"))
+      var cluster = 0
+      var i = 0L
+      do {
+        writer.onSubgraphStart(Some(s"cluster_$cluster"))
+        writer.onSubgraphAttributes(SubgraphAttributes(label = Plain(s"Cluster $cluster")))
+        (0 until 10000).foreach { _ =>
+          if (i % 2 == 0) {
+            if (i % 10 == 0) writer.onNode(s"n$i", NodeAttributes(shape = box, label = Plain(s"Node $i")))
+            else writer.onNode(s"n$i", NodeAttributes())
+          } else {
+            if (i % 10 == 1) writer.onEdge(s"n${i - 1}", s"n${i / 2}", EdgeAttributes(style = dashed))
+            else writer.onEdge(s"n${i - 1}", s"n${i / 2}", EdgeAttributes())
+          }
+          i += 1
+        }
+        writer.onSubgraphEnd()
+        cluster += 1
+        writer.flush()
+      } while (channel.position() < bytes)
+      writer.onGraphEnd()
+    } finally {
+      channel.close()
+    }
+  }
+}
@@ -0,0 +1,62 @@
+package berlin.softwaretechnik.graphviz.bench
+
+import berlin.softwaretechnik.graphviz.attributes.Shape.box
+import berlin.softwaretechnik.graphviz.attributes.Style.dashed
+import berlin.softwaretechnik.graphviz.attributes._
+import berlin.softwaretechnik.graphviz.{Edge, Graph, GraphElement, Node, SubGraph}
+
+/** Deterministic graphs of a given size used by the benchmarks. */
+object SyntheticGraphs {
+
+  /** `elements` nodes and edges in a single scope, every tenth one styled. */
+  def flat(elements: Int): Graph = Graph(
+    attributes = GraphAttributes(fontname = "Helvetica", fontsize = 16),
+    nodeDefaults = NodeAttributes(fontname = "Helvetica"),
+    elements = (0 until elements).map(flatElement)
+  )
+
+  private def flatElement(i: Int): GraphElement =
+    if (i % 2 == 0) {
+      if (i % 10 == 0) Node(s"n$i", NodeAttributes(shape = box, label = Plain(s"Node $i"), color = Color("#FF0000")))
+      else Node(s"n$i")
+    } else {
+      if (i % 10 == 1) Edge(s"n${i - 1}", s"n${i / 2}", EdgeAttributes(style = dashed, label = Plain(s"Edge $i")))
+      else Edge(s"n${i - 1}", s"n${i / 2}")
+    }
+
+  /** `elements / 10` nodes followed by edges between them, every tenth edge styled. */
+  def edgeHeavy(elements: Int): Graph = {
+    val nodes = math.max(1, elements / 10)
+    Graph(elements = (0 until elements).map[GraphElement] { i =>
+      if (i < nodes) Node(s"n$i")
+      else if (i % 10 == 0) Edge(s"n${i % nodes}", s"n${(i * 7919) % nodes}", EdgeAttributes(style = dashed, label = Plain(s"Edge $i")))
+      else Edge(s"n${i % nodes}", s"n${(i * 7919) % nodes}")
+    })
+  }
+
+  /** `elements` nodes and edges spread evenly over clusters nested `depth` levels deep. */
+  def nested(depth: Int, elements: Int): Graph = {
+    val perLevel = elements / (depth + 1)
+    def level(d: Int): Seq[GraphElement] = {
+      val own = (d * perLevel until (d + 1) * perLevel).map(flatElement)
+      if (d == depth) own
+      else own :+ SubGraph(
+        id = Some(s"cluster_$d"),
+        attributes = SubgraphAttributes(label = Plain(s"Level $d")),
+        elements = level(d + 1)
+      )
+    }
+    Graph(elements = level(0))
+  }
+
+  /** `clusters` clusters of `elements` nodes and edges each, side by side. */
+  def clustered(clusters: Int, elements: Int): Graph = Graph(
+    elements = (0 until clusters).map { c =>
+      SubGraph(
+        id = Some(s"cluster_$c"),
+        attributes = SubgraphAttributes(label = Plain(s"Cluster $c")),
+        elements = (0 until elements).map(i => flatElement(c * elements + i))
+      )
+    }
+  )
+}
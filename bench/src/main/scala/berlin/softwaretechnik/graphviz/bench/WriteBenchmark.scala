@@ -0,0 +1,46 @@
+package berlin.softwaretechnik.graphviz.bench
+
+import java.nio.charset.StandardCharsets
+import java.nio.file.{Files, Path}
+import java.util.concurrent.TimeUnit
+
+import berlin.softwaretechnik.graphviz.Graph
+import org.openjdk.jmh.annotations._
+
+/** Writing a rendered graph to a file. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Array(Mode.AverageTime))
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgs = Array("-Xmx4g"))
+class WriteBenchmark {
+
+  @Param(Array("1000000"))
+  var elements: Int = _
+
+  var graph: Graph = _
+
+  var file: Path = _
+
+  @Setup
+  def setup(): Unit = {
+    graph = SyntheticGraphs.flat(elements)
+    file = Files.createTempFile("graphviz-write", ".dot")
+  }
+
+  @TearDown
+  def tearDown(): Unit = Files.delete(file)
+
+  @Benchmark
+  def renderAndGetBytes(): Unit = Files.write(file, graph.render.getBytes(StandardCharsets.UTF_8))
+
+  @Benchmark
+  def renderToBufferedWriter(): Unit = {
+    val writer = Files.newBufferedWriter(file)
+    try graph.renderTo(writer) finally writer.close()
+  }
+
+  @Benchmark
+  def writeToPath(): Unit = graph.writeTo(file)
+}
@@ -1,5 +1,7 @@
+import $ivy.`com.lihaoyi::mill-contrib-jmh:$MILL_VERSION`
 import mill._
 import mill.api.Loose
+import mill.contrib.jmh.JmhModule
 import mill.define.{Sources, Target}
 import mill.scalalib._
 import mill.scalalib.publish._
@@ -28,7 +30,6 @@ object core extends SbtModule with PublishModule with ScalafmtModule {
     Agg(
       ivy"org.scala-lang.modules::scala-xml:1.3.0",
       ivy"com.lihaoyi::os-lib:0.7.1",
-      ivy"org.apache.commons:commons-text:1.9",
     )
 
   override def scalacOptions: Target[Seq[String]] =
@@ -50,3 +51,19 @@ object core extends SbtModule with PublishModule with ScalafmtModule {
   }
 
 }
+
+object bench extends SbtModule with JmhModule {
+  def scalaVersion = core.scalaVersion
+
+  def jmhCoreVersion = "1.26"
+
+  override def moduleDeps = Seq(core)
+
+  override def ivyDeps: Target[Loose.Agg[Dep]] =
+    Agg(
+      ivy"org.openjdk.jol:jol-core:0.14",
+      ivy"org.apache.commons:commons-text:1.9",
+    )
+
+  override def scalacOptions: Target[Seq[String]] = core.scalacOptions
+}
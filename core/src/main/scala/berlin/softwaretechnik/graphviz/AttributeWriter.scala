@@ -0,0 +1,191 @@
+package berlin.softwaretechnik.graphviz
+
+import berlin.softwaretechnik.graphviz.attributes.html.{Html, HtmlLikeLabel}
+import berlin.softwaretechnik.graphviz.attributes.{AttributeVisitor, Attributes, Color, EscString, Plain}
+
+/**
+  * Writes attributes visited through [[Attributes.foreachSet]] to a [[RenderContext]].
+  *
+  * One instance is reused for a whole render pass, so rendering attributes does not
+  * allocate beyond the values' own string representations.
+  */
+private[graphviz] final class AttributeWriter(out: RenderContext) extends AttributeVisitor {
+  import AttributeWriter._
+
+  private val cache = out.cache
+  private val limits = out.limits
+  private val scratch = new java.lang.StringBuilder
+  // End offsets in `scratch` of the attributes buffered for a single line list.
+  private var ends = new Array[Int](8)
+  private var count = 0
+  private var statements = false
+  private var multiLine = false
+
+  def writeWithBrackets(attributes: Attributes): Unit = {
+    if (attributes.isEmpty) {
+      return
+    }
+    scratch.setLength(0)
+    count = 0
+    statements = false
+    multiLine = false
+    attributes.foreachSet(this)
+    if (multiLine) {
+      closeMultiLine(out)
+    } else {
+      out.append(" [").append(scratch).append(']')
+    }
+  }
+
+  def writeStatements(attributes: Attributes): Unit = {
+    count = 0
+    statements = true
+    attributes.foreachSet(this)
+  }
+
+  override def visit(name: String, attributeValue: Any): Unit = {
+    val value = if (limits == null) attributeValue else limitLabel(attributeValue)
+    if (statements) {
+      scratch.setLength(0)
+      if (count > 0) scratch.append('\n')
+      appendAttribute(scratch, name, value, cache)
+      out.append(scratch)
+      count += 1
+    } else if (multiLine) {
+      scratch.setLength(0)
+      scratch.append('\n')
+      appendAttribute(scratch, name, value, cache)
+      out.append(scratch)
+    } else {
+      if (count > 0) scratch.append(' ')
+      appendAttribute(scratch, name, value, cache)
+      if (count == ends.length) ends = java.util.Arrays.copyOf(ends, count * 2)
+      ends(count) = scratch.length
+      count += 1
+      // Short attribute lists go on a single line; the separating spaces don't count.
+      if (scratch.length - (count - 1) >= 60) {
+        startMultiLine()
+      }
+    }
+  }
+
+  /** `value`, or if it is a label longer than allowed, its truncation. */
+  private def limitLabel(value: Any): Any = value match {
+    case plain: Plain =>
+      if (plain.value.length <= limits.maxLabelLength) plain
+      else if (limits.truncate) Plain(plain.value.substring(0, truncatedEnd(plain.value)) + Ellipsis)
+      else throw labelTooLong()
+    case escString: EscString =>
+      if (escString.value.length <= limits.maxLabelLength) escString
+      else if (limits.truncate) {
+        val s = escString.value
+        var end = truncatedEnd(s)
+        // Don't leave the backslash of an escape sequence without its character.
+        var backslashes = 0
+        while (backslashes < end && s.charAt(end - 1 - backslashes) == '\\') backslashes += 1
+        if (backslashes % 2 == 1) end -= 1
+        EscString(s.substring(0, end) + Ellipsis)
+      } else throw labelTooLong()
+    case html: HtmlLikeLabel =>
+      val markup = if (cache != null) cache.getOrRender(html, null)(html.toString) else html.toString
+      if (markup.length <= limits.maxLabelLength) Html(markup)
+      else if (limits.truncate) Plain(Ellipsis)
+      else throw labelTooLong()
+    case _ => value
+  }
+
+  /** Where to cut `s` to add the ellipsis, without splitting a surrogate pair. */
+  private def truncatedEnd(s: String): Int = {
+    var end = math.max(0, limits.maxLabelLength - 1)
+    if (end > 0 && Character.isHighSurrogate(s.charAt(end - 1))) end -= 1
+    end
+  }
+
+  private def labelTooLong(): RenderLimitExceededException =
+    new RenderLimitExceededException(s"The graph has a label longer than ${limits.maxLabelLength} characters", "maxLabelLength")
+
+  private def startMultiLine(): Unit = {
+    multiLine = true
+    openMultiLine(out)
+    var start = 0
+    var i = 0
+    while (i < count) {
+      if (i > 0) out.append('\n')
+      out.append(scratch, start, ends(i))
+      start = ends(i) + 1
+      i += 1
+    }
+  }
+}
+
+private[graphviz] object AttributeWriter {
+
+  /** What truncated labels end in. */
+  val Ellipsis = "…"
+
+  /**
+    * `attributes` as [[writeWithBrackets]] writes them, as text to be stored and written
+    * later with [[appendRendered]], at any depth, and whether they go on lines of their own.
+    * The text is the bracketed list, or the lines without the brackets. Labels are neither
+    * taken from a cache nor limited.
+    */
+  def render(attributes: Attributes): (String, Boolean) = {
+    val rendered = new java.lang.StringBuilder
+    // Without indentation, as the lines are indented where they are written.
+    val context = new RenderContext(rendered, indentation = "")
+    context.appendWithBrackets(attributes)
+    context.flush()
+    val multiLine = context.attributeWriter.multiLine
+    if (multiLine) (rendered.substring(" [\n".length, rendered.length - "\n]".length), true)
+    else (rendered.toString, false)
+  }
+
+  /** Writes the characters from `start` until `end` of attributes as [[render]] returned them. */
+  def appendRendered(out: RenderContext, text: CharSequence, start: Int, end: Int, multiLine: Boolean): Unit =
+    if (multiLine) {
+      openMultiLine(out)
+      out.append(text, start, end)
+      closeMultiLine(out)
+    } else {
+      out.append(text, start, end)
+    }
+
+  private def openMultiLine(out: RenderContext): Unit = {
+    out.append(" [\n")
+    out.indent()
+  }
+
+  private def closeMultiLine(out: RenderContext): Unit = {
+    out.dedent()
+    out.append("\n]")
+  }
+
+  def appendAttribute(out: java.lang.StringBuilder, key: String, value: Any, cache: RenderCache = null): Unit = {
+    out.append(key).append(" = ")
+    appendValue(out, value, cache)
+    out.append(';')
+  }
+
+  def appendValue(out: java.lang.StringBuilder, v: Any, cache: RenderCache = null): Unit = {
+    v match {
+      case s: String => appendQuoted(out, s)
+      case p: Plain => appendQuoted(out, p.value)
+      case e: EscString => out.append('"').append(e.value).append('"')
+      case h: HtmlLikeLabel =>
+        out.append('<')
+        if (cache != null) out.append(cache.getOrRender(h, null)(h.toString)) else h.appendTo(out)
+        out.append('>')
+      case c: Color => out.append('"').append(c.rep).append('"')
+      case d: java.lang.Double => out.append(d.doubleValue)
+      case i: java.lang.Integer => out.append(i.intValue)
+      case b: java.lang.Boolean => out.append(b.booleanValue)
+      case a: Any => out.append(a.toString)
+    }
+  }
+
+  private def appendQuoted(out: java.lang.StringBuilder, s: String): Unit = {
+    out.append('"')
+    DotStrings.appendEscaped(out, s)
+    out.append('"')
+  }
+}
@@ -0,0 +1,71 @@
+package berlin.softwaretechnik.graphviz
+
+import java.nio.file.{Files, Path}
+
+import scala.concurrent.duration.FiniteDuration
+import scala.jdk.CollectionConverters._
+
+/**
+  * Lays out many graphs with few processes: up to `batchSize` graphs are written to files of
+  * their own and laid out by a single run of the program, see [[Layout]], which writes the
+  * output for every file next to it, as with `-O`. So outputs are kept apart by the files
+  * they are in rather than by what they contain, and any format can be used.
+  *
+  * The files are written to a temporary directory, which is deleted once the outputs are
+  * read. If the program fails for one of the graphs, the whole batch fails.
+  *
+  * @param timeout for each process, i.e. for a batch of graphs.
+  */
+class BatchLayout(
+  engine: String = "dot",
+  format: String = "svg",
+  arguments: Seq[String] = Nil,
+  batchSize: Int = 100,
+  timeout: FiniteDuration = Layout.DefaultTimeout
+) {
+  require(batchSize > 0, "The batch size must be positive.")
+
+  /** The outputs for `graphs`, in the same order. */
+  def layout(graphs: Seq[Graph]): Seq[Array[Byte]] =
+    graphs.grouped(batchSize).flatMap(layoutBatch).toVector
+
+  private def layoutBatch(graphs: Seq[Graph]): Seq[Array[Byte]] = {
+    val directory = Files.createTempDirectory("graphviz-batch")
+    try {
+      val inputs = graphs.indices.map(i => directory.resolve(s"g$i.gv"))
+      graphs.lazyZip(inputs).foreach((graph, input) => graph.writeTo(input))
+      new Layout(Seq(engine, s"-T$format", "-O") ++ arguments ++ inputs.map(_.toString), timeout, _ => ()).bytes()
+      val outputs = BatchLayout.outputs(directory, inputs)
+      val missing = outputs.count(_.isEmpty)
+      if (missing > 0) {
+        throw new LayoutException(s"$engine wrote ${graphs.length - missing} outputs for ${graphs.length} graphs", null)
+      }
+      outputs.map(output => Files.readAllBytes(output.get))
+    } finally {
+      BatchLayout.files(directory).foreach(Files.delete)
+      Files.delete(directory)
+    }
+  }
+}
+
+private[graphviz] object BatchLayout {
+
+  /**
+    * The output for each of `inputs`, named like the input followed by the format, e.g.
+    * `g0.gv.svg`, if there is exactly one.
+    */
+  def outputs(directory: Path, inputs: Seq[Path]): Seq[Option[Path]] = {
+    val byInput = files(directory).groupBy { file =>
+      val name = file.getFileName.toString
+      val end = name.indexOf(".gv.")
+      if (end < 0) null else name.substring(0, end + 3)
+    }
+    inputs.map(input => byInput.get(input.getFileName.toString).collect { case Seq(output) => output })
+  }
+
+  def files(directory: Path): Seq[Path] = {
+    val files = Files.list(directory)
+    try files.iterator().asScala.toVector
+    finally files.close()
+  }
+}
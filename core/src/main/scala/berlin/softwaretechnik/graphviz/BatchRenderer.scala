@@ -0,0 +1,304 @@
+package berlin.softwaretechnik.graphviz
+
+import java.nio.ByteBuffer
+import java.nio.channels.WritableByteChannel
+import java.util.concurrent.locks.ReentrantLock
+import java.util.concurrent.{ConcurrentLinkedQueue, Executor, ExecutorService, Executors, LinkedBlockingQueue, ThreadFactory}
+
+import scala.collection.mutable.ArrayBuffer
+import scala.util.control.NonFatal
+
+/**
+  * Renders many independent graphs concurrently, each on a thread of its own, and hands
+  * the UTF-8 encoded results to a callback on the calling thread, in order or as they
+  * complete.
+  *
+  * Renders write into pooled segments of `segmentSize` bytes, which return to the pool once
+  * the result has been delivered. The segments in use by all renders of this renderer are
+  * limited to `maxBufferedBytes`; a render that needs more waits for results to be
+  * delivered. Only the oldest graph still being rendered may exceed the limit, so that a
+  * graph larger than the limit, or one that later graphs are waiting for to be delivered in
+  * order, can always finish. At most `maxInFlight` graphs are taken from the input and not
+  * yet delivered at any time.
+  *
+  * By default renders run on virtual threads where the JVM has them, see
+  * [[BatchRenderer.DefaultExecutor]]. Another `executor` must likewise start every task it
+  * is given without waiting for earlier ones to finish, since renders may wait for each
+  * other; a fixed-size pool can deadlock.
+  */
+class BatchRenderer(
+  maxBufferedBytes: Long = 64L * 1024 * 1024,
+  maxInFlight: Int = 1024,
+  segmentSize: Int = 16 * 1024,
+  executor: Executor = BatchRenderer.DefaultExecutor
+) {
+  import BatchRenderer._
+
+  require(segmentSize >= 4, "segmentSize must be at least 4 bytes.")
+  require(maxBufferedBytes >= segmentSize, "maxBufferedBytes must hold at least one segment.")
+  require(maxInFlight > 0, "maxInFlight must be positive.")
+
+  private val budget = new ByteBudget(maxBufferedBytes)
+  private val pool = new ConcurrentLinkedQueue[ByteBuffer]()
+
+  /** The bytes currently held by renders and undelivered results. */
+  def bufferedBytes: Long = budget.used
+
+  /**
+    * Renders `graphs` and calls `deliver` for every result, in the order of `graphs` if
+    * `inOrder` is set, otherwise as soon as it is complete. The result is only valid during
+    * the call. Returns once every graph has been delivered.
+    *
+    * If a graph fails to render, or `deliver` fails, no further graphs are taken from
+    * `graphs` or delivered, and the failure is thrown once the renders in flight are done.
+    */
+  def render(graphs: IterableOnce[Graph], inOrder: Boolean = true)(deliver: RenderedGraph => Unit): Unit = {
+    val iterator = graphs.iterator
+    val completed = new LinkedBlockingQueue[Task]()
+    // Tasks in the order they were submitted, up to the oldest one not finished (or, if
+    // `inOrder`, not delivered).
+    val submitted = new java.util.ArrayDeque[Task]()
+    var inFlight = 0
+    var index = 0L
+    var failure: Throwable = null
+
+    def hasNext: Boolean =
+      failure == null && (try iterator.hasNext catch {
+        case NonFatal(e) =>
+          failure = e
+          false
+      })
+
+    def complete(task: Task): Unit = {
+      task.finished = true
+      if (!inOrder) deliverOrFail(task)
+      while (!submitted.isEmpty && submitted.peek().finished) {
+        val head = submitted.poll()
+        if (inOrder) deliverOrFail(head)
+      }
+      if (!submitted.isEmpty) budget.exempt(submitted.peek())
+    }
+
+    def deliverOrFail(task: Task): Unit = {
+      try {
+        if (failure == null) {
+          if (task.failure != null) failure = task.failure
+          else deliver(new RenderedGraph(task.index, task.graph, task.segments))
+        }
+      } catch {
+        case NonFatal(e) => failure = e
+      } finally {
+        release(task)
+        inFlight -= 1
+      }
+    }
+
+    var returned = false
+    try {
+      while (inFlight > 0 || hasNext) {
+        val canSubmit = inFlight < maxInFlight && hasNext
+        val done = if (canSubmit) completed.poll() else completed.take()
+        if (done != null) {
+          complete(done)
+        } else {
+          val task = new Task(iterator.next(), index, completed)
+          index += 1
+          inFlight += 1
+          submitted.add(task)
+          if (submitted.size == 1) budget.exempt(task)
+          executor.execute(task)
+        }
+      }
+      returned = true
+    } finally {
+      if (!returned) abandon(submitted, completed)
+    }
+    if (failure != null) throw failure
+  }
+
+  /**
+    * Lets the renders of a run that was left by an exception, e.g. an interrupt, finish
+    * and release their segments on their own. Those that finished already are released
+    * here, whether they are still in `completed` or were taken from it and wait in
+    * `submitted` to be delivered in order.
+    */
+  private def abandon(submitted: java.util.ArrayDeque[Task], completed: LinkedBlockingQueue[Task]): Unit = {
+    submitted.forEach(budget.exempt(_))
+    submitted.forEach(_.abandoned = true)
+    submitted.forEach(task => if (task.finished) release(task))
+    releaseAbandoned(completed)
+  }
+
+  private def releaseAbandoned(completed: LinkedBlockingQueue[Task]): Unit = {
+    var task = completed.poll()
+    while (task != null) {
+      release(task)
+      task = completed.poll()
+    }
+  }
+
+  private def release(task: Task): Unit = {
+    task.segments.foreach(releaseSegment)
+    task.segments.clear()
+  }
+
+  private def acquireSegment(task: Task): ByteBuffer = {
+    budget.acquire(segmentSize, task)
+    val segment = pool.poll()
+    if (segment != null) segment else ByteBuffer.allocateDirect(segmentSize)
+  }
+
+  private def releaseSegment(segment: ByteBuffer): Unit = {
+    segment.clear()
+    pool.add(segment)
+    budget.release(segmentSize)
+  }
+
+  private final class Task(val graph: Graph, val index: Long, completed: LinkedBlockingQueue[Task])
+    extends Exemptible with Runnable with WritableByteChannel {
+    val segments: ArrayBuffer[ByteBuffer] = ArrayBuffer()
+    @volatile var failure: Throwable = _
+    @volatile var abandoned = false
+    // Only used by the thread that calls `render`.
+    var finished = false
+
+    override def run(): Unit = {
+      try {
+        val encoder = acquireSegment(this)
+        try {
+          val writer = new Utf8ChannelWriter(this, encoder)
+          graph.renderTo(writer)
+          writer.finish()
+        } finally {
+          releaseSegment(encoder)
+        }
+        segments.foreach(_.flip())
+      } catch {
+        case e: Throwable => failure = e
+      }
+      completed.add(this)
+      if (abandoned) releaseAbandoned(completed)
+    }
+
+    override def write(src: ByteBuffer): Int = {
+      val length = src.remaining()
+      while (src.hasRemaining) {
+        if (segments.isEmpty || !segments.last.hasRemaining) segments += acquireSegment(this)
+        val segment = segments.last
+        val n = math.min(src.remaining(), segment.remaining())
+        segment.put(segment.position(), src, src.position(), n)
+        segment.position(segment.position() + n)
+        src.position(src.position() + n)
+      }
+      length
+    }
+
+    override def isOpen: Boolean = true
+
+    override def close(): Unit = ()
+  }
+}
+
+object BatchRenderer {
+
+  /**
+    * Runs every task on a new virtual thread on JVMs that have them (Java 21 and later),
+    * otherwise on a shared pool of platform threads that grows as needed and lets idle
+    * threads go after a minute.
+    */
+  lazy val DefaultExecutor: Executor = virtualThreadExecutor.getOrElse(Executors.newCachedThreadPool(daemonThreads))
+
+  /** Whether [[DefaultExecutor]] uses virtual threads. */
+  def usesVirtualThreads: Boolean = virtualThreadExecutor.isDefined
+
+  // Looked up reflectively, so that this compiles and runs on Java 17.
+  private lazy val virtualThreadExecutor: Option[ExecutorService] =
+    try {
+      val method = classOf[Executors].getMethod("newVirtualThreadPerTaskExecutor")
+      Some(method.invoke(null).asInstanceOf[ExecutorService])
+    } catch {
+      case _: ReflectiveOperationException | _: UnsupportedOperationException => None
+    }
+
+  private trait Exemptible {
+    @volatile var exempt = false
+  }
+
+  private val daemonThreads: ThreadFactory = { runnable =>
+    val thread = new Thread(runnable, "graphviz-batch-render")
+    thread.setDaemon(true)
+    thread
+  }
+
+  /**
+    * Limits the bytes held by renders. It is a semaphore whose permits are bytes, except
+    * that the task marked as exempt never waits. A `ReentrantLock` rather than a monitor,
+    * so that waiting does not pin virtual threads to their carrier.
+    */
+  private final class ByteBudget(limit: Long) {
+    private val lock = new ReentrantLock
+    private val changed = lock.newCondition()
+    @volatile private var usedBytes = 0L
+
+    def used: Long = usedBytes
+
+    def acquire(bytes: Long, task: Exemptible): Unit = {
+      lock.lock()
+      try {
+        while (usedBytes + bytes > limit && !task.exempt) changed.await()
+        usedBytes += bytes
+      } finally {
+        lock.unlock()
+      }
+    }
+
+    def release(bytes: Long): Unit = {
+      lock.lock()
+      try {
+        usedBytes -= bytes
+        changed.signalAll()
+      } finally {
+        lock.unlock()
+      }
+    }
+
+    def exempt(task: Exemptible): Unit =
+      if (!task.exempt) {
+        lock.lock()
+        try {
+          task.exempt = true
+          changed.signalAll()
+        } finally {
+          lock.unlock()
+        }
+      }
+  }
+}
+
+/**
+  * The UTF-8 encoded DOT of `graph`, the `index`th graph of its batch. It is only valid
+  * until the callback it was passed to returns, after which its buffers are reused.
+  */
+final class RenderedGraph private[graphviz] (val index: Long, val graph: Graph, segments: ArrayBuffer[ByteBuffer]) {
+
+  def size: Long = segments.foldLeft(0L)(_ + _.remaining())
+
+  /** Writes the bytes to `channel`, leaving it open. */
+  def writeTo(channel: WritableByteChannel): Unit =
+    segments.foreach { segment =>
+      val bytes = segment.duplicate()
+      while (bytes.hasRemaining) channel.write(bytes)
+    }
+
+  def toByteArray: Array[Byte] = {
+    val bytes = new Array[Byte](Math.toIntExact(size))
+    var offset = 0
+    segments.foreach { segment =>
+      segment.get(segment.position(), bytes, offset, segment.remaining())
+      offset += segment.remaining()
+    }
+    bytes
+  }
+
+  override def toString: String = s"RenderedGraph($index, $size bytes)"
+}
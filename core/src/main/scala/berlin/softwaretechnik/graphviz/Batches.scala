@@ -0,0 +1,166 @@
+package berlin.softwaretechnik.graphviz
+
+import berlin.softwaretechnik.graphviz.attributes._
+
+import scala.collection.mutable.ArrayBuffer
+
+/**
+  * Many nodes that share their attributes, kept in arrays instead of a [[Node]] each.
+  *
+  * Row `i` renders like `Node(ids(i), attributes)`, with `labels(i)` as its label if
+  * `labels` is given and the entry is not null. The arrays are not copied, so they must
+  * not be changed afterwards.
+  */
+final class NodeBatch(
+  private val ids: Array[String],
+  private val labels: Array[String] = null,
+  val attributes: NodeAttributes = NodeAttributes()
+) extends GraphElement {
+  require(labels == null || labels.length == ids.length, "There must be as many labels as ids.")
+
+  def size: Int = ids.length
+
+  def id(row: Int): String = ids(row)
+
+  /** The label of `row`, or null if it has none of its own. */
+  def label(row: Int): String = if (labels == null) null else labels(row)
+
+  /** The rows as [[Node]] instances. */
+  def iterator: Iterator[Node] = ids.indices.iterator.map { row =>
+    Node(ids(row), if (label(row) == null) attributes else attributes.updated("label", Plain(label(row))))
+  }
+
+  override def renderTo(out: RenderContext): Unit = renderRowsTo(out, 0, size)
+
+  /** Renders the rows from `from` until `until`, as part of rendering all of them. */
+  private[graphviz] def renderRowsTo(out: RenderContext, from: Int, until: Int): Unit = {
+    val row = new RowAttributes(attributes, NodeAttributes.indexOf)
+    var i = from
+    while (i < until && out.admit(null, i == 0) == RenderContext.Render) {
+      if (i > 0) out.append('\n')
+      row.label = label(i)
+      out.append(ids(i)).appendWithBrackets(row).append(';')
+      i += 1
+    }
+  }
+
+  override def equals(other: Any): Boolean = other match {
+    case that: NodeBatch =>
+      java.util.Arrays.equals(ids.asInstanceOf[Array[AnyRef]], that.ids.asInstanceOf[Array[AnyRef]]) &&
+        java.util.Arrays.equals(labels.asInstanceOf[Array[AnyRef]], that.labels.asInstanceOf[Array[AnyRef]]) &&
+        attributes == that.attributes
+    case _ => false
+  }
+
+  override def hashCode: Int =
+    java.util.Arrays.hashCode(ids.asInstanceOf[Array[AnyRef]]) * 31 + attributes.hashCode
+
+  override def toString: String = s"NodeBatch($size nodes, $attributes)"
+}
+
+/**
+  * Many edges that share their attributes, kept in arrays instead of an [[Edge]] each.
+  *
+  * Row `i` renders like `Edge(sources(i), targets(i), attributes)`, with `labels(i)` as
+  * its label if `labels` is given and the entry is not null. The arrays are not copied,
+  * so they must not be changed afterwards.
+  */
+final class EdgeBatch(
+  private val sources: Array[String],
+  private val targets: Array[String],
+  private val labels: Array[String] = null,
+  val attributes: EdgeAttributes = EdgeAttributes()
+) extends GraphElement {
+  require(targets.length == sources.length, "There must be as many targets as sources.")
+  require(labels == null || labels.length == sources.length, "There must be as many labels as sources.")
+
+  def size: Int = sources.length
+
+  def source(row: Int): String = sources(row)
+
+  def target(row: Int): String = targets(row)
+
+  /** The label of `row`, or null if it has none of its own. */
+  def label(row: Int): String = if (labels == null) null else labels(row)
+
+  /** The rows as [[Edge]] instances. */
+  def iterator: Iterator[Edge] = sources.indices.iterator.map { row =>
+    Edge(sources(row), targets(row), if (label(row) == null) attributes else attributes.updated("label", Plain(label(row))))
+  }
+
+  override def renderTo(out: RenderContext): Unit = renderRowsTo(out, 0, size)
+
+  /** Renders the rows from `from` until `until`, as part of rendering all of them. */
+  private[graphviz] def renderRowsTo(out: RenderContext, from: Int, until: Int): Unit = {
+    val row = new RowAttributes(attributes, EdgeAttributes.indexOf)
+    var i = from
+    while (i < until && out.admit(null, i == 0) == RenderContext.Render) {
+      if (i > 0) out.append('\n')
+      row.label = label(i)
+      out.append(sources(i)).append(" -> ").append(targets(i)).appendWithBrackets(row).append(';')
+      i += 1
+    }
+  }
+
+  override def equals(other: Any): Boolean = other match {
+    case that: EdgeBatch =>
+      java.util.Arrays.equals(sources.asInstanceOf[Array[AnyRef]], that.sources.asInstanceOf[Array[AnyRef]]) &&
+        java.util.Arrays.equals(targets.asInstanceOf[Array[AnyRef]], that.targets.asInstanceOf[Array[AnyRef]]) &&
+        java.util.Arrays.equals(labels.asInstanceOf[Array[AnyRef]], that.labels.asInstanceOf[Array[AnyRef]]) &&
+        attributes == that.attributes
+    case _ => false
+  }
+
+  override def hashCode: Int =
+    (java.util.Arrays.hashCode(sources.asInstanceOf[Array[AnyRef]]) * 31 +
+      java.util.Arrays.hashCode(targets.asInstanceOf[Array[AnyRef]])) * 31 + attributes.hashCode
+
+  override def toString: String = s"EdgeBatch($size edges, $attributes)"
+}
+
+/**
+  * The attributes of the rows of a batch: `shared`, with the label replaced by the one of
+  * the current row if it has one. One instance is reused for all rows, so rendering a row
+  * does not allocate.
+  */
+private final class RowAttributes(shared: Attributes, indexOf: String => Int) extends Attributes {
+  private val labelIndex = indexOf("label")
+  private val sharedNames = ArrayBuffer[String]()
+  private val sharedValues = ArrayBuffer[Any]()
+  // The number of shared attributes that come before the label.
+  private var beforeLabel = 0
+  private var sharedLabel: Any = _
+  shared.foreachSet { (name, value) =>
+    if (name == "label") {
+      sharedLabel = value
+    } else {
+      if (indexOf(name) < labelIndex) beforeLabel += 1
+      sharedNames += name
+      sharedValues += value
+    }
+  }
+
+  var label: String = _
+
+  override def foreachSet(visitor: AttributeVisitor): Unit = {
+    var i = 0
+    while (i < sharedNames.length) {
+      if (i == beforeLabel) visitLabel(visitor)
+      visitor.visit(sharedNames(i), sharedValues(i))
+      i += 1
+    }
+    if (sharedNames.length == beforeLabel) visitLabel(visitor)
+  }
+
+  private def visitLabel(visitor: AttributeVisitor): Unit =
+    if (label != null) visitor.visit("label", label)
+    else if (sharedLabel != null) visitor.visit("label", sharedLabel)
+
+  override def isEmpty: Boolean = sharedNames.isEmpty && label == null && sharedLabel == null
+
+  override def toAttributeMap(): Seq[(String, Any)] = {
+    val map = Seq.newBuilder[(String, Any)]
+    foreachSet((name, value) => map += name -> value)
+    map.result()
+  }
+}
@@ -0,0 +1,198 @@
+package berlin.softwaretechnik.graphviz
+
+import berlin.softwaretechnik.graphviz.attributes.{Attributes, Color, Plain}
+
+/**
+  * A 128-bit hash of the content of a graph or a part of it, see [[Graph.contentHash]].
+  *
+  * It only depends on the content, not on the JVM or the run, so it can be stored, e.g.
+  * as a key for rendered DOT or layout results. The exception are graphs with an
+  * [[ElementSource]], which contributes its identity.
+  */
+final case class ContentHash(high: Long, low: Long) {
+  override def toString: String = f"$high%016x$low%016x"
+}
+
+object ContentHash {
+
+  private[graphviz] def of(graph: Graph): ContentHash = {
+    val hasher = new ContentHasher
+    hasher.update('G')
+    addBlock(hasher, graph.id, graph.attributes, graph.nodeDefaults, graph.edgeDefaults, graph.elements)
+    hasher.result()
+  }
+
+  private[graphviz] def of(subGraph: SubGraph): ContentHash = {
+    val hasher = new ContentHasher
+    hasher.update('S')
+    addBlock(hasher, subGraph.id, subGraph.attributes, subGraph.nodeDefaults, subGraph.edgeDefaults, subGraph.elements)
+    hasher.result()
+  }
+
+  private def addBlock(
+    hasher: ContentHasher,
+    id: Option[String],
+    attributes: Attributes,
+    nodeDefaults: Attributes,
+    edgeDefaults: Attributes,
+    elements: Seq[GraphElement]
+  ): Unit = {
+    id match {
+      case Some(id) => hasher.update(1).update(id)
+      case None => hasher.update(0)
+    }
+    addAttributes(hasher, attributes)
+    addAttributes(hasher, nodeDefaults)
+    addAttributes(hasher, edgeDefaults)
+    hasher.update(elements.size)
+    elements.foreach {
+      // Subgraphs contribute their own, memoized hash.
+      case subGraph: SubGraph =>
+        val hash = subGraph.contentHash
+        hasher.update('S').update(hash.high).update(hash.low)
+      case node: Node =>
+        hasher.update('N').update(node.id)
+        addAttributes(hasher, node.attributes)
+      case edge: Edge =>
+        hasher.update('E').update(edge.from).update(edge.to)
+        addAttributes(hasher, edge.attributes)
+      case batch: NodeBatch =>
+        hasher.update('n').update(batch.size)
+        var row = 0
+        while (row < batch.size) {
+          hasher.update(batch.id(row))
+          addLabel(hasher, batch.label(row))
+          row += 1
+        }
+        addAttributes(hasher, batch.attributes)
+      case batch: EdgeBatch =>
+        hasher.update('e').update(batch.size)
+        var row = 0
+        while (row < batch.size) {
+          hasher.update(batch.source(row)).update(batch.target(row))
+          addLabel(hasher, batch.label(row))
+          row += 1
+        }
+        addAttributes(hasher, batch.attributes)
+      // Its elements can only be known by consuming it.
+      case source: ElementSource =>
+        hasher.update('L').update(System.identityHashCode(source))
+      case other =>
+        hasher.update('?').update(other.getClass.getName).update(other.render)
+    }
+  }
+
+  private def addLabel(hasher: ContentHasher, label: String): Unit =
+    if (label == null) hasher.update(0) else hasher.update(1).update(label)
+
+  private def addAttributes(hasher: ContentHasher, attributes: Attributes): Unit = {
+    attributes.foreachSet { (name, value) =>
+      hasher.update(name)
+      value match {
+        case s: String => hasher.update(1).update(s)
+        case p: Plain => hasher.update(2).update(p.value)
+        case c: Color => hasher.update(3).update(c.rep)
+        case d: java.lang.Double => hasher.update(4).update(java.lang.Double.doubleToLongBits(d))
+        case i: java.lang.Integer => hasher.update(5).update(i.longValue)
+        case b: java.lang.Boolean => hasher.update(6).update(if (b) 1 else 0)
+        // Enums, HTML-like labels and the like: equal values have equal string forms.
+        case other => hasher.update(7).update(other.getClass.getName).update(other.toString)
+      }
+    }
+    // Ends the attributes, so they can't run into what follows.
+    hasher.update(-1)
+  }
+}
+
+/**
+  * MurmurHash3 x64 128 of a stream of longs, in their little-endian encoding, computed as
+  * they are added.
+  */
+private[graphviz] final class ContentHasher {
+  import ContentHasher._
+
+  private var h1 = 0L
+  private var h2 = 0L
+  private var pending = 0L
+  private var hasPending = false
+  private var length = 0L
+
+  def update(k: Long): ContentHasher = {
+    if (hasPending) {
+      mixBlock(pending, k)
+      hasPending = false
+    } else {
+      pending = k
+      hasPending = true
+    }
+    length += 8
+    this
+  }
+
+  def update(c: Char): ContentHasher = update(c.toLong)
+
+  def update(i: Int): ContentHasher = update(i.toLong)
+
+  /** Adds the length and the UTF-16 code units of `s`, four per long. */
+  def update(s: String): ContentHasher = {
+    update(s.length)
+    var i = 0
+    while (i + 4 <= s.length) {
+      update(s.charAt(i).toLong | s.charAt(i + 1).toLong << 16 | s.charAt(i + 2).toLong << 32 | s.charAt(i + 3).toLong << 48)
+      i += 4
+    }
+    if (i < s.length) {
+      var k = 0L
+      var shift = 0
+      while (i < s.length) {
+        k |= s.charAt(i).toLong << shift
+        shift += 16
+        i += 1
+      }
+      update(k)
+    }
+    this
+  }
+
+  def result(): ContentHash = {
+    var (r1, r2) = (h1, h2)
+    if (hasPending) r1 ^= mixK1(pending)
+    r1 ^= length
+    r2 ^= length
+    r1 += r2
+    r2 += r1
+    r1 = fmix(r1)
+    r2 = fmix(r2)
+    r1 += r2
+    r2 += r1
+    ContentHash(r1, r2)
+  }
+
+  private def mixBlock(k1: Long, k2: Long): Unit = {
+    h1 ^= mixK1(k1)
+    h1 = java.lang.Long.rotateLeft(h1, 27) + h2
+    h1 = h1 * 5 + 0x52dce729
+    h2 ^= mixK2(k2)
+    h2 = java.lang.Long.rotateLeft(h2, 31) + h1
+    h2 = h2 * 5 + 0x38495ab5
+  }
+}
+
+private object ContentHasher {
+  private final val C1 = 0x87c37b91114253d5L
+  private final val C2 = 0x4cf5ad432745937fL
+
+  private def mixK1(k: Long): Long = java.lang.Long.rotateLeft(k * C1, 31) * C2
+
+  private def mixK2(k: Long): Long = java.lang.Long.rotateLeft(k * C2, 33) * C1
+
+  private def fmix(k: Long): Long = {
+    var h = k
+    h ^= h >>> 33
+    h *= 0xff51afd7ed558ccdL
+    h ^= h >>> 33
+    h *= 0xc4ceb9fe1a85ec53L
+    h ^= h >>> 33
+    h
+  }
+}
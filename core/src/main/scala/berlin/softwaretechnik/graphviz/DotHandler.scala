@@ -0,0 +1,104 @@
+package berlin.softwaretechnik.graphviz
+
+import berlin.softwaretechnik.graphviz.attributes._
+
+/**
+  * Receives the statements of a DOT graph one by one, in the order they are read, e.g. by
+  * a [[DotParser]]. Nothing is kept beyond the current statement, so graphs larger than
+  * the heap can be processed this way.
+  *
+  * Attribute and default statements are reported with the attributes set in them; they add
+  * to the ones set by earlier statements of the same scope. Every method does nothing by
+  * default.
+  *
+  * A parser that ignores unsupported attributes reports statements with the variants that
+  * take them as `unsupported`: the attributes the attribute classes do not have, like
+  * `xlabel`, or whose values they cannot represent. Their values are kept as they are
+  * written, as [[EscString]]s or [[berlin.softwaretechnik.graphviz.attributes.html.Html]]
+  * labels, so they render as they were read. By default, these variants leave them out
+  * and call the ones without them.
+  */
+trait DotHandler {
+  def onGraphStart(id: Option[String]): Unit = ()
+
+  /** A `graph [...]` or `name = value` statement in the graph itself. */
+  def onGraphAttributes(attributes: GraphAttributes): Unit = ()
+
+  def onGraphAttributes(attributes: GraphAttributes, unsupported: Attributes): Unit = onGraphAttributes(attributes)
+
+  def onSubgraphStart(id: Option[String]): Unit = ()
+
+  /** A `graph [...]` or `name = value` statement in the current subgraph. */
+  def onSubgraphAttributes(attributes: SubgraphAttributes): Unit = ()
+
+  def onSubgraphAttributes(attributes: SubgraphAttributes, unsupported: Attributes): Unit = onSubgraphAttributes(attributes)
+
+  /** A `node [...]` statement of the current graph or subgraph. */
+  def onNodeDefaults(attributes: NodeAttributes): Unit = ()
+
+  def onNodeDefaults(attributes: NodeAttributes, unsupported: Attributes): Unit = onNodeDefaults(attributes)
+
+  /** An `edge [...]` statement of the current graph or subgraph. */
+  def onEdgeDefaults(attributes: EdgeAttributes): Unit = ()
+
+  def onEdgeDefaults(attributes: EdgeAttributes, unsupported: Attributes): Unit = onEdgeDefaults(attributes)
+
+  def onNode(id: String, attributes: NodeAttributes): Unit = ()
+
+  def onNode(id: String, attributes: NodeAttributes, unsupported: Attributes): Unit = onNode(id, attributes)
+
+  def onEdge(from: String, to: String, attributes: EdgeAttributes): Unit = ()
+
+  def onEdge(from: String, to: String, attributes: EdgeAttributes, unsupported: Attributes): Unit =
+    onEdge(from, to, attributes)
+
+  def onSubgraphEnd(): Unit = ()
+
+  def onGraphEnd(): Unit = ()
+}
+
+/**
+  * A [[DotHandler]] that passes every event on to `next`, unsupported attributes included.
+  * Transform stages override the events they change, see [[DotTransform]]; every statement
+  * goes through the variants with the unsupported attributes.
+  */
+class DotFilter(next: DotHandler) extends DotHandler {
+  override def onGraphStart(id: Option[String]): Unit = next.onGraphStart(id)
+
+  override def onGraphAttributes(attributes: GraphAttributes): Unit = onGraphAttributes(attributes, Attributes.empty)
+
+  override def onGraphAttributes(attributes: GraphAttributes, unsupported: Attributes): Unit =
+    next.onGraphAttributes(attributes, unsupported)
+
+  override def onSubgraphStart(id: Option[String]): Unit = next.onSubgraphStart(id)
+
+  override def onSubgraphAttributes(attributes: SubgraphAttributes): Unit = onSubgraphAttributes(attributes, Attributes.empty)
+
+  override def onSubgraphAttributes(attributes: SubgraphAttributes, unsupported: Attributes): Unit =
+    next.onSubgraphAttributes(attributes, unsupported)
+
+  override def onNodeDefaults(attributes: NodeAttributes): Unit = onNodeDefaults(attributes, Attributes.empty)
+
+  override def onNodeDefaults(attributes: NodeAttributes, unsupported: Attributes): Unit =
+    next.onNodeDefaults(attributes, unsupported)
+
+  override def onEdgeDefaults(attributes: EdgeAttributes): Unit = onEdgeDefaults(attributes, Attributes.empty)
+
+  override def onEdgeDefaults(attributes: EdgeAttributes, unsupported: Attributes): Unit =
+    next.onEdgeDefaults(attributes, unsupported)
+
+  override def onNode(id: String, attributes: NodeAttributes): Unit = onNode(id, attributes, Attributes.empty)
+
+  override def onNode(id: String, attributes: NodeAttributes, unsupported: Attributes): Unit =
+    next.onNode(id, attributes, unsupported)
+
+  override def onEdge(from: String, to: String, attributes: EdgeAttributes): Unit =
+    onEdge(from, to, attributes, Attributes.empty)
+
+  override def onEdge(from: String, to: String, attributes: EdgeAttributes, unsupported: Attributes): Unit =
+    next.onEdge(from, to, attributes, unsupported)
+
+  override def onSubgraphEnd(): Unit = next.onSubgraphEnd()
+
+  override def onGraphEnd(): Unit = next.onGraphEnd()
+}
@@ -0,0 +1,364 @@
+package berlin.softwaretechnik.graphviz
+
+import java.nio.ByteBuffer
+import java.nio.charset.StandardCharsets.UTF_8
+
+/**
+  * Splits DOT source into tokens.
+  *
+  * The source is read from consecutive byte buffers, e.g. windows of a memory-mapped file,
+  * so it may be larger than a single buffer. The text of an ID is kept as bytes and only
+  * turned into a `String` by [[id]] or [[value]]; short ones are looked up in a table, so
+  * repeated IDs like node names share one instance.
+  */
+private[graphviz] final class DotLexer(windows: Iterator[ByteBuffer]) {
+  import DotLexer._
+
+  private var buffer: ByteBuffer = ByteBuffer.allocate(0)
+  private var line = 1
+  private var atLineStart = true
+
+  /** The kind of the current token, one of the token constants in the companion. */
+  var token: Int = Eof
+
+  /** For an [[Id]] token, how it was written: [[Plain]], [[Numeral]], [[Quoted]] or [[Html]]. */
+  var idKind: Int = Plain
+
+  /** The line the current token starts on. */
+  var tokenLine: Int = 1
+
+  // The text of the current ID, without the quotes or the outer angle brackets.
+  private var text = new Array[Byte](256)
+  private var length = 0
+
+  private val ids = new StringTable
+  private val values = new StringTable
+
+  /** Advances to the next token and returns its kind. */
+  def next(): Int = {
+    skipWhitespaceAndComments()
+    tokenLine = line
+    val c = read()
+    token =
+      if (c == -1) Eof
+      else c.toChar match {
+        case '{' => LeftBrace
+        case '}' => RightBrace
+        case '[' => LeftBracket
+        case ']' => RightBracket
+        case '=' => Equals
+        case ';' => Semicolon
+        case ',' => Comma
+        case ':' => Colon
+        case '-' if peek() == '>' => read(); Arrow
+        case '-' if peek() == '-' => read(); Line
+        case '"' => quoted()
+        case '<' => html()
+        case _ if isIdStart(c) => plain(c)
+        case _ if c == '-' || c == '.' || isDigit(c) => numeral(c)
+        case _ => throw error(s"Unexpected character '${c.toChar}'")
+      }
+    token
+  }
+
+  /** Whether the current token is the keyword `keyword`, given in lower case. */
+  def isKeyword(keyword: Array[Byte]): Boolean = isKeyword(keyword, ignoreKind = false)
+
+  private def isKeyword(keyword: Array[Byte], ignoreKind: Boolean): Boolean = {
+    if (!ignoreKind && (token != Id || idKind != Plain)) return false
+    if (length != keyword.length) return false
+    var i = 0
+    while (i < length) {
+      if ((text(i) | 0x20) != keyword(i)) return false
+      i += 1
+    }
+    true
+  }
+
+  /**
+    * The current ID as it is written in DOT. Quotes that are not needed are dropped, so
+    * `"a"` and `a` give the same string.
+    */
+  def id(): String = idKind match {
+    case Quoted if !isPlain && !isNumeral => ids.get(text, length, Quoted)("\"" + decode() + "\"")
+    case Html => ids.get(text, length, Html)("<" + decode() + ">")
+    case _ => ids.get(text, length, Plain)(decode())
+  }
+
+  /**
+    * The value of the current ID: for quoted strings, what is written between the quotes,
+    * escape sequences included, see [[DotStrings.unescape]]; for HTML strings, the markup
+    * without the indentation the renderer adds to its lines.
+    */
+  def value(): String = idKind match {
+    case Quoted => values.get(text, length, Quoted)(decode())
+    case Html => dedent(decode())
+    case _ => values.get(text, length, Plain)(decode())
+  }
+
+  def error(message: String): DotParseException = new DotParseException(message, tokenLine)
+
+  private def decode(): String = new String(text, 0, length, UTF_8)
+
+  private def isPlain: Boolean = {
+    if (length == 0 || !isIdStart(text(0) & 0xFF)) return false
+    var i = 1
+    while (i < length) {
+      if (!isIdPart(text(i) & 0xFF)) return false
+      i += 1
+    }
+    // Without quotes, keywords would no longer be IDs.
+    !Keywords.exists(keyword => isKeyword(keyword, ignoreKind = true))
+  }
+
+  private def isNumeral: Boolean = {
+    var i = if (length > 0 && text(0) == '-') 1 else 0
+    var digits = 0
+    var dots = 0
+    while (i < length) {
+      if (isDigit(text(i))) digits += 1
+      else if (text(i) == '.') dots += 1
+      else return false
+      i += 1
+    }
+    digits > 0 && dots <= 1
+  }
+
+  private def plain(first: Int): Int = {
+    length = 0
+    append(first)
+    while (isIdPart(peek())) append(read())
+    idKind = Plain
+    Id
+  }
+
+  private def numeral(first: Int): Int = {
+    length = 0
+    append(first)
+    var dot = first == '.'
+    var digits = if (isDigit(first)) 1 else 0
+    while (isDigit(peek()) || (!dot && peek() == '.')) {
+      if (peek() == '.') dot = true else digits += 1
+      append(read())
+    }
+    if (digits == 0) throw error(s"Unexpected character '${first.toChar}'")
+    idKind = Numeral
+    Id
+  }
+
+  private def quoted(): Int = {
+    length = 0
+    var done = false
+    while (!done) {
+      val c = read()
+      if (c == -1) throw error("Unterminated string")
+      if (c == '"') {
+        // "a" + "b" is the same as "ab".
+        skipWhitespaceAndComments()
+        if (peek() == '+') {
+          read()
+          skipWhitespaceAndComments()
+          if (read() != '"') throw error("Expected a string after '+'")
+        } else {
+          done = true
+        }
+      } else if (c == '\\') {
+        val escaped = read()
+        if (escaped == -1) throw error("Unterminated string")
+        // A backslash at the end of a line continues the string on the next one.
+        if (escaped == '\r' && peek() == '\n') read()
+        else if (escaped != '\n' && escaped != '\r') {
+          append(c)
+          append(escaped)
+        }
+      } else {
+        append(c)
+      }
+    }
+    idKind = Quoted
+    Id
+  }
+
+  private def html(): Int = {
+    length = 0
+    var depth = 1
+    while (depth > 0) {
+      val c = read()
+      if (c == -1) throw error("Unterminated HTML string")
+      if (c == '<') depth += 1
+      if (c == '>') depth -= 1
+      if (depth > 0) append(c)
+    }
+    idKind = Html
+    Id
+  }
+
+  private def skipWhitespaceAndComments(): Unit = {
+    var skipping = true
+    while (skipping) {
+      val c = peek()
+      if (c == ' ' || c == '\t' || c == '\n' || c == '\r' || c == '\f') {
+        read()
+      } else if (c == '#' && atLineStart) {
+        // Output of the C preprocessor.
+        skipLine()
+      } else if (c == '/') {
+        read()
+        peek() match {
+          case '/' => skipLine()
+          case '*' =>
+            read()
+            var previous = 0
+            var c = read()
+            while (!(previous == '*' && c == '/')) {
+              if (c == -1) throw error("Unterminated comment")
+              previous = c
+              c = read()
+            }
+          case _ => throw error("Unexpected character '/'")
+        }
+      } else {
+        skipping = false
+      }
+    }
+  }
+
+  private def skipLine(): Unit = {
+    var c = read()
+    while (c != '\n' && c != -1) c = read()
+  }
+
+  private def peek(): Int = {
+    while (!buffer.hasRemaining) {
+      if (!windows.hasNext) return -1
+      buffer = windows.next()
+    }
+    buffer.get(buffer.position()) & 0xFF
+  }
+
+  private def read(): Int = {
+    val c = peek()
+    if (c != -1) {
+      buffer.position(buffer.position() + 1)
+      atLineStart = c == '\n'
+      if (atLineStart) line += 1
+    }
+    c
+  }
+
+  private def append(c: Int): Unit = {
+    if (length == text.length) text = java.util.Arrays.copyOf(text, length * 2)
+    text(length) = c.toByte
+    length += 1
+  }
+}
+
+private[graphviz] object DotLexer {
+  final val Eof = 0
+  final val Id = 1
+  final val LeftBrace = 2
+  final val RightBrace = 3
+  final val LeftBracket = 4
+  final val RightBracket = 5
+  final val Equals = 6
+  final val Semicolon = 7
+  final val Comma = 8
+  final val Colon = 9
+  final val Arrow = 10
+  final val Line = 11
+
+  val NodeKeyword: Array[Byte] = "node".getBytes(UTF_8)
+  val EdgeKeyword: Array[Byte] = "edge".getBytes(UTF_8)
+  val GraphKeyword: Array[Byte] = "graph".getBytes(UTF_8)
+  val DigraphKeyword: Array[Byte] = "digraph".getBytes(UTF_8)
+  val SubgraphKeyword: Array[Byte] = "subgraph".getBytes(UTF_8)
+  val StrictKeyword: Array[Byte] = "strict".getBytes(UTF_8)
+
+  private val Keywords = Seq(NodeKeyword, EdgeKeyword, GraphKeyword, DigraphKeyword, SubgraphKeyword, StrictKeyword)
+
+  final val Plain = 0
+  final val Numeral = 1
+  final val Quoted = 2
+  final val Html = 3
+
+  def isDigit(c: Int): Boolean = c >= '0' && c <= '9'
+
+  def isIdStart(c: Int): Boolean = (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || c == '_' || c >= 0x80
+
+  def isIdPart(c: Int): Boolean = isIdStart(c) || isDigit(c)
+
+  /**
+    * Removes the indentation common to all but the first line of `markup`, which is what
+    * the renderer adds when an HTML string spans several lines.
+    */
+  def dedent(markup: String): String = {
+    val lines = markup.split("\n", -1)
+    if (lines.length == 1) return markup
+    val common = lines.iterator.drop(1).map(_.takeWhile(c => c == ' ' || c == '\t').length).min
+    if (common == 0) markup
+    else lines.iterator.zipWithIndex.map { case (line, i) => if (i == 0) line else line.substring(common) }.mkString("\n")
+  }
+
+  /**
+    * Strings for byte sequences, so that the same bytes give the same instance. Only short
+    * sequences are kept, and only up to a fixed number of them.
+    */
+  private final class StringTable {
+    private final val MaxLength = 64
+    private final val MaxEntries = 1 << 16
+
+    // Per entry: its bytes, their hash and the string.
+    private var keys = new Array[Array[Byte]](512)
+    private var hashes = new Array[Int](512)
+    private var strings = new Array[String](512)
+    private val table = new IdTable.OnHeap(1024) {
+      override protected def hashOf(entry: Int): Int = hashes(entry)
+    }
+
+    def get(bytes: Array[Byte], length: Int, kind: Int)(make: => String): String = {
+      if (length > MaxLength) return make
+      var hash = kind
+      var i = 0
+      while (i < length) {
+        hash = 31 * hash + bytes(i)
+        i += 1
+      }
+      hash = IdTable.hash(hash, length)
+      var slot = table.firstSlot(hash)
+      var entry = table.entry(slot)
+      while (entry >= 0) {
+        if (hashes(entry) == hash && matches(keys(entry), bytes, length)) return strings(entry)
+        slot = table.nextSlot(slot)
+        entry = table.entry(slot)
+      }
+      val string = make
+      val size = table.size
+      if (size < MaxEntries) {
+        if (size == keys.length) {
+          keys = java.util.Arrays.copyOf(keys, size * 2)
+          hashes = java.util.Arrays.copyOf(hashes, size * 2)
+          strings = java.util.Arrays.copyOf(strings, size * 2)
+        }
+        keys(size) = java.util.Arrays.copyOf(bytes, length)
+        hashes(size) = hash
+        strings(size) = string
+        table.add(slot)
+      }
+      string
+    }
+
+    // The kind is not compared: for the same bytes, the kinds add (kind1 - kind2) * 31^length
+    // to the hash before finalizing, which is never 0 mod 2^32 as 31^length is odd and kinds
+    // differ by less than 4, and finalizing is a bijection for a given length. So entries
+    // with the same bytes and the same hash have the same kind.
+    private def matches(key: Array[Byte], bytes: Array[Byte], length: Int): Boolean = {
+      if (key.length != length) return false
+      var i = 0
+      while (i < length) {
+        if (key(i) != bytes(i)) return false
+        i += 1
+      }
+      true
+    }
+  }
+}
@@ -0,0 +1,5 @@
+package berlin.softwaretechnik.graphviz
+
+/** Thrown by [[DotParser]] for input that is not valid DOT or cannot be represented as a [[Graph]]. */
+class DotParseException(message: String, val line: Int)
+  extends IllegalArgumentException(s"$message in line $line")
@@ -0,0 +1,514 @@
+package berlin.softwaretechnik.graphviz
+
+import java.nio.ByteBuffer
+import java.nio.channels.{FileChannel, ReadableByteChannel}
+import java.nio.channels.FileChannel.MapMode.READ_ONLY
+import java.nio.charset.StandardCharsets.UTF_8
+import java.nio.file.Path
+import java.nio.file.StandardOpenOption.READ
+
+import berlin.softwaretechnik.graphviz.DotLexer._
+import berlin.softwaretechnik.graphviz.attributes._
+
+import scala.collection.mutable
+
+/**
+  * Reads DOT into the [[Graph]] model, e.g. to post-process graphs written by other tools.
+  *
+  * Files are memory-mapped in windows of up to 1 GiB, so they may be larger than 2 GiB.
+  * Attributes are mapped onto the attribute classes; values are converted to the declared
+  * types, HTML strings become [[berlin.softwaretechnik.graphviz.attributes.html.Html]]
+  * labels, and labels with Graphviz's own escape sequences, like `\l` or `\N`, become
+  * [[berlin.softwaretechnik.graphviz.attributes.EscString]]s. IDs are kept as they are
+  * written, quotes included where they are needed, as the model renders them as they are.
+  *
+  * Some DOT can only be approximated by the model:
+  *  - `node` and `edge` statements after the first node, edge or subgraph of a scope open
+  *    an anonymous subgraph for the rest of it, as the model only has defaults per scope.
+  *  - Edges to or from a subgraph, as in `a -> { b c }`, become the subgraph followed by
+  *    an edge for every node in it.
+  *  - Only directed, non-strict graphs are supported.
+  *
+  * Instead of building the model, the statements can be reported to a [[DotHandler]] as
+  * they are read, e.g. to transform graphs larger than the heap with [[DotTransform]]s and
+  * a [[DotWriter]]. Then, a subgraph can only be an edge operand if the top-level subgraph
+  * it is part of mentions at most 65536 nodes.
+  *
+  * @param ignoreUnsupported leave out attributes the attribute classes do not have, or whose
+  *                          values they cannot represent, instead of failing. When
+  *                          streaming, they are still reported to the handler as they are
+  *                          written, so a [[DotWriter]] writes them unchanged.
+  */
+class DotParser(ignoreUnsupported: Boolean = false) {
+  import DotParser._
+
+  def parse(path: Path): Graph = build(parse(path, _, 1L << 30, Int.MaxValue))
+
+  /** Reports the statements in the file at `path` to `handler` as they are read. */
+  def parse(path: Path, handler: DotHandler): Unit = parse(path, handler, 1L << 30, MaxOperandIds)
+
+  private[graphviz] def parse(path: Path, windowSize: Long): Graph =
+    build(parse(path, _, windowSize, Int.MaxValue))
+
+  private def parse(path: Path, handler: DotHandler, windowSize: Long, operandLimit: Int): Unit = {
+    val channel = FileChannel.open(path, READ)
+    try {
+      val size = channel.size()
+      val windows = Iterator.iterate(0L)(_ + windowSize)
+        .takeWhile(_ < size)
+        .map(position => channel.map(READ_ONLY, position, math.min(windowSize, size - position)))
+      parse(windows, handler, operandLimit)
+    } finally {
+      channel.close()
+    }
+  }
+
+  /**
+    * Reports the statements read from `channel` to `handler` as they are read, e.g. from
+    * a pipe. The channel is read in chunks until its end and left open. A non-blocking
+    * channel that has no bytes yet is waited for with growing pauses, and an interrupt
+    * ends the wait with an `InterruptedIOException`.
+    */
+  def parse(channel: ReadableByteChannel, handler: DotHandler): Unit =
+    parse(chunks(channel), handler, MaxOperandIds)
+
+  /** Parses the remaining bytes of `buffer`, without changing its position. */
+  def parse(buffer: ByteBuffer): Graph = build(parse(Iterator.single(buffer.duplicate()), _, Int.MaxValue))
+
+  def parse(buffer: ByteBuffer, handler: DotHandler): Unit =
+    parse(Iterator.single(buffer.duplicate()), handler, MaxOperandIds)
+
+  def parse(dot: String): Graph = parse(ByteBuffer.wrap(dot.getBytes(UTF_8)))
+
+  def parse(dot: String, handler: DotHandler): Unit = parse(ByteBuffer.wrap(dot.getBytes(UTF_8)), handler)
+
+  private def parse(windows: Iterator[ByteBuffer], handler: DotHandler, operandLimit: Int): Unit =
+    new Parsing(new DotLexer(windows), handler, ignoreUnsupported, operandLimit).graph()
+
+  private def build(parse: DotHandler => Unit): Graph = {
+    val builder = new ModelBuilder
+    parse(builder)
+    builder.result
+  }
+
+  private def chunks(channel: ReadableByteChannel): Iterator[ByteBuffer] = new Iterator[ByteBuffer] {
+    // The lexer is done with a chunk before it asks for the next one, so one buffer will do.
+    private val buffer = ByteBuffer.allocate(1 << 16)
+    private var filled = false
+    private var end = false
+
+    override def hasNext: Boolean = {
+      if (!filled && !end) {
+        buffer.clear()
+        var read = channel.read(buffer)
+        var pause = Utf8ChannelWriter.MinPauseNanos
+        // A non-blocking channel reads nothing until data arrives.
+        while (read == 0) {
+          pause = Utf8ChannelWriter.backOff(pause, "the channel to have bytes")
+          read = channel.read(buffer)
+        }
+        buffer.flip()
+        if (read < 0) end = true else filled = true
+      }
+      filled
+    }
+
+    override def next(): ByteBuffer = {
+      if (!hasNext) throw new NoSuchElementException
+      filled = false
+      buffer
+    }
+  }
+}
+
+private object DotParser {
+
+  /**
+    * How many node IDs are kept for a top-level subgraph when streaming, so that it can be
+    * the operand of an edge statement, as in `{ a b } -> c`.
+    */
+  val MaxOperandIds: Int = 1 << 16
+
+  /** What the parser needs to know about one of the attribute classes. */
+  final class AttributeKind[A <: Attributes](
+    val name: String,
+    val count: Int,
+    val indexOf: String => Int,
+    val typeOf: Int => String,
+    val fromArray: Array[AnyRef] => A
+  )
+
+  val NodeKind = new AttributeKind("node", NodeAttributes.attributeCount, NodeAttributes.indexOf, NodeAttributes.typeOf, NodeAttributes.fromArray)
+  val EdgeKind = new AttributeKind("edge", EdgeAttributes.attributeCount, EdgeAttributes.indexOf, EdgeAttributes.typeOf, EdgeAttributes.fromArray)
+  val GraphKind = new AttributeKind("graph", GraphAttributes.attributeCount, GraphAttributes.indexOf, GraphAttributes.typeOf, GraphAttributes.fromArray)
+  val SubgraphKind = new AttributeKind("subgraph", SubgraphAttributes.attributeCount, SubgraphAttributes.indexOf, SubgraphAttributes.typeOf, SubgraphAttributes.fromArray)
+
+  /**
+    * Attribute values collected for one instance of an attribute class, and the unsupported
+    * attributes set along with them.
+    */
+  final class Collected[A <: Attributes](val kind: AttributeKind[A]) {
+    private val values = new Array[AnyRef](kind.count)
+    private var unsupported = List.empty[(String, Any)]
+
+    def set(index: Int, value: AnyRef): Unit = values(index) = value
+
+    def addUnsupported(name: String, value: AnyRef): Unit = unsupported = (name -> value) :: unsupported
+
+    def addAll(attributes: Attributes): Unit =
+      attributes.foreachSet((name, value) => values(kind.indexOf(name)) = value.asInstanceOf[AnyRef])
+
+    /** The collected attributes; the values are cleared for the next instance. */
+    def result(): A = {
+      val result = kind.fromArray(values)
+      java.util.Arrays.fill(values, null)
+      result
+    }
+
+    /** The unsupported attributes collected, in order; they are cleared for the next instance. */
+    def unsupportedResult(): Attributes =
+      if (unsupported.isEmpty) Attributes.empty
+      else {
+        val result = Attributes(unsupported.reverse)
+        unsupported = Nil
+        result
+      }
+  }
+
+  /**
+    * Builds the [[Graph]] model from the statements of a graph.
+    *
+    * The model only has defaults per scope, so `node` and `edge` statements after the first
+    * element of a scope open an anonymous subgraph for the rest of it.
+    */
+  final class ModelBuilder extends DotHandler {
+    private final class Scope {
+      var id: Option[String] = None
+      val attributes = new Collected(SubgraphKind)
+      var nodeDefaults: NodeAttributes = NodeAttributes()
+      var edgeDefaults: EdgeAttributes = EdgeAttributes()
+      val elements = Vector.newBuilder[GraphElement]
+      var hasElements = false
+      // Where the elements go: this scope, or the anonymous subgraph after a late default.
+      var target: Scope = this
+      // The anonymous subgraph for the statements after a late `node` or `edge` statement.
+      var rest: Scope = null
+
+      def +=(element: GraphElement): Unit = {
+        elements += element
+        hasElements = true
+      }
+
+      /** The scope for the statements after a `node` or `edge` statement. */
+      def defaultsTarget(): Scope = {
+        if (target.hasElements) {
+          target.rest = new Scope
+          target = target.rest
+        }
+        target
+      }
+
+      def result(): Seq[GraphElement] = {
+        if (rest != null) {
+          elements += SubGraph(None, SubgraphAttributes(), rest.nodeDefaults, rest.edgeDefaults, rest.result())
+        }
+        elements.result()
+      }
+    }
+
+    private val graphAttributes = new Collected(GraphKind)
+    private val nodeDefaults = new Collected(NodeKind)
+    private val edgeDefaults = new Collected(EdgeKind)
+    private var scopes: List[Scope] = Nil
+    var result: Graph = _
+
+    override def onGraphStart(id: Option[String]): Unit = {
+      val scope = new Scope
+      scope.id = id
+      scopes = scope :: scopes
+    }
+
+    override def onGraphAttributes(attributes: GraphAttributes): Unit = graphAttributes.addAll(attributes)
+
+    override def onSubgraphStart(id: Option[String]): Unit = onGraphStart(id)
+
+    override def onSubgraphAttributes(attributes: SubgraphAttributes): Unit = scopes.head.attributes.addAll(attributes)
+
+    override def onNodeDefaults(attributes: NodeAttributes): Unit = {
+      val target = scopes.head.defaultsTarget()
+      nodeDefaults.addAll(target.nodeDefaults)
+      nodeDefaults.addAll(attributes)
+      target.nodeDefaults = nodeDefaults.result()
+    }
+
+    override def onEdgeDefaults(attributes: EdgeAttributes): Unit = {
+      val target = scopes.head.defaultsTarget()
+      edgeDefaults.addAll(target.edgeDefaults)
+      edgeDefaults.addAll(attributes)
+      target.edgeDefaults = edgeDefaults.result()
+    }
+
+    override def onNode(id: String, attributes: NodeAttributes): Unit = scopes.head.target += Node(id, attributes)
+
+    override def onEdge(from: String, to: String, attributes: EdgeAttributes): Unit =
+      scopes.head.target += Edge(from, to, attributes)
+
+    override def onSubgraphEnd(): Unit = {
+      val scope = scopes.head
+      scopes = scopes.tail
+      scopes.head.target += SubGraph(scope.id, scope.attributes.result(), scope.nodeDefaults, scope.edgeDefaults, scope.result())
+    }
+
+    override def onGraphEnd(): Unit = {
+      val scope = scopes.head
+      scopes = scopes.tail
+      result = Graph(scope.id, graphAttributes.result(), scope.nodeDefaults, scope.edgeDefaults, scope.result())
+    }
+  }
+}
+
+/**
+  * Reads a graph statement by statement and reports it to `handler`.
+  *
+  * To expand subgraphs that are edge operands, the IDs of the nodes in the top-level
+  * subgraph being read are kept, up to `operandLimit` of them.
+  */
+private final class Parsing(lexer: DotLexer, handler: DotHandler, ignoreUnsupported: Boolean, operandLimit: Int) {
+  import DotParser._
+
+  private val nodeAttributes = new Collected(NodeKind)
+  private val edgeAttributes = new Collected(EdgeKind)
+  private val graphAttributes = new Collected(GraphKind)
+  private val subgraphAttributes = new Collected(SubgraphKind)
+
+  // The nodes and edge ends of the open subgraphs, in order; nested ones come after the
+  // start of the subgraph they are in.
+  private val operandIds = mutable.ArrayBuffer[String]()
+  private var operandIdsDropped = false
+  private var subgraphDepth = 0
+
+  def graph(): Unit = {
+    lexer.next()
+    if (lexer.isKeyword(StrictKeyword)) throw lexer.error("Strict graphs are not supported")
+    if (lexer.isKeyword(GraphKeyword)) throw lexer.error("Undirected graphs are not supported")
+    if (!lexer.isKeyword(DigraphKeyword)) throw lexer.error("Expected 'digraph'")
+    lexer.next()
+    handler.onGraphStart(optionalId())
+    block()
+    if (lexer.token != Eof) throw lexer.error("Expected the end of the input")
+    handler.onGraphEnd()
+  }
+
+  /** `{ statements }`, leaves the lexer after the closing brace. */
+  private def block(): Unit = {
+    expect(LeftBrace, "'{'")
+    while (lexer.token != RightBrace) {
+      if (lexer.token == Eof) throw lexer.error("Expected '}'")
+      statement()
+      if (lexer.token == Semicolon) lexer.next()
+    }
+    lexer.next()
+  }
+
+  private def statement(): Unit = {
+    if (lexer.isKeyword(NodeKeyword)) {
+      lexer.next()
+      attributeLists(nodeAttributes)
+      handler.onNodeDefaults(nodeAttributes.result(), nodeAttributes.unsupportedResult())
+    } else if (lexer.isKeyword(EdgeKeyword)) {
+      lexer.next()
+      attributeLists(edgeAttributes)
+      handler.onEdgeDefaults(edgeAttributes.result(), edgeAttributes.unsupportedResult())
+    } else if (lexer.isKeyword(GraphKeyword)) {
+      lexer.next()
+      attributeLists(scopeAttributes)
+      scopeAttributesResult()
+    } else if (lexer.token == LeftBrace || lexer.isKeyword(SubgraphKeyword)) {
+      val start = subGraph()
+      if (lexer.token == Arrow || lexer.token == Line) edges(operand(start))
+      else endOperand(start)
+    } else if (lexer.token == Id) {
+      val id = lexer.id()
+      lexer.next()
+      if (lexer.token == Equals) {
+        lexer.next()
+        expectId()
+        set(scopeAttributes, id, lexer.value(), lexer.idKind == Html)
+        lexer.next()
+        scopeAttributesResult()
+      } else {
+        nodeOrEdges(port(id))
+      }
+    } else {
+      throw lexer.error("Expected a statement")
+    }
+  }
+
+  private def scopeAttributes: Collected[_ <: Attributes] =
+    if (subgraphDepth > 0) subgraphAttributes else graphAttributes
+
+  private def scopeAttributesResult(): Unit =
+    if (subgraphDepth > 0) handler.onSubgraphAttributes(subgraphAttributes.result(), subgraphAttributes.unsupportedResult())
+    else handler.onGraphAttributes(graphAttributes.result(), graphAttributes.unsupportedResult())
+
+  private def nodeOrEdges(id: String): Unit =
+    if (lexer.token == Arrow || lexer.token == Line) {
+      edges(id)
+    } else {
+      attributeLists(nodeAttributes)
+      handler.onNode(id, nodeAttributes.result(), nodeAttributes.unsupportedResult())
+      addOperandId(id)
+    }
+
+  /**
+    * The rest of an edge statement starting with `first`, a node ID or the IDs of the nodes
+    * of a subgraph. Subgraphs in it are reported as they are read, the edges at the end.
+    */
+  private def edges(first: AnyRef): Unit = {
+    val operands = mutable.ArrayBuffer(first)
+    while (lexer.token == Arrow || lexer.token == Line) {
+      if (lexer.token == Line) throw lexer.error("Undirected edges are not supported")
+      lexer.next()
+      if (lexer.token == LeftBrace || lexer.isKeyword(SubgraphKeyword)) {
+        operands += operand(subGraph())
+      } else {
+        val id = expectId().id()
+        lexer.next()
+        operands += port(id)
+      }
+    }
+    attributeLists(edgeAttributes)
+    val attributes = edgeAttributes.result()
+    val unsupported = edgeAttributes.unsupportedResult()
+    var i = 1
+    while (i < operands.length) {
+      (operands(i - 1), operands(i)) match {
+        case (from: String, to: String) => edge(from, to, attributes, unsupported)
+        case (from, to) => for (f <- ids(from); t <- ids(to)) edge(f, t, attributes, unsupported)
+      }
+      i += 1
+    }
+  }
+
+  private def ids(operand: AnyRef): Seq[String] = operand match {
+    case id: String => Seq(id)
+    case ids: Seq[_] => ids.asInstanceOf[Seq[String]]
+  }
+
+  private def edge(from: String, to: String, attributes: EdgeAttributes, unsupported: Attributes): Unit = {
+    handler.onEdge(from, to, attributes, unsupported)
+    addOperandId(from)
+    addOperandId(to)
+  }
+
+  /** Reports a subgraph and returns where its node IDs start in [[operandIds]]. */
+  private def subGraph(): Int = {
+    val id = if (lexer.isKeyword(SubgraphKeyword)) {
+      lexer.next()
+      optionalId()
+    } else {
+      None
+    }
+    val start = operandIds.length
+    handler.onSubgraphStart(id)
+    subgraphDepth += 1
+    block()
+    subgraphDepth -= 1
+    handler.onSubgraphEnd()
+    start
+  }
+
+  /** The IDs of the nodes of the subgraph just read, as an edge operand. */
+  private def operand(start: Int): Seq[String] = {
+    if (operandIdsDropped) throw lexer.error(s"Subgraphs with more than $operandLimit nodes cannot be edge operands")
+    val ids = mutable.LinkedHashSet[String]()
+    var i = start
+    while (i < operandIds.length) {
+      ids += operandIds(i)
+      i += 1
+    }
+    endOperand(start)
+    ids.toSeq
+  }
+
+  /** Forgets the node IDs of a top-level subgraph once it has been read. */
+  private def endOperand(start: Int): Unit =
+    if (subgraphDepth == 0) {
+      operandIds.dropRightInPlace(operandIds.length - start)
+      operandIdsDropped = false
+    }
+
+  private def addOperandId(id: String): Unit =
+    if (subgraphDepth > 0 && !operandIdsDropped) {
+      if (operandIds.length < operandLimit) {
+        operandIds += id
+      } else {
+        operandIds.clear()
+        operandIdsDropped = true
+      }
+    }
+
+  /** `id` followed by an optional port and compass point, as in `a:p:n`. */
+  private def port(id: String): String = {
+    var withPort = id
+    while (lexer.token == Colon) {
+      lexer.next()
+      withPort = withPort + ":" + expectId().id()
+      lexer.next()
+    }
+    withPort
+  }
+
+  private def attributeLists(collected: Collected[_]): Unit =
+    while (lexer.token == LeftBracket) {
+      lexer.next()
+      while (lexer.token != RightBracket) {
+        val key = expectId().id()
+        lexer.next()
+        expect(Equals, "'='")
+        expectId()
+        set(collected, key, lexer.value(), lexer.idKind == Html)
+        lexer.next()
+        if (lexer.token == Semicolon || lexer.token == Comma) lexer.next()
+      }
+      lexer.next()
+    }
+
+  private def set(collected: Collected[_], key: String, value: String, html: Boolean): Unit = {
+    val kind = collected.kind
+    val index =
+      try kind.indexOf(key)
+      catch {
+        case _: IllegalArgumentException =>
+          unsupported(collected, key, value, html, s"Unknown ${kind.name} attribute '$key'")
+          return
+      }
+    val converted = DotValues.parse(kind.typeOf(index), value, html)
+    if (converted == null) unsupported(collected, key, value, html, s"Unsupported value '$value' of ${kind.name} attribute '$key'")
+    else collected.set(index, converted)
+  }
+
+  private def optionalId(): Option[String] =
+    if (lexer.token == Id) {
+      val id = lexer.id()
+      lexer.next()
+      Some(id)
+    } else {
+      None
+    }
+
+  private def expectId(): DotLexer = {
+    if (lexer.token != Id) throw lexer.error("Expected an ID")
+    lexer
+  }
+
+  private def expect(token: Int, description: String): Unit = {
+    if (lexer.token != token) throw lexer.error(s"Expected $description")
+    lexer.next()
+  }
+
+  /** Fails, or keeps the attribute as it is written if unsupported attributes are ignored. */
+  private def unsupported(collected: Collected[_], key: String, value: String, html: Boolean, message: String): Unit =
+    if (!ignoreUnsupported) throw lexer.error(message)
+    else collected.addUnsupported(key, if (html) attributes.html.Html(value) else EscString(value))
+}
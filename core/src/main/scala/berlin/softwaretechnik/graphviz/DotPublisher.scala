@@ -0,0 +1,227 @@
+package berlin.softwaretechnik.graphviz
+
+import java.nio.{ByteBuffer, CharBuffer}
+import java.nio.charset.StandardCharsets.UTF_8
+import java.util.concurrent.atomic.{AtomicInteger, AtomicLong}
+import java.util.concurrent.{Executor, Flow}
+
+import scala.util.control.NonFatal
+
+/**
+  * Publishes the UTF-8 encoded DOT of `graph` in chunks of about `chunkSize` bytes, rendering
+  * only as much as subscribers request.
+  *
+  * Every subscriber gets the whole graph, rendered for it alone. Rendering runs on
+  * `executor` and stops as soon as demand is exhausted, without blocking a thread; it
+  * resumes from the same element once more is requested. The traversal goes into subgraphs,
+  * batches and element sources, so only other elements, like a single node, are rendered
+  * in one piece. When a subscription is cancelled, the element sources being rendered are
+  * closed.
+  */
+final class DotPublisher(graph: Graph, executor: Executor, chunkSize: Int = 16 * 1024)
+  extends Flow.Publisher[ByteBuffer] {
+  require(chunkSize > 0, "chunkSize must be positive.")
+
+  override def subscribe(subscriber: Flow.Subscriber[_ >: ByteBuffer]): Unit = {
+    if (subscriber == null) throw new NullPointerException("The subscriber must not be null.")
+    new DotSubscription(graph, subscriber, executor, chunkSize).start()
+  }
+}
+
+/**
+  * Signals are only sent from [[run]], which is scheduled on the executor whenever there is
+  * something to do, and never runs twice at the same time. This includes `onSubscribe`, so
+  * that chunks requested from it are only sent once it has returned.
+  */
+private final class DotSubscription(
+  graph: Graph,
+  subscriber: Flow.Subscriber[_ >: ByteBuffer],
+  executor: Executor,
+  chunkSize: Int
+) extends Flow.Subscription with Runnable {
+  private val demand = new AtomicLong
+  // The number of times there was something to do since `run` last looked. It starts at
+  // one for signalling `onSubscribe`.
+  private val pending = new AtomicInteger(1)
+  private var subscribed = false
+  @volatile private var cancelled = false
+  @volatile private var invalidRequest: Option[Long] = None
+
+  private val text = new java.lang.StringBuilder
+  private val out = new RenderContext(text)
+  private val cursor = new RenderCursor(graph, out)
+  private var rendered = false
+  private var done = false
+
+  override def request(n: Long): Unit = {
+    if (n <= 0) {
+      invalidRequest = Some(n)
+    } else {
+      demand.getAndAccumulate(n, (current, added) => if (current + added < 0) Long.MaxValue else current + added)
+    }
+    schedule()
+  }
+
+  override def cancel(): Unit = {
+    cancelled = true
+    schedule()
+  }
+
+  /** Schedules the first [[run]], which signals `onSubscribe`. */
+  def start(): Unit = execute()
+
+  private def schedule(): Unit =
+    if (pending.getAndIncrement() == 0) execute()
+
+  private def execute(): Unit =
+    try executor.execute(this)
+    catch {
+      case NonFatal(e) =>
+        cancelled = true
+        cursor.release()
+        // Nothing else runs if the first run was rejected.
+        if (!subscribed) {
+          subscribed = true
+          subscriber.onSubscribe(this)
+        }
+        subscriber.onError(e)
+    }
+
+  override def run(): Unit = {
+    var missed = 1
+    while (missed != 0) {
+      drain()
+      missed = pending.addAndGet(-missed)
+    }
+  }
+
+  private def drain(): Unit =
+    try {
+      if (!subscribed) {
+        subscribed = true
+        subscriber.onSubscribe(this)
+      }
+      while (!done) {
+        if (cancelled) {
+          finish()
+          return
+        }
+        if (invalidRequest.isDefined) {
+          finish()
+          subscriber.onError(new IllegalArgumentException(s"Requested ${invalidRequest.get} chunks, only positive numbers are allowed."))
+          return
+        }
+        if (rendered && text.length == 0) {
+          finish()
+          subscriber.onComplete()
+          return
+        }
+        if (demand.get == 0) return
+        while (!rendered && text.length < chunkSize) {
+          rendered = !cursor.step()
+          out.flush()
+        }
+        if (text.length > 0) {
+          val chunk = UTF_8.encode(CharBuffer.wrap(text))
+          text.setLength(0)
+          demand.decrementAndGet()
+          subscriber.onNext(chunk)
+        }
+      }
+    } catch {
+      case NonFatal(e) if !done =>
+        finish()
+        subscriber.onError(e)
+    }
+
+  private def finish(): Unit = {
+    done = true
+    cursor.release()
+    text.setLength(0)
+  }
+}
+
+/**
+  * Renders a graph piece by piece, as [[Graph.renderTo]] would render it at once. The
+  * position in the graph is kept in a stack of frames, one for every subgraph, batch or
+  * element source being rendered.
+  */
+private final class RenderCursor(graph: Graph, out: RenderContext) {
+  import RenderCursor._
+
+  private val frames = new java.util.ArrayDeque[Frame]()
+  private var started = false
+
+  /** Renders the next piece, and returns whether there was one. */
+  def step(): Boolean = {
+    if (!started) {
+      started = true
+      graph.renderOpeningTo(out)
+      frames.push(new Elements(graph.elements.iterator, end = () => Blocks.close(out)))
+      return true
+    }
+    val frame = frames.peek()
+    if (frame == null) return false
+    frame match {
+      case elements: Elements =>
+        if (elements.iterator.hasNext) {
+          if (!elements.first) out.append('\n')
+          elements.first = false
+          enter(elements.iterator.next())
+        } else {
+          frames.pop()
+          elements.end()
+        }
+      case batch: Rows =>
+        if (batch.row < batch.size) {
+          val until = math.min(batch.size, batch.row + RowsPerStep)
+          batch.render(batch.row, until)
+          batch.row = until
+        } else {
+          frames.pop()
+        }
+    }
+    true
+  }
+
+  /** Closes the element sources being rendered, without rendering any further. */
+  def release(): Unit =
+    while (!frames.isEmpty) {
+      frames.pop() match {
+        case elements: Elements => elements.release()
+        case _ =>
+      }
+    }
+
+  private def enter(element: GraphElement): Unit = element match {
+    case subGraph: SubGraph =>
+      subGraph.renderOpeningTo(out)
+      frames.push(new Elements(subGraph.elements.iterator, end = () => Blocks.close(out)))
+    case source: ElementSource =>
+      frames.push(new Elements(source.open(), end = () => source.close(), release = () => source.close()))
+    case batch: NodeBatch =>
+      frames.push(new Rows(batch.size, (from, until) => batch.renderRowsTo(out, from, until)))
+    case batch: EdgeBatch =>
+      frames.push(new Rows(batch.size, (from, until) => batch.renderRowsTo(out, from, until)))
+    case other =>
+      other.renderTo(out)
+  }
+}
+
+private object RenderCursor {
+  final val RowsPerStep = 256
+
+  sealed abstract class Frame
+
+  final class Elements(
+    val iterator: Iterator[GraphElement],
+    val end: () => Unit = () => (),
+    val release: () => Unit = () => ()
+  ) extends Frame {
+    var first = true
+  }
+
+  final class Rows(val size: Int, val render: (Int, Int) => Unit) extends Frame {
+    var row = 0
+  }
+}
@@ -0,0 +1,97 @@
+package berlin.softwaretechnik.graphviz
+
+/**
+  * Escaping of double quoted strings in the dot language.
+  *
+  * Quotes, backslashes and line breaks are escaped, as `\"`, `\\` and `\n`, which mean the
+  * same to Graphviz. Everything else, including other control characters and non-ASCII
+  * characters, is passed through unchanged: Graphviz takes the characters of a quoted string
+  * as they are, and gives escapes like `\t` or `\r` meanings of its own, e.g. `\r` ends a
+  * right-justified line.
+  */
+object DotStrings {
+
+  /** Returns `s` itself if nothing needs to be escaped. */
+  def escape(s: String): String = {
+    val first = firstToEscape(s)
+    if (first < 0) {
+      s
+    } else {
+      val out = new java.lang.StringBuilder(s.length + 16)
+      out.append(s, 0, first)
+      appendEscaped(out, s, first)
+      out.toString
+    }
+  }
+
+  /** Appends `s` to `out` escaped, without creating an intermediate string. */
+  def appendEscaped(out: java.lang.StringBuilder, s: String): Unit = {
+    val first = firstToEscape(s)
+    if (first < 0) {
+      out.append(s)
+    } else {
+      out.append(s, 0, first)
+      appendEscaped(out, s, first)
+    }
+  }
+
+  private def firstToEscape(s: String): Int = {
+    var i = 0
+    while (i < s.length) {
+      if (needsEscaping(s.charAt(i))) return i
+      i += 1
+    }
+    -1
+  }
+
+  @inline private def needsEscaping(c: Char): Boolean = c == '"' || c == '\\' || c == '\n'
+
+  private def appendEscaped(out: java.lang.StringBuilder, s: String, from: Int): Unit = {
+    var start = from
+    var i = from
+    while (i < s.length) {
+      val c = s.charAt(i)
+      if (needsEscaping(c)) {
+        out.append(s, start, i)
+        c match {
+          case '"' => out.append("\\\"")
+          case '\\' => out.append("\\\\")
+          case _ => out.append("\\n")
+        }
+        start = i + 1
+      }
+      i += 1
+    }
+    out.append(s, start, s.length)
+  }
+
+  /**
+    * The text that [[escape]] turns into `s`, the content of a quoted DOT string, or null if
+    * there is none. Only `\"`, `\\` and `\n` are resolved, the escape sequences [[escape]]
+    * writes. Other escape sequences, like Graphviz's own `\l`, `\r` or `\N`, have no
+    * counterpart in it, see [[berlin.softwaretechnik.graphviz.attributes.EscString]].
+    * Returns `s` itself if there is nothing to resolve.
+    */
+  def unescape(s: String): String = {
+    if (s.indexOf('\\') < 0) return s
+    val out = new java.lang.StringBuilder(s.length)
+    var i = 0
+    while (i < s.length) {
+      val c = s.charAt(i)
+      if (c == '\\') {
+        if (i + 1 == s.length) return null
+        s.charAt(i + 1) match {
+          case '"' => out.append('"')
+          case '\\' => out.append('\\')
+          case 'n' => out.append('\n')
+          case _ => return null
+        }
+        i += 2
+      } else {
+        out.append(c)
+        i += 1
+      }
+    }
+    out.toString
+  }
+}
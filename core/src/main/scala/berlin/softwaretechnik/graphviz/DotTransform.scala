@@ -0,0 +1,64 @@
+package berlin.softwaretechnik.graphviz
+
+import berlin.softwaretechnik.graphviz.attributes.{Attributes, EdgeAttributes, NodeAttributes}
+
+/**
+  * A stage of a streaming pipeline, which turns the handler its output goes to into the
+  * handler for its input. Stages are chained with [[andThen]] and end in a handler, e.g. a
+  * [[DotWriter]]:
+  * {{{
+  * val restyle = DotTransform.filterNodes((id, _) => !id.startsWith("tmp_"))
+  *   .andThen(DotTransform.mapEdges((_, _, attributes) => attributes.copy(color = Color("#999999"))))
+  * new DotParser().parse(in, restyle.to(new DotWriter(out)))
+  * }}}
+  */
+trait DotTransform { self =>
+  def to(next: DotHandler): DotHandler
+
+  /** This stage followed by `other`. */
+  def andThen(other: DotTransform): DotTransform = next => self.to(other.to(next))
+}
+
+object DotTransform {
+
+  val identity: DotTransform = next => next
+
+  /**
+    * Drops the node statements `keep` rejects. Edges to the dropped nodes are kept, so
+    * Graphviz would still create them; see [[filterEdges]].
+    */
+  def filterNodes(keep: (String, NodeAttributes) => Boolean): DotTransform = next =>
+    new DotFilter(next) {
+      override def onNode(id: String, attributes: NodeAttributes, unsupported: Attributes): Unit =
+        if (keep(id, attributes)) next.onNode(id, attributes, unsupported)
+    }
+
+  def filterEdges(keep: (String, String, EdgeAttributes) => Boolean): DotTransform = next =>
+    new DotFilter(next) {
+      override def onEdge(from: String, to: String, attributes: EdgeAttributes, unsupported: Attributes): Unit =
+        if (keep(from, to, attributes)) next.onEdge(from, to, attributes, unsupported)
+    }
+
+  /** Replaces the attributes of node statements, e.g. to restyle or relabel them. */
+  def mapNodes(f: (String, NodeAttributes) => NodeAttributes): DotTransform = next =>
+    new DotFilter(next) {
+      override def onNode(id: String, attributes: NodeAttributes, unsupported: Attributes): Unit =
+        next.onNode(id, f(id, attributes), unsupported)
+    }
+
+  def mapEdges(f: (String, String, EdgeAttributes) => EdgeAttributes): DotTransform = next =>
+    new DotFilter(next) {
+      override def onEdge(from: String, to: String, attributes: EdgeAttributes, unsupported: Attributes): Unit =
+        next.onEdge(from, to, f(from, to, attributes), unsupported)
+    }
+
+  /** Renames nodes, both in node statements and at the ends of edges. */
+  def renameNodes(f: String => String): DotTransform = next =>
+    new DotFilter(next) {
+      override def onNode(id: String, attributes: NodeAttributes, unsupported: Attributes): Unit =
+        next.onNode(f(id), attributes, unsupported)
+
+      override def onEdge(from: String, to: String, attributes: EdgeAttributes, unsupported: Attributes): Unit =
+        next.onEdge(f(from), f(to), attributes, unsupported)
+    }
+}
@@ -0,0 +1,74 @@
+package berlin.softwaretechnik.graphviz
+
+import berlin.softwaretechnik.graphviz.attributes._
+import berlin.softwaretechnik.graphviz.attributes.html.Html
+
+/** Turns attribute values read from DOT into the types the attribute classes declare. */
+private[graphviz] object DotValues {
+
+  private val enums: Map[String, Map[String, AnyRef]] = Seq[(String, Seq[AnyRef])](
+    "ArrowType" -> ArrowType.values,
+    "ClusterMode" -> ClusterMode.values,
+    "DirType" -> DirType.values,
+    "OutputMode" -> OutputMode.values,
+    "PackMode" -> PackMode.values,
+    "PageDir" -> PageDir.values,
+    "RankDir" -> RankDir.values,
+    "RankType" -> RankType.values,
+    "Shape" -> Shape.values,
+    "Style" -> Style.values
+  ).map { case (typeName, values) => typeName -> values.map(v => v.toString -> v).toMap }.toMap
+
+  /**
+    * `value` as an instance of the type called `typeName`, as returned by `typeOf` of the
+    * attribute classes, or null if it cannot be represented as one. `value` is given as
+    * [[DotLexer.value]] returns it.
+    *
+    * Labels with escape sequences only Graphviz resolves, like `\l` or `\N`, become
+    * [[EscString]]s; other attributes with them, e.g. a tooltip, cannot be represented.
+    */
+  def parse(typeName: String, value: String, html: Boolean): AnyRef =
+    if (typeName == "LabelString") {
+      if (html) {
+        Html(value)
+      } else {
+        val text = DotStrings.unescape(value)
+        if (text != null) Plain(text) else EscString(value)
+      }
+    } else {
+      val text = if (html) value else DotStrings.unescape(value)
+      if (text == null) null else parse(typeName, text)
+    }
+
+  private def parse(typeName: String, value: String): AnyRef =
+    try {
+      typeName match {
+        case "String" => value
+        case "java.lang.Double" => java.lang.Double.valueOf(value)
+        case "java.lang.Integer" => java.lang.Integer.valueOf(value)
+        case "java.lang.Boolean" => boolean(value)
+        case "Color" | "ColorOrList" => Color(value)
+        case "PointF" => pointF(value)
+        case "PointFList" => PointFList(value.trim.split("\\s+").toSeq.map(pointF))
+        case "Rect" => value.split(',').map(_.toDouble) match {
+          case Array(llx, lly, urx, ury) => Rect(llx, lly, urx, ury)
+          case _ => null
+        }
+        case _ => enums.get(typeName).flatMap(_.get(value)).orNull
+      }
+    } catch {
+      case _: NumberFormatException => null
+    }
+
+  private def boolean(value: String): java.lang.Boolean = value.toLowerCase match {
+    case "true" | "yes" => java.lang.Boolean.TRUE
+    case "false" | "no" => java.lang.Boolean.FALSE
+    case number => java.lang.Boolean.valueOf(number.toInt != 0)
+  }
+
+  private def pointF(value: String): PointF = value.split(',').map(_.toDouble) match {
+    case Array(x, y) => PointF(x, y)
+    case Array(l) => PointF(l)
+    case _ => throw new NumberFormatException(value)
+  }
+}
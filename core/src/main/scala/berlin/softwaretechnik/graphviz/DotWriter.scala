@@ -0,0 +1,175 @@
+package berlin.softwaretechnik.graphviz
+
+import java.io.Flushable
+import java.nio.channels.WritableByteChannel
+
+import berlin.softwaretechnik.graphviz.attributes._
+
+import scala.collection.mutable.ArrayBuffer
+
+/**
+  * A [[DotHandler]] that writes the statements it receives to `out` as they come, the
+  * end of a streaming pipeline. Only the open blocks are kept, so the memory used does not
+  * depend on the size of the graph.
+  *
+  * The output is the same as rendering the graph: a graph rendered by [[Renderable]] and
+  * read back by [[DotParser]] is written exactly as it was. Unsupported attributes, see
+  * [[DotHandler]], are written after the others, as they were read.
+  */
+class DotWriter(out: Appendable, indentation: String = "  ") extends DotHandler {
+  import DotWriter.{Block, withUnsupported}
+
+  private val context = new RenderContext(out, indentation)
+  private val blocks = ArrayBuffer[Block]()
+
+  override def onGraphStart(id: Option[String]): Unit = open("digraph", id)
+
+  override def onGraphAttributes(attributes: GraphAttributes): Unit = statements(attributes)
+
+  override def onGraphAttributes(attributes: GraphAttributes, unsupported: Attributes): Unit =
+    statements(withUnsupported(attributes, unsupported))
+
+  override def onSubgraphStart(id: Option[String]): Unit = {
+    element()
+    open("subgraph", id)
+  }
+
+  override def onSubgraphAttributes(attributes: SubgraphAttributes): Unit = statements(attributes)
+
+  override def onSubgraphAttributes(attributes: SubgraphAttributes, unsupported: Attributes): Unit =
+    statements(withUnsupported(attributes, unsupported))
+
+  override def onNodeDefaults(attributes: NodeAttributes): Unit = nodeDefaults(attributes)
+
+  override def onNodeDefaults(attributes: NodeAttributes, unsupported: Attributes): Unit =
+    nodeDefaults(withUnsupported(attributes, unsupported))
+
+  override def onEdgeDefaults(attributes: EdgeAttributes): Unit = edgeDefaults(attributes)
+
+  override def onEdgeDefaults(attributes: EdgeAttributes, unsupported: Attributes): Unit =
+    edgeDefaults(withUnsupported(attributes, unsupported))
+
+  override def onNode(id: String, attributes: NodeAttributes): Unit = onNode(id, attributes, Attributes.empty)
+
+  override def onNode(id: String, attributes: NodeAttributes, unsupported: Attributes): Unit = {
+    element()
+    Blocks.node(context, id, withUnsupported(attributes, unsupported))
+  }
+
+  override def onEdge(from: String, to: String, attributes: EdgeAttributes): Unit =
+    onEdge(from, to, attributes, Attributes.empty)
+
+  override def onEdge(from: String, to: String, attributes: EdgeAttributes, unsupported: Attributes): Unit = {
+    element()
+    Blocks.edge(context, from, to, withUnsupported(attributes, unsupported))
+  }
+
+  override def onSubgraphEnd(): Unit = close()
+
+  override def onGraphEnd(): Unit = {
+    close()
+    flush()
+  }
+
+  /** Hands everything written so far to `out`, and flushes it if it can be. */
+  def flush(): Unit = {
+    context.flush()
+    out match {
+      case flushable: Flushable => flushable.flush()
+      case _ =>
+    }
+  }
+
+  private def open(keyword: String, id: Option[String]): Unit = {
+    Blocks.open(context, keyword, id)
+    blocks += new Block
+  }
+
+  private def close(): Unit = {
+    // The line of attribute statements is always ended, even if there are none.
+    if (!blocks.last.elements) context.append('\n')
+    Blocks.close(context)
+    blocks.remove(blocks.length - 1)
+  }
+
+  // Graph and SubGraph write defaults with a different separator.
+  private def keyword(keyword: String): String = if (blocks.length > 1) keyword + " " else keyword
+
+  private def statements(attributes: Attributes): Unit = {
+    val block = blocks.last
+    if (!attributes.isEmpty) {
+      if (block.elements) {
+        element()
+      } else if (block.statements) {
+        context.append('\n')
+      }
+      context.appendStatements(attributes)
+      block.statements = true
+    }
+  }
+
+  private def nodeDefaults(attributes: Attributes): Unit = {
+    val block = blocks.last
+    if (!attributes.isEmpty) {
+      if (block.nodeDefaults || block.edgeDefaults || block.statements || block.elements) {
+        lateDefaults("node", attributes)
+      } else {
+        Blocks.defaults(context, keyword("node"), attributes)
+        block.nodeDefaults = true
+      }
+    }
+  }
+
+  private def edgeDefaults(attributes: Attributes): Unit = {
+    val block = blocks.last
+    if (!attributes.isEmpty) {
+      if (block.edgeDefaults || block.statements || block.elements) {
+        lateDefaults("edge", attributes)
+      } else {
+        Blocks.defaults(context, keyword("edge"), attributes)
+        block.edgeDefaults = true
+      }
+    }
+  }
+
+  private def lateDefaults(keyword: String, attributes: Attributes): Unit = {
+    element()
+    context.append(keyword).appendWithBrackets(attributes).append(';')
+  }
+
+  /**
+    * Starts a line for an element. Before the first one, this ends the line of attribute
+    * statements; after that, it separates it from the previous element.
+    */
+  private def element(): Unit = {
+    context.append('\n')
+    blocks.last.elements = true
+  }
+}
+
+object DotWriter {
+
+  /** `attributes` followed by the `unsupported` ones, so that they render in one list. */
+  private def withUnsupported(attributes: Attributes, unsupported: Attributes): Attributes =
+    if (unsupported.isEmpty) attributes
+    else new Attributes {
+      override def toAttributeMap(): Seq[(String, Any)] = attributes.toAttributeMap() ++ unsupported.toAttributeMap()
+
+      override def foreachSet(visitor: AttributeVisitor): Unit = {
+        attributes.foreachSet(visitor)
+        unsupported.foreachSet(visitor)
+      }
+
+      override def isEmpty: Boolean = false
+    }
+
+  /** Writes UTF-8 encoded to `channel`, leaving it open. */
+  def apply(channel: WritableByteChannel): DotWriter = new DotWriter(new Utf8ChannelWriter(channel))
+
+  private final class Block {
+    var nodeDefaults = false
+    var edgeDefaults = false
+    var statements = false
+    var elements = false
+  }
+}
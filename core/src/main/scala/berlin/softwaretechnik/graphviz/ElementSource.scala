@@ -0,0 +1,77 @@
+package berlin.softwaretechnik.graphviz
+
+import java.util.concurrent.atomic.AtomicBoolean
+
+import scala.jdk.CollectionConverters._
+
+/**
+  * Elements that are pulled from a source while they are rendered, instead of being held
+  * in `elements`, e.g. rows read from a database cursor. It can be put among the elements
+  * of a [[Graph]] or [[SubGraph]], where its elements render as if they were there.
+  *
+  * Only the element being rendered is held, so rendering through `renderTo` or `writeTo`
+  * takes the same memory however many elements the source has. Sources made from an
+  * `Iterator` or a `Stream` can be rendered only once, any further attempt fails; see
+  * [[ElementSource.apply]] for sources that are opened anew for every render.
+  *
+  * A source is compared by identity, and contributes an identity to the content hash of
+  * the graph, since its elements are not known without consuming it.
+  */
+final class ElementSource private (opener: () => Iterator[GraphElement], closer: () => Unit) extends GraphElement {
+
+  override def renderTo(out: RenderContext): Unit = {
+    val elements = open()
+    try {
+      var first = true
+      while (elements.hasNext) {
+        val element = elements.next()
+        val admitted = out.admit(element, first)
+        if (admitted == RenderContext.Stop) return
+        if (admitted == RenderContext.Render) {
+          if (!first) out.append('\n')
+          element.renderTo(out)
+        }
+        // A skipped element leaves the truncation marker in its place.
+        first = false
+      }
+    } finally {
+      close()
+    }
+  }
+
+  /** The elements for one render, which must be followed by [[close]]. */
+  private[graphviz] def open(): Iterator[GraphElement] = opener()
+
+  private[graphviz] def close(): Unit = closer()
+
+  override def toString: String = "ElementSource"
+}
+
+object ElementSource {
+
+  /** A source that calls `open` for the elements every time it is rendered. */
+  def apply(open: () => Iterator[GraphElement]): ElementSource = new ElementSource(open, () => ())
+
+  /** A source of the remaining elements of `iterator`. */
+  def fromIterator(iterator: Iterator[GraphElement]): ElementSource =
+    new ElementSource(once(iterator), () => ())
+
+  /** A source of the elements of `stream`, which is closed once they are rendered. */
+  def fromStream(stream: java.util.stream.Stream[_ <: GraphElement]): ElementSource =
+    new ElementSource(once(stream.iterator.asScala), () => stream.close())
+
+  /**
+    * A source of the elements `next` returns, until it returns null. This suits APIs that
+    * hand out one element per call, like cursors and queue consumers.
+    */
+  def fromCallback(next: () => GraphElement): ElementSource =
+    fromIterator(Iterator.continually(next()).takeWhile(_ != null))
+
+  private def once(elements: Iterator[GraphElement]): () => Iterator[GraphElement] = {
+    val consumed = new AtomicBoolean
+    () => {
+      if (consumed.getAndSet(true)) throw new IllegalStateException("The elements of this source have been rendered already.")
+      elements
+    }
+  }
+}
@@ -0,0 +1,235 @@
+package berlin.softwaretechnik.graphviz
+
+import berlin.softwaretechnik.graphviz.attributes._
+
+/**
+  * Builds a large graph without an object per node and edge.
+  *
+  * Every node id is stored once and numbered in the order nodes are added; edges refer to
+  * nodes by these numbers and are kept in primitive arrays. Attributes are only stored for
+  * nodes and edges that have any, so an edge without attributes takes 8 bytes, plus the
+  * spare capacity of the arrays. They are stored as [[SparseNodeAttributes]] and
+  * [[SparseEdgeAttributes]], which hold only the attributes that are set.
+  *
+  * The graph can be rendered directly or turned into a [[Graph]] with [[result]]. Either
+  * way, all nodes come first, in the order they were added, followed by all edges.
+  *
+  * A builder is not thread-safe.
+  */
+final class GraphBuilder(
+  id: Option[String] = None,
+  attributes: GraphAttributes = GraphAttributes(),
+  nodeDefaults: NodeAttributes = NodeAttributes(),
+  edgeDefaults: EdgeAttributes = EdgeAttributes()
+) extends Renderable {
+  import GraphBuilder._
+
+  // Everything but the elements, rendered the same way.
+  private val opening = Graph(id, attributes, nodeDefaults, edgeDefaults, Nil)
+
+  private var ids = new Array[String](InitialCapacity)
+  private var attributesOfNodes: Array[SparseNodeAttributes] = _
+  private var nodes = 0
+  private val table = new IdTable.OnHeap(InitialCapacity * 2) {
+    override protected def hashOf(node: Int): Int = IdTable.hash(ids(node))
+  }
+
+  private var sources = new Array[Int](InitialCapacity)
+  private var targets = new Array[Int](InitialCapacity)
+  private var attributesOfEdges: Array[SparseEdgeAttributes] = _
+  private var edges = 0
+  // The last edge attributes given as a case class, so that edges given the same instance
+  // in a row share its sparse form.
+  private var lastEdgeAttributes: EdgeAttributes = _
+  private var lastSparseEdgeAttributes: SparseEdgeAttributes = _
+
+  def nodeCount: Int = nodes
+
+  def edgeCount: Int = edges
+
+  /** The id of node number `node`. */
+  def nodeId(node: Int): String = {
+    checkNode(node)
+    ids(node)
+  }
+
+  /** The number of the node with `id`, or -1 if it has not been added. */
+  def indexOf(id: String): Int = table.entry(slotOf(id))
+
+  /** The number of the node with `id`, which is added if it isn't there yet. */
+  def node(id: String): Int = {
+    require(id != null, "Node ids must not be null.")
+    val slot = slotOf(id)
+    val node = table.entry(slot)
+    if (node >= 0) return node
+    if (nodes == ids.length) {
+      ids = java.util.Arrays.copyOf(ids, grown(ids.length))
+      if (attributesOfNodes != null) attributesOfNodes = java.util.Arrays.copyOf(attributesOfNodes, ids.length)
+    }
+    ids(nodes) = id
+    nodes += 1
+    table.add(slot)
+  }
+
+  /** Like `node(id)`, and sets the attributes of the node, replacing any it had. */
+  def node(id: String, attributes: NodeAttributes): Int =
+    node(id, if (attributes.isEmpty) null else SparseNodeAttributes.from(attributes))
+
+  /** Like `node(id)`, and sets the attributes of the node, replacing any it had. */
+  def node(id: String, attributes: SparseNodeAttributes): Int = {
+    val node = this.node(id)
+    val stored = if (attributes == null || attributes.isEmpty) null else attributes
+    if (stored != null && attributesOfNodes == null) attributesOfNodes = new Array[SparseNodeAttributes](ids.length)
+    if (attributesOfNodes != null) attributesOfNodes(node) = stored
+    node
+  }
+
+  /** The attributes of node number `node`. */
+  def nodeAttributes(node: Int): NodeAttributes = {
+    checkNode(node)
+    val attributes = storedNodeAttributes(node)
+    if (attributes == null) NoNodeAttributes else attributes.toAttributes
+  }
+
+  /** Adds an edge between the nodes numbered `from` and `to`. */
+  def edge(from: Int, to: Int): Unit = {
+    checkNode(from)
+    checkNode(to)
+    if (edges == sources.length) {
+      sources = java.util.Arrays.copyOf(sources, grown(sources.length))
+      targets = java.util.Arrays.copyOf(targets, sources.length)
+      if (attributesOfEdges != null) attributesOfEdges = java.util.Arrays.copyOf(attributesOfEdges, sources.length)
+    }
+    sources(edges) = from
+    targets(edges) = to
+    edges += 1
+  }
+
+  /**
+    * Adds an edge between the nodes numbered `from` and `to` with `attributes`. Edges given
+    * the same instance in a row share one sparse form of it; to share one among any edges,
+    * pass [[SparseEdgeAttributes]].
+    */
+  def edge(from: Int, to: Int, attributes: EdgeAttributes): Unit = {
+    if (attributes ne lastEdgeAttributes) {
+      lastEdgeAttributes = attributes
+      lastSparseEdgeAttributes = if (attributes.isEmpty) null else SparseEdgeAttributes.from(attributes)
+    }
+    edge(from, to, lastSparseEdgeAttributes)
+  }
+
+  /**
+    * Adds an edge between the nodes numbered `from` and `to` with `attributes`. The
+    * instance is stored as it is, so edges with the same attributes should share one, see
+    * [[Interner]].
+    */
+  def edge(from: Int, to: Int, attributes: SparseEdgeAttributes): Unit = {
+    edge(from, to)
+    if (attributes != null && !attributes.isEmpty) {
+      if (attributesOfEdges == null) attributesOfEdges = new Array[SparseEdgeAttributes](sources.length)
+      attributesOfEdges(edges - 1) = attributes
+    }
+  }
+
+  /** Adds an edge between the nodes with the ids `from` and `to`, adding them if needed. */
+  def edge(from: String, to: String, attributes: EdgeAttributes = EdgeAttributes()): Unit =
+    edge(node(from), node(to), attributes)
+
+  /** The number of the node edge number `edge` starts at. */
+  def edgeSource(edge: Int): Int = {
+    checkEdge(edge)
+    sources(edge)
+  }
+
+  /** The number of the node edge number `edge` ends at. */
+  def edgeTarget(edge: Int): Int = {
+    checkEdge(edge)
+    targets(edge)
+  }
+
+  /** The attributes of edge number `edge`. */
+  def edgeAttributes(edge: Int): EdgeAttributes = {
+    checkEdge(edge)
+    val attributes = storedEdgeAttributes(edge)
+    if (attributes == null) NoEdgeAttributes else attributes.toAttributes
+  }
+
+  /**
+    * The graph built so far, which renders exactly like this builder. Nodes and edges that
+    * share attributes here share them in the graph as well.
+    */
+  def result(): Graph = {
+    val elements = new Array[GraphElement](nodes + edges)
+    val nodeAttributes = new java.util.IdentityHashMap[SparseNodeAttributes, NodeAttributes]()
+    var i = 0
+    while (i < nodes) {
+      val attributes = storedNodeAttributes(i)
+      elements(i) = Node(ids(i), if (attributes == null) NoNodeAttributes else nodeAttributes.computeIfAbsent(attributes, _.toAttributes))
+      i += 1
+    }
+    val edgeAttributes = new java.util.IdentityHashMap[SparseEdgeAttributes, EdgeAttributes]()
+    i = 0
+    while (i < edges) {
+      val attributes = storedEdgeAttributes(i)
+      elements(nodes + i) = Edge(ids(sources(i)), ids(targets(i)),
+        if (attributes == null) NoEdgeAttributes else edgeAttributes.computeIfAbsent(attributes, _.toAttributes))
+      i += 1
+    }
+    opening.copy(elements = scala.collection.immutable.ArraySeq.unsafeWrapArray(elements))
+  }
+
+  override def renderTo(out: RenderContext): Unit = {
+    opening.renderOpeningTo(out)
+    var i = 0
+    while (i < nodes && out.admit(null, i == 0) == RenderContext.Render) {
+      if (i > 0) out.append('\n')
+      Blocks.node(out, ids(i), orEmpty(storedNodeAttributes(i)))
+      i += 1
+    }
+    i = 0
+    while (i < edges && out.admit(null, nodes + i == 0) == RenderContext.Render) {
+      if (nodes + i > 0) out.append('\n')
+      Blocks.edge(out, ids(sources(i)), ids(targets(i)), orEmpty(storedEdgeAttributes(i)))
+      i += 1
+    }
+    Blocks.close(out)
+  }
+
+  private def storedNodeAttributes(node: Int): SparseNodeAttributes =
+    if (attributesOfNodes == null) null else attributesOfNodes(node)
+
+  private def storedEdgeAttributes(edge: Int): SparseEdgeAttributes =
+    if (attributesOfEdges == null) null else attributesOfEdges(edge)
+
+  private def orEmpty(attributes: Attributes): Attributes = if (attributes == null) Attributes.empty else attributes
+
+  /** The slot of the node with `id`, or the free one it would go into. */
+  private def slotOf(id: String): Int = {
+    var slot = table.firstSlot(IdTable.hash(id))
+    var node = table.entry(slot)
+    while (node >= 0 && ids(node) != id) {
+      slot = table.nextSlot(slot)
+      node = table.entry(slot)
+    }
+    slot
+  }
+
+  private def checkNode(node: Int): Unit =
+    if (node < 0 || node >= nodes) throw new IndexOutOfBoundsException(s"No node number $node, there are $nodes.")
+
+  private def checkEdge(edge: Int): Unit =
+    if (edge < 0 || edge >= edges) throw new IndexOutOfBoundsException(s"No edge number $edge, there are $edges.")
+}
+
+object GraphBuilder {
+  private final val InitialCapacity = 16
+
+  private val NoNodeAttributes = NodeAttributes()
+  private val NoEdgeAttributes = EdgeAttributes()
+
+  // By half, so that full arrays waste at most a third of their size.
+  private def grown(length: Int): Int = {
+    val grown = length + (length >> 1)
+    if (grown < 0) Int.MaxValue - 8 else grown
+  }
+}
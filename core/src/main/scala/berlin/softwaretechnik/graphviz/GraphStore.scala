@@ -0,0 +1,350 @@
+package berlin.softwaretechnik.graphviz
+
+import java.nio.channels.FileChannel
+import java.nio.channels.FileChannel.MapMode.READ_WRITE
+import java.nio.file.StandardOpenOption.{CREATE_NEW, READ, WRITE}
+import java.nio.file.{DirectoryNotEmptyException, Files, Path}
+import java.nio.{ByteBuffer, CharBuffer, MappedByteBuffer}
+
+import berlin.softwaretechnik.graphviz.attributes._
+
+import scala.collection.mutable.ArrayBuffer
+
+/**
+  * Builds a graph in memory-mapped files in `directory`, for graphs too large for the heap.
+  *
+  * Works like [[GraphBuilder]]: nodes are numbered in the order they are added, edges refer
+  * to them by number, and rendering writes all nodes followed by all edges. Node ids, the
+  * table that finds nodes by id, the edges and the rendered attributes all live in the
+  * files, and rendering streams over them, so neither building nor rendering allocates per
+  * node or edge.
+  *
+  * Attributes are rendered when they are added and stored as text. Instances that are used
+  * repeatedly, e.g. a shared style, are stored once as long as they are among the last
+  * [[GraphStore.RecentAttributes]] distinct ones added. As their text is fixed by then, a
+  * [[RenderCache]] and the `maxLabelLength` of [[RenderLimits]] do not apply to them.
+  *
+  * The files are only scratch space: they are created anew and must not exist yet. [[close]]
+  * unmaps and deletes them, and then `directory` as well if nothing else is left in it. A
+  * store is not thread-safe.
+  */
+final class GraphStore(
+  directory: Path,
+  id: Option[String] = None,
+  attributes: GraphAttributes = GraphAttributes(),
+  nodeDefaults: NodeAttributes = NodeAttributes(),
+  edgeDefaults: EdgeAttributes = EdgeAttributes(),
+  segmentSize: Int = GraphStore.DefaultSegmentSize
+) extends Renderable with AutoCloseable {
+  import GraphStore._
+
+  require(segmentSize >= 64 && Integer.bitCount(segmentSize) == 1, "segmentSize must be a power of two of at least 64.")
+
+  Files.createDirectories(directory)
+
+  private val strings = new MappedRegion(directory.resolve("strings"), segmentSize)
+  private var stringsEnd = 0L
+  // Per node: the position of its id in `strings`, and its style.
+  private val nodeIds = new MappedRegion(directory.resolve("nodes"), segmentSize)
+  private val nodeStyles = new MappedRegion(directory.resolve("node-styles"), segmentSize)
+  private var nodes = 0
+  // The slots of `table`, in a new file whenever it grows.
+  private var slotsGeneration = 0
+  private var slots = new MappedRegion(directory.resolve("slots.0"), segmentSize)
+  private val table = new IdTable(InitialSlots) {
+    override protected def hashOf(node: Int): Int = idHash(node)
+
+    override protected def getSlot(slot: Int): Int = slots.getInt(slot * 4L)
+
+    override protected def setSlot(slot: Int, value: Int): Unit = slots.putInt(slot * 4L, value)
+
+    override protected def clearSlots(slotCount: Int): Unit = {
+      slots.delete()
+      slotsGeneration += 1
+      slots = new MappedRegion(directory.resolve(s"slots.$slotsGeneration"), segmentSize)
+    }
+  }
+  // Per edge: source, target and style.
+  private val edgeTable = new MappedRegion(directory.resolve("edges"), segmentSize)
+  private var edges = 0L
+  // Per style: the position of its text in `strings`, inverted if it spans several lines.
+  private val styles = new MappedRegion(directory.resolve("styles"), segmentSize)
+  private var styleCount = 0
+  private val recentStyles = new java.util.LinkedHashMap[Attributes, Integer](64, 0.75f, true) {
+    override def removeEldestEntry(eldest: java.util.Map.Entry[Attributes, Integer]): Boolean =
+      size > RecentAttributes
+  }
+  private var closed = false
+
+  // Everything but the elements, rendered the same way.
+  private val opening = Graph(id, attributes, nodeDefaults, edgeDefaults, Nil)
+
+  def nodeCount: Int = nodes
+
+  def edgeCount: Long = edges
+
+  /** The id of node number `node`. */
+  def nodeId(node: Int): String = {
+    checkOpen()
+    checkNode(node)
+    val position = nodeIds.getLong(node * 8L)
+    val length = strings.getInt(position)
+    val chars = strings.chars(position + 4)
+    val start = strings.charIndex(position + 4)
+    chars.subSequence(start, start + length).toString
+  }
+
+  /** The number of the node with `id`, which is added if it isn't there yet. */
+  def node(id: String): Int = {
+    require(id != null, "Node ids must not be null.")
+    checkOpen()
+    var slot = table.firstSlot(IdTable.hash(id))
+    var node = table.entry(slot)
+    while (node >= 0) {
+      if (idEquals(node, id)) return node
+      slot = table.nextSlot(slot)
+      node = table.entry(slot)
+    }
+    if (nodes == Int.MaxValue - 1) throw new IllegalStateException("Too many nodes.")
+    nodeIds.putLong(nodes * 8L, addString(id))
+    nodeStyles.putInt(nodes * 4L, NoStyle)
+    nodes += 1
+    table.add(slot)
+  }
+
+  /** Like `node(id)`, and sets the attributes of the node, replacing any it had. */
+  def node(id: String, attributes: NodeAttributes): Int = {
+    val node = this.node(id)
+    nodeStyles.putInt(node * 4L, style(attributes))
+    node
+  }
+
+  /** Adds an edge between the nodes numbered `from` and `to`. */
+  def edge(from: Int, to: Int): Unit = edge(from, to, NoStyle)
+
+  /** Adds an edge between the nodes numbered `from` and `to` with `attributes`. */
+  def edge(from: Int, to: Int, attributes: EdgeAttributes): Unit = edge(from, to, style(attributes))
+
+  /** Adds an edge between the nodes with the ids `from` and `to`, adding them if needed. */
+  def edge(from: String, to: String, attributes: EdgeAttributes = EdgeAttributes()): Unit =
+    edge(node(from), node(to), attributes)
+
+  private def edge(from: Int, to: Int, style: Int): Unit = {
+    checkOpen()
+    checkNode(from)
+    checkNode(to)
+    val position = edges * EdgeBytes
+    edgeTable.putInt(position, from)
+    edgeTable.putInt(position + 4, to)
+    edgeTable.putInt(position + 8, style)
+    edges += 1
+  }
+
+  override def renderTo(out: RenderContext): Unit = {
+    checkOpen()
+    opening.renderOpeningTo(out)
+    var node = 0
+    while (node < nodes && out.admit(null, node == 0) == RenderContext.Render) {
+      if (node > 0) out.append('\n')
+      appendId(out, node)
+      appendStyle(out, nodeStyles.getInt(node * 4L))
+      out.append(';')
+      node += 1
+    }
+    var edge = 0L
+    while (edge < edges && out.admit(null, nodes + edge == 0) == RenderContext.Render) {
+      if (nodes + edge > 0) out.append('\n')
+      val position = edge * EdgeBytes
+      appendId(out, edgeTable.getInt(position))
+      out.append(" -> ")
+      appendId(out, edgeTable.getInt(position + 4))
+      appendStyle(out, edgeTable.getInt(position + 8))
+      out.append(';')
+      edge += 1
+    }
+    Blocks.close(out)
+  }
+
+  /** Unmaps and deletes the files, and `directory` if it is empty then. */
+  override def close(): Unit = if (!closed) {
+    closed = true
+    Seq(strings, nodeIds, nodeStyles, slots, edgeTable, styles).foreach(_.delete())
+    try Files.deleteIfExists(directory)
+    catch {
+      case _: DirectoryNotEmptyException =>
+    }
+  }
+
+  private def appendId(out: RenderContext, node: Int): Unit = {
+    val position = nodeIds.getLong(node * 8L)
+    appendString(out, position)
+  }
+
+  private def appendStyle(out: RenderContext, style: Int): Unit =
+    if (style != NoStyle) {
+      val position = styles.getLong(style * 8L)
+      val string = if (position >= 0) position else ~position
+      val length = strings.getInt(string)
+      val start = strings.charIndex(string + 4)
+      AttributeWriter.appendRendered(out, strings.chars(string + 4), start, start + length, multiLine = position < 0)
+    }
+
+  private def appendString(out: RenderContext, position: Long): Unit = {
+    val length = strings.getInt(position)
+    val start = strings.charIndex(position + 4)
+    out.append(strings.chars(position + 4), start, start + length)
+  }
+
+  /** The number of a style for `attributes`, reusing the one of an equal recent instance. */
+  private def style(attributes: Attributes): Int = {
+    checkOpen()
+    if (attributes.isEmpty) return NoStyle
+    val recent = recentStyles.get(attributes)
+    if (recent != null) return recent
+    val (text, multiLine) = AttributeWriter.render(attributes)
+    val position = addString(text)
+    styleCount += 1
+    styles.putLong(styleCount * 8L, if (multiLine) ~position else position)
+    recentStyles.put(attributes, styleCount)
+    styleCount
+  }
+
+  /**
+    * Appends `s` to `strings` as its length followed by its characters, and returns its
+    * position. Strings do not cross segments, so each can be read from a single one.
+    */
+  private def addString(s: String): Long = {
+    val bytes = 4L + 2L * s.length
+    if (bytes > segmentSize) throw new IllegalArgumentException(s"A string of ${s.length} characters does not fit into a segment.")
+    val remaining = segmentSize - stringsEnd % segmentSize
+    if (bytes > remaining) stringsEnd += remaining
+    val position = stringsEnd
+    strings.putInt(position, s.length)
+    strings.putChars(position + 4, s)
+    // Keeps the next length aligned, so it does not cross a segment either.
+    stringsEnd = (position + bytes + 3) & ~3L
+    position
+  }
+
+  private def idEquals(node: Int, id: String): Boolean = {
+    val position = nodeIds.getLong(node * 8L)
+    if (strings.getInt(position) != id.length) return false
+    val chars = strings.chars(position + 4)
+    val start = strings.charIndex(position + 4)
+    var i = 0
+    while (i < id.length) {
+      if (chars.get(start + i) != id.charAt(i)) return false
+      i += 1
+    }
+    true
+  }
+
+  /** [[IdTable.hash]] of the id of `node`, without reading it into a string. */
+  private def idHash(node: Int): Int = {
+    val position = nodeIds.getLong(node * 8L)
+    val length = strings.getInt(position)
+    val chars = strings.chars(position + 4)
+    val start = strings.charIndex(position + 4)
+    // The same as String.hashCode of the id.
+    var h = 0
+    var i = 0
+    while (i < length) {
+      h = 31 * h + chars.get(start + i)
+      i += 1
+    }
+    IdTable.hash(h, length)
+  }
+
+  private def checkNode(node: Int): Unit =
+    if (node < 0 || node >= nodes) throw new IndexOutOfBoundsException(s"No node number $node, there are $nodes.")
+
+  private def checkOpen(): Unit = if (closed) throw new IllegalStateException("The store is closed.")
+}
+
+object GraphStore {
+  /** The size of the mapped parts of the files, 1 GiB. */
+  final val DefaultSegmentSize = 1 << 30
+
+  /** The number of distinct attribute instances that are remembered to store them only once. */
+  final val RecentAttributes = 1024
+
+  private final val NoStyle = 0
+  private final val EdgeBytes = 12
+  private final val InitialSlots = 1 << 12
+}
+
+/**
+  * A file that is mapped in segments of `segmentSize` bytes as it grows. Values must not
+  * cross segments, which they don't if they are aligned to their size.
+  */
+private final class MappedRegion(file: Path, segmentSize: Int) {
+  private val channel = FileChannel.open(file, CREATE_NEW, READ, WRITE)
+  private val segments = ArrayBuffer[MappedByteBuffer]()
+  private val charViews = ArrayBuffer[CharBuffer]()
+
+  def getInt(position: Long): Int = segment(position).getInt(offset(position))
+
+  def putInt(position: Long, value: Int): Unit = segment(position).putInt(offset(position), value)
+
+  def getLong(position: Long): Long = segment(position).getLong(offset(position))
+
+  def putLong(position: Long, value: Long): Unit = segment(position).putLong(offset(position), value)
+
+  def putChars(position: Long, s: String): Unit = {
+    val chars = this.chars(position)
+    val start = charIndex(position)
+    var i = 0
+    while (i < s.length) {
+      chars.put(start + i, s.charAt(i))
+      i += 1
+    }
+  }
+
+  /** The characters of the segment that `position` is in; see [[charIndex]]. */
+  def chars(position: Long): CharBuffer = {
+    val index = (position / segmentSize).toInt
+    segment(position)
+    while (charViews.length <= index) charViews += segments(charViews.length).duplicate().asCharBuffer()
+    charViews(index)
+  }
+
+  /** The index of the character at `position` in [[chars]]. */
+  def charIndex(position: Long): Int = offset(position) / 2
+
+  /** Unmaps and deletes the file. The region must not be used any more. */
+  def delete(): Unit = {
+    segments.foreach(MappedRegion.unmap)
+    segments.clear()
+    charViews.clear()
+    channel.close()
+    Files.deleteIfExists(file)
+  }
+
+  private def segment(position: Long): MappedByteBuffer = {
+    val index = (position / segmentSize).toInt
+    while (segments.length <= index) segments += channel.map(READ_WRITE, segments.length.toLong * segmentSize, segmentSize)
+    segments(index)
+  }
+
+  private def offset(position: Long): Int = (position % segmentSize).toInt
+}
+
+private object MappedRegion {
+
+  // A mapped file can only be deleted on all platforms once it is unmapped, which otherwise
+  // only happens when its buffers are collected. Without access to sun.misc.Unsafe, that is
+  // left to the collector.
+  private val invokeCleaner: ByteBuffer => Unit =
+    try {
+      val unsafeClass = Class.forName("sun.misc.Unsafe")
+      val field = unsafeClass.getDeclaredField("theUnsafe")
+      field.setAccessible(true)
+      val unsafe = field.get(null)
+      val method = unsafeClass.getMethod("invokeCleaner", classOf[ByteBuffer])
+      buffer => method.invoke(unsafe, buffer)
+    } catch {
+      case _: ReflectiveOperationException | _: RuntimeException => _ => ()
+    }
+
+  def unmap(buffer: MappedByteBuffer): Unit = invokeCleaner(buffer)
+}
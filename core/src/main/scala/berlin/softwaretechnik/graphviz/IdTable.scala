@@ -0,0 +1,92 @@
+package berlin.softwaretechnik.graphviz
+
+import scala.util.hashing.MurmurHash3
+
+/**
+  * Finds entries by the hash of their id with open addressing and linear probing. Entries
+  * are numbered from zero in the order they are added, e.g. node numbers; a slot holds the
+  * number plus one, or zero if it is free.
+  *
+  * The table does not know the ids, so lookups probe themselves and compare the entries
+  * they come across, and a new entry goes into the free slot the lookup ended at:
+  * {{{
+  * var slot = table.firstSlot(IdTable.hash(id))
+  * while (table.entry(slot) >= 0 && !matches(table.entry(slot), id)) slot = table.nextSlot(slot)
+  * if (table.entry(slot) < 0) table.add(slot)
+  * }}}
+  * Subclasses keep the ids and decide where the slots are stored, see [[IdTable.OnHeap]].
+  *
+  * @param initialSlots a power of two.
+  */
+private[graphviz] abstract class IdTable(initialSlots: Int) {
+  private var slotCount = initialSlots
+  private var count = 0
+
+  /** The number of entries. */
+  final def size: Int = count
+
+  final def firstSlot(hash: Int): Int = hash & (slotCount - 1)
+
+  final def nextSlot(slot: Int): Int = (slot + 1) & (slotCount - 1)
+
+  /** The entry in `slot`, or -1 if it is free. */
+  final def entry(slot: Int): Int = getSlot(slot) - 1
+
+  /**
+    * Adds an entry in the free `slot` a lookup ended at and returns its number. Its id must
+    * be known to [[hashOf]] already, as the table may grow.
+    */
+  final def add(slot: Int): Int = {
+    val entry = count
+    setSlot(slot, entry + 1)
+    count += 1
+    // Stay at most half full, so probe sequences stay short.
+    if (count > slotCount / 2) grow()
+    entry
+  }
+
+  /** The hash of the id of `entry`, as [[IdTable.hash]] computes it. */
+  protected def hashOf(entry: Int): Int
+
+  protected def getSlot(slot: Int): Int
+
+  protected def setSlot(slot: Int, value: Int): Unit
+
+  /** Replaces the slots by `slotCount` free ones. */
+  protected def clearSlots(slotCount: Int): Unit
+
+  private def grow(): Unit = {
+    if (slotCount == IdTable.MaxSlots) throw new IllegalStateException("Too many ids.")
+    clearSlots(slotCount * 2)
+    slotCount *= 2
+    var entry = 0
+    while (entry < count) {
+      var slot = firstSlot(hashOf(entry))
+      while (getSlot(slot) != 0) slot = nextSlot(slot)
+      setSlot(slot, entry + 1)
+      entry += 1
+    }
+  }
+}
+
+private[graphviz] object IdTable {
+
+  private final val MaxSlots = 1 << 30
+
+  // Ids like n1, n2, ... have neighbouring hash codes, which would fill runs of
+  // consecutive slots and make probing for new ones slow.
+  def hash(hashCode: Int, length: Int): Int = MurmurHash3.finalizeHash(hashCode, length)
+
+  def hash(id: String): Int = hash(id.hashCode, id.length)
+
+  /** A table with its slots in an array. */
+  abstract class OnHeap(initialSlots: Int) extends IdTable(initialSlots) {
+    private var slots = new Array[Int](initialSlots)
+
+    override protected def getSlot(slot: Int): Int = slots(slot)
+
+    override protected def setSlot(slot: Int, value: Int): Unit = slots(slot) = value
+
+    override protected def clearSlots(slotCount: Int): Unit = slots = new Array[Int](slotCount)
+  }
+}
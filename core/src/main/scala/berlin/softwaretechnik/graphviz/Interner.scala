@@ -0,0 +1,120 @@
+package berlin.softwaretechnik.graphviz
+
+import java.lang.ref.WeakReference
+
+import berlin.softwaretechnik.graphviz.attributes._
+import berlin.softwaretechnik.graphviz.attributes.html._
+
+/**
+  * Deduplicates structurally equal attribute instances, attribute values and HTML-like
+  * labels, so that a large graph holds only one instance of each.
+  *
+  * Instances can be interned as they are constructed, e.g.
+  * `Node(id, interner(NodeAttributes(...)))`, or afterwards for a whole graph with
+  * `interner(graph)`. Interning is deep: the values of an attribute instance and the parts
+  * of a label are interned as well.
+  *
+  * Canonical instances are only weakly referenced, so they are dropped from the table once
+  * nothing else uses them. The table is split into `segments` independently locked parts,
+  * so an interner can be shared between threads.
+  */
+class Interner(segments: Int = 16) {
+  require(segments > 0 && Integer.bitCount(segments) == 1, "segments must be a power of two.")
+
+  private val tables = Array.fill(segments)(new java.util.WeakHashMap[AnyRef, WeakReference[AnyRef]]())
+
+  /** The number of canonical instances currently held. */
+  def size: Int = tables.map(table => table.synchronized(table.size)).sum
+
+  def apply(string: String): String = canonical(string)
+
+  def apply(color: Color): Color = deep(color)(c => Color(canonical(c.rep)))
+
+  def apply(plain: Plain): Plain = deep(plain)(p => Plain(canonical(p.value)))
+
+  def apply(label: HtmlLikeLabel): HtmlLikeLabel = deep(label) {
+    case p: Plain => apply(p)
+    case TextList(items) => TextList(items.map(apply(_).asInstanceOf[TextItem]))
+    case RichString(textAttributes, textItem) => RichString(canonical(textAttributes), apply(textItem).asInstanceOf[TextItem])
+    case StyleTag(tag, text) => StyleTag(canonical(tag), apply(text).asInstanceOf[Text])
+    case FontTag(text, attributes) => FontTag(apply(text).asInstanceOf[Text], canonical(attributes))
+    case Table(attributes, rows) => Table(canonical(attributes), rows.map(_.map(cell)))
+    case other => other
+  }
+
+  def apply(attributes: NodeAttributes): NodeAttributes = deep(attributes)(_.mapValues(value))
+
+  def apply(attributes: EdgeAttributes): EdgeAttributes = deep(attributes)(_.mapValues(value))
+
+  def apply(attributes: GraphAttributes): GraphAttributes = deep(attributes)(_.mapValues(value))
+
+  def apply(attributes: SubgraphAttributes): SubgraphAttributes = deep(attributes)(_.mapValues(value))
+
+  /** A copy of `graph` with all ids, attributes and labels interned. */
+  def apply(graph: Graph): Graph = Graph(
+    graph.id.map(canonical),
+    apply(graph.attributes),
+    apply(graph.nodeDefaults),
+    apply(graph.edgeDefaults),
+    graph.elements.map(element)
+  )
+
+  private def element(element: GraphElement): GraphElement = element match {
+    case Node(id, attributes) => Node(canonical(id), apply(attributes))
+    case Edge(from, to, attributes) => Edge(canonical(from), canonical(to), apply(attributes))
+    case SubGraph(id, attributes, nodeDefaults, edgeDefaults, elements) => SubGraph(
+      id.map(canonical),
+      apply(attributes),
+      apply(nodeDefaults),
+      apply(edgeDefaults),
+      elements.map(this.element)
+    )
+    case other => other
+  }
+
+  private def cell(cell: Cell): Cell = deep(cell)(c => Cell(canonical(c.tableCellAttributes), apply(c.content)))
+
+  private val value: AnyRef => AnyRef = {
+    case s: String => canonical(s)
+    case c: Color => apply(c)
+    case h: HtmlLikeLabel => apply(h)
+    case other => canonical(other)
+  }
+
+  /**
+    * The canonical instance equal to `value`. If there is none yet, `rebuild` interns the
+    * parts of `value` and the result becomes the canonical instance.
+    */
+  private def deep[T <: AnyRef](value: T)(rebuild: T => T): T = {
+    val existing = lookup(value)
+    if (existing != null) existing else canonical(rebuild(value))
+  }
+
+  private def lookup[T <: AnyRef](value: T): T = {
+    val table = tableFor(value)
+    table.synchronized {
+      val reference = table.get(value)
+      if (reference == null) null.asInstanceOf[T] else reference.get.asInstanceOf[T]
+    }
+  }
+
+  private def canonical[T <: AnyRef](value: T): T = {
+    if (value == null) return value
+    val table = tableFor(value)
+    table.synchronized {
+      val reference = table.get(value)
+      val existing = if (reference == null) null else reference.get
+      if (existing != null) {
+        existing.asInstanceOf[T]
+      } else {
+        table.put(value, new WeakReference[AnyRef](value))
+        value
+      }
+    }
+  }
+
+  private def tableFor(value: AnyRef): java.util.WeakHashMap[AnyRef, WeakReference[AnyRef]] = {
+    val h = value.hashCode
+    tables((h ^ (h >>> 16)) & (segments - 1))
+  }
+}
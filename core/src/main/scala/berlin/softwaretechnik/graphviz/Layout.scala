@@ -0,0 +1,189 @@
+package berlin.softwaretechnik.graphviz
+
+import java.io.{ByteArrayOutputStream, FilterInputStream, IOException, InputStream}
+import java.nio.channels.{Channels, WritableByteChannel}
+import java.nio.file.StandardCopyOption.REPLACE_EXISTING
+import java.nio.file.{Files, Path}
+import java.util.concurrent.atomic.AtomicBoolean
+import java.util.concurrent.{ScheduledFuture, ScheduledThreadPoolExecutor, TimeUnit}
+
+import scala.concurrent.duration._
+
+/**
+  * A run of a Graphviz layout program, started by [[Graph.layout]].
+  *
+  * The graph is rendered straight into the program's standard input on a thread of its own
+  * while the output is read, so rendering and layout overlap and neither waits for the
+  * other to drain a pipe. The output can be read once, with one of [[inputStream]],
+  * [[bytes]] or [[writeTo]]; reading it fails with a [[LayoutException]] if the program
+  * fails, times out or the layout is cancelled. The program is killed in the latter cases.
+  */
+final class Layout private[graphviz] (
+  command: Seq[String],
+  timeout: FiniteDuration,
+  input: WritableByteChannel => Unit
+) extends AutoCloseable {
+  import Layout._
+
+  private val program = command.head
+  private val process =
+    try new ProcessBuilder(command: _*).start()
+    catch {
+      case e: IOException => throw new LayoutException(s"Cannot start $program", e)
+    }
+
+  // Why the process was killed, null while it was not.
+  @volatile private var killedBecause: String = null
+  @volatile private var inputFailure: Throwable = null
+  private var finished = false
+  private val finishing = new AtomicBoolean()
+
+  private val errors = new ErrorCollector(process.getErrorStream)
+  private val writer = daemon(s"$program input") { () =>
+    val stdin = process.getOutputStream
+    try {
+      input(Channels.newChannel(stdin))
+      stdin.close()
+    } catch {
+      // The program stopped reading, its exit code tells why.
+      case _: IOException =>
+      case e: Throwable =>
+        inputFailure = e
+        kill("failed, as writing its input failed")
+    }
+  }
+  private val watchdog: ScheduledFuture[_] =
+    Watchdog.schedule((() => kill(s"timed out after $timeout")): Runnable, timeout.toMillis, TimeUnit.MILLISECONDS)
+
+  /** The output of the program as it produces it. */
+  lazy val inputStream: InputStream = new FilterInputStream(process.getInputStream) {
+    override def read(): Int = check(super.read())
+
+    override def read(b: Array[Byte], off: Int, len: Int): Int = check(super.read(b, off, len))
+
+    override def close(): Unit = {
+      super.close()
+      Layout.this.close()
+    }
+
+    private def check(read: => Int): Int = {
+      val result =
+        try read
+        catch {
+          case e: IOException if killedBecause != null => throw new LayoutException(s"$program $killedBecause", e)
+        }
+      if (result < 0) finish()
+      result
+    }
+  }
+
+  /** Waits for the program and returns all of its output. */
+  def bytes(): Array[Byte] = {
+    val out = new ByteArrayOutputStream()
+    try inputStream.transferTo(out)
+    finally inputStream.close()
+    out.toByteArray
+  }
+
+  /** Waits for the program and writes its output to `path`, which is returned. */
+  def writeTo(path: Path): Path = {
+    try Files.copy(inputStream, path, REPLACE_EXISTING)
+    finally inputStream.close()
+    path
+  }
+
+  /** Kills the program; reading the output fails from then on. */
+  def cancel(): Unit = kill("was cancelled")
+
+  /** Kills the program if it is still running, without failing. */
+  override def close(): Unit = {
+    synchronized {
+      if (!finished) {
+        kill("was closed")
+        finished = true
+      }
+    }
+    watchdog.cancel(false)
+    process.getInputStream.close()
+  }
+
+  private def kill(reason: String): Unit = synchronized {
+    if (!finished && killedBecause == null) {
+      killedBecause = reason
+      // A script standing in for the program may have started it as a child process.
+      process.descendants().forEach(_.destroyForcibly())
+      process.destroyForcibly()
+    }
+  }
+
+  /** Called at the end of the output; waits for the program and fails if it did. */
+  private def finish(): Unit = {
+    if (finishing.compareAndSet(false, true)) {
+      val exitCode = process.waitFor()
+      writer.join()
+      errors.join()
+      watchdog.cancel(false)
+      val reason = synchronized {
+        finished = true
+        killedBecause
+      }
+      if (reason != null) {
+        throw new LayoutException(s"$program $reason", inputFailure)
+      }
+      if (exitCode != 0) {
+        throw new LayoutException(s"$program exited with code $exitCode: ${errors.text}", null)
+      }
+    }
+  }
+}
+
+object Layout {
+
+  val DefaultTimeout: FiniteDuration = 1.minute
+
+  /** How much of the standard error output of the program is kept for error messages. */
+  private val MaxErrorBytes = 8192
+
+  private val Watchdog = {
+    val executor = new ScheduledThreadPoolExecutor(1, (runnable: Runnable) => {
+      val thread = new Thread(runnable, "graphviz layout timeouts")
+      thread.setDaemon(true)
+      thread
+    })
+    executor.setRemoveOnCancelPolicy(true)
+    executor
+  }
+
+  private def daemon(name: String)(run: () => Unit): Thread = {
+    val thread = new Thread(() => run(), name)
+    thread.setDaemon(true)
+    thread.start()
+    thread
+  }
+
+  /** Drains a stream on a thread of its own, keeping the start of it. */
+  private final class ErrorCollector(in: InputStream) {
+    private val kept = new ByteArrayOutputStream()
+    private val thread = daemon("graphviz errors") { () =>
+      val buffer = new Array[Byte](4096)
+      try {
+        var read = in.read(buffer)
+        while (read >= 0) {
+          kept.synchronized {
+            kept.write(buffer, 0, math.min(read, math.max(0, MaxErrorBytes - kept.size())))
+          }
+          read = in.read(buffer)
+        }
+      } catch {
+        case _: IOException =>
+      }
+    }
+
+    def join(): Unit = thread.join()
+
+    def text: String = kept.synchronized(kept.toString("UTF-8").trim)
+  }
+}
+
+/** Thrown when a Graphviz program cannot be run, fails, times out or is cancelled. */
+class LayoutException(message: String, cause: Throwable) extends IOException(message, cause)
@@ -0,0 +1,196 @@
+package berlin.softwaretechnik.graphviz
+
+import java.io.IOException
+import java.nio.ByteBuffer
+import java.nio.channels.{FileChannel, WritableByteChannel}
+import java.nio.charset.StandardCharsets.UTF_8
+import java.nio.file.StandardCopyOption.ATOMIC_MOVE
+import java.nio.file.StandardOpenOption.{CREATE, READ, WRITE}
+import java.nio.file.attribute.FileTime
+import java.nio.file.{Files, NoSuchFileException, Path}
+import java.security.MessageDigest
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.atomic.AtomicLong
+
+import scala.concurrent.duration.FiniteDuration
+import scala.jdk.CollectionConverters._
+import scala.util.Using
+
+/**
+  * Keeps layout results in `directory`, so laying out a graph again does not start a
+  * Graphviz program. Results are found by a SHA-256 hash of the rendered graph, the
+  * program, the format and the arguments.
+  *
+  * Results are written to a temporary file first and then moved into place, so they are
+  * complete or not there at all. When more than `maxBytes` are stored, the results used
+  * least recently, by modification time, are deleted. Several caches, also in other JVMs,
+  * can share a directory; the total size is kept in a lock file and only changed holding
+  * the lock.
+  */
+class LayoutCache(directory: Path, maxBytes: Long = 256L << 20) {
+  import LayoutCache._
+
+  Files.createDirectories(directory)
+
+  private val hitCount = new AtomicLong
+  private val missCount = new AtomicLong
+  private val savedBytes = new AtomicLong
+  private val evictionCount = new AtomicLong
+
+  def hits: Long = hitCount.get
+
+  def misses: Long = missCount.get
+
+  def hitRatio: Double = if (hits + misses == 0) 0.0 else hits.toDouble / (hits + misses)
+
+  /** The size of all results served from the cache, i.e. not produced again. */
+  def bytesSaved: Long = savedBytes.get
+
+  def evictions: Long = evictionCount.get
+
+  /** The result of `graph.layout(engine, format, arguments, timeout)`, from the cache if possible. */
+  def layout(
+    graph: Graph,
+    engine: String = "dot",
+    format: String = "svg",
+    arguments: Seq[String] = Nil,
+    timeout: FiniteDuration = Layout.DefaultTimeout
+  ): Array[Byte] = {
+    val file = path(key(graph, engine +: format +: arguments))
+    read(file) match {
+      case Some(result) =>
+        hitCount.incrementAndGet()
+        savedBytes.addAndGet(result.length)
+        result
+      case None =>
+        missCount.incrementAndGet()
+        val result = graph.layout(engine, format, arguments, timeout).bytes()
+        store(file, result)
+        result
+    }
+  }
+
+  /** Deletes all results. */
+  def clear(): Unit = locked { channel =>
+    entries().foreach { case (file, _, _) => Files.deleteIfExists(file) }
+    writeTotal(channel, 0)
+  }
+
+  private def path(key: String): Path = directory.resolve(key.substring(0, 2)).resolve(key)
+
+  private def read(file: Path): Option[Array[Byte]] =
+    try {
+      val result = Files.readAllBytes(file)
+      // Marks the result as recently used. It may be evicted meanwhile, that's fine.
+      try Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()))
+      catch {
+        case _: IOException =>
+      }
+      Some(result)
+    } catch {
+      case _: NoSuchFileException => None
+    }
+
+  private def store(file: Path, result: Array[Byte]): Unit = {
+    Files.createDirectories(file.getParent)
+    val temporary = Files.createTempFile(file.getParent, file.getFileName.toString, TemporarySuffix)
+    try {
+      Files.write(temporary, result)
+      // Another instance may have stored the same result meanwhile, either one will do.
+      // Checking under the lock keeps both from adding it to the total.
+      locked { channel =>
+        if (!Files.exists(file)) {
+          // Read first, as the total of a new lock file is that of the results there.
+          val total = readTotal(channel) + result.length
+          Files.move(temporary, file, ATOMIC_MOVE)
+          writeTotal(channel, if (total > maxBytes) evict() else total)
+        }
+      }
+    } finally {
+      Files.deleteIfExists(temporary)
+    }
+  }
+
+  /**
+    * Runs `f` holding the lock on the lock file, which also keeps the total size of all
+    * results. Threads of this JVM take turns before that, as they cannot hold file locks
+    * on the same file at the same time.
+    */
+  private def locked[T](f: FileChannel => T): T =
+    Monitors.computeIfAbsent(directory.toAbsolutePath.normalize, _ => new Object).synchronized {
+      Using.resource(FileChannel.open(directory.resolve(LockFile), CREATE, READ, WRITE)) { channel =>
+        val lock = channel.lock()
+        try f(channel)
+        finally lock.release()
+      }
+    }
+
+  private def readTotal(channel: FileChannel): Long = {
+    val buffer = ByteBuffer.allocate(8)
+    channel.read(buffer, 0)
+    // New lock files have no total yet.
+    if (buffer.hasRemaining) entries().map(_._2).sum else buffer.getLong(0)
+  }
+
+  private def writeTotal(channel: FileChannel, total: Long): Unit = {
+    channel.write(ByteBuffer.allocate(8).putLong(0, total), 0)
+  }
+
+  /**
+    * Deletes the least recently used results until at most `maxBytes` are stored, and
+    * returns the size of the remaining ones.
+    */
+  private def evict(): Long = {
+    val all = entries().sortBy(_._3)
+    var total = all.map(_._2).sum
+    all.iterator.takeWhile(_ => total > maxBytes).foreach { case (file, size, _) =>
+      if (Files.deleteIfExists(file)) evictionCount.incrementAndGet()
+      total -= size
+    }
+    total
+  }
+
+  /** All results with their sizes and last use, skipping any that are deleted meanwhile. */
+  private def entries(): Seq[(Path, Long, Long)] =
+    Using.resource(Files.walk(directory)) { files =>
+      files.iterator.asScala
+        .filter(file => file.getParent != directory && !file.getFileName.toString.endsWith(TemporarySuffix))
+        .flatMap { file =>
+          try {
+            if (Files.isRegularFile(file)) Some((file, Files.size(file), Files.getLastModifiedTime(file).toMillis))
+            else None
+          } catch {
+            case _: NoSuchFileException => None
+          }
+        }
+        .toVector
+    }
+}
+
+object LayoutCache {
+  private val Monitors = new ConcurrentHashMap[Path, Object]()
+  private val LockFile = ".lock"
+  private val TemporarySuffix = ".tmp"
+
+  /** The hex encoded SHA-256 hash of the rendered `graph` and `parameters`. */
+  private def key(graph: Graph, parameters: Seq[String]): String = {
+    val digest = MessageDigest.getInstance("SHA-256")
+    graph.writeTo(new WritableByteChannel {
+      override def write(src: ByteBuffer): Int = {
+        val remaining = src.remaining()
+        digest.update(src)
+        remaining
+      }
+
+      override def isOpen: Boolean = true
+
+      override def close(): Unit = ()
+    })
+    parameters.foreach { parameter =>
+      // Separated by a byte that UTF-8 does not produce, so the parameters can't run into each other.
+      digest.update(0xFF.toByte)
+      digest.update(parameter.getBytes(UTF_8))
+    }
+    digest.digest().map(b => f"${b & 0xFF}%02x").mkString
+  }
+}
@@ -0,0 +1,174 @@
+package berlin.softwaretechnik.graphviz
+
+import berlin.softwaretechnik.graphviz.attributes.{AttributeVisitor, Attributes, EdgeAttributes, NodeAttributes}
+
+import scala.collection.mutable
+
+/** Rewrites graphs into smaller, equivalent ones. */
+object Optimizer {
+
+  /**
+    * Moves attributes that nodes and edges of a scope have in common into the scope's
+    * `nodeDefaults` and `edgeDefaults`, and removes them from the elements that no longer
+    * need them.
+    *
+    * Graphviz applies the defaults of a scope to every node and edge created in it or in
+    * one of its subgraphs, so an attribute is only hoisted if all of them already get a value
+    * for it from themselves or from a nested scope. Elements with a different value keep it.
+    * In particular, edges to nodes that have not been declared yet create nodes without any
+    * attributes, and prevent hoisting node attributes out of their scope. Subgraphs that are
+    * opened more than once are left alone, as their defaults would carry over to the later
+    * occurrences.
+    *
+    * The graph is traversed twice, so this takes time linear in its size.
+    */
+  def hoistDefaults(graph: Graph): Graph = {
+    val hoisting = new Hoisting(reopened(graph.elements))
+    val scope = hoisting.scope(graph.nodeDefaults, graph.edgeDefaults, graph.elements, hoist = true)
+    graph.copy(nodeDefaults = scope.nodeDefaults, edgeDefaults = scope.edgeDefaults, elements = scope.elements)
+  }
+
+  private def reopened(elements: Seq[GraphElement]): Set[String] = {
+    val seen = mutable.HashSet[String]()
+    val reopened = Set.newBuilder[String]
+    def visit(elements: Seq[GraphElement]): Unit = elements.foreach {
+      case subGraph: SubGraph =>
+        subGraph.id.foreach(id => if (!seen.add(id)) reopened += id)
+        visit(subGraph.elements)
+      case _ =>
+    }
+    visit(elements)
+    reopened.result()
+  }
+
+  private final class Scope(
+    val nodeDefaults: NodeAttributes,
+    val edgeDefaults: EdgeAttributes,
+    val elements: Seq[GraphElement],
+    // Attributes every node or edge created in the scope gets a value for from within
+    // the scope; null if the scope does not create any.
+    val nodeKeys: Set[String],
+    val edgeKeys: Set[String]
+  )
+
+  private final class Hoisting(reopened: Set[String]) {
+    // Nodes are created by their first mention in document order.
+    private val created = mutable.HashSet[String]()
+
+    def scope(
+      nodeDefaults: NodeAttributes,
+      edgeDefaults: EdgeAttributes,
+      elements: Seq[GraphElement],
+      hoist: Boolean
+    ): Scope = {
+      var nodeKeys: Set[String] = null
+      var edgeKeys: Set[String] = null
+      val creating = new java.util.BitSet()
+      val processed = elements.iterator.zipWithIndex.map {
+        case (node: Node, i) =>
+          if (created.add(node.id)) {
+            creating.set(i)
+            nodeKeys = intersect(nodeKeys, keys(node.attributes))
+          }
+          node
+        case (edge: Edge, _) =>
+          if (created.add(edge.from) | created.add(edge.to)) {
+            nodeKeys = Set.empty
+          }
+          edgeKeys = intersect(edgeKeys, keys(edge.attributes))
+          edge
+        case (subGraph: SubGraph, _) =>
+          val inner = scope(
+            subGraph.nodeDefaults,
+            subGraph.edgeDefaults,
+            subGraph.elements,
+            hoist = !subGraph.id.exists(reopened)
+          )
+          nodeKeys = intersect(nodeKeys, inner.nodeKeys)
+          edgeKeys = intersect(edgeKeys, inner.edgeKeys)
+          subGraph.copy(nodeDefaults = inner.nodeDefaults, edgeDefaults = inner.edgeDefaults, elements = inner.elements)
+        // Batches are left as they are, so only attributes their rows set themselves can
+        // be hoisted past them.
+        case (batch: NodeBatch, _) =>
+          var creates = false
+          (0 until batch.size).foreach(row => creates |= created.add(batch.id(row)))
+          if (creates) nodeKeys = Set.empty
+          batch
+        case (batch: EdgeBatch, _) =>
+          var creates = false
+          (0 until batch.size).foreach(row => creates |= created.add(batch.source(row)) | created.add(batch.target(row)))
+          if (creates) nodeKeys = Set.empty
+          edgeKeys = intersect(edgeKeys, keys(batch.attributes))
+          batch
+        case (element, _) =>
+          // Nothing is known about the nodes and edges it creates.
+          nodeKeys = Set.empty
+          edgeKeys = Set.empty
+          element
+      }.toVector
+
+      if (!hoist) {
+        return new Scope(nodeDefaults, edgeDefaults, processed, union(nodeKeys, nodeDefaults), union(edgeKeys, edgeDefaults))
+      }
+
+      val hoistedNodes = common(nodeKeys, nodeDefaults, processed.iterator.zipWithIndex.collect {
+        case (node: Node, i) if creating.get(i) => node.attributes
+      })
+      val hoistedEdges = common(edgeKeys, edgeDefaults, processed.iterator.collect {
+        case edge: Edge => edge.attributes
+      })
+      val hoistedElements =
+        if (hoistedNodes.isEmpty && hoistedEdges.isEmpty) processed
+        else processed.zipWithIndex.map {
+          case (node: Node, i) if creating.get(i) && hoistedNodes.nonEmpty =>
+            node.copy(attributes = strip(node.attributes, hoistedNodes)((a, k) => a.updated(k, null)))
+          case (edge: Edge, _) if hoistedEdges.nonEmpty =>
+            edge.copy(attributes = strip(edge.attributes, hoistedEdges)((a, k) => a.updated(k, null)))
+          case (element, _) => element
+        }
+      val newNodeDefaults = hoistedNodes.foldLeft(nodeDefaults) { case (a, (k, v)) => a.updated(k, v) }
+      val newEdgeDefaults = hoistedEdges.foldLeft(edgeDefaults) { case (a, (k, v)) => a.updated(k, v) }
+      new Scope(newNodeDefaults, newEdgeDefaults, hoistedElements, union(nodeKeys, newNodeDefaults), union(edgeKeys, newEdgeDefaults))
+    }
+
+    /**
+      * The most common value of each of `candidates` among `attributes`, if it is shared by
+      * at least two of them and not already set in `defaults`.
+      */
+    private def common(candidates: Set[String], defaults: Attributes, attributes: Iterator[Attributes]): Map[String, AnyRef] = {
+      if (candidates == null) return Map.empty
+      val remaining = candidates -- keys(defaults)
+      if (remaining.isEmpty) return Map.empty
+      val counts = mutable.HashMap[String, mutable.HashMap[AnyRef, Int]]()
+      val counter: AttributeVisitor = (name, value) =>
+        if (remaining.contains(name)) {
+          val values = counts.getOrElseUpdate(name, mutable.HashMap())
+          values(value.asInstanceOf[AnyRef]) = values.getOrElse(value.asInstanceOf[AnyRef], 0) + 1
+        }
+      attributes.foreach(_.foreachSet(counter))
+      counts.iterator.map { case (name, values) => name -> values.maxBy(_._2) }
+        .collect { case (name, (value, count)) if count >= 2 => name -> value }
+        .toMap
+    }
+
+    private def strip[A <: Attributes](attributes: A, hoisted: Map[String, AnyRef])(unset: (A, String) => A): A = {
+      var stripped = attributes
+      attributes.foreachSet { (name, value) =>
+        if (hoisted.get(name).contains(value)) stripped = unset(stripped, name)
+      }
+      stripped
+    }
+
+    private def keys(attributes: Attributes): Set[String] = {
+      val keys = Set.newBuilder[String]
+      attributes.foreachSet((name, _) => keys += name)
+      keys.result()
+    }
+
+    private def intersect(a: Set[String], b: Set[String]): Set[String] =
+      if (a == null) b else if (b == null) a else a.intersect(b)
+
+    private def union(a: Set[String], defaults: Attributes): Set[String] =
+      if (a == null) null else a ++ keys(defaults)
+  }
+}
@@ -0,0 +1,98 @@
+package berlin.softwaretechnik.graphviz
+
+import java.util.concurrent.{Callable, ForkJoinPool, ForkJoinTask}
+
+import scala.collection.mutable
+
+/**
+  * Renders large graphs on a `ForkJoinPool`.
+  *
+  * The elements of every scope are split into chunks of about `chunkSize` elements, where
+  * a subgraph counts with its number of elements and a batch with its number of rows. Every chunk is rendered into a buffer of
+  * its own and the buffers are stitched together in their original order, so the output is
+  * identical to rendering sequentially. At most `4 * parallelism` chunks per scope are in
+  * flight at once, which bounds the memory used for the buffers.
+  */
+class ParallelRenderer(
+  pool: ForkJoinPool = ForkJoinPool.commonPool(),
+  chunkSize: Int = 8192
+) {
+  require(chunkSize > 0, "chunkSize must be positive.")
+
+  def render(renderable: Renderable): String = {
+    val out = new java.lang.StringBuilder
+    renderTo(renderable, out)
+    out.toString
+  }
+
+  def renderTo(renderable: Renderable, out: Appendable): Unit = {
+    val context = new RenderContext(out, parallel = this)
+    pool.invoke(ForkJoinTask.adapt(new Runnable {
+      override def run(): Unit = renderable.renderTo(context)
+    }))
+    context.flush()
+  }
+
+  private[graphviz] def worthSplitting(elements: Seq[GraphElement]): Boolean = {
+    var weight = 0
+    val iterator = elements.iterator
+    while (iterator.hasNext && weight <= chunkSize) {
+      weight += ParallelRenderer.weight(iterator.next())
+    }
+    weight > chunkSize
+  }
+
+  private[graphviz] def renderElementsTo(out: RenderContext, elements: Seq[GraphElement]): Unit = {
+    val inFlight = mutable.Queue[(ForkJoinTask[Unit], java.lang.StringBuilder, RenderContext)]()
+    var first = true
+
+    def spliceOldest(): Unit = {
+      val (task, buffer, fragment) = inFlight.dequeue()
+      task.join()
+      if (!first) out.append('\n')
+      out.appendFragment(buffer, fragment)
+      first = false
+    }
+
+    val iterator = elements.iterator
+    while (iterator.hasNext) {
+      val chunk = mutable.ArrayBuffer[GraphElement]()
+      var weight = 0
+      while (iterator.hasNext && weight < chunkSize) {
+        val element = iterator.next()
+        chunk += element
+        weight += ParallelRenderer.weight(element)
+      }
+      val buffer = new java.lang.StringBuilder
+      val fragment = out.fragment(buffer)
+      val task = ForkJoinTask.adapt(new Callable[Unit] {
+        override def call(): Unit = {
+          renderChunk(fragment, chunk)
+          fragment.flush()
+        }
+      })
+      task.fork()
+      inFlight.enqueue((task, buffer, fragment))
+      if (inFlight.size >= 4 * pool.getParallelism) spliceOldest()
+    }
+    while (inFlight.nonEmpty) spliceOldest()
+  }
+
+  private def renderChunk(context: RenderContext, chunk: mutable.ArrayBuffer[GraphElement]): Unit = {
+    var first = true
+    chunk.foreach { element =>
+      if (!first) context.append('\n')
+      element.renderTo(context)
+      first = false
+    }
+  }
+}
+
+private object ParallelRenderer {
+  def weight(element: GraphElement): Int = element match {
+    case subGraph: SubGraph => 1 + subGraph.elements.size
+    case batch: NodeBatch => batch.size
+    case batch: EdgeBatch => batch.size
+    case _ => 1
+  }
+}
@@ -0,0 +1,107 @@
+package berlin.softwaretechnik.graphviz
+
+import java.util.concurrent.atomic.LongAdder
+
+/**
+  * Remembers the rendered text of subgraphs and HTML-like labels, so re-rendering a graph
+  * that shares or reuses them only renders what changed.
+  *
+  * Subgraphs are rendered at depth zero and re-indented when they are written, so a cached
+  * subgraph can be reused at any depth. The model is immutable, so an entry never becomes
+  * stale.
+  *
+  * By default entries are keyed by identity, which is cheap and hits whenever the same
+  * instance is rendered again. With `structural = true` they are keyed by `equals` and
+  * `hashCode` instead, which also hits for equal copies, at the cost of hashing the whole
+  * subtree on every lookup.
+  *
+  * The least recently used entries are evicted once the cached text exceeds `maxChars`.
+  * Note that the text of a subgraph includes the text of the subgraphs nested in it. A
+  * cache can be shared between threads.
+  */
+class RenderCache(
+  maxChars: Long = 8L * 1024 * 1024,
+  structural: Boolean = false
+) {
+  import RenderCache._
+
+  require(maxChars > 0, "maxChars must be positive.")
+
+  private val entries = new java.util.LinkedHashMap[AnyRef, Entry](256, 0.75f, true)
+  private var chars = 0L
+
+  private val hitCount = new LongAdder
+  private val missCount = new LongAdder
+  private val evictionCount = new LongAdder
+
+  def hits: Long = hitCount.sum()
+
+  def misses: Long = missCount.sum()
+
+  def evictions: Long = evictionCount.sum()
+
+  /** The number of characters currently cached. */
+  def size: Long = synchronized(chars)
+
+  def clear(): Unit = synchronized {
+    entries.clear()
+    chars = 0
+  }
+
+  def render(renderable: Renderable): String = {
+    val out = new java.lang.StringBuilder
+    renderTo(renderable, out)
+    out.toString
+  }
+
+  def renderTo(renderable: Renderable, out: Appendable): Unit = {
+    val context = new RenderContext(out, cache = this)
+    renderable.renderTo(context)
+    context.flush()
+  }
+
+  /**
+    * The cached text for `element` rendered with `indentation`, rendering and caching it
+    * with `render` on a miss.
+    */
+  private[graphviz] def getOrRender(element: AnyRef, indentation: String)(render: => String): String = {
+    val key = if (structural) element else new IdentityKey(element)
+    val cached = synchronized(entries.get(key))
+    if (cached != null && cached.indentation == indentation) {
+      hitCount.increment()
+      return cached.text
+    }
+    missCount.increment()
+    // Rendered outside the lock; two threads missing on the same key just both render it.
+    val text = render
+    put(key, new Entry(indentation, text))
+    text
+  }
+
+  private def put(key: AnyRef, entry: Entry): Unit = synchronized {
+    if (entry.text.length <= maxChars) {
+      val previous = entries.put(key, entry)
+      if (previous != null) chars -= previous.text.length
+      chars += entry.text.length
+      val iterator = entries.values().iterator()
+      while (chars > maxChars) {
+        chars -= iterator.next().text.length
+        iterator.remove()
+        evictionCount.increment()
+      }
+    }
+  }
+}
+
+private object RenderCache {
+  final class Entry(val indentation: String, val text: String)
+
+  final class IdentityKey(val element: AnyRef) {
+    override def hashCode: Int = System.identityHashCode(element)
+
+    override def equals(other: Any): Boolean = other match {
+      case key: IdentityKey => key.element eq element
+      case _ => false
+    }
+  }
+}
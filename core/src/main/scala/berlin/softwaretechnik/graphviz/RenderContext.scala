@@ -0,0 +1,276 @@
+package berlin.softwaretechnik.graphviz
+
+import java.io.Writer
+import java.nio.CharBuffer
+
+import berlin.softwaretechnik.graphviz.attributes.Attributes
+
+import scala.collection.mutable.ArrayBuffer
+
+/**
+  * The target of a render pass. It knows the current indentation level, so every
+  * line is written exactly once, already carrying its final indentation.
+  *
+  * Blocks opened with [[indent]] behave like [[berlin.softwaretechnik.graphviz.generator.Strings.indent]]:
+  * every line in them is prefixed, including empty ones, and a trailing line break is
+  * dropped when the block is closed with [[dedent]].
+  *
+  * Output is collected in a small buffer and only handed to `out` on [[flush]] or when
+  * the buffer is full.
+  *
+  * @param parallel renders large element lists in parallel if set, see [[ParallelRenderer]].
+  * @param cache    reuses the text of subgraphs and HTML-like labels if set, see [[RenderCache]].
+  * @param limits   limits the output if set, see [[RenderLimits]]. Subgraphs are then rendered
+  *                 anew rather than taken from `cache`, and sequentially despite `parallel`.
+  */
+class RenderContext(
+  out: Appendable,
+  indentation: String = "  ",
+  val parallel: ParallelRenderer = null,
+  val cache: RenderCache = null,
+  val limits: RenderLimits = null
+) extends Appendable {
+  private var level = 0
+  private var atLineStart = true
+  // Level of the block whose last line break has not been written yet, -1 if there is none.
+  private var pendingNewline = -1
+  private val prefixes = ArrayBuffer("")
+
+  private val buffer = new Array[Char](8192)
+  private var buffered = 0
+
+  // Only counted if there are limits.
+  private var flushed = 0L
+  private var elements = 0L
+  // Whether rendering stopped at a limit, when truncating.
+  private var truncated = false
+
+  private[graphviz] val attributeWriter = new AttributeWriter(this)
+
+  def indent(): Unit = {
+    level += 1
+    atLineStart = true
+  }
+
+  def dedent(): Unit = {
+    if (pendingNewline == level) {
+      pendingNewline = -1
+      atLineStart = false
+    }
+    level -= 1
+  }
+
+  /** Writes `attributes` as a bracketed attribute list, e.g. ` [shape = box;]`. */
+  def appendWithBrackets(attributes: Attributes): RenderContext = {
+    attributeWriter.writeWithBrackets(attributes)
+    this
+  }
+
+  /** Writes `attributes` as attribute statements, one per line. */
+  def appendStatements(attributes: Attributes): RenderContext = {
+    attributeWriter.writeStatements(attributes)
+    this
+  }
+
+  override def append(csq: CharSequence): RenderContext = {
+    val s = if (csq == null) "null" else csq
+    append(s, 0, s.length)
+  }
+
+  override def append(csq: CharSequence, start: Int, end: Int): RenderContext = {
+    val s = if (csq == null) "null" else csq
+    var from = start
+    var i = start
+    while (i < end) {
+      if (s.charAt(i) == '\n') {
+        if (i > from) appendRun(s, from, i)
+        newline()
+        from = i + 1
+      }
+      i += 1
+    }
+    if (end > from) appendRun(s, from, end)
+    this
+  }
+
+  override def append(c: Char): RenderContext = {
+    if (c == '\n') {
+      newline()
+    } else {
+      startLine()
+      write(c)
+    }
+    this
+  }
+
+  /**
+    * A context for rendering a part of the current block separately, e.g. on another
+    * thread. Its output can be spliced back in with [[appendFragment]].
+    */
+  private[graphviz] def fragment(out: Appendable): RenderContext = {
+    val fragment = new RenderContext(out, indentation, parallel, cache)
+    fragment.level = level
+    fragment
+  }
+
+  /**
+    * Appends what `render` writes for `element`, taken from [[cache]] if it is there.
+    * `render` is called on a context of its own at depth zero; its output is indented
+    * to the current depth when it is appended.
+    */
+  private[graphviz] def appendCached(element: AnyRef)(render: RenderContext => Unit): Unit = {
+    append(cache.getOrRender(element, indentation) {
+      val rendered = new java.lang.StringBuilder
+      val context = new RenderContext(rendered, indentation, parallel, cache)
+      render(context)
+      context.flush()
+      rendered.toString
+    })
+  }
+
+  /**
+    * Appends the output of a [[fragment]] that was started where this context currently
+    * is, i.e. at the start of a line, and continues in the state the fragment ended in.
+    */
+  private[graphviz] def appendFragment(rendered: CharSequence, fragment: RenderContext): Unit = {
+    if (rendered.length > 0) {
+      if (pendingNewline >= 0) {
+        write('\n')
+        pendingNewline = -1
+      }
+      write(rendered, 0, rendered.length)
+      atLineStart = fragment.atLineStart
+      pendingNewline = fragment.pendingNewline
+    }
+  }
+
+  /**
+    * Whether the next element may be rendered under [[limits]], given whether it would be
+    * the first of its scope: [[RenderContext.Render]] if so, [[RenderContext.Skip]] if just
+    * this subgraph is nested too deep to be rendered, and [[RenderContext.Stop]] if rendering
+    * stops here. If it is not rendered, this throws, or writes the truncation marker in its
+    * place.
+    *
+    * @param element the element, or null for a row of a batch or a builder.
+    */
+  private[graphviz] def admit(element: GraphElement, first: Boolean): Int =
+    if (limits == null) RenderContext.Render else admitLimited(element, first)
+
+  private def admitLimited(element: GraphElement, first: Boolean): Int = {
+    if (truncated) return RenderContext.Stop
+    if (element.isInstanceOf[SubGraph] && level > limits.maxDepth) {
+      exceeded("maxDepth", s"a subgraph nested deeper than ${limits.maxDepth}", first)
+      return RenderContext.Skip
+    }
+    // Batches and sources only hold elements, which are counted one by one.
+    if (!element.isInstanceOf[NodeBatch] && !element.isInstanceOf[EdgeBatch] && !element.isInstanceOf[ElementSource]) {
+      elements += 1
+    }
+    if (elements > limits.maxElements) {
+      exceeded("maxElements", s"more than ${limits.maxElements} elements", first)
+      truncated = true
+      RenderContext.Stop
+    } else if (flushed + buffered >= limits.maxOutputChars) {
+      exceeded("maxOutputChars", s"more than ${limits.maxOutputChars} characters", first)
+      truncated = true
+      RenderContext.Stop
+    } else {
+      RenderContext.Render
+    }
+  }
+
+  /** Throws, or writes the truncation marker if truncating. */
+  private def exceeded(limit: String, description: String, first: Boolean): Unit = {
+    if (!limits.truncate) throw new RenderLimitExceededException(s"The graph has $description", limit)
+    if (!first) append('\n')
+    append("// Truncated: ").append(description)
+  }
+
+  /** Hands everything rendered so far to the underlying `Appendable`. */
+  def flush(): Unit = {
+    if (buffered > 0) {
+      if (limits != null) {
+        if (!limits.truncate && flushed + buffered > limits.maxOutputChars) {
+          throw new RenderLimitExceededException(s"The graph has more than ${limits.maxOutputChars} characters", "maxOutputChars")
+        }
+        flushed += buffered
+      }
+      out match {
+        case writer: Writer => writer.write(buffer, 0, buffered)
+        case builder: java.lang.StringBuilder => builder.append(buffer, 0, buffered)
+        case _ => out.append(CharBuffer.wrap(buffer, 0, buffered))
+      }
+      buffered = 0
+    }
+  }
+
+  private def appendRun(s: CharSequence, start: Int, end: Int): Unit = {
+    startLine()
+    write(s, start, end)
+  }
+
+  private def startLine(): Unit = {
+    if (pendingNewline >= 0) {
+      write('\n')
+      pendingNewline = -1
+    }
+    if (atLineStart) {
+      if (level > 0) {
+        val p = prefix(level)
+        write(p, 0, p.length)
+      }
+      atLineStart = false
+    }
+  }
+
+  private def newline(): Unit = {
+    startLine()
+    if (level == 0) {
+      write('\n')
+    } else {
+      pendingNewline = level
+    }
+    atLineStart = true
+  }
+
+  private def prefix(level: Int): String = {
+    while (prefixes.length <= level) {
+      prefixes += prefixes.last + indentation
+    }
+    prefixes(level)
+  }
+
+  private def write(c: Char): Unit = {
+    if (buffered == buffer.length) flush()
+    buffer(buffered) = c
+    buffered += 1
+  }
+
+  private def write(s: CharSequence, start: Int, end: Int): Unit = {
+    var from = start
+    while (from < end) {
+      if (buffered == buffer.length) flush()
+      val to = math.min(end, from + buffer.length - buffered)
+      s match {
+        case string: String => string.getChars(from, to, buffer, buffered)
+        case builder: java.lang.StringBuilder => builder.getChars(from, to, buffer, buffered)
+        case chars: CharBuffer => chars.get(chars.position() + from, buffer, buffered, to - from)
+        case _ =>
+          var i = from
+          while (i < to) {
+            buffer(buffered + i - from) = s.charAt(i)
+            i += 1
+          }
+      }
+      buffered += to - from
+      from = to
+    }
+  }
+}
+
+private[graphviz] object RenderContext {
+  // What admit decides for an element.
+  final val Render = 0
+  final val Skip = 1
+  final val Stop = 2
+}
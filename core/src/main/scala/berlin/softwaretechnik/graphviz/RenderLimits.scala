@@ -0,0 +1,65 @@
+package berlin.softwaretechnik.graphviz
+
+import java.nio.channels.WritableByteChannel
+
+/**
+  * Limits on what a single render may produce, for graphs whose size is not under control,
+  * e.g. the results of user queries. Limits are checked while rendering, before the element
+  * that would exceed them is rendered, so an oversized graph is never rendered in full.
+  *
+  * Without `truncate`, exceeding a limit throws a [[RenderLimitExceededException]] and
+  * whatever was rendered up to then is incomplete. The output limit is checked whenever the
+  * render hands on its buffered output, so no more than `maxOutputChars` ever reach `out`.
+  *
+  * With `truncate`, rendering stops at the element that would exceed `maxElements` or
+  * `maxOutputChars`, and the open subgraphs and the graph are closed as usual, so the output
+  * is valid DOT. The output can exceed `maxOutputChars` by the element rendered last and the
+  * closing braces. A subgraph nested deeper than `maxDepth` is left out, and a label longer
+  * than `maxLabelLength` is cut short and ends in `…`, or for HTML-like labels, which cannot
+  * be cut, replaced by `…`. Every element left out is marked by a comment, e.g.
+  * `// Truncated: more than 1000 elements`.
+  *
+  * Checking the limits takes a comparison or two per element and label. Subgraphs are not
+  * taken from a [[RenderCache]] and element lists are not split by a [[ParallelRenderer]]
+  * while limits are set, see [[RenderContext]].
+  *
+  * @param maxOutputChars the characters of output; its UTF-8 encoding has at most three
+  *                       bytes per character, and one for ASCII.
+  * @param maxElements    nodes, edges, subgraphs, batch rows and elements of sources together,
+  *                       or the nodes and edges of a [[GraphBuilder]] or [[GraphStore]].
+  * @param maxDepth       the nesting of subgraphs, where those directly in the graph are at depth 1.
+  * @param maxLabelLength the characters of the text of a label, or of the markup of an
+  *                       HTML-like one.
+  */
+case class RenderLimits(
+  maxOutputChars: Long = Long.MaxValue,
+  maxElements: Long = Long.MaxValue,
+  maxDepth: Int = Int.MaxValue,
+  maxLabelLength: Int = Int.MaxValue,
+  truncate: Boolean = false
+) {
+  require(maxOutputChars >= 0 && maxElements >= 0 && maxDepth >= 0 && maxLabelLength >= 0, "Limits must not be negative.")
+
+  def render(renderable: Renderable): String = {
+    val out = new java.lang.StringBuilder
+    renderTo(renderable, out)
+    out.toString
+  }
+
+  def renderTo(renderable: Renderable, out: Appendable): Unit = {
+    val context = new RenderContext(out, limits = this)
+    renderable.renderTo(context)
+    context.flush()
+  }
+
+  /** Writes the output UTF-8 encoded to `channel`, leaving it open. */
+  def writeTo(renderable: Renderable, channel: WritableByteChannel): Unit =
+    Utf8ChannelWriter.writeTo(channel)(renderTo(renderable, _))
+}
+
+/**
+  * Thrown when a render exceeds one of its [[RenderLimits]].
+  *
+  * @param limit the name of the limit, e.g. `maxElements`.
+  */
+class RenderLimitExceededException(message: String, val limit: String) extends RuntimeException(message)
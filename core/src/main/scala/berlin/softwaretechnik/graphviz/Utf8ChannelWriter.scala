@@ -0,0 +1,170 @@
+package berlin.softwaretechnik.graphviz
+
+import java.io.{InterruptedIOException, Writer}
+import java.nio.ByteBuffer
+import java.nio.channels.WritableByteChannel
+import java.util.concurrent.ConcurrentLinkedQueue
+import java.util.concurrent.atomic.AtomicInteger
+import java.util.concurrent.locks.LockSupport
+
+/**
+  * A `Writer` that encodes UTF-8 straight into `buffer` and writes it to `channel` whenever
+  * the buffer fills up, so characters are copied exactly once on their way to the channel.
+  *
+  * [[close]] closes the channel, [[flush]] only drains the buffer into it, keeping back a
+  * high surrogate that may yet be followed by its low one. A non-blocking
+  * channel that takes no bytes is retried after a pause that grows up to a millisecond,
+  * instead of in a busy loop.
+  */
+final class Utf8ChannelWriter(
+  channel: WritableByteChannel,
+  buffer: ByteBuffer = ByteBuffer.allocateDirect(Utf8ChannelWriter.DefaultBufferSize)
+) extends Writer {
+  import Utf8ChannelWriter._
+
+  require(buffer.capacity() >= 4, "The buffer must be able to hold at least one character.")
+  buffer.clear()
+
+  // A high surrogate whose low surrogate hasn't been written yet, 0 if there is none.
+  private var highSurrogate: Char = 0
+
+  override def write(chars: Array[Char], offset: Int, length: Int): Unit = {
+    var i = offset
+    val end = offset + length
+    while (i < end) {
+      val c = chars(i)
+      if (buffer.remaining() < 4) drain()
+      if (c < 0x80 && highSurrogate == 0) {
+        buffer.put(c.toByte)
+      } else {
+        encode(c)
+      }
+      i += 1
+    }
+  }
+
+  override def write(c: Int): Unit = {
+    if (buffer.remaining() < 4) drain()
+    encode(c.toChar)
+  }
+
+  override def write(s: String, offset: Int, length: Int): Unit = {
+    var i = offset
+    val end = offset + length
+    while (i < end) {
+      val c = s.charAt(i)
+      if (buffer.remaining() < 4) drain()
+      if (c < 0x80 && highSurrogate == 0) {
+        buffer.put(c.toByte)
+      } else {
+        encode(c)
+      }
+      i += 1
+    }
+  }
+
+  override def flush(): Unit = drain()
+
+  override def close(): Unit = {
+    finish()
+    channel.close()
+  }
+
+  /**
+    * Drains the buffer like [[flush]] once everything is written, without closing the
+    * channel. Like `String.getBytes`, a high surrogate at the end becomes '?'.
+    */
+  private[graphviz] def finish(): Unit = {
+    if (highSurrogate != 0) {
+      highSurrogate = 0
+      if (buffer.remaining() < 4) drain()
+      buffer.put('?'.toByte)
+    }
+    drain()
+  }
+
+  private def encode(c: Char): Unit = {
+    if (highSurrogate != 0) {
+      val high = highSurrogate
+      highSurrogate = 0
+      if (Character.isLowSurrogate(c)) {
+        val codePoint = Character.toCodePoint(high, c)
+        buffer.put((0xF0 | (codePoint >> 18)).toByte)
+        buffer.put((0x80 | ((codePoint >> 12) & 0x3F)).toByte)
+        buffer.put((0x80 | ((codePoint >> 6) & 0x3F)).toByte)
+        buffer.put((0x80 | (codePoint & 0x3F)).toByte)
+        return
+      }
+      // Like String.getBytes, unpaired surrogates become '?'.
+      buffer.put('?'.toByte)
+      if (buffer.remaining() < 4) drain()
+    }
+    if (c < 0x80) {
+      buffer.put(c.toByte)
+    } else if (c < 0x800) {
+      buffer.put((0xC0 | (c >> 6)).toByte)
+      buffer.put((0x80 | (c & 0x3F)).toByte)
+    } else if (Character.isHighSurrogate(c)) {
+      highSurrogate = c
+    } else if (Character.isLowSurrogate(c)) {
+      buffer.put('?'.toByte)
+    } else {
+      buffer.put((0xE0 | (c >> 12)).toByte)
+      buffer.put((0x80 | ((c >> 6) & 0x3F)).toByte)
+      buffer.put((0x80 | (c & 0x3F)).toByte)
+    }
+  }
+
+  private def drain(): Unit = {
+    buffer.flip()
+    var pause = MinPauseNanos
+    while (buffer.hasRemaining) {
+      if (channel.write(buffer) > 0) {
+        pause = MinPauseNanos
+      } else {
+        pause = Utf8ChannelWriter.backOff(pause, "the channel to take bytes")
+      }
+    }
+    buffer.clear()
+  }
+}
+
+object Utf8ChannelWriter {
+  val DefaultBufferSize: Int = 64 * 1024
+
+  private[graphviz] final val MinPauseNanos = 1000L
+  private final val MaxPauseNanos = 1000000L
+
+  /**
+    * Waits `pause` nanoseconds for a non-blocking channel that is not ready, and returns
+    * how long to wait the next time, which doubles up to a millisecond. Start with
+    * [[MinPauseNanos]] and go back to it once the channel makes progress.
+    */
+  private[graphviz] def backOff(pause: Long, waitingFor: String): Long = {
+    LockSupport.parkNanos(pause)
+    if (Thread.interrupted()) throw new InterruptedIOException(s"Interrupted while waiting for $waitingFor.")
+    math.min(pause * 2, MaxPauseNanos)
+  }
+
+  // Direct buffers are slow to allocate and only freed by the garbage collector, so writes
+  // share a few of them, whichever thread they run on.
+  private val pool = new ConcurrentLinkedQueue[ByteBuffer]()
+  private val pooled = new AtomicInteger()
+  private val maxPooled = Runtime.getRuntime.availableProcessors() * 2
+
+  /**
+    * Calls `write` with a writer to `channel` on a pooled direct buffer and finishes it,
+    * leaving the channel open.
+    */
+  private[graphviz] def writeTo(channel: WritableByteChannel)(write: Utf8ChannelWriter => Unit): Unit = {
+    var buffer = pool.poll()
+    if (buffer == null) buffer = ByteBuffer.allocateDirect(DefaultBufferSize) else pooled.decrementAndGet()
+    try {
+      val writer = new Utf8ChannelWriter(channel, buffer)
+      write(writer)
+      writer.finish()
+    } finally {
+      if (pooled.incrementAndGet() <= maxPooled) pool.add(buffer) else pooled.decrementAndGet()
+    }
+  }
+}
@@ -0,0 +1,30 @@
+package berlin.softwaretechnik.graphviz.attributes
+
+/** Receives the attributes that are set on an [[Attributes]] instance. */
+trait AttributeVisitor {
+  def visit(name: String, value: Any): Unit
+}
+
+/** Common interface of the generated attribute classes. */
+trait Attributes {
+  def toAttributeMap(): Seq[(String, Any)]
+
+  /** Calls `visitor` for every attribute that is set, in declaration order, without allocating. */
+  def foreachSet(visitor: AttributeVisitor): Unit
+
+  def isEmpty: Boolean
+}
+
+object Attributes {
+  val empty: Attributes = apply(Nil)
+
+  /** Views an attribute map, as returned by `toAttributeMap()`, as [[Attributes]]. */
+  def apply(attributeMap: Seq[(String, Any)]): Attributes = new Attributes {
+    override def toAttributeMap(): Seq[(String, Any)] = attributeMap
+
+    override def foreachSet(visitor: AttributeVisitor): Unit =
+      attributeMap.foreach { case (k, v) => visitor.visit(k, v) }
+
+    override def isEmpty: Boolean = attributeMap.isEmpty
+  }
+}
@@ -469,7 +469,7 @@ case class EdgeAttributes (
     * length of the edge is <a rel="attr">len</a>.
     */
   weight: java.lang.Double = null
-) {
+) extends Attributes {
   def toAttributeMap(): Seq[(String, Any)] = Seq(
   "URL" -> URL,
   "arrowhead" -> arrowhead,
@@ -529,4 +529,454 @@ case class EdgeAttributes (
   "target" -> target,
   "tooltip" -> tooltip,
   "weight" -> weight).filter{case(k, v) => v != null}
+
+  def foreachSet(visitor: AttributeVisitor): Unit = {
+    if (URL != null) visitor.visit("URL", URL)
+    if (arrowhead != null) visitor.visit("arrowhead", arrowhead)
+    if (arrowsize != null) visitor.visit("arrowsize", arrowsize)
+    if (arrowtail != null) visitor.visit("arrowtail", arrowtail)
+    if (color != null) visitor.visit("color", color)
+    if (colorscheme != null) visitor.visit("colorscheme", colorscheme)
+    if (comment != null) visitor.visit("comment", comment)
+    if (constraint != null) visitor.visit("constraint", constraint)
+    if (decorate != null) visitor.visit("decorate", decorate)
+    if (dir != null) visitor.visit("dir", dir)
+    if (edgeURL != null) visitor.visit("edgeURL", edgeURL)
+    if (edgehref != null) visitor.visit("edgehref", edgehref)
+    if (edgetarget != null) visitor.visit("edgetarget", edgetarget)
+    if (edgetooltip != null) visitor.visit("edgetooltip", edgetooltip)
+    if (fontcolor != null) visitor.visit("fontcolor", fontcolor)
+    if (fontname != null) visitor.visit("fontname", fontname)
+    if (fontsize != null) visitor.visit("fontsize", fontsize)
+    if (headURL != null) visitor.visit("headURL", headURL)
+    if (headclip != null) visitor.visit("headclip", headclip)
+    if (headhref != null) visitor.visit("headhref", headhref)
+    if (headlabel != null) visitor.visit("headlabel", headlabel)
+    if (headport != null) visitor.visit("headport", headport)
+    if (headtarget != null) visitor.visit("headtarget", headtarget)
+    if (headtooltip != null) visitor.visit("headtooltip", headtooltip)
+    if (href != null) visitor.visit("href", href)
+    if (label != null) visitor.visit("label", label)
+    if (labelURL != null) visitor.visit("labelURL", labelURL)
+    if (labelangle != null) visitor.visit("labelangle", labelangle)
+    if (labeldistance != null) visitor.visit("labeldistance", labeldistance)
+    if (labelfloat != null) visitor.visit("labelfloat", labelfloat)
+    if (labelfontcolor != null) visitor.visit("labelfontcolor", labelfontcolor)
+    if (labelfontname != null) visitor.visit("labelfontname", labelfontname)
+    if (labelfontsize != null) visitor.visit("labelfontsize", labelfontsize)
+    if (labelhref != null) visitor.visit("labelhref", labelhref)
+    if (labeltarget != null) visitor.visit("labeltarget", labeltarget)
+    if (labeltooltip != null) visitor.visit("labeltooltip", labeltooltip)
+    if (layer != null) visitor.visit("layer", layer)
+    if (len != null) visitor.visit("len", len)
+    if (lhead != null) visitor.visit("lhead", lhead)
+    if (lp != null) visitor.visit("lp", lp)
+    if (ltail != null) visitor.visit("ltail", ltail)
+    if (minlen != null) visitor.visit("minlen", minlen)
+    if (nojustify != null) visitor.visit("nojustify", nojustify)
+    if (pos != null) visitor.visit("pos", pos)
+    if (samehead != null) visitor.visit("samehead", samehead)
+    if (sametail != null) visitor.visit("sametail", sametail)
+    if (showboxes != null) visitor.visit("showboxes", showboxes)
+    if (style != null) visitor.visit("style", style)
+    if (tailURL != null) visitor.visit("tailURL", tailURL)
+    if (tailclip != null) visitor.visit("tailclip", tailclip)
+    if (tailhref != null) visitor.visit("tailhref", tailhref)
+    if (taillabel != null) visitor.visit("taillabel", taillabel)
+    if (tailport != null) visitor.visit("tailport", tailport)
+    if (tailtarget != null) visitor.visit("tailtarget", tailtarget)
+    if (tailtooltip != null) visitor.visit("tailtooltip", tailtooltip)
+    if (target != null) visitor.visit("target", target)
+    if (tooltip != null) visitor.visit("tooltip", tooltip)
+    if (weight != null) visitor.visit("weight", weight)
+  }
+
+  def isEmpty: Boolean =
+    URL == null &&
+    arrowhead == null &&
+    arrowsize == null &&
+    arrowtail == null &&
+    color == null &&
+    colorscheme == null &&
+    comment == null &&
+    constraint == null &&
+    decorate == null &&
+    dir == null &&
+    edgeURL == null &&
+    edgehref == null &&
+    edgetarget == null &&
+    edgetooltip == null &&
+    fontcolor == null &&
+    fontname == null &&
+    fontsize == null &&
+    headURL == null &&
+    headclip == null &&
+    headhref == null &&
+    headlabel == null &&
+    headport == null &&
+    headtarget == null &&
+    headtooltip == null &&
+    href == null &&
+    label == null &&
+    labelURL == null &&
+    labelangle == null &&
+    labeldistance == null &&
+    labelfloat == null &&
+    labelfontcolor == null &&
+    labelfontname == null &&
+    labelfontsize == null &&
+    labelhref == null &&
+    labeltarget == null &&
+    labeltooltip == null &&
+    layer == null &&
+    len == null &&
+    lhead == null &&
+    lp == null &&
+    ltail == null &&
+    minlen == null &&
+    nojustify == null &&
+    pos == null &&
+    samehead == null &&
+    sametail == null &&
+    showboxes == null &&
+    style == null &&
+    tailURL == null &&
+    tailclip == null &&
+    tailhref == null &&
+    taillabel == null &&
+    tailport == null &&
+    tailtarget == null &&
+    tailtooltip == null &&
+    target == null &&
+    tooltip == null &&
+    weight == null
+
+  /** A copy with `f` applied to every attribute that is set. */
+  private[graphviz] def mapValues(f: AnyRef => AnyRef): EdgeAttributes = EdgeAttributes(
+    if (URL == null) null else f(URL).asInstanceOf[String],
+    if (arrowhead == null) null else f(arrowhead).asInstanceOf[ArrowType],
+    if (arrowsize == null) null else f(arrowsize).asInstanceOf[java.lang.Double],
+    if (arrowtail == null) null else f(arrowtail).asInstanceOf[ArrowType],
+    if (color == null) null else f(color).asInstanceOf[ColorOrList],
+    if (colorscheme == null) null else f(colorscheme).asInstanceOf[String],
+    if (comment == null) null else f(comment).asInstanceOf[String],
+    if (constraint == null) null else f(constraint).asInstanceOf[java.lang.Boolean],
+    if (decorate == null) null else f(decorate).asInstanceOf[java.lang.Boolean],
+    if (dir == null) null else f(dir).asInstanceOf[DirType],
+    if (edgeURL == null) null else f(edgeURL).asInstanceOf[String],
+    if (edgehref == null) null else f(edgehref).asInstanceOf[String],
+    if (edgetarget == null) null else f(edgetarget).asInstanceOf[String],
+    if (edgetooltip == null) null else f(edgetooltip).asInstanceOf[String],
+    if (fontcolor == null) null else f(fontcolor).asInstanceOf[Color],
+    if (fontname == null) null else f(fontname).asInstanceOf[String],
+    if (fontsize == null) null else f(fontsize).asInstanceOf[java.lang.Double],
+    if (headURL == null) null else f(headURL).asInstanceOf[String],
+    if (headclip == null) null else f(headclip).asInstanceOf[java.lang.Boolean],
+    if (headhref == null) null else f(headhref).asInstanceOf[String],
+    if (headlabel == null) null else f(headlabel).asInstanceOf[LabelString],
+    if (headport == null) null else f(headport).asInstanceOf[PortPosition],
+    if (headtarget == null) null else f(headtarget).asInstanceOf[String],
+    if (headtooltip == null) null else f(headtooltip).asInstanceOf[String],
+    if (href == null) null else f(href).asInstanceOf[String],
+    if (label == null) null else f(label).asInstanceOf[LabelString],
+    if (labelURL == null) null else f(labelURL).asInstanceOf[String],
+    if (labelangle == null) null else f(labelangle).asInstanceOf[java.lang.Double],
+    if (labeldistance == null) null else f(labeldistance).asInstanceOf[java.lang.Double],
+    if (labelfloat == null) null else f(labelfloat).asInstanceOf[java.lang.Boolean],
+    if (labelfontcolor == null) null else f(labelfontcolor).asInstanceOf[Color],
+    if (labelfontname == null) null else f(labelfontname).asInstanceOf[String],
+    if (labelfontsize == null) null else f(labelfontsize).asInstanceOf[java.lang.Double],
+    if (labelhref == null) null else f(labelhref).asInstanceOf[String],
+    if (labeltarget == null) null else f(labeltarget).asInstanceOf[String],
+    if (labeltooltip == null) null else f(labeltooltip).asInstanceOf[String],
+    if (layer == null) null else f(layer).asInstanceOf[LayerRange],
+    if (len == null) null else f(len).asInstanceOf[java.lang.Double],
+    if (lhead == null) null else f(lhead).asInstanceOf[String],
+    if (lp == null) null else f(lp).asInstanceOf[Point],
+    if (ltail == null) null else f(ltail).asInstanceOf[String],
+    if (minlen == null) null else f(minlen).asInstanceOf[java.lang.Integer],
+    if (nojustify == null) null else f(nojustify).asInstanceOf[java.lang.Boolean],
+    if (pos == null) null else f(pos).asInstanceOf[SplineType],
+    if (samehead == null) null else f(samehead).asInstanceOf[String],
+    if (sametail == null) null else f(sametail).asInstanceOf[String],
+    if (showboxes == null) null else f(showboxes).asInstanceOf[java.lang.Integer],
+    if (style == null) null else f(style).asInstanceOf[Style],
+    if (tailURL == null) null else f(tailURL).asInstanceOf[String],
+    if (tailclip == null) null else f(tailclip).asInstanceOf[java.lang.Boolean],
+    if (tailhref == null) null else f(tailhref).asInstanceOf[String],
+    if (taillabel == null) null else f(taillabel).asInstanceOf[LabelString],
+    if (tailport == null) null else f(tailport).asInstanceOf[PortPosition],
+    if (tailtarget == null) null else f(tailtarget).asInstanceOf[String],
+    if (tailtooltip == null) null else f(tailtooltip).asInstanceOf[String],
+    if (target == null) null else f(target).asInstanceOf[String],
+    if (tooltip == null) null else f(tooltip).asInstanceOf[String],
+    if (weight == null) null else f(weight).asInstanceOf[java.lang.Double]
+  )
+
+  /**
+    * A copy with the attribute called `name` set to `value`, or unset if `value` is null.
+    * `value` must be of the attribute's type.
+    */
+  private[graphviz] def updated(name: String, value: AnyRef): EdgeAttributes = {
+    val all = Array[AnyRef](
+      URL,
+      arrowhead,
+      arrowsize,
+      arrowtail,
+      color,
+      colorscheme,
+      comment,
+      constraint,
+      decorate,
+      dir,
+      edgeURL,
+      edgehref,
+      edgetarget,
+      edgetooltip,
+      fontcolor,
+      fontname,
+      fontsize,
+      headURL,
+      headclip,
+      headhref,
+      headlabel,
+      headport,
+      headtarget,
+      headtooltip,
+      href,
+      label,
+      labelURL,
+      labelangle,
+      labeldistance,
+      labelfloat,
+      labelfontcolor,
+      labelfontname,
+      labelfontsize,
+      labelhref,
+      labeltarget,
+      labeltooltip,
+      layer,
+      len,
+      lhead,
+      lp,
+      ltail,
+      minlen,
+      nojustify,
+      pos,
+      samehead,
+      sametail,
+      showboxes,
+      style,
+      tailURL,
+      tailclip,
+      tailhref,
+      taillabel,
+      tailport,
+      tailtarget,
+      tailtooltip,
+      target,
+      tooltip,
+      weight
+    )
+    all(EdgeAttributes.indexOf(name)) = value
+    EdgeAttributes.fromArray(all)
+  }
+}
+
+object EdgeAttributes {
+  private val names: Array[String] = Array(
+    "URL",
+    "arrowhead",
+    "arrowsize",
+    "arrowtail",
+    "color",
+    "colorscheme",
+    "comment",
+    "constraint",
+    "decorate",
+    "dir",
+    "edgeURL",
+    "edgehref",
+    "edgetarget",
+    "edgetooltip",
+    "fontcolor",
+    "fontname",
+    "fontsize",
+    "headURL",
+    "headclip",
+    "headhref",
+    "headlabel",
+    "headport",
+    "headtarget",
+    "headtooltip",
+    "href",
+    "label",
+    "labelURL",
+    "labelangle",
+    "labeldistance",
+    "labelfloat",
+    "labelfontcolor",
+    "labelfontname",
+    "labelfontsize",
+    "labelhref",
+    "labeltarget",
+    "labeltooltip",
+    "layer",
+    "len",
+    "lhead",
+    "lp",
+    "ltail",
+    "minlen",
+    "nojustify",
+    "pos",
+    "samehead",
+    "sametail",
+    "showboxes",
+    "style",
+    "tailURL",
+    "tailclip",
+    "tailhref",
+    "taillabel",
+    "tailport",
+    "tailtarget",
+    "tailtooltip",
+    "target",
+    "tooltip",
+    "weight"
+  )
+  
+  private val types: Array[String] = Array(
+    "String",
+    "ArrowType",
+    "java.lang.Double",
+    "ArrowType",
+    "ColorOrList",
+    "String",
+    "String",
+    "java.lang.Boolean",
+    "java.lang.Boolean",
+    "DirType",
+    "String",
+    "String",
+    "String",
+    "String",
+    "Color",
+    "String",
+    "java.lang.Double",
+    "String",
+    "java.lang.Boolean",
+    "String",
+    "LabelString",
+    "PortPosition",
+    "String",
+    "String",
+    "String",
+    "LabelString",
+    "String",
+    "java.lang.Double",
+    "java.lang.Double",
+    "java.lang.Boolean",
+    "Color",
+    "String",
+    "java.lang.Double",
+    "String",
+    "String",
+    "String",
+    "LayerRange",
+    "java.lang.Double",
+    "String",
+    "Point",
+    "String",
+    "java.lang.Integer",
+    "java.lang.Boolean",
+    "SplineType",
+    "String",
+    "String",
+    "java.lang.Integer",
+    "Style",
+    "String",
+    "java.lang.Boolean",
+    "String",
+    "LabelString",
+    "PortPosition",
+    "String",
+    "String",
+    "String",
+    "String",
+    "java.lang.Double"
+  )
+  
+  private val indices: Map[String, Int] = names.zipWithIndex.toMap
+  
+  /** The number of attributes, i.e. the length of the array `fromArray` takes. */
+  private[graphviz] def attributeCount: Int = names.length
+  
+  /** The position of the attribute called `name` in declaration order. */
+  private[graphviz] def indexOf(name: String): Int =
+    indices.getOrElse(name, throw new IllegalArgumentException(s"Unknown attribute: $name"))
+  
+  /** The declared type of the attribute at `index`, e.g. `java.lang.Double`. */
+  private[graphviz] def typeOf(index: Int): String = types(index)
+  
+  /** An instance with the attribute at every position in `all` set to its value there, if that is not null. */
+  private[graphviz] def fromArray(all: Array[AnyRef]): EdgeAttributes = EdgeAttributes(
+    all(0).asInstanceOf[String],
+    all(1).asInstanceOf[ArrowType],
+    all(2).asInstanceOf[java.lang.Double],
+    all(3).asInstanceOf[ArrowType],
+    all(4).asInstanceOf[ColorOrList],
+    all(5).asInstanceOf[String],
+    all(6).asInstanceOf[String],
+    all(7).asInstanceOf[java.lang.Boolean],
+    all(8).asInstanceOf[java.lang.Boolean],
+    all(9).asInstanceOf[DirType],
+    all(10).asInstanceOf[String],
+    all(11).asInstanceOf[String],
+    all(12).asInstanceOf[String],
+    all(13).asInstanceOf[String],
+    all(14).asInstanceOf[Color],
+    all(15).asInstanceOf[String],
+    all(16).asInstanceOf[java.lang.Double],
+    all(17).asInstanceOf[String],
+    all(18).asInstanceOf[java.lang.Boolean],
+    all(19).asInstanceOf[String],
+    all(20).asInstanceOf[LabelString],
+    all(21).asInstanceOf[PortPosition],
+    all(22).asInstanceOf[String],
+    all(23).asInstanceOf[String],
+    all(24).asInstanceOf[String],
+    all(25).asInstanceOf[LabelString],
+    all(26).asInstanceOf[String],
+    all(27).asInstanceOf[java.lang.Double],
+    all(28).asInstanceOf[java.lang.Double],
+    all(29).asInstanceOf[java.lang.Boolean],
+    all(30).asInstanceOf[Color],
+    all(31).asInstanceOf[String],
+    all(32).asInstanceOf[java.lang.Double],
+    all(33).asInstanceOf[String],
+    all(34).asInstanceOf[String],
+    all(35).asInstanceOf[String],
+    all(36).asInstanceOf[LayerRange],
+    all(37).asInstanceOf[java.lang.Double],
+    all(38).asInstanceOf[String],
+    all(39).asInstanceOf[Point],
+    all(40).asInstanceOf[String],
+    all(41).asInstanceOf[java.lang.Integer],
+    all(42).asInstanceOf[java.lang.Boolean],
+    all(43).asInstanceOf[SplineType],
+    all(44).asInstanceOf[String],
+    all(45).asInstanceOf[String],
+    all(46).asInstanceOf[java.lang.Integer],
+    all(47).asInstanceOf[Style],
+    all(48).asInstanceOf[String],
+    all(49).asInstanceOf[java.lang.Boolean],
+    all(50).asInstanceOf[String],
+    all(51).asInstanceOf[LabelString],
+    all(52).asInstanceOf[PortPosition],
+    all(53).asInstanceOf[String],
+    all(54).asInstanceOf[String],
+    all(55).asInstanceOf[String],
+    all(56).asInstanceOf[String],
+    all(57).asInstanceOf[java.lang.Double]
+  )
 }
\ No newline at end of file
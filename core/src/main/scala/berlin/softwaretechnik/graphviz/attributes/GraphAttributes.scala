@@ -733,7 +733,7 @@ case class GraphAttributes (
     * Voronoi technique. dim' = (1+2*margin)*dim.
     */
   voro_margin: java.lang.Double = null
-) {
+) extends Attributes {
   def toAttributeMap(): Seq[(String, Any)] = Seq(
   "imagepath" -> imagepath,
   "Damping" -> Damping,
@@ -807,4 +807,552 @@ case class GraphAttributes (
   "truecolor" -> truecolor,
   "viewport" -> viewport,
   "voro_margin" -> voro_margin).filter{case(k, v) => v != null}
+
+  def foreachSet(visitor: AttributeVisitor): Unit = {
+    if (imagepath != null) visitor.visit("imagepath", imagepath)
+    if (Damping != null) visitor.visit("Damping", Damping)
+    if (K != null) visitor.visit("K", K)
+    if (URL != null) visitor.visit("URL", URL)
+    if (bb != null) visitor.visit("bb", bb)
+    if (bgcolor != null) visitor.visit("bgcolor", bgcolor)
+    if (center != null) visitor.visit("center", center)
+    if (charset != null) visitor.visit("charset", charset)
+    if (clusterrank != null) visitor.visit("clusterrank", clusterrank)
+    if (colorscheme != null) visitor.visit("colorscheme", colorscheme)
+    if (comment != null) visitor.visit("comment", comment)
+    if (compound != null) visitor.visit("compound", compound)
+    if (concentrate != null) visitor.visit("concentrate", concentrate)
+    if (defaultdist != null) visitor.visit("defaultdist", defaultdist)
+    if (dim != null) visitor.visit("dim", dim)
+    if (diredgeconstraints != null) visitor.visit("diredgeconstraints", diredgeconstraints)
+    if (dpi != null) visitor.visit("dpi", dpi)
+    if (epsilon != null) visitor.visit("epsilon", epsilon)
+    if (esep != null) visitor.visit("esep", esep)
+    if (fontcolor != null) visitor.visit("fontcolor", fontcolor)
+    if (fontname != null) visitor.visit("fontname", fontname)
+    if (fontnames != null) visitor.visit("fontnames", fontnames)
+    if (fontpath != null) visitor.visit("fontpath", fontpath)
+    if (fontsize != null) visitor.visit("fontsize", fontsize)
+    if (label != null) visitor.visit("label", label)
+    if (labeljust != null) visitor.visit("labeljust", labeljust)
+    if (labelloc != null) visitor.visit("labelloc", labelloc)
+    if (landscape != null) visitor.visit("landscape", landscape)
+    if (layers != null) visitor.visit("layers", layers)
+    if (layersep != null) visitor.visit("layersep", layersep)
+    if (layout != null) visitor.visit("layout", layout)
+    if (levelsgap != null) visitor.visit("levelsgap", levelsgap)
+    if (lp != null) visitor.visit("lp", lp)
+    if (margin != null) visitor.visit("margin", margin)
+    if (maxiter != null) visitor.visit("maxiter", maxiter)
+    if (mclimit != null) visitor.visit("mclimit", mclimit)
+    if (mindist != null) visitor.visit("mindist", mindist)
+    if (mode != null) visitor.visit("mode", mode)
+    if (model != null) visitor.visit("model", model)
+    if (mosek != null) visitor.visit("mosek", mosek)
+    if (nodesep != null) visitor.visit("nodesep", nodesep)
+    if (nojustify != null) visitor.visit("nojustify", nojustify)
+    if (normalize != null) visitor.visit("normalize", normalize)
+    if (nslimit != null) visitor.visit("nslimit", nslimit)
+    if (nslimit1 != null) visitor.visit("nslimit1", nslimit1)
+    if (ordering != null) visitor.visit("ordering", ordering)
+    if (outputorder != null) visitor.visit("outputorder", outputorder)
+    if (overlap != null) visitor.visit("overlap", overlap)
+    if (pack != null) visitor.visit("pack", pack)
+    if (packmode != null) visitor.visit("packmode", packmode)
+    if (pad != null) visitor.visit("pad", pad)
+    if (page != null) visitor.visit("page", page)
+    if (pagedir != null) visitor.visit("pagedir", pagedir)
+    if (quantum != null) visitor.visit("quantum", quantum)
+    if (rankdir != null) visitor.visit("rankdir", rankdir)
+    if (ranksep != null) visitor.visit("ranksep", ranksep)
+    if (ratio != null) visitor.visit("ratio", ratio)
+    if (remincross != null) visitor.visit("remincross", remincross)
+    if (resolution != null) visitor.visit("resolution", resolution)
+    if (root != null) visitor.visit("root", root)
+    if (rotate != null) visitor.visit("rotate", rotate)
+    if (searchsize != null) visitor.visit("searchsize", searchsize)
+    if (sep != null) visitor.visit("sep", sep)
+    if (showboxes != null) visitor.visit("showboxes", showboxes)
+    if (size != null) visitor.visit("size", size)
+    if (splines != null) visitor.visit("splines", splines)
+    if (start != null) visitor.visit("start", start)
+    if (stylesheet != null) visitor.visit("stylesheet", stylesheet)
+    if (target != null) visitor.visit("target", target)
+    if (truecolor != null) visitor.visit("truecolor", truecolor)
+    if (viewport != null) visitor.visit("viewport", viewport)
+    if (voro_margin != null) visitor.visit("voro_margin", voro_margin)
+  }
+
+  def isEmpty: Boolean =
+    imagepath == null &&
+    Damping == null &&
+    K == null &&
+    URL == null &&
+    bb == null &&
+    bgcolor == null &&
+    center == null &&
+    charset == null &&
+    clusterrank == null &&
+    colorscheme == null &&
+    comment == null &&
+    compound == null &&
+    concentrate == null &&
+    defaultdist == null &&
+    dim == null &&
+    diredgeconstraints == null &&
+    dpi == null &&
+    epsilon == null &&
+    esep == null &&
+    fontcolor == null &&
+    fontname == null &&
+    fontnames == null &&
+    fontpath == null &&
+    fontsize == null &&
+    label == null &&
+    labeljust == null &&
+    labelloc == null &&
+    landscape == null &&
+    layers == null &&
+    layersep == null &&
+    layout == null &&
+    levelsgap == null &&
+    lp == null &&
+    margin == null &&
+    maxiter == null &&
+    mclimit == null &&
+    mindist == null &&
+    mode == null &&
+    model == null &&
+    mosek == null &&
+    nodesep == null &&
+    nojustify == null &&
+    normalize == null &&
+    nslimit == null &&
+    nslimit1 == null &&
+    ordering == null &&
+    outputorder == null &&
+    overlap == null &&
+    pack == null &&
+    packmode == null &&
+    pad == null &&
+    page == null &&
+    pagedir == null &&
+    quantum == null &&
+    rankdir == null &&
+    ranksep == null &&
+    ratio == null &&
+    remincross == null &&
+    resolution == null &&
+    root == null &&
+    rotate == null &&
+    searchsize == null &&
+    sep == null &&
+    showboxes == null &&
+    size == null &&
+    splines == null &&
+    start == null &&
+    stylesheet == null &&
+    target == null &&
+    truecolor == null &&
+    viewport == null &&
+    voro_margin == null
+
+  /** A copy with `f` applied to every attribute that is set. */
+  private[graphviz] def mapValues(f: AnyRef => AnyRef): GraphAttributes = GraphAttributes(
+    if (imagepath == null) null else f(imagepath).asInstanceOf[String],
+    if (Damping == null) null else f(Damping).asInstanceOf[java.lang.Double],
+    if (K == null) null else f(K).asInstanceOf[java.lang.Double],
+    if (URL == null) null else f(URL).asInstanceOf[String],
+    if (bb == null) null else f(bb).asInstanceOf[Rect],
+    if (bgcolor == null) null else f(bgcolor).asInstanceOf[Color],
+    if (center == null) null else f(center).asInstanceOf[java.lang.Boolean],
+    if (charset == null) null else f(charset).asInstanceOf[String],
+    if (clusterrank == null) null else f(clusterrank).asInstanceOf[ClusterMode],
+    if (colorscheme == null) null else f(colorscheme).asInstanceOf[String],
+    if (comment == null) null else f(comment).asInstanceOf[String],
+    if (compound == null) null else f(compound).asInstanceOf[java.lang.Boolean],
+    if (concentrate == null) null else f(concentrate).asInstanceOf[java.lang.Boolean],
+    if (defaultdist == null) null else f(defaultdist).asInstanceOf[java.lang.Double],
+    if (dim == null) null else f(dim).asInstanceOf[java.lang.Integer],
+    if (diredgeconstraints == null) null else f(diredgeconstraints).asInstanceOf[String],
+    if (dpi == null) null else f(dpi).asInstanceOf[java.lang.Double],
+    if (epsilon == null) null else f(epsilon).asInstanceOf[java.lang.Double],
+    if (esep == null) null else f(esep).asInstanceOf[java.lang.Double],
+    if (fontcolor == null) null else f(fontcolor).asInstanceOf[Color],
+    if (fontname == null) null else f(fontname).asInstanceOf[String],
+    if (fontnames == null) null else f(fontnames).asInstanceOf[String],
+    if (fontpath == null) null else f(fontpath).asInstanceOf[String],
+    if (fontsize == null) null else f(fontsize).asInstanceOf[java.lang.Double],
+    if (label == null) null else f(label).asInstanceOf[LabelString],
+    if (labeljust == null) null else f(labeljust).asInstanceOf[String],
+    if (labelloc == null) null else f(labelloc).asInstanceOf[String],
+    if (landscape == null) null else f(landscape).asInstanceOf[java.lang.Boolean],
+    if (layers == null) null else f(layers).asInstanceOf[LayerList],
+    if (layersep == null) null else f(layersep).asInstanceOf[String],
+    if (layout == null) null else f(layout).asInstanceOf[String],
+    if (levelsgap == null) null else f(levelsgap).asInstanceOf[java.lang.Double],
+    if (lp == null) null else f(lp).asInstanceOf[Point],
+    if (margin == null) null else f(margin).asInstanceOf[PointF],
+    if (maxiter == null) null else f(maxiter).asInstanceOf[java.lang.Integer],
+    if (mclimit == null) null else f(mclimit).asInstanceOf[java.lang.Double],
+    if (mindist == null) null else f(mindist).asInstanceOf[java.lang.Double],
+    if (mode == null) null else f(mode).asInstanceOf[String],
+    if (model == null) null else f(model).asInstanceOf[String],
+    if (mosek == null) null else f(mosek).asInstanceOf[java.lang.Boolean],
+    if (nodesep == null) null else f(nodesep).asInstanceOf[java.lang.Double],
+    if (nojustify == null) null else f(nojustify).asInstanceOf[java.lang.Boolean],
+    if (normalize == null) null else f(normalize).asInstanceOf[java.lang.Boolean],
+    if (nslimit == null) null else f(nslimit).asInstanceOf[java.lang.Double],
+    if (nslimit1 == null) null else f(nslimit1).asInstanceOf[java.lang.Double],
+    if (ordering == null) null else f(ordering).asInstanceOf[String],
+    if (outputorder == null) null else f(outputorder).asInstanceOf[OutputMode],
+    if (overlap == null) null else f(overlap).asInstanceOf[String],
+    if (pack == null) null else f(pack).asInstanceOf[String],
+    if (packmode == null) null else f(packmode).asInstanceOf[PackMode],
+    if (pad == null) null else f(pad).asInstanceOf[PointF],
+    if (page == null) null else f(page).asInstanceOf[PointF],
+    if (pagedir == null) null else f(pagedir).asInstanceOf[PageDir],
+    if (quantum == null) null else f(quantum).asInstanceOf[java.lang.Double],
+    if (rankdir == null) null else f(rankdir).asInstanceOf[RankDir],
+    if (ranksep == null) null else f(ranksep).asInstanceOf[java.lang.Double],
+    if (ratio == null) null else f(ratio).asInstanceOf[String],
+    if (remincross == null) null else f(remincross).asInstanceOf[java.lang.Boolean],
+    if (resolution == null) null else f(resolution).asInstanceOf[java.lang.Double],
+    if (root == null) null else f(root).asInstanceOf[String],
+    if (rotate == null) null else f(rotate).asInstanceOf[java.lang.Integer],
+    if (searchsize == null) null else f(searchsize).asInstanceOf[java.lang.Integer],
+    if (sep == null) null else f(sep).asInstanceOf[PointF],
+    if (showboxes == null) null else f(showboxes).asInstanceOf[java.lang.Integer],
+    if (size == null) null else f(size).asInstanceOf[PointF],
+    if (splines == null) null else f(splines).asInstanceOf[String],
+    if (start == null) null else f(start).asInstanceOf[StartType],
+    if (stylesheet == null) null else f(stylesheet).asInstanceOf[String],
+    if (target == null) null else f(target).asInstanceOf[String],
+    if (truecolor == null) null else f(truecolor).asInstanceOf[java.lang.Boolean],
+    if (viewport == null) null else f(viewport).asInstanceOf[ViewPort],
+    if (voro_margin == null) null else f(voro_margin).asInstanceOf[java.lang.Double]
+  )
+
+  /**
+    * A copy with the attribute called `name` set to `value`, or unset if `value` is null.
+    * `value` must be of the attribute's type.
+    */
+  private[graphviz] def updated(name: String, value: AnyRef): GraphAttributes = {
+    val all = Array[AnyRef](
+      imagepath,
+      Damping,
+      K,
+      URL,
+      bb,
+      bgcolor,
+      center,
+      charset,
+      clusterrank,
+      colorscheme,
+      comment,
+      compound,
+      concentrate,
+      defaultdist,
+      dim,
+      diredgeconstraints,
+      dpi,
+      epsilon,
+      esep,
+      fontcolor,
+      fontname,
+      fontnames,
+      fontpath,
+      fontsize,
+      label,
+      labeljust,
+      labelloc,
+      landscape,
+      layers,
+      layersep,
+      layout,
+      levelsgap,
+      lp,
+      margin,
+      maxiter,
+      mclimit,
+      mindist,
+      mode,
+      model,
+      mosek,
+      nodesep,
+      nojustify,
+      normalize,
+      nslimit,
+      nslimit1,
+      ordering,
+      outputorder,
+      overlap,
+      pack,
+      packmode,
+      pad,
+      page,
+      pagedir,
+      quantum,
+      rankdir,
+      ranksep,
+      ratio,
+      remincross,
+      resolution,
+      root,
+      rotate,
+      searchsize,
+      sep,
+      showboxes,
+      size,
+      splines,
+      start,
+      stylesheet,
+      target,
+      truecolor,
+      viewport,
+      voro_margin
+    )
+    all(GraphAttributes.indexOf(name)) = value
+    GraphAttributes.fromArray(all)
+  }
+}
+
+object GraphAttributes {
+  private val names: Array[String] = Array(
+    "imagepath",
+    "Damping",
+    "K",
+    "URL",
+    "bb",
+    "bgcolor",
+    "center",
+    "charset",
+    "clusterrank",
+    "colorscheme",
+    "comment",
+    "compound",
+    "concentrate",
+    "defaultdist",
+    "dim",
+    "diredgeconstraints",
+    "dpi",
+    "epsilon",
+    "esep",
+    "fontcolor",
+    "fontname",
+    "fontnames",
+    "fontpath",
+    "fontsize",
+    "label",
+    "labeljust",
+    "labelloc",
+    "landscape",
+    "layers",
+    "layersep",
+    "layout",
+    "levelsgap",
+    "lp",
+    "margin",
+    "maxiter",
+    "mclimit",
+    "mindist",
+    "mode",
+    "model",
+    "mosek",
+    "nodesep",
+    "nojustify",
+    "normalize",
+    "nslimit",
+    "nslimit1",
+    "ordering",
+    "outputorder",
+    "overlap",
+    "pack",
+    "packmode",
+    "pad",
+    "page",
+    "pagedir",
+    "quantum",
+    "rankdir",
+    "ranksep",
+    "ratio",
+    "remincross",
+    "resolution",
+    "root",
+    "rotate",
+    "searchsize",
+    "sep",
+    "showboxes",
+    "size",
+    "splines",
+    "start",
+    "stylesheet",
+    "target",
+    "truecolor",
+    "viewport",
+    "voro_margin"
+  )
+  
+  private val types: Array[String] = Array(
+    "String",
+    "java.lang.Double",
+    "java.lang.Double",
+    "String",
+    "Rect",
+    "Color",
+    "java.lang.Boolean",
+    "String",
+    "ClusterMode",
+    "String",
+    "String",
+    "java.lang.Boolean",
+    "java.lang.Boolean",
+    "java.lang.Double",
+    "java.lang.Integer",
+    "String",
+    "java.lang.Double",
+    "java.lang.Double",
+    "java.lang.Double",
+    "Color",
+    "String",
+    "String",
+    "String",
+    "java.lang.Double",
+    "LabelString",
+    "String",
+    "String",
+    "java.lang.Boolean",
+    "LayerList",
+    "String",
+    "String",
+    "java.lang.Double",
+    "Point",
+    "PointF",
+    "java.lang.Integer",
+    "java.lang.Double",
+    "java.lang.Double",
+    "String",
+    "String",
+    "java.lang.Boolean",
+    "java.lang.Double",
+    "java.lang.Boolean",
+    "java.lang.Boolean",
+    "java.lang.Double",
+    "java.lang.Double",
+    "String",
+    "OutputMode",
+    "String",
+    "String",
+    "PackMode",
+    "PointF",
+    "PointF",
+    "PageDir",
+    "java.lang.Double",
+    "RankDir",
+    "java.lang.Double",
+    "String",
+    "java.lang.Boolean",
+    "java.lang.Double",
+    "String",
+    "java.lang.Integer",
+    "java.lang.Integer",
+    "PointF",
+    "java.lang.Integer",
+    "PointF",
+    "String",
+    "StartType",
+    "String",
+    "String",
+    "java.lang.Boolean",
+    "ViewPort",
+    "java.lang.Double"
+  )
+  
+  private val indices: Map[String, Int] = names.zipWithIndex.toMap
+  
+  /** The number of attributes, i.e. the length of the array `fromArray` takes. */
+  private[graphviz] def attributeCount: Int = names.length
+  
+  /** The position of the attribute called `name` in declaration order. */
+  private[graphviz] def indexOf(name: String): Int =
+    indices.getOrElse(name, throw new IllegalArgumentException(s"Unknown attribute: $name"))
+  
+  /** The declared type of the attribute at `index`, e.g. `java.lang.Double`. */
+  private[graphviz] def typeOf(index: Int): String = types(index)
+  
+  /** An instance with the attribute at every position in `all` set to its value there, if that is not null. */
+  private[graphviz] def fromArray(all: Array[AnyRef]): GraphAttributes = GraphAttributes(
+    all(0).asInstanceOf[String],
+    all(1).asInstanceOf[java.lang.Double],
+    all(2).asInstanceOf[java.lang.Double],
+    all(3).asInstanceOf[String],
+    all(4).asInstanceOf[Rect],
+    all(5).asInstanceOf[Color],
+    all(6).asInstanceOf[java.lang.Boolean],
+    all(7).asInstanceOf[String],
+    all(8).asInstanceOf[ClusterMode],
+    all(9).asInstanceOf[String],
+    all(10).asInstanceOf[String],
+    all(11).asInstanceOf[java.lang.Boolean],
+    all(12).asInstanceOf[java.lang.Boolean],
+    all(13).asInstanceOf[java.lang.Double],
+    all(14).asInstanceOf[java.lang.Integer],
+    all(15).asInstanceOf[String],
+    all(16).asInstanceOf[java.lang.Double],
+    all(17).asInstanceOf[java.lang.Double],
+    all(18).asInstanceOf[java.lang.Double],
+    all(19).asInstanceOf[Color],
+    all(20).asInstanceOf[String],
+    all(21).asInstanceOf[String],
+    all(22).asInstanceOf[String],
+    all(23).asInstanceOf[java.lang.Double],
+    all(24).asInstanceOf[LabelString],
+    all(25).asInstanceOf[String],
+    all(26).asInstanceOf[String],
+    all(27).asInstanceOf[java.lang.Boolean],
+    all(28).asInstanceOf[LayerList],
+    all(29).asInstanceOf[String],
+    all(30).asInstanceOf[String],
+    all(31).asInstanceOf[java.lang.Double],
+    all(32).asInstanceOf[Point],
+    all(33).asInstanceOf[PointF],
+    all(34).asInstanceOf[java.lang.Integer],
+    all(35).asInstanceOf[java.lang.Double],
+    all(36).asInstanceOf[java.lang.Double],
+    all(37).asInstanceOf[String],
+    all(38).asInstanceOf[String],
+    all(39).asInstanceOf[java.lang.Boolean],
+    all(40).asInstanceOf[java.lang.Double],
+    all(41).asInstanceOf[java.lang.Boolean],
+    all(42).asInstanceOf[java.lang.Boolean],
+    all(43).asInstanceOf[java.lang.Double],
+    all(44).asInstanceOf[java.lang.Double],
+    all(45).asInstanceOf[String],
+    all(46).asInstanceOf[OutputMode],
+    all(47).asInstanceOf[String],
+    all(48).asInstanceOf[String],
+    all(49).asInstanceOf[PackMode],
+    all(50).asInstanceOf[PointF],
+    all(51).asInstanceOf[PointF],
+    all(52).asInstanceOf[PageDir],
+    all(53).asInstanceOf[java.lang.Double],
+    all(54).asInstanceOf[RankDir],
+    all(55).asInstanceOf[java.lang.Double],
+    all(56).asInstanceOf[String],
+    all(57).asInstanceOf[java.lang.Boolean],
+    all(58).asInstanceOf[java.lang.Double],
+    all(59).asInstanceOf[String],
+    all(60).asInstanceOf[java.lang.Integer],
+    all(61).asInstanceOf[java.lang.Integer],
+    all(62).asInstanceOf[PointF],
+    all(63).asInstanceOf[java.lang.Integer],
+    all(64).asInstanceOf[PointF],
+    all(65).asInstanceOf[String],
+    all(66).asInstanceOf[StartType],
+    all(67).asInstanceOf[String],
+    all(68).asInstanceOf[String],
+    all(69).asInstanceOf[java.lang.Boolean],
+    all(70).asInstanceOf[ViewPort],
+    all(71).asInstanceOf[java.lang.Double]
+  )
 }
\ No newline at end of file
@@ -383,7 +383,7 @@ case class NodeAttributes (
     * will be in 3D.
     */
   z: java.lang.Double = null
-) {
+) extends Attributes {
   def toAttributeMap(): Seq[(String, Any)] = Seq(
   "URL" -> URL,
   "color" -> color,
@@ -421,4 +421,300 @@ case class NodeAttributes (
   "vertices" -> vertices,
   "width" -> width,
   "z" -> z).filter{case(k, v) => v != null}
+
+  def foreachSet(visitor: AttributeVisitor): Unit = {
+    if (URL != null) visitor.visit("URL", URL)
+    if (color != null) visitor.visit("color", color)
+    if (colorscheme != null) visitor.visit("colorscheme", colorscheme)
+    if (comment != null) visitor.visit("comment", comment)
+    if (distortion != null) visitor.visit("distortion", distortion)
+    if (fillcolor != null) visitor.visit("fillcolor", fillcolor)
+    if (fixedsize != null) visitor.visit("fixedsize", fixedsize)
+    if (fontcolor != null) visitor.visit("fontcolor", fontcolor)
+    if (fontname != null) visitor.visit("fontname", fontname)
+    if (fontsize != null) visitor.visit("fontsize", fontsize)
+    if (group != null) visitor.visit("group", group)
+    if (height != null) visitor.visit("height", height)
+    if (image != null) visitor.visit("image", image)
+    if (imagescale != null) visitor.visit("imagescale", imagescale)
+    if (label != null) visitor.visit("label", label)
+    if (layer != null) visitor.visit("layer", layer)
+    if (margin != null) visitor.visit("margin", margin)
+    if (nojustify != null) visitor.visit("nojustify", nojustify)
+    if (peripheries != null) visitor.visit("peripheries", peripheries)
+    if (pin != null) visitor.visit("pin", pin)
+    if (pos != null) visitor.visit("pos", pos)
+    if (rects != null) visitor.visit("rects", rects)
+    if (regular != null) visitor.visit("regular", regular)
+    if (root != null) visitor.visit("root", root)
+    if (samplepoints != null) visitor.visit("samplepoints", samplepoints)
+    if (shape != null) visitor.visit("shape", shape)
+    if (shapefile != null) visitor.visit("shapefile", shapefile)
+    if (showboxes != null) visitor.visit("showboxes", showboxes)
+    if (sides != null) visitor.visit("sides", sides)
+    if (skew != null) visitor.visit("skew", skew)
+    if (style != null) visitor.visit("style", style)
+    if (target != null) visitor.visit("target", target)
+    if (tooltip != null) visitor.visit("tooltip", tooltip)
+    if (vertices != null) visitor.visit("vertices", vertices)
+    if (width != null) visitor.visit("width", width)
+    if (z != null) visitor.visit("z", z)
+  }
+
+  def isEmpty: Boolean =
+    URL == null &&
+    color == null &&
+    colorscheme == null &&
+    comment == null &&
+    distortion == null &&
+    fillcolor == null &&
+    fixedsize == null &&
+    fontcolor == null &&
+    fontname == null &&
+    fontsize == null &&
+    group == null &&
+    height == null &&
+    image == null &&
+    imagescale == null &&
+    label == null &&
+    layer == null &&
+    margin == null &&
+    nojustify == null &&
+    peripheries == null &&
+    pin == null &&
+    pos == null &&
+    rects == null &&
+    regular == null &&
+    root == null &&
+    samplepoints == null &&
+    shape == null &&
+    shapefile == null &&
+    showboxes == null &&
+    sides == null &&
+    skew == null &&
+    style == null &&
+    target == null &&
+    tooltip == null &&
+    vertices == null &&
+    width == null &&
+    z == null
+
+  /** A copy with `f` applied to every attribute that is set. */
+  private[graphviz] def mapValues(f: AnyRef => AnyRef): NodeAttributes = NodeAttributes(
+    if (URL == null) null else f(URL).asInstanceOf[String],
+    if (color == null) null else f(color).asInstanceOf[ColorOrList],
+    if (colorscheme == null) null else f(colorscheme).asInstanceOf[String],
+    if (comment == null) null else f(comment).asInstanceOf[String],
+    if (distortion == null) null else f(distortion).asInstanceOf[java.lang.Double],
+    if (fillcolor == null) null else f(fillcolor).asInstanceOf[Color],
+    if (fixedsize == null) null else f(fixedsize).asInstanceOf[java.lang.Boolean],
+    if (fontcolor == null) null else f(fontcolor).asInstanceOf[Color],
+    if (fontname == null) null else f(fontname).asInstanceOf[String],
+    if (fontsize == null) null else f(fontsize).asInstanceOf[java.lang.Double],
+    if (group == null) null else f(group).asInstanceOf[String],
+    if (height == null) null else f(height).asInstanceOf[java.lang.Double],
+    if (image == null) null else f(image).asInstanceOf[String],
+    if (imagescale == null) null else f(imagescale).asInstanceOf[String],
+    if (label == null) null else f(label).asInstanceOf[LabelString],
+    if (layer == null) null else f(layer).asInstanceOf[LayerRange],
+    if (margin == null) null else f(margin).asInstanceOf[PointF],
+    if (nojustify == null) null else f(nojustify).asInstanceOf[java.lang.Boolean],
+    if (peripheries == null) null else f(peripheries).asInstanceOf[java.lang.Integer],
+    if (pin == null) null else f(pin).asInstanceOf[java.lang.Boolean],
+    if (pos == null) null else f(pos).asInstanceOf[SplineType],
+    if (rects == null) null else f(rects).asInstanceOf[Rect],
+    if (regular == null) null else f(regular).asInstanceOf[java.lang.Boolean],
+    if (root == null) null else f(root).asInstanceOf[String],
+    if (samplepoints == null) null else f(samplepoints).asInstanceOf[java.lang.Integer],
+    if (shape == null) null else f(shape).asInstanceOf[Shape],
+    if (shapefile == null) null else f(shapefile).asInstanceOf[String],
+    if (showboxes == null) null else f(showboxes).asInstanceOf[java.lang.Integer],
+    if (sides == null) null else f(sides).asInstanceOf[java.lang.Integer],
+    if (skew == null) null else f(skew).asInstanceOf[java.lang.Double],
+    if (style == null) null else f(style).asInstanceOf[Style],
+    if (target == null) null else f(target).asInstanceOf[String],
+    if (tooltip == null) null else f(tooltip).asInstanceOf[String],
+    if (vertices == null) null else f(vertices).asInstanceOf[PointFList],
+    if (width == null) null else f(width).asInstanceOf[java.lang.Double],
+    if (z == null) null else f(z).asInstanceOf[java.lang.Double]
+  )
+
+  /**
+    * A copy with the attribute called `name` set to `value`, or unset if `value` is null.
+    * `value` must be of the attribute's type.
+    */
+  private[graphviz] def updated(name: String, value: AnyRef): NodeAttributes = {
+    val all = Array[AnyRef](
+      URL,
+      color,
+      colorscheme,
+      comment,
+      distortion,
+      fillcolor,
+      fixedsize,
+      fontcolor,
+      fontname,
+      fontsize,
+      group,
+      height,
+      image,
+      imagescale,
+      label,
+      layer,
+      margin,
+      nojustify,
+      peripheries,
+      pin,
+      pos,
+      rects,
+      regular,
+      root,
+      samplepoints,
+      shape,
+      shapefile,
+      showboxes,
+      sides,
+      skew,
+      style,
+      target,
+      tooltip,
+      vertices,
+      width,
+      z
+    )
+    all(NodeAttributes.indexOf(name)) = value
+    NodeAttributes.fromArray(all)
+  }
+}
+
+object NodeAttributes {
+  private val names: Array[String] = Array(
+    "URL",
+    "color",
+    "colorscheme",
+    "comment",
+    "distortion",
+    "fillcolor",
+    "fixedsize",
+    "fontcolor",
+    "fontname",
+    "fontsize",
+    "group",
+    "height",
+    "image",
+    "imagescale",
+    "label",
+    "layer",
+    "margin",
+    "nojustify",
+    "peripheries",
+    "pin",
+    "pos",
+    "rects",
+    "regular",
+    "root",
+    "samplepoints",
+    "shape",
+    "shapefile",
+    "showboxes",
+    "sides",
+    "skew",
+    "style",
+    "target",
+    "tooltip",
+    "vertices",
+    "width",
+    "z"
+  )
+  
+  private val types: Array[String] = Array(
+    "String",
+    "ColorOrList",
+    "String",
+    "String",
+    "java.lang.Double",
+    "Color",
+    "java.lang.Boolean",
+    "Color",
+    "String",
+    "java.lang.Double",
+    "String",
+    "java.lang.Double",
+    "String",
+    "String",
+    "LabelString",
+    "LayerRange",
+    "PointF",
+    "java.lang.Boolean",
+    "java.lang.Integer",
+    "java.lang.Boolean",
+    "SplineType",
+    "Rect",
+    "java.lang.Boolean",
+    "String",
+    "java.lang.Integer",
+    "Shape",
+    "String",
+    "java.lang.Integer",
+    "java.lang.Integer",
+    "java.lang.Double",
+    "Style",
+    "String",
+    "String",
+    "PointFList",
+    "java.lang.Double",
+    "java.lang.Double"
+  )
+  
+  private val indices: Map[String, Int] = names.zipWithIndex.toMap
+  
+  /** The number of attributes, i.e. the length of the array `fromArray` takes. */
+  private[graphviz] def attributeCount: Int = names.length
+  
+  /** The position of the attribute called `name` in declaration order. */
+  private[graphviz] def indexOf(name: String): Int =
+    indices.getOrElse(name, throw new IllegalArgumentException(s"Unknown attribute: $name"))
+  
+  /** The declared type of the attribute at `index`, e.g. `java.lang.Double`. */
+  private[graphviz] def typeOf(index: Int): String = types(index)
+  
+  /** An instance with the attribute at every position in `all` set to its value there, if that is not null. */
+  private[graphviz] def fromArray(all: Array[AnyRef]): NodeAttributes = NodeAttributes(
+    all(0).asInstanceOf[String],
+    all(1).asInstanceOf[ColorOrList],
+    all(2).asInstanceOf[String],
+    all(3).asInstanceOf[String],
+    all(4).asInstanceOf[java.lang.Double],
+    all(5).asInstanceOf[Color],
+    all(6).asInstanceOf[java.lang.Boolean],
+    all(7).asInstanceOf[Color],
+    all(8).asInstanceOf[String],
+    all(9).asInstanceOf[java.lang.Double],
+    all(10).asInstanceOf[String],
+    all(11).asInstanceOf[java.lang.Double],
+    all(12).asInstanceOf[String],
+    all(13).asInstanceOf[String],
+    all(14).asInstanceOf[LabelString],
+    all(15).asInstanceOf[LayerRange],
+    all(16).asInstanceOf[PointF],
+    all(17).asInstanceOf[java.lang.Boolean],
+    all(18).asInstanceOf[java.lang.Integer],
+    all(19).asInstanceOf[java.lang.Boolean],
+    all(20).asInstanceOf[SplineType],
+    all(21).asInstanceOf[Rect],
+    all(22).asInstanceOf[java.lang.Boolean],
+    all(23).asInstanceOf[String],
+    all(24).asInstanceOf[java.lang.Integer],
+    all(25).asInstanceOf[Shape],
+    all(26).asInstanceOf[String],
+    all(27).asInstanceOf[java.lang.Integer],
+    all(28).asInstanceOf[java.lang.Integer],
+    all(29).asInstanceOf[java.lang.Double],
+    all(30).asInstanceOf[Style],
+    all(31).asInstanceOf[String],
+    all(32).asInstanceOf[String],
+    all(33).asInstanceOf[PointFList],
+    all(34).asInstanceOf[java.lang.Double],
+    all(35).asInstanceOf[java.lang.Double]
+  )
 }
\ No newline at end of file
@@ -0,0 +1,1011 @@
+package berlin.softwaretechnik.graphviz.attributes;
+/**
+  * The same attributes as [[EdgeAttributes]], for holding many of them: only the attributes
+  * that are set are stored. `bits0` marks which ones are present, and
+  * `values` holds them in declaration order. [[berlin.softwaretechnik.graphviz.GraphBuilder]]
+  * stores attributes in this form; graph elements take [[EdgeAttributes]], see
+  * [[toAttributes]] and [[SparseEdgeAttributes.from]].
+  */
+final class SparseEdgeAttributes private (
+  private val bits0: Long,
+  private val values: Array[AnyRef]
+) extends Attributes with Serializable {
+  /**
+    * Hyperlinks incorporated into device-dependent output. 
+    * At present, used in ps2, cmap, i*map and svg formats. 
+    * For all these formats, URLs can be attached to nodes, edges and
+    * clusters. URL attributes can also be attached to the root graph in ps2,
+    * cmap and i*map formats. This serves as the base URL for relative URLs in the 
+    * former, and as the default image map file in the latter.
+    * For svg, cmapx and imap output, the active area for a node is its 
+    * visible image. 
+    * For example, an unfilled node with no drawn boundary will only be active on its label. 
+    * For other output, the active area is its bounding box.
+    * The active area for a cluster is its bounding box. 
+    * For edges, the active areas are small circles where the edge contacts its head
+    * and tail nodes. In addition, for svg, cmapx and imap, the active area 
+    * includes a thin polygon approximating the edge. The circles may 
+    * overlap the related node, and the edge URL dominates.
+    * If the edge has a label, this will also be active. 
+    * Finally, if the edge has a head or tail label, this will also be active.
+    * Note that, for edges, the attributes <a rel="attr">headURL</a>,
+    * <a rel="attr">tailURL</a>, <a rel="attr">labelURL</a> and
+    * <a rel="attr">edgeURL</a> allow control of various parts of an
+    * edge. Also note that, if active areas of two edges overlap, it is unspecified 
+    * which area dominates.
+    */
+  def URL: String = get(0).asInstanceOf[String]
+  
+  /**
+    * Style of arrowhead on the head node of an edge. 
+    * See also the <a rel="attr">dir</a> attribute, 
+    * and the <a rel="note">undirected</a> note.            
+    */
+  def arrowhead: ArrowType = get(1).asInstanceOf[ArrowType]
+  
+  /**
+    * Multiplicative scale factor for arrowheads.            
+    */
+  def arrowsize: java.lang.Double = get(2).asInstanceOf[java.lang.Double]
+  
+  /**
+    * Style of arrowhead on the tail node of an edge. 
+    * See also the <a rel="attr">dir</a> attribute, 
+    * and the <a rel="note">undirected</a> note.            
+    */
+  def arrowtail: ArrowType = get(3).asInstanceOf[ArrowType]
+  
+  /**
+    * Basic drawing color for graphics, not text. For the latter, use the
+    * <a rel="attr">fontcolor</a> attribute.
+    * For edges, the value
+    * can either be a single <a rel="type">color</a> or a <a rel="type">colorList</a>.
+    * In the latter case, the edge is drawn using parallel splines or lines,
+    * one for each color in the list, in the order given.
+    * The head arrow, if any, is drawn using the first color in the list, 
+    * and the tail arrow, if any, the second color. This supports the common 
+    * case of drawing opposing edges, but using parallel splines instead of 
+    * separately routed multiedges.
+    */
+  def color: ColorOrList = get(4).asInstanceOf[ColorOrList]
+  
+  /**
+    * This attribute specifies a color scheme namespace. If defined, it specifies
+    * the context for interpreting color names. In particular, if a 
+    * <a rel="type">color</a> value has form <code>xxx</code> or <code>//xxx</code>, 
+    * then the color <code>xxx</code> will be evaluated according to the current color scheme.
+    * If no color scheme is set, the standard X11 naming is used.
+    * For example, if <code>colorscheme=bugn9</code>, then <code>color=7</code>
+    * is interpreted as <code>/bugn9/7</code>.
+    */
+  def colorscheme: String = get(5).asInstanceOf[String]
+  
+  /**
+    * Comments are inserted into output. Device-dependent.
+    */
+  def comment: String = get(6).asInstanceOf[String]
+  
+  /**
+    * If <span class="val">false</span>, the edge is not used in ranking the nodes.
+    */
+  def constraint: java.lang.Boolean = get(7).asInstanceOf[java.lang.Boolean]
+  
+  /**
+    * If <span class="val">true</span>, attach edge label to edge by a 2-segment
+    * polyline, underlining the label, then going to the closest point of spline.
+    */
+  def decorate: java.lang.Boolean = get(8).asInstanceOf[java.lang.Boolean]
+  
+  /**
+    * Set edge type for drawing arrowheads. This indicates which ends of the
+    * edge should be decorated with an arrowhead. The actual style of the
+    * arrowhead can be specified using the <a rel="attr">arrowhead</a>
+    * and <a rel="attr">arrowtail</a> attributes.
+    * See <a rel="note">undirected</a>.
+    */
+  def dir: DirType = get(9).asInstanceOf[DirType]
+  
+  /**
+    * If <a rel="attr">edgeURL</a> is defined, this is the link used for the non-label
+    * parts of an edge. This value overrides any <a rel="attr">URL</a>
+    * defined for the edge.
+    * Also, this value is used near the head or tail node unless overridden
+    * by a <a rel="attr">headURL</a> or <a rel="attr">tailURL</a> value,
+    * respectively.
+    * See <a rel="note">undirected</a>.
+    */
+  def edgeURL: String = get(10).asInstanceOf[String]
+  
+  /**
+    * Synonym for <a rel="attr">edgeURL</a>.
+    */
+  def edgehref: String = get(11).asInstanceOf[String]
+  
+  /**
+    * If the edge has a <a rel="attr">URL</a> or <a rel="attr">edgeURL</a>
+    * attribute, this attribute determines which window of the 
+    * browser is used
+    * for the URL attached to the non-label part of the edge. 
+    * Setting it to &quot;_graphviz&quot; will open a new window if it 
+    * doesn't already exist, or reuse it if it does.
+    * If undefined, the value of the <a rel="attr">target</a> is used.
+    */
+  def edgetarget: String = get(12).asInstanceOf[String]
+  
+  /**
+    * Tooltip annotation attached to the non-label part of an edge. 
+    * This is used only if the edge has a <a rel="attr">URL</a> 
+    * or <a rel="attr">edgeURL</a> attribute.
+    */
+  def edgetooltip: String = get(13).asInstanceOf[String]
+  
+  /**
+    * Color used for text.
+    */
+  def fontcolor: Color = get(14).asInstanceOf[Color]
+  
+  /**
+    * Font used for text. This very much depends on the output format and, for 
+    * non-bitmap output such as PostScript or SVG, the availability of the font
+    * when the graph is displayed or printed. As such, it is best to rely on
+    * font faces that are generally available, such as Times-Roman, Helvetica or
+    * Courier.
+    * If Graphviz was built using the 
+    * <a href="http://pdx.freedesktop.org/~fontconfig/fontconfig-user.html">fontconfig library</a>, the latter library
+    * will be used to search for the font. However, if the <a rel="attr">fontname</a> string
+    * contains a slash character &quot;/&quot;, it is treated as a pathname for the font
+    * file, though font lookup will append the usual font suffixes.
+    * If Graphviz does not use fontconfig, <a rel="attr">fontname</a> will be
+    * considered the name of a Type 1 or True Type font file. 
+    * If you specify <code>fontname=schlbk</code>, the tool will look for a 
+    * file named  <code>schlbk.ttf</code> or <code>schlbk.pfa</code> or <code>schlbk.pfb</code>
+    * in one of the directories specified by 
+    * the <a rel="attr">fontpath</a> attribute.
+    * The lookup does support various aliases for the common fonts.
+    */
+  def fontname: String = get(15).asInstanceOf[String]
+  
+  /**
+    * Font size, in <a rel="note">points</a>, used for text.
+    */
+  def fontsize: java.lang.Double = get(16).asInstanceOf[java.lang.Double]
+  
+  /**
+    * If <a rel="attr">headURL</a> is defined, it is
+    * output as part of the head label of the edge. 
+    * Also, this value is used near the head node, overriding any
+    * <a rel="attr">URL</a> value.
+    * See <a rel="note">undirected</a>.
+    */
+  def headURL: String = get(17).asInstanceOf[String]
+  
+  /**
+    * If <span class="val">true</span>, the head of an edge is clipped to the boundary of the head node;
+    * otherwise, the end of the edge goes to the center of the node, or the
+    * center of a port, if applicable.
+    */
+  def headclip: java.lang.Boolean = get(18).asInstanceOf[java.lang.Boolean]
+  
+  /**
+    * Synonym for <a rel="attr">headURL</a>.
+    */
+  def headhref: String = get(19).asInstanceOf[String]
+  
+  /**
+    * Text label to be placed near head of edge.
+    * See <a rel="note">undirected</a>.
+    */
+  def headlabel: LabelString = get(20).asInstanceOf[LabelString]
+  
+  /**
+    * Indicates where on the head node to attach the head of the edge.
+    * In the default case, the edge is aimed towards the center of the node,
+    * and then clipped at the node boundary.
+    * See <a rel="note">undirected</a>.
+    */
+  def headport: PortPosition = get(21).asInstanceOf[PortPosition]
+  
+  /**
+    * If the edge has a <a rel="attr">headURL</a>, 
+    * this attribute determines which window of the 
+    * browser is used
+    * for the URL. Setting it to &quot;_graphviz&quot; will open a new window if it 
+    * doesn't already exist, or reuse it if it does.
+    * If undefined, the value of the <a rel="attr">target</a> is used.
+    */
+  def headtarget: String = get(22).asInstanceOf[String]
+  
+  /**
+    * Tooltip annotation attached to the head of an edge. This is used only
+    * if the edge has a <a rel="attr">headURL</a> attribute.
+    */
+  def headtooltip: String = get(23).asInstanceOf[String]
+  
+  /**
+    * Synonym for <a rel="attr">URL</a>.
+    */
+  def href: String = get(24).asInstanceOf[String]
+  
+  /**
+    * Text label attached to objects.
+    * If a node's <a rel="attr">shape</a> is record, then the label can
+    * have a <a href="http://www.graphviz.org/doc/info/shapes.html#record">special format</a> 
+    * which describes the record layout.
+    */
+  def label: LabelString = get(25).asInstanceOf[LabelString]
+  
+  /**
+    * If <a rel="attr">labelURL</a> is defined, this is the link used for the label
+    * of an edge. This value overrides any <a rel="attr">URL</a>
+    * defined for the edge.
+    */
+  def labelURL: String = get(26).asInstanceOf[String]
+  
+  /**
+    * This, along with <a rel="attr">labeldistance</a>, determine 
+    * where the
+    * headlabel (taillabel) are placed with respect to the head (tail)
+    * in polar coordinates. The origin in the coordinate system is
+    * the point where the edge touches the node. The ray of 0 degrees
+    * goes from the origin back along the edge, parallel to the edge
+    * at the origin. 
+    * The angle, in degrees, specifies the rotation from the 0 degree ray,
+    * with positive angles moving counterclockwise and negative angles
+    * moving clockwise.
+    */
+  def labelangle: java.lang.Double = get(27).asInstanceOf[java.lang.Double]
+  
+  /**
+    * Multiplicative scaling factor adjusting the distance that 
+    * the headlabel (taillabel) is from the head (tail) node.
+    * The default distance is 10 points. See <a rel="attr">labelangle</a>
+    * for more details.
+    */
+  def labeldistance: java.lang.Double = get(28).asInstanceOf[java.lang.Double]
+  
+  /**
+    * If true, allows edge labels to be less constrained in position.
+    * In particular, it may appear on top of other edges.
+    */
+  def labelfloat: java.lang.Boolean = get(29).asInstanceOf[java.lang.Boolean]
+  
+  /**
+    * Color used for headlabel and taillabel.
+    * If not set, defaults to edge's fontcolor.
+    */
+  def labelfontcolor: Color = get(30).asInstanceOf[Color]
+  
+  /**
+    * Font used for headlabel and taillabel. 
+    * If not set, defaults to edge's fontname.
+    */
+  def labelfontname: String = get(31).asInstanceOf[String]
+  
+  /**
+    * Font size, in <a rel="note">points</a>, used for headlabel and taillabel.
+    * If not set, defaults to edge's fontsize.
+    */
+  def labelfontsize: java.lang.Double = get(32).asInstanceOf[java.lang.Double]
+  
+  /**
+    * Synonym for <a rel="attr">labelURL</a>.
+    */
+  def labelhref: String = get(33).asInstanceOf[String]
+  
+  /**
+    * If the edge has a <a rel="attr">URL</a> or <a rel="attr">labelURL</a>
+    * attribute, this attribute determines which window of the 
+    * browser is used
+    * for the URL attached to the label.
+    * Setting it to &quot;_graphviz&quot; will open a new window if it 
+    * doesn't already exist, or reuse it if it does.
+    * If undefined, the value of the <a rel="attr">target</a> is used.
+    */
+  def labeltarget: String = get(34).asInstanceOf[String]
+  
+  /**
+    * Tooltip annotation attached to label of an edge. 
+    * This is used only if the edge has a <a rel="attr">URL</a> 
+    * or <a rel="attr">labelURL</a> attribute.
+    */
+  def labeltooltip: String = get(35).asInstanceOf[String]
+  
+  /**
+    * Specifies layers in which the node or edge is present.
+    */
+  def layer: LayerRange = get(36).asInstanceOf[LayerRange]
+  
+  /**
+    * Preferred edge length, in inches.
+    */
+  def len: java.lang.Double = get(37).asInstanceOf[java.lang.Double]
+  
+  /**
+    * Logical head of an edge. When <a rel="attr">compound</a> is true,
+    * if <a rel="attr">lhead</a> is defined and is the name of a cluster containing 
+    * the real head,
+    * the edge is clipped to the boundary of the cluster.
+    * See <a rel="note">undirected</a>.
+    */
+  def lhead: String = get(38).asInstanceOf[String]
+  
+  /**
+    * Label position, in <a rel="note">points</a>.
+    * The position indicates the center of the label.
+    */
+  def lp: Point = get(39).asInstanceOf[Point]
+  
+  /**
+    * Logical tail of an edge. When <a rel="attr">compound</a> is true,
+    * if <a rel="attr">ltail</a> is defined and is the name of a cluster 
+    * containing the real tail,
+    * the edge is clipped to the boundary of the cluster.
+    * See <a rel="note">undirected</a>.
+    */
+  def ltail: String = get(40).asInstanceOf[String]
+  
+  /**
+    * Minimum edge length (rank difference between head and tail).
+    */
+  def minlen: java.lang.Integer = get(41).asInstanceOf[java.lang.Integer]
+  
+  /**
+    * By default, the justification of multi-line labels is done within the
+    * largest context that makes sense. Thus, in the label of a polygonal
+    * node, a left-justified line will align with the left side of the node
+    * (shifted by the prescribed <a rel="attr">margin</a>).
+    * In record nodes, left-justified
+    * line will line up with the left side of the enclosing column of fields.
+    * If <a rel="attr">nojustify</a> is <span class="val">true</span>, multi-line labels will be justified 
+    * in the context of itself. For example, if the attribute is set, 
+    * the first label line is long, and the second is shorter and left-justified,
+    * the second will align with the left-most character in the first line,
+    * regardless of  how large the node might be.
+    */
+  def nojustify: java.lang.Boolean = get(42).asInstanceOf[java.lang.Boolean]
+  
+  /**
+    * Position of node, or spline control points.
+    * For nodes, the position indicates the center of the node.
+    * On output, the coordinates are in <a href="#points">points</a>.
+    * In neato and fdp, pos can be used to set the initial position of a node.
+    * By default, the coordinates are assumed to be in inches. However, the
+    * <a href="http://www.graphviz.org/doc/info/command.html#d:s">-s</a> command line flag can be used to specify
+    * different units.
+    * When the <a href="http://www.graphviz.org/doc/info/command.html#d:n">-n</a> command line flag is used with
+    * neato, it is assumed the positions have been set by one of the layout
+    * programs, and are therefore in points. Thus, <code>neato -n</code> can accept
+    * input correctly without requiring a <code>-s</code> flag and, in fact, 
+    * ignores any such flag.
+    */
+  def pos: SplineType = get(43).asInstanceOf[SplineType]
+  
+  /**
+    * Edges with the same head and the same <a rel="attr">samehead</a> value are aimed
+    * at the same point on the head.
+    * See <a rel="note">undirected</a>.
+    */
+  def samehead: String = get(44).asInstanceOf[String]
+  
+  /**
+    * Edges with the same tail and the same <a rel="attr">sametail</a> value are aimed
+    * at the same point on the tail.
+    * See <a rel="note">undirected</a>.
+    */
+  def sametail: String = get(45).asInstanceOf[String]
+  
+  /**
+    * Print guide boxes in PostScript at the beginning of
+    * routesplines if 1, or at the end if 2. (Debugging)
+    */
+  def showboxes: java.lang.Integer = get(46).asInstanceOf[java.lang.Integer]
+  
+  /**
+    * Set style for node or edge. For cluster subgraph, if &quot;filled&quot;, the
+    * cluster box's background is filled.
+    */
+  def style: Style = get(47).asInstanceOf[Style]
+  
+  /**
+    * If <a rel="attr">tailURL</a> is defined, it is
+    * output as part of the tail label of the edge.
+    * Also, this value is used near the tail node, overriding any
+    * <a rel="attr">URL</a> value.
+    * See <a rel="note">undirected</a>.
+    */
+  def tailURL: String = get(48).asInstanceOf[String]
+  
+  /**
+    * If <span class="val">true</span>, the tail of an edge is clipped to the boundary of the tail node;
+    * otherwise, the end of the edge goes to the center of the node, or the
+    * center of a port, if applicable.
+    */
+  def tailclip: java.lang.Boolean = get(49).asInstanceOf[java.lang.Boolean]
+  
+  /**
+    * Synonym for <a rel="attr">tailURL</a>.
+    */
+  def tailhref: String = get(50).asInstanceOf[String]
+  
+  /**
+    * Text label to be placed near tail of edge.
+    * See <a rel="note">undirected</a>.
+    */
+  def taillabel: LabelString = get(51).asInstanceOf[LabelString]
+  
+  /**
+    * Indicates where on the tail node to attach the tail of the edge.
+    * See <a rel="note">undirected</a>.
+    */
+  def tailport: PortPosition = get(52).asInstanceOf[PortPosition]
+  
+  /**
+    * If the edge has a <a rel="attr">tailURL</a>, 
+    * this attribute determines which window of the 
+    * browser is used
+    * for the URL. Setting it to &quot;_graphviz&quot; will open a new window if it 
+    * doesn't already exist, or reuse it if it does.
+    * If undefined, the value of the <a rel="attr">target</a> is used.
+    */
+  def tailtarget: String = get(53).asInstanceOf[String]
+  
+  /**
+    * Tooltip annotation attached to the tail of an edge. This is used only
+    * if the edge has a <a rel="attr">tailURL</a> attribute.
+    */
+  def tailtooltip: String = get(54).asInstanceOf[String]
+  
+  /**
+    * If the object has a URL, this attribute determines which window 
+    * of the browser is used for the URL.
+    * See <a href="http://www.w3.org/TR/html401/present/frames.html#adef-target">W3C documentation</a>.
+    */
+  def target: String = get(55).asInstanceOf[String]
+  
+  /**
+    * Tooltip annotation attached to the node or edge. If unset, Graphviz
+    * will use the object's <a rel="attr">label</a> if defined.
+    * Note that if the label is a record specification or an HTML-like
+    * label, the resulting tooltip may be unhelpful. In this case, if
+    * tooltips will be generated, the user should set a <tt>tooltip</tt>
+    * attribute explicitly.
+    */
+  def tooltip: String = get(56).asInstanceOf[String]
+  
+  /**
+    * Weight of edge. In dot, the heavier the weight, the shorter,
+    * straighter and more vertical the edge is. In neato, the heavier the
+    * weight, the more neato will try to place the end points so that the
+    * length of the edge is <a rel="attr">len</a>.
+    */
+  def weight: java.lang.Double = get(57).asInstanceOf[java.lang.Double]
+
+  def copy(
+    URL: String = this.URL,
+    arrowhead: ArrowType = this.arrowhead,
+    arrowsize: java.lang.Double = this.arrowsize,
+    arrowtail: ArrowType = this.arrowtail,
+    color: ColorOrList = this.color,
+    colorscheme: String = this.colorscheme,
+    comment: String = this.comment,
+    constraint: java.lang.Boolean = this.constraint,
+    decorate: java.lang.Boolean = this.decorate,
+    dir: DirType = this.dir,
+    edgeURL: String = this.edgeURL,
+    edgehref: String = this.edgehref,
+    edgetarget: String = this.edgetarget,
+    edgetooltip: String = this.edgetooltip,
+    fontcolor: Color = this.fontcolor,
+    fontname: String = this.fontname,
+    fontsize: java.lang.Double = this.fontsize,
+    headURL: String = this.headURL,
+    headclip: java.lang.Boolean = this.headclip,
+    headhref: String = this.headhref,
+    headlabel: LabelString = this.headlabel,
+    headport: PortPosition = this.headport,
+    headtarget: String = this.headtarget,
+    headtooltip: String = this.headtooltip,
+    href: String = this.href,
+    label: LabelString = this.label,
+    labelURL: String = this.labelURL,
+    labelangle: java.lang.Double = this.labelangle,
+    labeldistance: java.lang.Double = this.labeldistance,
+    labelfloat: java.lang.Boolean = this.labelfloat,
+    labelfontcolor: Color = this.labelfontcolor,
+    labelfontname: String = this.labelfontname,
+    labelfontsize: java.lang.Double = this.labelfontsize,
+    labelhref: String = this.labelhref,
+    labeltarget: String = this.labeltarget,
+    labeltooltip: String = this.labeltooltip,
+    layer: LayerRange = this.layer,
+    len: java.lang.Double = this.len,
+    lhead: String = this.lhead,
+    lp: Point = this.lp,
+    ltail: String = this.ltail,
+    minlen: java.lang.Integer = this.minlen,
+    nojustify: java.lang.Boolean = this.nojustify,
+    pos: SplineType = this.pos,
+    samehead: String = this.samehead,
+    sametail: String = this.sametail,
+    showboxes: java.lang.Integer = this.showboxes,
+    style: Style = this.style,
+    tailURL: String = this.tailURL,
+    tailclip: java.lang.Boolean = this.tailclip,
+    tailhref: String = this.tailhref,
+    taillabel: LabelString = this.taillabel,
+    tailport: PortPosition = this.tailport,
+    tailtarget: String = this.tailtarget,
+    tailtooltip: String = this.tailtooltip,
+    target: String = this.target,
+    tooltip: String = this.tooltip,
+    weight: java.lang.Double = this.weight
+  ): SparseEdgeAttributes = SparseEdgeAttributes(
+    URL,
+    arrowhead,
+    arrowsize,
+    arrowtail,
+    color,
+    colorscheme,
+    comment,
+    constraint,
+    decorate,
+    dir,
+    edgeURL,
+    edgehref,
+    edgetarget,
+    edgetooltip,
+    fontcolor,
+    fontname,
+    fontsize,
+    headURL,
+    headclip,
+    headhref,
+    headlabel,
+    headport,
+    headtarget,
+    headtooltip,
+    href,
+    label,
+    labelURL,
+    labelangle,
+    labeldistance,
+    labelfloat,
+    labelfontcolor,
+    labelfontname,
+    labelfontsize,
+    labelhref,
+    labeltarget,
+    labeltooltip,
+    layer,
+    len,
+    lhead,
+    lp,
+    ltail,
+    minlen,
+    nojustify,
+    pos,
+    samehead,
+    sametail,
+    showboxes,
+    style,
+    tailURL,
+    tailclip,
+    tailhref,
+    taillabel,
+    tailport,
+    tailtarget,
+    tailtooltip,
+    target,
+    tooltip,
+    weight
+  )
+
+  /** The same attributes as a [[EdgeAttributes]]. */
+  def toAttributes: EdgeAttributes = EdgeAttributes(
+    URL,
+    arrowhead,
+    arrowsize,
+    arrowtail,
+    color,
+    colorscheme,
+    comment,
+    constraint,
+    decorate,
+    dir,
+    edgeURL,
+    edgehref,
+    edgetarget,
+    edgetooltip,
+    fontcolor,
+    fontname,
+    fontsize,
+    headURL,
+    headclip,
+    headhref,
+    headlabel,
+    headport,
+    headtarget,
+    headtooltip,
+    href,
+    label,
+    labelURL,
+    labelangle,
+    labeldistance,
+    labelfloat,
+    labelfontcolor,
+    labelfontname,
+    labelfontsize,
+    labelhref,
+    labeltarget,
+    labeltooltip,
+    layer,
+    len,
+    lhead,
+    lp,
+    ltail,
+    minlen,
+    nojustify,
+    pos,
+    samehead,
+    sametail,
+    showboxes,
+    style,
+    tailURL,
+    tailclip,
+    tailhref,
+    taillabel,
+    tailport,
+    tailtarget,
+    tailtooltip,
+    target,
+    tooltip,
+    weight
+  )
+
+  def toAttributeMap(): Seq[(String, Any)] = {
+    val attributeMap = Seq.newBuilder[(String, Any)]
+    foreachSet((k, v) => attributeMap += k -> v)
+    attributeMap.result()
+  }
+
+  def foreachSet(visitor: AttributeVisitor): Unit = {
+    var i = 0
+    var remaining0 = bits0
+    while (remaining0 != 0) {
+      visitor.visit(SparseEdgeAttributes.names(java.lang.Long.numberOfTrailingZeros(remaining0)), values(i))
+      remaining0 &= remaining0 - 1
+      i += 1
+    }
+  }
+
+  def isEmpty: Boolean = bits0 == 0L
+
+  override def equals(other: Any): Boolean = other match {
+    case that: SparseEdgeAttributes =>
+      bits0 == that.bits0 &&
+      java.util.Arrays.equals(values, that.values)
+    case _ => false
+  }
+  
+  override def hashCode: Int =
+    31 * java.lang.Long.hashCode(bits0) +
+    java.util.Arrays.hashCode(values)
+  
+  override def toString: String =
+    toAttributeMap().map { case (k, v) => s"$k = $v" }.mkString("SparseEdgeAttributes(", ", ", ")")
+  
+  private def get(index: Int): AnyRef = {
+    if ((bits0 & (1L << index)) == 0) null
+    else values(java.lang.Long.bitCount(bits0 & ((1L << index) - 1)))
+  }
+}
+
+object SparseEdgeAttributes {
+  private val names: Array[String] = Array(
+    "URL",
+    "arrowhead",
+    "arrowsize",
+    "arrowtail",
+    "color",
+    "colorscheme",
+    "comment",
+    "constraint",
+    "decorate",
+    "dir",
+    "edgeURL",
+    "edgehref",
+    "edgetarget",
+    "edgetooltip",
+    "fontcolor",
+    "fontname",
+    "fontsize",
+    "headURL",
+    "headclip",
+    "headhref",
+    "headlabel",
+    "headport",
+    "headtarget",
+    "headtooltip",
+    "href",
+    "label",
+    "labelURL",
+    "labelangle",
+    "labeldistance",
+    "labelfloat",
+    "labelfontcolor",
+    "labelfontname",
+    "labelfontsize",
+    "labelhref",
+    "labeltarget",
+    "labeltooltip",
+    "layer",
+    "len",
+    "lhead",
+    "lp",
+    "ltail",
+    "minlen",
+    "nojustify",
+    "pos",
+    "samehead",
+    "sametail",
+    "showboxes",
+    "style",
+    "tailURL",
+    "tailclip",
+    "tailhref",
+    "taillabel",
+    "tailport",
+    "tailtarget",
+    "tailtooltip",
+    "target",
+    "tooltip",
+    "weight"
+  )
+  
+  private val noValues = new Array[AnyRef](0)
+  
+  /** The attributes set in `attributes`. */
+  def from(attributes: EdgeAttributes): SparseEdgeAttributes = SparseEdgeAttributes(
+    attributes.URL,
+    attributes.arrowhead,
+    attributes.arrowsize,
+    attributes.arrowtail,
+    attributes.color,
+    attributes.colorscheme,
+    attributes.comment,
+    attributes.constraint,
+    attributes.decorate,
+    attributes.dir,
+    attributes.edgeURL,
+    attributes.edgehref,
+    attributes.edgetarget,
+    attributes.edgetooltip,
+    attributes.fontcolor,
+    attributes.fontname,
+    attributes.fontsize,
+    attributes.headURL,
+    attributes.headclip,
+    attributes.headhref,
+    attributes.headlabel,
+    attributes.headport,
+    attributes.headtarget,
+    attributes.headtooltip,
+    attributes.href,
+    attributes.label,
+    attributes.labelURL,
+    attributes.labelangle,
+    attributes.labeldistance,
+    attributes.labelfloat,
+    attributes.labelfontcolor,
+    attributes.labelfontname,
+    attributes.labelfontsize,
+    attributes.labelhref,
+    attributes.labeltarget,
+    attributes.labeltooltip,
+    attributes.layer,
+    attributes.len,
+    attributes.lhead,
+    attributes.lp,
+    attributes.ltail,
+    attributes.minlen,
+    attributes.nojustify,
+    attributes.pos,
+    attributes.samehead,
+    attributes.sametail,
+    attributes.showboxes,
+    attributes.style,
+    attributes.tailURL,
+    attributes.tailclip,
+    attributes.tailhref,
+    attributes.taillabel,
+    attributes.tailport,
+    attributes.tailtarget,
+    attributes.tailtooltip,
+    attributes.target,
+    attributes.tooltip,
+    attributes.weight
+  )
+  
+  def apply(
+    URL: String = null,
+    arrowhead: ArrowType = null,
+    arrowsize: java.lang.Double = null,
+    arrowtail: ArrowType = null,
+    color: ColorOrList = null,
+    colorscheme: String = null,
+    comment: String = null,
+    constraint: java.lang.Boolean = null,
+    decorate: java.lang.Boolean = null,
+    dir: DirType = null,
+    edgeURL: String = null,
+    edgehref: String = null,
+    edgetarget: String = null,
+    edgetooltip: String = null,
+    fontcolor: Color = null,
+    fontname: String = null,
+    fontsize: java.lang.Double = null,
+    headURL: String = null,
+    headclip: java.lang.Boolean = null,
+    headhref: String = null,
+    headlabel: LabelString = null,
+    headport: PortPosition = null,
+    headtarget: String = null,
+    headtooltip: String = null,
+    href: String = null,
+    label: LabelString = null,
+    labelURL: String = null,
+    labelangle: java.lang.Double = null,
+    labeldistance: java.lang.Double = null,
+    labelfloat: java.lang.Boolean = null,
+    labelfontcolor: Color = null,
+    labelfontname: String = null,
+    labelfontsize: java.lang.Double = null,
+    labelhref: String = null,
+    labeltarget: String = null,
+    labeltooltip: String = null,
+    layer: LayerRange = null,
+    len: java.lang.Double = null,
+    lhead: String = null,
+    lp: Point = null,
+    ltail: String = null,
+    minlen: java.lang.Integer = null,
+    nojustify: java.lang.Boolean = null,
+    pos: SplineType = null,
+    samehead: String = null,
+    sametail: String = null,
+    showboxes: java.lang.Integer = null,
+    style: Style = null,
+    tailURL: String = null,
+    tailclip: java.lang.Boolean = null,
+    tailhref: String = null,
+    taillabel: LabelString = null,
+    tailport: PortPosition = null,
+    tailtarget: String = null,
+    tailtooltip: String = null,
+    target: String = null,
+    tooltip: String = null,
+    weight: java.lang.Double = null
+  ): SparseEdgeAttributes = {
+    var bits0 = 0L
+    var count = 0
+    if (URL != null) { bits0 |= (1L << 0); count += 1 }
+    if (arrowhead != null) { bits0 |= (1L << 1); count += 1 }
+    if (arrowsize != null) { bits0 |= (1L << 2); count += 1 }
+    if (arrowtail != null) { bits0 |= (1L << 3); count += 1 }
+    if (color != null) { bits0 |= (1L << 4); count += 1 }
+    if (colorscheme != null) { bits0 |= (1L << 5); count += 1 }
+    if (comment != null) { bits0 |= (1L << 6); count += 1 }
+    if (constraint != null) { bits0 |= (1L << 7); count += 1 }
+    if (decorate != null) { bits0 |= (1L << 8); count += 1 }
+    if (dir != null) { bits0 |= (1L << 9); count += 1 }
+    if (edgeURL != null) { bits0 |= (1L << 10); count += 1 }
+    if (edgehref != null) { bits0 |= (1L << 11); count += 1 }
+    if (edgetarget != null) { bits0 |= (1L << 12); count += 1 }
+    if (edgetooltip != null) { bits0 |= (1L << 13); count += 1 }
+    if (fontcolor != null) { bits0 |= (1L << 14); count += 1 }
+    if (fontname != null) { bits0 |= (1L << 15); count += 1 }
+    if (fontsize != null) { bits0 |= (1L << 16); count += 1 }
+    if (headURL != null) { bits0 |= (1L << 17); count += 1 }
+    if (headclip != null) { bits0 |= (1L << 18); count += 1 }
+    if (headhref != null) { bits0 |= (1L << 19); count += 1 }
+    if (headlabel != null) { bits0 |= (1L << 20); count += 1 }
+    if (headport != null) { bits0 |= (1L << 21); count += 1 }
+    if (headtarget != null) { bits0 |= (1L << 22); count += 1 }
+    if (headtooltip != null) { bits0 |= (1L << 23); count += 1 }
+    if (href != null) { bits0 |= (1L << 24); count += 1 }
+    if (label != null) { bits0 |= (1L << 25); count += 1 }
+    if (labelURL != null) { bits0 |= (1L << 26); count += 1 }
+    if (labelangle != null) { bits0 |= (1L << 27); count += 1 }
+    if (labeldistance != null) { bits0 |= (1L << 28); count += 1 }
+    if (labelfloat != null) { bits0 |= (1L << 29); count += 1 }
+    if (labelfontcolor != null) { bits0 |= (1L << 30); count += 1 }
+    if (labelfontname != null) { bits0 |= (1L << 31); count += 1 }
+    if (labelfontsize != null) { bits0 |= (1L << 32); count += 1 }
+    if (labelhref != null) { bits0 |= (1L << 33); count += 1 }
+    if (labeltarget != null) { bits0 |= (1L << 34); count += 1 }
+    if (labeltooltip != null) { bits0 |= (1L << 35); count += 1 }
+    if (layer != null) { bits0 |= (1L << 36); count += 1 }
+    if (len != null) { bits0 |= (1L << 37); count += 1 }
+    if (lhead != null) { bits0 |= (1L << 38); count += 1 }
+    if (lp != null) { bits0 |= (1L << 39); count += 1 }
+    if (ltail != null) { bits0 |= (1L << 40); count += 1 }
+    if (minlen != null) { bits0 |= (1L << 41); count += 1 }
+    if (nojustify != null) { bits0 |= (1L << 42); count += 1 }
+    if (pos != null) { bits0 |= (1L << 43); count += 1 }
+    if (samehead != null) { bits0 |= (1L << 44); count += 1 }
+    if (sametail != null) { bits0 |= (1L << 45); count += 1 }
+    if (showboxes != null) { bits0 |= (1L << 46); count += 1 }
+    if (style != null) { bits0 |= (1L << 47); count += 1 }
+    if (tailURL != null) { bits0 |= (1L << 48); count += 1 }
+    if (tailclip != null) { bits0 |= (1L << 49); count += 1 }
+    if (tailhref != null) { bits0 |= (1L << 50); count += 1 }
+    if (taillabel != null) { bits0 |= (1L << 51); count += 1 }
+    if (tailport != null) { bits0 |= (1L << 52); count += 1 }
+    if (tailtarget != null) { bits0 |= (1L << 53); count += 1 }
+    if (tailtooltip != null) { bits0 |= (1L << 54); count += 1 }
+    if (target != null) { bits0 |= (1L << 55); count += 1 }
+    if (tooltip != null) { bits0 |= (1L << 56); count += 1 }
+    if (weight != null) { bits0 |= (1L << 57); count += 1 }
+    val values = if (count == 0) noValues else new Array[AnyRef](count)
+    var i = 0
+    if (URL != null) { values(i) = URL; i += 1 }
+    if (arrowhead != null) { values(i) = arrowhead; i += 1 }
+    if (arrowsize != null) { values(i) = arrowsize; i += 1 }
+    if (arrowtail != null) { values(i) = arrowtail; i += 1 }
+    if (color != null) { values(i) = color; i += 1 }
+    if (colorscheme != null) { values(i) = colorscheme; i += 1 }
+    if (comment != null) { values(i) = comment; i += 1 }
+    if (constraint != null) { values(i) = constraint; i += 1 }
+    if (decorate != null) { values(i) = decorate; i += 1 }
+    if (dir != null) { values(i) = dir; i += 1 }
+    if (edgeURL != null) { values(i) = edgeURL; i += 1 }
+    if (edgehref != null) { values(i) = edgehref; i += 1 }
+    if (edgetarget != null) { values(i) = edgetarget; i += 1 }
+    if (edgetooltip != null) { values(i) = edgetooltip; i += 1 }
+    if (fontcolor != null) { values(i) = fontcolor; i += 1 }
+    if (fontname != null) { values(i) = fontname; i += 1 }
+    if (fontsize != null) { values(i) = fontsize; i += 1 }
+    if (headURL != null) { values(i) = headURL; i += 1 }
+    if (headclip != null) { values(i) = headclip; i += 1 }
+    if (headhref != null) { values(i) = headhref; i += 1 }
+    if (headlabel != null) { values(i) = headlabel; i += 1 }
+    if (headport != null) { values(i) = headport; i += 1 }
+    if (headtarget != null) { values(i) = headtarget; i += 1 }
+    if (headtooltip != null) { values(i) = headtooltip; i += 1 }
+    if (href != null) { values(i) = href; i += 1 }
+    if (label != null) { values(i) = label; i += 1 }
+    if (labelURL != null) { values(i) = labelURL; i += 1 }
+    if (labelangle != null) { values(i) = labelangle; i += 1 }
+    if (labeldistance != null) { values(i) = labeldistance; i += 1 }
+    if (labelfloat != null) { values(i) = labelfloat; i += 1 }
+    if (labelfontcolor != null) { values(i) = labelfontcolor; i += 1 }
+    if (labelfontname != null) { values(i) = labelfontname; i += 1 }
+    if (labelfontsize != null) { values(i) = labelfontsize; i += 1 }
+    if (labelhref != null) { values(i) = labelhref; i += 1 }
+    if (labeltarget != null) { values(i) = labeltarget; i += 1 }
+    if (labeltooltip != null) { values(i) = labeltooltip; i += 1 }
+    if (layer != null) { values(i) = layer; i += 1 }
+    if (len != null) { values(i) = len; i += 1 }
+    if (lhead != null) { values(i) = lhead; i += 1 }
+    if (lp != null) { values(i) = lp; i += 1 }
+    if (ltail != null) { values(i) = ltail; i += 1 }
+    if (minlen != null) { values(i) = minlen; i += 1 }
+    if (nojustify != null) { values(i) = nojustify; i += 1 }
+    if (pos != null) { values(i) = pos; i += 1 }
+    if (samehead != null) { values(i) = samehead; i += 1 }
+    if (sametail != null) { values(i) = sametail; i += 1 }
+    if (showboxes != null) { values(i) = showboxes; i += 1 }
+    if (style != null) { values(i) = style; i += 1 }
+    if (tailURL != null) { values(i) = tailURL; i += 1 }
+    if (tailclip != null) { values(i) = tailclip; i += 1 }
+    if (tailhref != null) { values(i) = tailhref; i += 1 }
+    if (taillabel != null) { values(i) = taillabel; i += 1 }
+    if (tailport != null) { values(i) = tailport; i += 1 }
+    if (tailtarget != null) { values(i) = tailtarget; i += 1 }
+    if (tailtooltip != null) { values(i) = tailtooltip; i += 1 }
+    if (target != null) { values(i) = target; i += 1 }
+    if (tooltip != null) { values(i) = tooltip; i += 1 }
+    if (weight != null) { values(i) = weight; i += 1 }
+    new SparseEdgeAttributes(bits0, values)
+  }
+}
\ No newline at end of file
@@ -0,0 +1,749 @@
+package berlin.softwaretechnik.graphviz.attributes;
+/**
+  * The same attributes as [[NodeAttributes]], for holding many of them: only the attributes
+  * that are set are stored. `bits0` marks which ones are present, and
+  * `values` holds them in declaration order. [[berlin.softwaretechnik.graphviz.GraphBuilder]]
+  * stores attributes in this form; graph elements take [[NodeAttributes]], see
+  * [[toAttributes]] and [[SparseNodeAttributes.from]].
+  */
+final class SparseNodeAttributes private (
+  private val bits0: Long,
+  private val values: Array[AnyRef]
+) extends Attributes with Serializable {
+  /**
+    * Hyperlinks incorporated into device-dependent output. 
+    * At present, used in ps2, cmap, i*map and svg formats. 
+    * For all these formats, URLs can be attached to nodes, edges and
+    * clusters. URL attributes can also be attached to the root graph in ps2,
+    * cmap and i*map formats. This serves as the base URL for relative URLs in the 
+    * former, and as the default image map file in the latter.
+    * For svg, cmapx and imap output, the active area for a node is its 
+    * visible image. 
+    * For example, an unfilled node with no drawn boundary will only be active on its label. 
+    * For other output, the active area is its bounding box.
+    * The active area for a cluster is its bounding box. 
+    * For edges, the active areas are small circles where the edge contacts its head
+    * and tail nodes. In addition, for svg, cmapx and imap, the active area 
+    * includes a thin polygon approximating the edge. The circles may 
+    * overlap the related node, and the edge URL dominates.
+    * If the edge has a label, this will also be active. 
+    * Finally, if the edge has a head or tail label, this will also be active.
+    * Note that, for edges, the attributes <a rel="attr">headURL</a>,
+    * <a rel="attr">tailURL</a>, <a rel="attr">labelURL</a> and
+    * <a rel="attr">edgeURL</a> allow control of various parts of an
+    * edge. Also note that, if active areas of two edges overlap, it is unspecified 
+    * which area dominates.
+    */
+  def URL: String = get(0).asInstanceOf[String]
+  
+  /**
+    * Basic drawing color for graphics, not text. For the latter, use the
+    * <a rel="attr">fontcolor</a> attribute.
+    * For edges, the value
+    * can either be a single <a rel="type">color</a> or a <a rel="type">colorList</a>.
+    * In the latter case, the edge is drawn using parallel splines or lines,
+    * one for each color in the list, in the order given.
+    * The head arrow, if any, is drawn using the first color in the list, 
+    * and the tail arrow, if any, the second color. This supports the common 
+    * case of drawing opposing edges, but using parallel splines instead of 
+    * separately routed multiedges.
+    */
+  def color: ColorOrList = get(1).asInstanceOf[ColorOrList]
+  
+  /**
+    * This attribute specifies a color scheme namespace. If defined, it specifies
+    * the context for interpreting color names. In particular, if a 
+    * <a rel="type">color</a> value has form <code>xxx</code> or <code>//xxx</code>, 
+    * then the color <code>xxx</code> will be evaluated according to the current color scheme.
+    * If no color scheme is set, the standard X11 naming is used.
+    * For example, if <code>colorscheme=bugn9</code>, then <code>color=7</code>
+    * is interpreted as <code>/bugn9/7</code>.
+    */
+  def colorscheme: String = get(2).asInstanceOf[String]
+  
+  /**
+    * Comments are inserted into output. Device-dependent.
+    */
+  def comment: String = get(3).asInstanceOf[String]
+  
+  /**
+    * Distortion factor for <a rel="attr">shape</a>=polygon. 
+    * Positive values cause top part to
+    * be larger than bottom; negative values do the opposite.
+    */
+  def distortion: java.lang.Double = get(4).asInstanceOf[java.lang.Double]
+  
+  /**
+    * Color used to fill the background of a node or cluster 
+    * assuming <a rel="attr">style</a>=filled.
+    * If <a rel="attr">fillcolor</a> is not defined, <a rel="attr">color</a> is 
+    * used. (For clusters, if <a rel="attr">color</a> is not defined, 
+    * <a rel="attr">bgcolor</a> is used.) If this is not defined,
+    * the default is used, except for 
+    * <a rel="attr">shape</a>=point or when the output
+    * format is MIF,
+    * which use black by default.
+    * Note that a cluster inherits the root graph's attributes if defined.
+    * Thus, if the root graph has defined a <a rel="attr">fillcolor</a>, this will override a
+    * <a rel="attr">color</a> or <a rel="attr">bgcolor</a> attribute set for the cluster.
+    */
+  def fillcolor: Color = get(5).asInstanceOf[Color]
+  
+  /**
+    * If true, the node size is specified by the values of the
+    * <a rel="attr">width</a>  
+    * and <a rel="attr">height</a> attributes only 
+    * and is not expanded to contain the text label.
+    */
+  def fixedsize: java.lang.Boolean = get(6).asInstanceOf[java.lang.Boolean]
+  
+  /**
+    * Color used for text.
+    */
+  def fontcolor: Color = get(7).asInstanceOf[Color]
+  
+  /**
+    * Font used for text. This very much depends on the output format and, for 
+    * non-bitmap output such as PostScript or SVG, the availability of the font
+    * when the graph is displayed or printed. As such, it is best to rely on
+    * font faces that are generally available, such as Times-Roman, Helvetica or
+    * Courier.
+    * If Graphviz was built using the 
+    * <a href="http://pdx.freedesktop.org/~fontconfig/fontconfig-user.html">fontconfig library</a>, the latter library
+    * will be used to search for the font. However, if the <a rel="attr">fontname</a> string
+    * contains a slash character &quot;/&quot;, it is treated as a pathname for the font
+    * file, though font lookup will append the usual font suffixes.
+    * If Graphviz does not use fontconfig, <a rel="attr">fontname</a> will be
+    * considered the name of a Type 1 or True Type font file. 
+    * If you specify <code>fontname=schlbk</code>, the tool will look for a 
+    * file named  <code>schlbk.ttf</code> or <code>schlbk.pfa</code> or <code>schlbk.pfb</code>
+    * in one of the directories specified by 
+    * the <a rel="attr">fontpath</a> attribute.
+    * The lookup does support various aliases for the common fonts.
+    */
+  def fontname: String = get(8).asInstanceOf[String]
+  
+  /**
+    * Font size, in <a rel="note">points</a>, used for text.
+    */
+  def fontsize: java.lang.Double = get(9).asInstanceOf[java.lang.Double]
+  
+  /**
+    * If the end points of an edge belong to the same group, i.e., have the
+    * same group attribute, parameters are set to avoid crossings and keep
+    * the edges straight.
+    */
+  def group: String = get(10).asInstanceOf[String]
+  
+  /**
+    * Height of node, in inches. This is taken as the initial, minimum height
+    * of the node. If <a rel="attr">fixedsize</a> is true, this
+    * will be the final height of the node. Otherwise, if the node label
+    * requires more height to fit, the node's height will be increased to
+    * contain the label. Note also that, if the output format is dot, the
+    * value given to <a rel="attr">height</a> will be the final value.
+    */
+  def height: java.lang.Double = get(11).asInstanceOf[java.lang.Double]
+  
+  /**
+    * Gives the name of a file containing an image to be displayed inside
+    * a node. The image file must be in one of the recognized formats, 
+    * typically JPEG, PNG, GIF or Postscript, and be able to be converted
+    * into the desired output format.  
+    * Unlike with the <a rel="attr">shapefile</a> attribute, 
+    * the image is treated as node
+    * content rather than the entire node. In particular, an image can
+    * be contained in a node of any shape, not just a rectangle.
+    */
+  def image: String = get(12).asInstanceOf[String]
+  
+  /**
+    * Attribute controlling how an image fills its
+    * containing node. In general, the image is given its natural size,
+    * (cf. <a rel="attr">dpi</a>),
+    * and the node size is made large enough to contain its image, its
+    * label, its margin, and its peripheries. 
+    * Its width and height will also be at least as large as its
+    * minimum <a rel="attr">width</a> and <a rel="attr">height</a>. 
+    * If, however, <code>fixedsize=true</code>,
+    * the width and height attributes specify the exact size of the node. 
+    * During rendering, in the default case (<code>imagescale=false</code>),
+    * the image retains its natural size.
+    * If <span class="val">true</span>,
+    * the image is uniformly scaled (i.e., its aspect ratio is
+    * preserved) to fit inside the node. 
+    * At least one dimension of the image will be as large as possible
+    * given the size of the node.
+    * When <span class="val">width</span>,
+    * the width of the image is scaled to fill the node width.
+    * The corresponding property holds when <tt>imagescale=height</tt>.
+    * When <span class="val">both</span>,
+    * both the height and the width are scaled separately to fill the node.
+    * In all cases, if a dimension of the image is larger than the
+    * corresponding dimension of the node, that dimension of the
+    * image is scaled down to fit the node. As with the case of
+    * expansion, if <code>imagescale=true</code>, width and height are
+    * scaled uniformly.
+    */
+  def imagescale: String = get(13).asInstanceOf[String]
+  
+  /**
+    * Text label attached to objects.
+    * If a node's <a rel="attr">shape</a> is record, then the label can
+    * have a <a href="http://www.graphviz.org/doc/info/shapes.html#record">special format</a> 
+    * which describes the record layout.
+    */
+  def label: LabelString = get(14).asInstanceOf[LabelString]
+  
+  /**
+    * Specifies layers in which the node or edge is present.
+    */
+  def layer: LayerRange = get(15).asInstanceOf[LayerRange]
+  
+  /**
+    * For graphs, this sets x and y margins of canvas, in inches. If the margin
+    * is a single double, both margins are set equal to the given value.
+    * Note that the margin is not part of the drawing but just empty space 
+    * left around the drawing. It basically corresponds to a translation of 
+    * drawing, as would be necessary to center a drawing on a page. Nothing
+    * is actually drawn in the margin. To actually extend the background of
+    * a drawing, see the <a rel="attr">pad</a> attribute.
+    * For nodes, this attribute specifies space left around the node's label.
+    * By default, the value is <code>0.11,0.055</code>.
+    */
+  def margin: PointF = get(16).asInstanceOf[PointF]
+  
+  /**
+    * By default, the justification of multi-line labels is done within the
+    * largest context that makes sense. Thus, in the label of a polygonal
+    * node, a left-justified line will align with the left side of the node
+    * (shifted by the prescribed <a rel="attr">margin</a>).
+    * In record nodes, left-justified
+    * line will line up with the left side of the enclosing column of fields.
+    * If <a rel="attr">nojustify</a> is <span class="val">true</span>, multi-line labels will be justified 
+    * in the context of itself. For example, if the attribute is set, 
+    * the first label line is long, and the second is shorter and left-justified,
+    * the second will align with the left-most character in the first line,
+    * regardless of  how large the node might be.
+    */
+  def nojustify: java.lang.Boolean = get(17).asInstanceOf[java.lang.Boolean]
+  
+  /**
+    * Set number of peripheries used in polygonal shapes and cluster
+    * boundaries. Note that
+    * <a href="http://www.graphviz.org/doc/info/shapes.html#epsf">user-defined shapes</a> are treated as a 
+    * form of box shape, so the default
+    * peripheries value is 1 and the user-defined shape will be drawn in
+    * a bounding rectangle. Setting <code>peripheries=0</code> will turn this off.
+    * Also, 1 is the maximum peripheries value for clusters.
+    */
+  def peripheries: java.lang.Integer = get(18).asInstanceOf[java.lang.Integer]
+  
+  /**
+    * If true and the node has a pos attribute on input, neato prevents the
+    * node from moving from the input position. This property can also be specified
+    * in the pos attribute itself (cf. the <a rel="attr">point</a> type).
+    */
+  def pin: java.lang.Boolean = get(19).asInstanceOf[java.lang.Boolean]
+  
+  /**
+    * Position of node, or spline control points.
+    * For nodes, the position indicates the center of the node.
+    * On output, the coordinates are in <a href="#points">points</a>.
+    * In neato and fdp, pos can be used to set the initial position of a node.
+    * By default, the coordinates are assumed to be in inches. However, the
+    * <a href="http://www.graphviz.org/doc/info/command.html#d:s">-s</a> command line flag can be used to specify
+    * different units.
+    * When the <a href="http://www.graphviz.org/doc/info/command.html#d:n">-n</a> command line flag is used with
+    * neato, it is assumed the positions have been set by one of the layout
+    * programs, and are therefore in points. Thus, <code>neato -n</code> can accept
+    * input correctly without requiring a <code>-s</code> flag and, in fact, 
+    * ignores any such flag.
+    */
+  def pos: SplineType = get(20).asInstanceOf[SplineType]
+  
+  /**
+    * Rectangles for fields of records, in <a rel="note">points</a>.
+    */
+  def rects: Rect = get(21).asInstanceOf[Rect]
+  
+  /**
+    * If true, force polygon to be regular.
+    */
+  def regular: java.lang.Boolean = get(22).asInstanceOf[java.lang.Boolean]
+  
+  /**
+    * This specifies nodes to be used as the center of the 
+    * layout and the root of the generated spanning tree. As a graph attribute,
+    * this gives the name of the node. As a node attribute (circo only), it
+    * specifies that the node should be used as a central node. In twopi,
+    * this will actually be the central node. In circo, the block containing
+    * the node will be central in the drawing of its connected component.
+    * If not defined,
+    * twopi will pick a most central node, and circo will pick a random node.
+    */
+  def root: String = get(23).asInstanceOf[String]
+  
+  /**
+    * If the input graph defines the <a rel="attr"><a rel="attr">vertices</a></a> 
+    * attribute, and output is dot or xdot, this gives
+    * the number of points used for a node whose shape is a circle or ellipse.
+    * It plays the same role in neato, when adjusting the layout to avoid
+    * overlapping nodes, and in image maps.
+    */
+  def samplepoints: java.lang.Integer = get(24).asInstanceOf[java.lang.Integer]
+  
+  /**
+    * Set the shape of a node.
+    */
+  def shape: Shape = get(25).asInstanceOf[Shape]
+  
+  /**
+    * (Deprecated) If defined, shapefile specifies a file containing user-supplied node content. 
+    * The <a rel="attr">shape</a> of the node is set to box. 
+    * The image in the shapefile must be
+    * rectangular. The image formats supported as well as the precise semantics of 
+    * how the file is used depends on the
+    * <a href="http://www.graphviz.org/doc/info/output.html">output format</a>.  For further details, see
+    * <a href="http://www.graphviz.org/Documentation/html/shapehowto.html#ext_image">External PostScript files</a>.
+    * There is one exception to this usage. 
+    * If <a rel="attr">shape</a> is set to &quot;epsf&quot;, shapefile gives
+    * a filename containing a definition of the node in PostScript. 
+    * The graphics defined must be contain all of the
+    * node content, including any desired boundaries.
+    * For further details, see
+    * <a href="http://www.graphviz.org/Documentation/html/shapehowto.html#ext_ps">
+    * External PostScript files</a>.
+    */
+  def shapefile: String = get(26).asInstanceOf[String]
+  
+  /**
+    * Print guide boxes in PostScript at the beginning of
+    * routesplines if 1, or at the end if 2. (Debugging)
+    */
+  def showboxes: java.lang.Integer = get(27).asInstanceOf[java.lang.Integer]
+  
+  /**
+    * Number of sides if <a rel="attr">shape</a>=polygon.
+    */
+  def sides: java.lang.Integer = get(28).asInstanceOf[java.lang.Integer]
+  
+  /**
+    * Skew factor for <a rel="attr">shape</a>=polygon. Positive values
+    * skew top of polygon to right; negative to left.
+    */
+  def skew: java.lang.Double = get(29).asInstanceOf[java.lang.Double]
+  
+  /**
+    * Set style for node or edge. For cluster subgraph, if &quot;filled&quot;, the
+    * cluster box's background is filled.
+    */
+  def style: Style = get(30).asInstanceOf[Style]
+  
+  /**
+    * If the object has a URL, this attribute determines which window 
+    * of the browser is used for the URL.
+    * See <a href="http://www.w3.org/TR/html401/present/frames.html#adef-target">W3C documentation</a>.
+    */
+  def target: String = get(31).asInstanceOf[String]
+  
+  /**
+    * Tooltip annotation attached to the node or edge. If unset, Graphviz
+    * will use the object's <a rel="attr">label</a> if defined.
+    * Note that if the label is a record specification or an HTML-like
+    * label, the resulting tooltip may be unhelpful. In this case, if
+    * tooltips will be generated, the user should set a <tt>tooltip</tt>
+    * attribute explicitly.
+    */
+  def tooltip: String = get(32).asInstanceOf[String]
+  
+  /**
+    * If the input graph defines this attribute, the node is polygonal,
+    * and output is dot or xdot, this attribute provides the
+    * coordinates of the vertices of the node's polygon, in inches.
+    * If the node is an ellipse or circle, the 
+    * <a rel="attr">samplepoints</a> attribute affects
+    * the output.
+    */
+  def vertices: PointFList = get(33).asInstanceOf[PointFList]
+  
+  /**
+    * Width of node, in inches. This is taken as the initial, minimum width
+    * of the node. If <a rel="attr">fixedsize</a> is true, this
+    * will be the final width of the node. Otherwise, if the node label
+    * requires more width to fit, the node's width will be increased to
+    * contain the label. Note also that, if the output format is dot, the
+    * value given to <a rel="attr">width</a> will be the final value.
+    */
+  def width: java.lang.Double = get(34).asInstanceOf[java.lang.Double]
+  
+  /**
+    * Provides z coordinate value for 3D layouts and displays. If the
+    * graph has <a rel="attr">dim</a> set to 3 (or more), 
+    * neato will use a node's <a rel="attr">z</a> value
+    * for the z coordinate of its initial position if 
+    * its <a rel="attr">pos</a> attribute is also defined.
+    * Even if no <a rel="attr">z</a> values are specified in the input, it is necessary to
+    * declare a <a rel="attr">z</a> attribute for nodes, e.g, using <tt>node[z=&quot;&quot;]</tt>
+    * in order to get z values on output.
+    * Thus, setting <tt>dim=3</tt> but not declaring <a rel="attr">z</a> will 
+    * cause <tt>neato -Tvrml</tt> to
+    * layout the graph in 3D but project the layout onto the xy-plane
+    * for the rendering. If the <a rel="attr">z</a> attribute is declared, the final rendering
+    * will be in 3D.
+    */
+  def z: java.lang.Double = get(35).asInstanceOf[java.lang.Double]
+
+  def copy(
+    URL: String = this.URL,
+    color: ColorOrList = this.color,
+    colorscheme: String = this.colorscheme,
+    comment: String = this.comment,
+    distortion: java.lang.Double = this.distortion,
+    fillcolor: Color = this.fillcolor,
+    fixedsize: java.lang.Boolean = this.fixedsize,
+    fontcolor: Color = this.fontcolor,
+    fontname: String = this.fontname,
+    fontsize: java.lang.Double = this.fontsize,
+    group: String = this.group,
+    height: java.lang.Double = this.height,
+    image: String = this.image,
+    imagescale: String = this.imagescale,
+    label: LabelString = this.label,
+    layer: LayerRange = this.layer,
+    margin: PointF = this.margin,
+    nojustify: java.lang.Boolean = this.nojustify,
+    peripheries: java.lang.Integer = this.peripheries,
+    pin: java.lang.Boolean = this.pin,
+    pos: SplineType = this.pos,
+    rects: Rect = this.rects,
+    regular: java.lang.Boolean = this.regular,
+    root: String = this.root,
+    samplepoints: java.lang.Integer = this.samplepoints,
+    shape: Shape = this.shape,
+    shapefile: String = this.shapefile,
+    showboxes: java.lang.Integer = this.showboxes,
+    sides: java.lang.Integer = this.sides,
+    skew: java.lang.Double = this.skew,
+    style: Style = this.style,
+    target: String = this.target,
+    tooltip: String = this.tooltip,
+    vertices: PointFList = this.vertices,
+    width: java.lang.Double = this.width,
+    z: java.lang.Double = this.z
+  ): SparseNodeAttributes = SparseNodeAttributes(
+    URL,
+    color,
+    colorscheme,
+    comment,
+    distortion,
+    fillcolor,
+    fixedsize,
+    fontcolor,
+    fontname,
+    fontsize,
+    group,
+    height,
+    image,
+    imagescale,
+    label,
+    layer,
+    margin,
+    nojustify,
+    peripheries,
+    pin,
+    pos,
+    rects,
+    regular,
+    root,
+    samplepoints,
+    shape,
+    shapefile,
+    showboxes,
+    sides,
+    skew,
+    style,
+    target,
+    tooltip,
+    vertices,
+    width,
+    z
+  )
+
+  /** The same attributes as a [[NodeAttributes]]. */
+  def toAttributes: NodeAttributes = NodeAttributes(
+    URL,
+    color,
+    colorscheme,
+    comment,
+    distortion,
+    fillcolor,
+    fixedsize,
+    fontcolor,
+    fontname,
+    fontsize,
+    group,
+    height,
+    image,
+    imagescale,
+    label,
+    layer,
+    margin,
+    nojustify,
+    peripheries,
+    pin,
+    pos,
+    rects,
+    regular,
+    root,
+    samplepoints,
+    shape,
+    shapefile,
+    showboxes,
+    sides,
+    skew,
+    style,
+    target,
+    tooltip,
+    vertices,
+    width,
+    z
+  )
+
+  def toAttributeMap(): Seq[(String, Any)] = {
+    val attributeMap = Seq.newBuilder[(String, Any)]
+    foreachSet((k, v) => attributeMap += k -> v)
+    attributeMap.result()
+  }
+
+  def foreachSet(visitor: AttributeVisitor): Unit = {
+    var i = 0
+    var remaining0 = bits0
+    while (remaining0 != 0) {
+      visitor.visit(SparseNodeAttributes.names(java.lang.Long.numberOfTrailingZeros(remaining0)), values(i))
+      remaining0 &= remaining0 - 1
+      i += 1
+    }
+  }
+
+  def isEmpty: Boolean = bits0 == 0L
+
+  override def equals(other: Any): Boolean = other match {
+    case that: SparseNodeAttributes =>
+      bits0 == that.bits0 &&
+      java.util.Arrays.equals(values, that.values)
+    case _ => false
+  }
+  
+  override def hashCode: Int =
+    31 * java.lang.Long.hashCode(bits0) +
+    java.util.Arrays.hashCode(values)
+  
+  override def toString: String =
+    toAttributeMap().map { case (k, v) => s"$k = $v" }.mkString("SparseNodeAttributes(", ", ", ")")
+  
+  private def get(index: Int): AnyRef = {
+    if ((bits0 & (1L << index)) == 0) null
+    else values(java.lang.Long.bitCount(bits0 & ((1L << index) - 1)))
+  }
+}
+
+object SparseNodeAttributes {
+  private val names: Array[String] = Array(
+    "URL",
+    "color",
+    "colorscheme",
+    "comment",
+    "distortion",
+    "fillcolor",
+    "fixedsize",
+    "fontcolor",
+    "fontname",
+    "fontsize",
+    "group",
+    "height",
+    "image",
+    "imagescale",
+    "label",
+    "layer",
+    "margin",
+    "nojustify",
+    "peripheries",
+    "pin",
+    "pos",
+    "rects",
+    "regular",
+    "root",
+    "samplepoints",
+    "shape",
+    "shapefile",
+    "showboxes",
+    "sides",
+    "skew",
+    "style",
+    "target",
+    "tooltip",
+    "vertices",
+    "width",
+    "z"
+  )
+  
+  private val noValues = new Array[AnyRef](0)
+  
+  /** The attributes set in `attributes`. */
+  def from(attributes: NodeAttributes): SparseNodeAttributes = SparseNodeAttributes(
+    attributes.URL,
+    attributes.color,
+    attributes.colorscheme,
+    attributes.comment,
+    attributes.distortion,
+    attributes.fillcolor,
+    attributes.fixedsize,
+    attributes.fontcolor,
+    attributes.fontname,
+    attributes.fontsize,
+    attributes.group,
+    attributes.height,
+    attributes.image,
+    attributes.imagescale,
+    attributes.label,
+    attributes.layer,
+    attributes.margin,
+    attributes.nojustify,
+    attributes.peripheries,
+    attributes.pin,
+    attributes.pos,
+    attributes.rects,
+    attributes.regular,
+    attributes.root,
+    attributes.samplepoints,
+    attributes.shape,
+    attributes.shapefile,
+    attributes.showboxes,
+    attributes.sides,
+    attributes.skew,
+    attributes.style,
+    attributes.target,
+    attributes.tooltip,
+    attributes.vertices,
+    attributes.width,
+    attributes.z
+  )
+  
+  def apply(
+    URL: String = null,
+    color: ColorOrList = null,
+    colorscheme: String = null,
+    comment: String = null,
+    distortion: java.lang.Double = null,
+    fillcolor: Color = null,
+    fixedsize: java.lang.Boolean = null,
+    fontcolor: Color = null,
+    fontname: String = null,
+    fontsize: java.lang.Double = null,
+    group: String = null,
+    height: java.lang.Double = null,
+    image: String = null,
+    imagescale: String = null,
+    label: LabelString = null,
+    layer: LayerRange = null,
+    margin: PointF = null,
+    nojustify: java.lang.Boolean = null,
+    peripheries: java.lang.Integer = null,
+    pin: java.lang.Boolean = null,
+    pos: SplineType = null,
+    rects: Rect = null,
+    regular: java.lang.Boolean = null,
+    root: String = null,
+    samplepoints: java.lang.Integer = null,
+    shape: Shape = null,
+    shapefile: String = null,
+    showboxes: java.lang.Integer = null,
+    sides: java.lang.Integer = null,
+    skew: java.lang.Double = null,
+    style: Style = null,
+    target: String = null,
+    tooltip: String = null,
+    vertices: PointFList = null,
+    width: java.lang.Double = null,
+    z: java.lang.Double = null
+  ): SparseNodeAttributes = {
+    var bits0 = 0L
+    var count = 0
+    if (URL != null) { bits0 |= (1L << 0); count += 1 }
+    if (color != null) { bits0 |= (1L << 1); count += 1 }
+    if (colorscheme != null) { bits0 |= (1L << 2); count += 1 }
+    if (comment != null) { bits0 |= (1L << 3); count += 1 }
+    if (distortion != null) { bits0 |= (1L << 4); count += 1 }
+    if (fillcolor != null) { bits0 |= (1L << 5); count += 1 }
+    if (fixedsize != null) { bits0 |= (1L << 6); count += 1 }
+    if (fontcolor != null) { bits0 |= (1L << 7); count += 1 }
+    if (fontname != null) { bits0 |= (1L << 8); count += 1 }
+    if (fontsize != null) { bits0 |= (1L << 9); count += 1 }
+    if (group != null) { bits0 |= (1L << 10); count += 1 }
+    if (height != null) { bits0 |= (1L << 11); count += 1 }
+    if (image != null) { bits0 |= (1L << 12); count += 1 }
+    if (imagescale != null) { bits0 |= (1L << 13); count += 1 }
+    if (label != null) { bits0 |= (1L << 14); count += 1 }
+    if (layer != null) { bits0 |= (1L << 15); count += 1 }
+    if (margin != null) { bits0 |= (1L << 16); count += 1 }
+    if (nojustify != null) { bits0 |= (1L << 17); count += 1 }
+    if (peripheries != null) { bits0 |= (1L << 18); count += 1 }
+    if (pin != null) { bits0 |= (1L << 19); count += 1 }
+    if (pos != null) { bits0 |= (1L << 20); count += 1 }
+    if (rects != null) { bits0 |= (1L << 21); count += 1 }
+    if (regular != null) { bits0 |= (1L << 22); count += 1 }
+    if (root != null) { bits0 |= (1L << 23); count += 1 }
+    if (samplepoints != null) { bits0 |= (1L << 24); count += 1 }
+    if (shape != null) { bits0 |= (1L << 25); count += 1 }
+    if (shapefile != null) { bits0 |= (1L << 26); count += 1 }
+    if (showboxes != null) { bits0 |= (1L << 27); count += 1 }
+    if (sides != null) { bits0 |= (1L << 28); count += 1 }
+    if (skew != null) { bits0 |= (1L << 29); count += 1 }
+    if (style != null) { bits0 |= (1L << 30); count += 1 }
+    if (target != null) { bits0 |= (1L << 31); count += 1 }
+    if (tooltip != null) { bits0 |= (1L << 32); count += 1 }
+    if (vertices != null) { bits0 |= (1L << 33); count += 1 }
+    if (width != null) { bits0 |= (1L << 34); count += 1 }
+    if (z != null) { bits0 |= (1L << 35); count += 1 }
+    val values = if (count == 0) noValues else new Array[AnyRef](count)
+    var i = 0
+    if (URL != null) { values(i) = URL; i += 1 }
+    if (color != null) { values(i) = color; i += 1 }
+    if (colorscheme != null) { values(i) = colorscheme; i += 1 }
+    if (comment != null) { values(i) = comment; i += 1 }
+    if (distortion != null) { values(i) = distortion; i += 1 }
+    if (fillcolor != null) { values(i) = fillcolor; i += 1 }
+    if (fixedsize != null) { values(i) = fixedsize; i += 1 }
+    if (fontcolor != null) { values(i) = fontcolor; i += 1 }
+    if (fontname != null) { values(i) = fontname; i += 1 }
+    if (fontsize != null) { values(i) = fontsize; i += 1 }
+    if (group != null) { values(i) = group; i += 1 }
+    if (height != null) { values(i) = height; i += 1 }
+    if (image != null) { values(i) = image; i += 1 }
+    if (imagescale != null) { values(i) = imagescale; i += 1 }
+    if (label != null) { values(i) = label; i += 1 }
+    if (layer != null) { values(i) = layer; i += 1 }
+    if (margin != null) { values(i) = margin; i += 1 }
+    if (nojustify != null) { values(i) = nojustify; i += 1 }
+    if (peripheries != null) { values(i) = peripheries; i += 1 }
+    if (pin != null) { values(i) = pin; i += 1 }
+    if (pos != null) { values(i) = pos; i += 1 }
+    if (rects != null) { values(i) = rects; i += 1 }
+    if (regular != null) { values(i) = regular; i += 1 }
+    if (root != null) { values(i) = root; i += 1 }
+    if (samplepoints != null) { values(i) = samplepoints; i += 1 }
+    if (shape != null) { values(i) = shape; i += 1 }
+    if (shapefile != null) { values(i) = shapefile; i += 1 }
+    if (showboxes != null) { values(i) = showboxes; i += 1 }
+    if (sides != null) { values(i) = sides; i += 1 }
+    if (skew != null) { values(i) = skew; i += 1 }
+    if (style != null) { values(i) = style; i += 1 }
+    if (target != null) { values(i) = target; i += 1 }
+    if (tooltip != null) { values(i) = tooltip; i += 1 }
+    if (vertices != null) { values(i) = vertices; i += 1 }
+    if (width != null) { values(i) = width; i += 1 }
+    if (z != null) { values(i) = z; i += 1 }
+    new SparseNodeAttributes(bits0, values)
+  }
+}
\ No newline at end of file
@@ -231,7 +231,7 @@ case class SubgraphAttributes (
     * or rightmost.)
     */
   rank: RankType = null
-) {
+) extends Attributes {
   def toAttributeMap(): Seq[(String, Any)] = Seq(
   "K" -> K,
   "URL" -> URL,
@@ -253,4 +253,188 @@ case class SubgraphAttributes (
   "target" -> target,
   "tooltip" -> tooltip,
   "rank" -> rank).filter{case(k, v) => v != null}
+
+  def foreachSet(visitor: AttributeVisitor): Unit = {
+    if (K != null) visitor.visit("K", K)
+    if (URL != null) visitor.visit("URL", URL)
+    if (bgcolor != null) visitor.visit("bgcolor", bgcolor)
+    if (color != null) visitor.visit("color", color)
+    if (colorscheme != null) visitor.visit("colorscheme", colorscheme)
+    if (fillcolor != null) visitor.visit("fillcolor", fillcolor)
+    if (fixedsize != null) visitor.visit("fixedsize", fixedsize)
+    if (fontcolor != null) visitor.visit("fontcolor", fontcolor)
+    if (fontname != null) visitor.visit("fontname", fontname)
+    if (fontsize != null) visitor.visit("fontsize", fontsize)
+    if (label != null) visitor.visit("label", label)
+    if (labeljust != null) visitor.visit("labeljust", labeljust)
+    if (labelloc != null) visitor.visit("labelloc", labelloc)
+    if (lp != null) visitor.visit("lp", lp)
+    if (nojustify != null) visitor.visit("nojustify", nojustify)
+    if (pencolor != null) visitor.visit("pencolor", pencolor)
+    if (style != null) visitor.visit("style", style)
+    if (target != null) visitor.visit("target", target)
+    if (tooltip != null) visitor.visit("tooltip", tooltip)
+    if (rank != null) visitor.visit("rank", rank)
+  }
+
+  def isEmpty: Boolean =
+    K == null &&
+    URL == null &&
+    bgcolor == null &&
+    color == null &&
+    colorscheme == null &&
+    fillcolor == null &&
+    fixedsize == null &&
+    fontcolor == null &&
+    fontname == null &&
+    fontsize == null &&
+    label == null &&
+    labeljust == null &&
+    labelloc == null &&
+    lp == null &&
+    nojustify == null &&
+    pencolor == null &&
+    style == null &&
+    target == null &&
+    tooltip == null &&
+    rank == null
+
+  /** A copy with `f` applied to every attribute that is set. */
+  private[graphviz] def mapValues(f: AnyRef => AnyRef): SubgraphAttributes = SubgraphAttributes(
+    if (K == null) null else f(K).asInstanceOf[java.lang.Double],
+    if (URL == null) null else f(URL).asInstanceOf[String],
+    if (bgcolor == null) null else f(bgcolor).asInstanceOf[Color],
+    if (color == null) null else f(color).asInstanceOf[ColorOrList],
+    if (colorscheme == null) null else f(colorscheme).asInstanceOf[String],
+    if (fillcolor == null) null else f(fillcolor).asInstanceOf[Color],
+    if (fixedsize == null) null else f(fixedsize).asInstanceOf[java.lang.Boolean],
+    if (fontcolor == null) null else f(fontcolor).asInstanceOf[Color],
+    if (fontname == null) null else f(fontname).asInstanceOf[String],
+    if (fontsize == null) null else f(fontsize).asInstanceOf[java.lang.Double],
+    if (label == null) null else f(label).asInstanceOf[LabelString],
+    if (labeljust == null) null else f(labeljust).asInstanceOf[String],
+    if (labelloc == null) null else f(labelloc).asInstanceOf[String],
+    if (lp == null) null else f(lp).asInstanceOf[Point],
+    if (nojustify == null) null else f(nojustify).asInstanceOf[java.lang.Boolean],
+    if (pencolor == null) null else f(pencolor).asInstanceOf[Color],
+    if (style == null) null else f(style).asInstanceOf[Style],
+    if (target == null) null else f(target).asInstanceOf[String],
+    if (tooltip == null) null else f(tooltip).asInstanceOf[String],
+    if (rank == null) null else f(rank).asInstanceOf[RankType]
+  )
+
+  /**
+    * A copy with the attribute called `name` set to `value`, or unset if `value` is null.
+    * `value` must be of the attribute's type.
+    */
+  private[graphviz] def updated(name: String, value: AnyRef): SubgraphAttributes = {
+    val all = Array[AnyRef](
+      K,
+      URL,
+      bgcolor,
+      color,
+      colorscheme,
+      fillcolor,
+      fixedsize,
+      fontcolor,
+      fontname,
+      fontsize,
+      label,
+      labeljust,
+      labelloc,
+      lp,
+      nojustify,
+      pencolor,
+      style,
+      target,
+      tooltip,
+      rank
+    )
+    all(SubgraphAttributes.indexOf(name)) = value
+    SubgraphAttributes.fromArray(all)
+  }
+}
+
+object SubgraphAttributes {
+  private val names: Array[String] = Array(
+    "K",
+    "URL",
+    "bgcolor",
+    "color",
+    "colorscheme",
+    "fillcolor",
+    "fixedsize",
+    "fontcolor",
+    "fontname",
+    "fontsize",
+    "label",
+    "labeljust",
+    "labelloc",
+    "lp",
+    "nojustify",
+    "pencolor",
+    "style",
+    "target",
+    "tooltip",
+    "rank"
+  )
+  
+  private val types: Array[String] = Array(
+    "java.lang.Double",
+    "String",
+    "Color",
+    "ColorOrList",
+    "String",
+    "Color",
+    "java.lang.Boolean",
+    "Color",
+    "String",
+    "java.lang.Double",
+    "LabelString",
+    "String",
+    "String",
+    "Point",
+    "java.lang.Boolean",
+    "Color",
+    "Style",
+    "String",
+    "String",
+    "RankType"
+  )
+  
+  private val indices: Map[String, Int] = names.zipWithIndex.toMap
+  
+  /** The number of attributes, i.e. the length of the array `fromArray` takes. */
+  private[graphviz] def attributeCount: Int = names.length
+  
+  /** The position of the attribute called `name` in declaration order. */
+  private[graphviz] def indexOf(name: String): Int =
+    indices.getOrElse(name, throw new IllegalArgumentException(s"Unknown attribute: $name"))
+  
+  /** The declared type of the attribute at `index`, e.g. `java.lang.Double`. */
+  private[graphviz] def typeOf(index: Int): String = types(index)
+  
+  /** An instance with the attribute at every position in `all` set to its value there, if that is not null. */
+  private[graphviz] def fromArray(all: Array[AnyRef]): SubgraphAttributes = SubgraphAttributes(
+    all(0).asInstanceOf[java.lang.Double],
+    all(1).asInstanceOf[String],
+    all(2).asInstanceOf[Color],
+    all(3).asInstanceOf[ColorOrList],
+    all(4).asInstanceOf[String],
+    all(5).asInstanceOf[Color],
+    all(6).asInstanceOf[java.lang.Boolean],
+    all(7).asInstanceOf[Color],
+    all(8).asInstanceOf[String],
+    all(9).asInstanceOf[java.lang.Double],
+    all(10).asInstanceOf[LabelString],
+    all(11).asInstanceOf[String],
+    all(12).asInstanceOf[String],
+    all(13).asInstanceOf[Point],
+    all(14).asInstanceOf[java.lang.Boolean],
+    all(15).asInstanceOf[Color],
+    all(16).asInstanceOf[Style],
+    all(17).asInstanceOf[String],
+    all(18).asInstanceOf[String],
+    all(19).asInstanceOf[RankType]
+  )
 }
\ No newline at end of file
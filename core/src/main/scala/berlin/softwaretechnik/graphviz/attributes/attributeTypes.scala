@@ -45,6 +45,10 @@ object ArrowType {
 
   case object vee extends ArrowType
 
+  val values: Seq[ArrowType] = Seq(
+    normal, inv, dot, invdot, odot, invodot, none, tee, empty, invempty,
+    diamond, odiamond, ediamond, crow, box, obox, open, halfopen, vee
+  )
 }
 
 sealed trait ColorOrList {}
@@ -76,6 +80,15 @@ case class Plain(value: String) extends LabelString with TextItem {
   override def toString: String = value
 }
 
+/**
+  * A label in Graphviz's escString syntax, as it is written between the quotes of a DOT
+  * string, e.g. `left\l` for a left-justified line or `\N` for the name of the node. Unlike
+  * the text of a [[Plain]] label it is not escaped, so quotes in it must be written as `\"`.
+  */
+case class EscString(value: String) extends LabelString {
+  override def toString: String = value
+}
+
 sealed trait SplineType {}
 
 sealed trait Style {}
@@ -113,6 +126,8 @@ object Style {
   //    case object filled extends Style
   //  case object striped extends Style
   //  case object rounded extends Style
+
+  val values: Seq[Style] = Seq(dashed, dotted, solid, invis, bold, tapered, filled, striped, wedged, diagonals, rounded)
 }
 
 case class PointF(x: Double, y: Double) {
@@ -9,6 +9,8 @@ object ClusterMode {
   case object local extends ClusterMode {}
   case object global extends ClusterMode {}
   case object none extends ClusterMode {}
+
+  val values: Seq[ClusterMode] = Seq(local, global, none)
 }
 
 
@@ -24,6 +26,8 @@ object DirType {
   case object back extends DirType {}
   case object both extends DirType {}
   case object none extends DirType {}
+
+  val values: Seq[DirType] = Seq(forward, back, both, none)
 }
 
 
@@ -45,6 +49,8 @@ object OutputMode {
   case object breadthfirst extends OutputMode {}
   case object nodesfirst extends OutputMode {}
   case object edgesfirst extends OutputMode {}
+
+  val values: Seq[OutputMode] = Seq(breadthfirst, nodesfirst, edgesfirst)
 }
 
 
@@ -68,6 +74,8 @@ object PackMode {
   case object node extends PackMode {}
   case object clust extends PackMode {}
   case object graph extends PackMode {}
+
+  val values: Seq[PackMode] = Seq(node, clust, graph)
 }
 
 
@@ -91,6 +99,8 @@ object PageDir {
   case object RT extends PageDir {}
   case object LB extends PageDir {}
   case object LT extends PageDir {}
+
+  val values: Seq[PageDir] = Seq(BL, BR, TL, TR, RB, RT, LB, LT)
 }
 
 
@@ -105,6 +115,8 @@ object RankType {
   case object source extends RankType {}
   case object max extends RankType {}
   case object sink extends RankType {}
+
+  val values: Seq[RankType] = Seq(same, min, source, max, sink)
 }
 
 
@@ -120,6 +132,8 @@ object RankDir {
   case object LR extends RankDir {}
   case object BT extends RankDir {}
   case object RL extends RankDir {}
+
+  val values: Seq[RankDir] = Seq(TB, LR, BT, RL)
 }
 
 
@@ -161,4 +175,6 @@ object Shape {
   case object tab extends Shape {}
   case object box3d extends Shape {}
   case object component extends Shape {}
+
+  val values: Seq[Shape] = Seq(box, polygon, ellipse, circle, point, egg, triangle, plaintext, diamond, trapezium, parallelogram, house, pentagon, hexagon, septagon, octagon, doublecircle, doubleoctagon, tripleoctagon, invtriangle, invtrapezium, invhouse, Mdiamond, Msquare, Mcircle, rect, rectangle, none, note, tab, box3d, component)
 }
\ No newline at end of file
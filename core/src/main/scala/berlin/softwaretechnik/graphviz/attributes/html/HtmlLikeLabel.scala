@@ -3,29 +3,59 @@ package berlin.softwaretechnik.graphviz.attributes.html
 import berlin.softwaretechnik.graphviz.attributes.{Color, LabelString, html}
 import berlin.softwaretechnik.graphviz.generator.Strings.{indent, quote}
 
-trait HtmlLikeLabel extends LabelString
+trait HtmlLikeLabel extends LabelString {
+  /** Appends the markup, the same as `toString` returns, without intermediate strings. */
+  def appendTo(out: java.lang.StringBuilder): Unit = out.append(toString)
+}
+
+object HtmlLikeLabel {
+  /** The markup of `label`, built with [[HtmlLikeLabel.appendTo]]. */
+  def markup(label: HtmlLikeLabel): String = {
+    val out = new java.lang.StringBuilder
+    label.appendTo(out)
+    out.toString
+  }
+}
 
 trait Text extends HtmlLikeLabel
 
 case class TextList(items: Seq[TextItem]) extends TextItem {
-  override def toString: String = items.map(_.toString).mkString("")
+  override def toString: String = HtmlLikeLabel.markup(this)
+
+  override def appendTo(out: java.lang.StringBuilder): Unit = items.foreach(_.appendTo(out))
 }
 
 trait TextItem extends HtmlLikeLabel with Text
 
 case class RichString(textAttributes: TextAttributes, textItem: TextItem) extends TextItem {
   override def toString: String = textAttributes.wrap(textItem).toString
+
+  override def appendTo(out: java.lang.StringBuilder): Unit = textAttributes.wrap(textItem).appendTo(out)
 }
 
 case object BR extends TextItem {
   override def toString: String = "<BR/>"
 }
 case class StyleTag(tag: String, text: Text) extends TextItem {
-  override def toString: String = s"<$tag>${text}</$tag>"
+  override def toString: String = HtmlLikeLabel.markup(this)
+
+  override def appendTo(out: java.lang.StringBuilder): Unit = {
+    out.append('<').append(tag).append('>')
+    text.appendTo(out)
+    out.append("</").append(tag).append('>')
+  }
 }
 
 case class FontTag(text: Text, attributes: FontTagAttributes) extends TextItem {
-  override def toString: String = s"<FONT ${attributes.attribs}>${text}</FONT>"
+  override def toString: String = HtmlLikeLabel.markup(this)
+
+  override def appendTo(out: java.lang.StringBuilder): Unit = {
+    out.append("<FONT ")
+    attributes.appendAttribs(out)
+    out.append('>')
+    text.appendTo(out)
+    out.append("</FONT>")
+  }
 }
 
 case class TextAttributes(
@@ -99,22 +129,116 @@ case class FontTagAttributes(color: Color = null, face: String = null, pointSize
   )
     .filter{case (k,v) => v != null}
     .map{case (k,v) => k + "=" + quote(v.toString)}.mkString(" ")
+
+  /** Appends [[attribs]]. */
+  def appendAttribs(out: java.lang.StringBuilder): Unit = {
+    var first = true
+    def attrib(name: String, value: Any): Unit = if (value != null) {
+      if (!first) out.append(' ')
+      out.append(name).append("=\"").append(value).append('"')
+      first = false
+    }
+    attrib("color", if (color == null) null else color.rep)
+    attrib("face", face)
+    attrib("point-size", pointSize)
+  }
+}
+
+/** Markup that is kept as it is, e.g. when read by [[berlin.softwaretechnik.graphviz.DotParser]]. */
+case class Html(markup: String) extends HtmlLikeLabel {
+  override def toString: String = markup
 }
 
 object TableHelpers {
   def renderAttributes(attributes: Seq[(String, Any)]): String =
     attributes.map{case (k -> Color(rep)) => k -> rep; case x => x}
       .map{case (k, v) => s"""${k}="${v}""""}.mkString(" ")
+
+  /** Appends what [[renderAttributes]] returns for the fields of `attributes` that are set. */
+  def appendAttributes(out: java.lang.StringBuilder, attributes: Product): Unit = {
+    var first = true
+    var i = 0
+    while (i < attributes.productArity) {
+      attributes.productElement(i) match {
+        case null =>
+        case value =>
+          if (!first) out.append(' ')
+          out.append(attributes.productElementName(i)).append("=\"")
+          value match {
+            case color: Color => out.append(color.rep)
+            case _ => out.append(value)
+          }
+          out.append('"')
+          first = false
+      }
+      i += 1
+    }
+  }
+
+  /**
+    * Indents the lines of `out` from `start` on in place, like
+    * [[berlin.softwaretechnik.graphviz.generator.Strings.indent]] does.
+    */
+  def indentFrom(out: java.lang.StringBuilder, start: Int): Unit = {
+    val end = out.length
+    if (end == start) return
+    var breaks = 0
+    var plain = out.charAt(end - 1) != '\n'
+    var i = start
+    while (i < end) {
+      out.charAt(i) match {
+        case '\n' => breaks += 1
+        case '\r' | '\f' => plain = false
+        case _ =>
+      }
+      i += 1
+    }
+    if (!plain) {
+      // Line breaks other than a single LF, and a break at the end, are left to linesIterator.
+      val block = out.substring(start)
+      out.setLength(start)
+      out.append(indent(block))
+    } else {
+      // Moves the lines back from the end, putting the indentation in front of each.
+      out.setLength(end + 2 * (breaks + 1))
+      var from = end - 1
+      var to = out.length - 1
+      while (from >= start) {
+        val c = out.charAt(from)
+        if (c == '\n') {
+          out.setCharAt(to, ' ')
+          out.setCharAt(to - 1, ' ')
+          to -= 2
+        }
+        out.setCharAt(to, c)
+        to -= 1
+        from -= 1
+      }
+      out.setCharAt(start, ' ')
+      out.setCharAt(start + 1, ' ')
+    }
+  }
 }
 
 case class Table(attributes: TableAttributes = html.TableAttributes(), rows: Seq[Seq[Cell]]) extends HtmlLikeLabel {
-  override def toString: String = s"""<TABLE ${TableHelpers.renderAttributes(attributes.toAttributeMap())}>\n${
-    indent(rows
-      .map(row => s"""<TR>${row.map(cell =>
-        cell.toString
-      ).mkString("")}</TR>""").mkString("\n")
-    )
-  }\n</TABLE>"""
+  override def toString: String = HtmlLikeLabel.markup(this)
+
+  override def appendTo(out: java.lang.StringBuilder): Unit = {
+    out.append("<TABLE ")
+    TableHelpers.appendAttributes(out, attributes)
+    out.append(">\n")
+    val start = out.length
+    var first = true
+    rows.foreach { row =>
+      if (!first) out.append('\n')
+      out.append("<TR>")
+      row.foreach(_.appendTo(out))
+      out.append("</TR>")
+      first = false
+    }
+    TableHelpers.indentFrom(out, start)
+    out.append("\n</TABLE>")
+  }
 }
 
 
@@ -123,7 +247,19 @@ object Cell {
 }
 
 case class Cell(tableCellAttributes: TableCellAttributes, content: HtmlLikeLabel) {
-  override def toString: String = s"<TD ${TableHelpers.renderAttributes(tableCellAttributes.toAttributeMap())}>${content}</TD>"
+  override def toString: String = {
+    val out = new java.lang.StringBuilder
+    appendTo(out)
+    out.toString
+  }
+
+  def appendTo(out: java.lang.StringBuilder): Unit = {
+    out.append("<TD ")
+    TableHelpers.appendAttributes(out, tableCellAttributes)
+    out.append('>')
+    content.appendTo(out)
+    out.append("</TD>")
+  }
 }
 
 /**
@@ -45,11 +45,17 @@ object TypeMapping {
 
 }
 
+/**
+  * @param sparse also emit `Sparse<className>`, which only stores the attributes that are
+  *               set, as a presence bitmask plus a packed value array, for holding many
+  *               instances compactly.
+  */
 case class AttributesCaseClass(
   name: String,
 
   packageName: String,
-  attributes: Seq[Attribute]
+  attributes: Seq[Attribute],
+  sparse: Boolean = false
 ) {
 
   def className: String = Strings.capitalize(name) + "Attributes"
@@ -58,11 +64,17 @@ case class AttributesCaseClass(
   def javaPackageName = packageName
   def javaPackagePath = Paths.get(javaPackageName.replaceAll("\\.", "/"))
 
+  def sparseClassName: String = "Sparse" + className
+
   def writeScala(srcDir: Path): AttributesCaseClass = {
     Files.write(
       srcDir.resolve(packagePath).resolve(s"${className}.scala"),
       renderAttributesType.getBytes(StandardCharsets.UTF_8)
     )
+    if (sparse) Files.write(
+      srcDir.resolve(packagePath).resolve(s"${sparseClassName}.scala"),
+      renderSparseAttributesType.getBytes(StandardCharsets.UTF_8)
+    )
     this
   }
 
@@ -109,15 +121,184 @@ case class AttributesCaseClass(
            |  */
            |${a.name}: ${lookupType(a.typ)} = null""".stripMargin).mkString(
         ",\n\n")
-      ) + "\n) {\n" +
+      ) + "\n) extends Attributes {\n" +
       indent("def toAttributeMap(): Seq[(String, Any)] = Seq(\n" +
         attributes.map(a =>
           s""""${a.name}" -> ${
             a.name
           }""").mkString(",\n")
-      ) + ").filter{case(k, v) => v != null}\n" +
+      ) + ").filter{case(k, v) => v != null}\n\n" +
+      indent("def foreachSet(visitor: AttributeVisitor): Unit = {\n" +
+        indent(attributes.map(a =>
+          s"""if (${a.name} != null) visitor.visit("${a.name}", ${a.name})""").mkString("\n")
+        ) + "\n}") + "\n\n" +
+      indent("def isEmpty: Boolean =\n" +
+        indent(attributes.map(a => s"${a.name} == null").mkString(" &&\n"))
+      ) + "\n\n" +
+      indent(s"/** A copy with `f` applied to every attribute that is set. */\n" +
+        s"private[graphviz] def mapValues(f: AnyRef => AnyRef): ${className} = ${className}(\n" +
+        indent(attributes.map(a =>
+          s"if (${a.name} == null) null else f(${a.name}).asInstanceOf[${lookupType(a.typ)}]").mkString(",\n")
+        ) + "\n)") + "\n\n" +
+      indent(
+        s"""/**
+           |  * A copy with the attribute called `name` set to `value`, or unset if `value` is null.
+           |  * `value` must be of the attribute's type.
+           |  */
+           |private[graphviz] def updated(name: String, value: AnyRef): ${className} = {
+           |  val all = Array[AnyRef](
+           |${indent(attributes.map(_.name).mkString(",\n"), "    ")}
+           |  )
+           |  all(${className}.indexOf(name)) = value
+           |  ${className}.fromArray(all)
+           |}""".stripMargin) + "\n" +
+      "}\n\n" +
+      s"object ${className} {\n" +
+      indent(
+        s"""$renderNamesAndTypes
+           |
+           |$renderLookups
+           |
+           |/** An instance with the attribute at every position in `all` set to its value there, if that is not null. */
+           |private[graphviz] def fromArray(all: Array[AnyRef]): ${className} = ${className}(
+           |${indent(attributes.zipWithIndex.map { case (a, i) => s"all($i).asInstanceOf[${lookupType(a.typ)}]" }.mkString(",\n"))}
+           |)""".stripMargin) + "\n" +
       "}"
   }
+
+  private def words: Int = (attributes.size + 63) / 64
+
+  private def bits(word: Int): String = s"bits$word"
+
+  private def bit(index: Int): String = s"(1L << ${index % 64})"
+
+  def renderSparseAttributesType = {
+    val bitFields = (0 until words).map(bits)
+    s"package ${packageName};\n" +
+      s"""/**
+         |  * The same attributes as [[${className}]], for holding many of them: only the attributes
+         |  * that are set are stored. `${bitFields.mkString("`, `")}` ${if (words == 1) "marks" else "mark"} which ones are present, and
+         |  * `values` holds them in declaration order. [[berlin.softwaretechnik.graphviz.GraphBuilder]]
+         |  * stores attributes in this form; graph elements take [[${className}]], see
+         |  * [[toAttributes]] and [[${sparseClassName}.from]].
+         |  */
+         |final class ${sparseClassName} private (
+         |${indent(bitFields.map(b => s"private val $b: Long").mkString(",\n"))},
+         |  private val values: Array[AnyRef]
+         |) extends Attributes with Serializable {
+         |""".stripMargin +
+      indent(attributes.zipWithIndex.map { case (a, i) =>
+        s"""/**
+           |${indent(unindent(a.doc), "  * ")}
+           |  */
+           |def ${a.name}: ${lookupType(a.typ)} = get(${i}).asInstanceOf[${lookupType(a.typ)}]""".stripMargin
+      }.mkString("\n\n")) + "\n\n" +
+      indent(s"def copy(\n" +
+        indent(attributes.map(a => s"${a.name}: ${lookupType(a.typ)} = this.${a.name}").mkString(",\n")) +
+        s"\n): ${sparseClassName} = ${sparseClassName}(\n" +
+        indent(attributes.map(_.name).mkString(",\n")) + "\n)") + "\n\n" +
+      indent(s"/** The same attributes as a [[${className}]]. */\n" +
+        s"def toAttributes: ${className} = ${className}(\n" +
+        indent(attributes.map(_.name).mkString(",\n")) + "\n)") + "\n\n" +
+      indent(
+        """def toAttributeMap(): Seq[(String, Any)] = {
+          |  val attributeMap = Seq.newBuilder[(String, Any)]
+          |  foreachSet((k, v) => attributeMap += k -> v)
+          |  attributeMap.result()
+          |}""".stripMargin) + "\n\n" +
+      indent("def foreachSet(visitor: AttributeVisitor): Unit = {\n" +
+        indent("var i = 0\n" +
+          (0 until words).map(w =>
+            s"""var remaining${w} = ${bits(w)}
+               |while (remaining${w} != 0) {
+               |  visitor.visit(${sparseClassName}.names(${if (w == 0) "" else s"${w * 64} + "}java.lang.Long.numberOfTrailingZeros(remaining${w})), values(i))
+               |  remaining${w} &= remaining${w} - 1
+               |  i += 1
+               |}""".stripMargin).mkString("\n")) + "\n}") + "\n\n" +
+      indent(s"def isEmpty: Boolean = ${bitFields.map(_ + " == 0L").mkString(" && ")}") + "\n\n" +
+      indent(
+        s"""override def equals(other: Any): Boolean = other match {
+           |  case that: ${sparseClassName} =>
+           |${indent(bitFields.map(b => s"$b == that.$b &&").mkString("\n"), "    ")}
+           |    java.util.Arrays.equals(values, that.values)
+           |  case _ => false
+           |}
+           |
+           |override def hashCode: Int =
+           |${indent(bitFields.map(b => s"31 * java.lang.Long.hashCode($b) +").mkString("\n"))}
+           |  java.util.Arrays.hashCode(values)
+           |
+           |override def toString: String =
+           |  toAttributeMap().map { case (k, v) => s"$$k = $$v" }.mkString("${sparseClassName}(", ", ", ")")
+           |
+           |private def get(index: Int): AnyRef = {
+           |${indent(renderSparseGet)}
+           |}""".stripMargin) + "\n" +
+      "}\n\n" +
+      s"object ${sparseClassName} {\n" +
+      indent(
+        s"""private val names: Array[String] = Array(
+           |${indent(attributes.map(a => quote(a.name)).mkString(",\n"))}
+           |)
+           |
+           |private val noValues = new Array[AnyRef](0)
+           |
+           |/** The attributes set in `attributes`. */
+           |def from(attributes: ${className}): ${sparseClassName} = ${sparseClassName}(
+           |${indent(attributes.map(a => s"attributes.${a.name}").mkString(",\n"))}
+           |)
+           |
+           |def apply(
+           |${indent(attributes.map(a => s"${a.name}: ${lookupType(a.typ)} = null").mkString(",\n"))}
+           |): ${sparseClassName} = {
+           |${indent(bitFields.map(b => s"var $b = 0L").mkString("\n"))}
+           |  var count = 0
+           |${indent(attributes.zipWithIndex.map { case (a, i) => s"if (${a.name} != null) { ${bits(i / 64)} |= ${bit(i)}; count += 1 }" }.mkString("\n"))}
+           |  val values = if (count == 0) noValues else new Array[AnyRef](count)
+           |  var i = 0
+           |${indent(attributes.map(a => s"if (${a.name} != null) { values(i) = ${a.name}; i += 1 }").mkString("\n"))}
+           |  new ${sparseClassName}(${bitFields.mkString(", ")}, values)
+           |}""".stripMargin) + "\n" +
+      "}"
+  }
+
+  private def renderNamesAndTypes: String =
+    s"""private val names: Array[String] = Array(
+       |${indent(attributes.map(a => quote(a.name)).mkString(",\n"))}
+       |)
+       |
+       |private val types: Array[String] = Array(
+       |${indent(attributes.map(a => quote(lookupType(a.typ))).mkString(",\n"))}
+       |)
+       |
+       |private val indices: Map[String, Int] = names.zipWithIndex.toMap""".stripMargin
+
+  private def renderLookups: String =
+    """/** The number of attributes, i.e. the length of the array `fromArray` takes. */
+      |private[graphviz] def attributeCount: Int = names.length
+      |
+      |/** The position of the attribute called `name` in declaration order. */
+      |private[graphviz] def indexOf(name: String): Int =
+      |  indices.getOrElse(name, throw new IllegalArgumentException(s"Unknown attribute: $name"))
+      |
+      |/** The declared type of the attribute at `index`, e.g. `java.lang.Double`. */
+      |private[graphviz] def typeOf(index: Int): String = types(index)""".stripMargin
+
+  private def renderSparseGet: String =
+    if (words == 1) {
+      """if ((bits0 & (1L << index)) == 0) null
+        |else values(java.lang.Long.bitCount(bits0 & ((1L << index) - 1)))""".stripMargin
+    } else {
+      val before = (w: Int) => if (w == 0) "0" else (0 until w).map(x => s"java.lang.Long.bitCount(${bits(x)})").mkString(" + ")
+      s"""val bits = (index / 64) match {
+         |${indent((0 until words).map(w => s"case $w => ${bits(w)}").mkString("\n"))}
+         |}
+         |val before = (index / 64) match {
+         |${indent((0 until words).map(w => s"case $w => ${before(w)}").mkString("\n"))}
+         |}
+         |if ((bits & (1L << index)) == 0) null
+         |else values(before + java.lang.Long.bitCount(bits & ((1L << index) - 1)))""".stripMargin
+    }
 }
 
 
@@ -131,13 +312,15 @@ object Generator {
 
     AttributesCaseClass(
       "node", "berlin.softwaretechnik.graphviz.attributes",
-      schema("node").attributes
+      schema("node").attributes,
+      sparse = true
     ).writeScala(srcDir)
       .writeJava(javaSrcDir)
 
     AttributesCaseClass(
       "edge", "berlin.softwaretechnik.graphviz.attributes",
-      schema("edge").attributes
+      schema("edge").attributes,
+      sparse = true
     ).writeScala(srcDir)
       .writeJava(javaSrcDir)
 
@@ -170,6 +353,8 @@ object Generator {
              |${
             indent(enum.values.map(v => s"case object ${v} extends $typeName {}").mkString("\n"))
           }
+             |
+             |  val values: Seq[$typeName] = Seq(${enum.values.mkString(", ")})
              |}""".stripMargin
         }).mkString("\n\n")
       ).getBytes(StandardCharsets.UTF_8)
@@ -1,40 +1,82 @@
 package berlin.softwaretechnik.graphviz
 
-import berlin.softwaretechnik.graphviz.attributes.html.HtmlLikeLabel
+import java.io.OutputStream
+import java.nio.ByteBuffer
+import java.nio.channels.{Channels, FileChannel, WritableByteChannel}
+import java.nio.file.Path
+import java.nio.file.StandardOpenOption.{CREATE, TRUNCATE_EXISTING, WRITE}
+import java.util.concurrent.{Executor, Flow, ForkJoinPool}
+
 import berlin.softwaretechnik.graphviz.attributes._
-import berlin.softwaretechnik.graphviz.generator.Strings.indent
-import org.apache.commons.text.StringEscapeUtils
+
+import scala.concurrent.duration.FiniteDuration
 
 trait Renderable {
-  def render: String
+  /**
+    * Writes the dot representation to `out`, without building it up as a `String` first.
+    *
+    * Any `java.io.Writer` is an `Appendable`, so this can stream straight into a file.
+    */
+  def renderTo(out: Appendable): Unit = {
+    val context = new RenderContext(out)
+    renderTo(context)
+    context.flush()
+  }
 
-  def render(attributeMap: Seq[(String, Any)]): Seq[String] = {
-    attributeMap.map { case (k, v) => s"""${k} = ${renderValue(v)};""" }
+  def renderTo(context: RenderContext): Unit
+
+  /** Writes the dot representation UTF-8 encoded to `channel`, leaving it open. */
+  def writeTo(channel: WritableByteChannel): Unit =
+    Utf8ChannelWriter.writeTo(channel)(renderTo(_))
+
+  def writeTo(out: OutputStream): Unit = writeTo(Channels.newChannel(out))
+
+  def writeTo(path: Path): Unit = {
+    val channel = FileChannel.open(path, CREATE, TRUNCATE_EXISTING, WRITE)
+    try writeTo(channel) finally channel.close()
   }
 
-  def renderWithBrackets(attributeMap: Seq[(String, Any)]): String = {
-    if (attributeMap.isEmpty) {
-      return ""
-    }
-    val preRendered = render(attributeMap)
-    if (preRendered.mkString("").length < 60)
-      " [" + preRendered.mkString(" ") + "]"
-    else
-      " [\n" + indent(preRendered.mkString("\n") + "\n") + "\n]"
+  def render: String = {
+    val out = new java.lang.StringBuilder
+    renderTo(out)
+    out.toString
   }
 
-  private def escape(s: String): String = StringEscapeUtils.escapeJava(s)
+  def render(attributeMap: Seq[(String, Any)]): Seq[String] = {
+    attributeMap.map { case (k, v) =>
+      val out = new java.lang.StringBuilder
+      AttributeWriter.appendAttribute(out, k, v)
+      out.toString
+    }
+  }
 
-  private def renderValue(v: Any) = {
-    v match {
-      // Todo: We want to do proper string escaping:
-      case s: String => "\"" + escape(s) + "\""
-      case p: Plain => "\"" + escape(p.toString) + "\""
-      case h: HtmlLikeLabel => "<" + h.toString + ">"
-      // Todo We need support for HTML like labels
-      case a: Any => a.toString
+  protected def renderElementsTo(out: RenderContext, elements: Seq[GraphElement]): Unit = {
+    if (out.parallel != null && out.limits == null && out.parallel.worthSplitting(elements)) {
+      out.parallel.renderElementsTo(out, elements)
+      return
+    }
+    var first = true
+    val iterator = elements.iterator
+    while (iterator.hasNext) {
+      val element = iterator.next()
+      val admitted = out.admit(element, first)
+      if (admitted == RenderContext.Stop) return
+      if (admitted == RenderContext.Render) {
+        if (!first) out.append('\n')
+        element.renderTo(out)
+      }
+      // A skipped element leaves the truncation marker in its place.
+      first = false
     }
   }
+
+  def renderWithBrackets(attributeMap: Seq[(String, Any)]): String = {
+    val out = new java.lang.StringBuilder
+    val context = new RenderContext(out)
+    context.appendWithBrackets(Attributes(attributeMap))
+    context.flush()
+    out.toString
+  }
 }
 
 case class Graph(
@@ -45,24 +87,58 @@ case class Graph(
   elements: Seq[GraphElement],
 ) extends Renderable {
 
-  override def render: String = {
-    val attributeMap = attributes.toAttributeMap()
-    s"""digraph ${id.getOrElse("")} {\n""" +
-      indent(
-        (if(nodeDefaults.toAttributeMap().nonEmpty)
-          "node" + renderWithBrackets(nodeDefaults.toAttributeMap()) + ";\n"
-        else
-          "") +
-          (if(edgeDefaults.toAttributeMap().nonEmpty)
-            "edge" + renderWithBrackets(edgeDefaults.toAttributeMap()) + ";\n"
-          else
-            "") +
-        render(attributeMap).mkString("\n") + "\n" +
-          elements.map(_.render).mkString("\n")
-      ) +
-      "\n}\n"
+  override def renderTo(out: RenderContext): Unit = {
+    renderOpeningTo(out)
+    renderElementsTo(out, elements)
+    Blocks.close(out)
   }
 
+  /** Everything before the elements. */
+  private[graphviz] def renderOpeningTo(out: RenderContext): Unit = {
+    Blocks.open(out, "digraph", id)
+    Blocks.defaults(out, "node", nodeDefaults)
+    Blocks.defaults(out, "edge", edgeDefaults)
+    out.appendStatements(attributes).append('\n')
+  }
+
+  /**
+    * A hash of the content of this graph that is stable across JVMs and runs, computed once.
+    * Subgraphs hash their own content, also once, so graphs sharing subgraphs share the work.
+    */
+  @transient lazy val contentHash: ContentHash = ContentHash.of(this)
+
+  override def hashCode: Int = contentHash.low.toInt
+
+  /** Different content hashes tell different graphs apart without comparing them. */
+  override def equals(other: Any): Boolean = other match {
+    case that: Graph =>
+      (this eq that) || (that.canEqual(this) && contentHash == that.contentHash &&
+        id == that.id && attributes == that.attributes && nodeDefaults == that.nodeDefaults &&
+        edgeDefaults == that.edgeDefaults && elements == that.elements)
+    case _ => false
+  }
+
+  /**
+    * Starts the Graphviz program `engine`, e.g. `dot` or `neato`, found on the `PATH` or
+    * given as a path, to lay out this graph as `format`. See [[Layout]] for reading the
+    * result.
+    *
+    * @param arguments further command line arguments, e.g. `-Gdpi=300`.
+    */
+  def layout(
+    engine: String = "dot",
+    format: String = "svg",
+    arguments: Seq[String] = Nil,
+    timeout: FiniteDuration = Layout.DefaultTimeout
+  ): Layout =
+    new Layout(Seq(engine, s"-T$format") ++ arguments, timeout, writeTo(_))
+
+  /**
+    * The UTF-8 encoded dot representation as a reactive stream, which is only rendered as
+    * far as subscribers request it, on `executor`. See [[DotPublisher]].
+    */
+  def publisher(executor: Executor = ForkJoinPool.commonPool()): Flow.Publisher[ByteBuffer] =
+    new DotPublisher(this, executor)
 }
 
 case class SubGraph(
@@ -72,23 +148,69 @@ case class SubGraph(
   edgeDefaults: EdgeAttributes = EdgeAttributes(),
   elements: Seq[GraphElement],
 ) extends GraphElement {
-  override def render: String = {
-    s"""subgraph ${
-      id.getOrElse("")
-    } {\n""" +
-      indent(
-        (if(nodeDefaults.toAttributeMap().nonEmpty)
-          "node " + renderWithBrackets(nodeDefaults.toAttributeMap()) + ";\n"
-        else
-          "") +
-          (if(edgeDefaults.toAttributeMap().nonEmpty)
-            "edge " + renderWithBrackets(edgeDefaults.toAttributeMap()) + ";\n"
-          else
-            "") +
-        render(attributes.toAttributeMap()).mkString("\n") + "\n" +
-          elements.map(_.render).mkString("\n")
-      ) +
-      "\n}\n"
+  override def renderTo(out: RenderContext): Unit = {
+    if (out.cache != null && out.limits == null) {
+      out.appendCached(this)(renderUncached)
+    } else {
+      renderUncached(out)
+    }
+  }
+
+  /** See [[Graph.contentHash]]. */
+  @transient lazy val contentHash: ContentHash = ContentHash.of(this)
+
+  override def hashCode: Int = contentHash.low.toInt
+
+  override def equals(other: Any): Boolean = other match {
+    case that: SubGraph =>
+      (this eq that) || (that.canEqual(this) && contentHash == that.contentHash &&
+        id == that.id && attributes == that.attributes && nodeDefaults == that.nodeDefaults &&
+        edgeDefaults == that.edgeDefaults && elements == that.elements)
+    case _ => false
+  }
+
+  private def renderUncached(out: RenderContext): Unit = {
+    renderOpeningTo(out)
+    renderElementsTo(out, elements)
+    Blocks.close(out)
+  }
+
+  /** Everything before the elements. */
+  private[graphviz] def renderOpeningTo(out: RenderContext): Unit = {
+    Blocks.open(out, "subgraph", id)
+    Blocks.defaults(out, "node ", nodeDefaults)
+    Blocks.defaults(out, "edge ", edgeDefaults)
+    out.appendStatements(attributes).append('\n')
+  }
+}
+
+/**
+  * The parts of the output of [[Graph]] and [[SubGraph]] that are shared with
+  * [[DotWriter]], which writes the same blocks statement by statement, and with
+  * [[GraphBuilder]] and [[GraphStore]], which write their rows without element instances.
+  */
+private[graphviz] object Blocks {
+  def open(out: RenderContext, keyword: String, id: Option[String]): Unit = {
+    out.append(keyword).append(' ').append(id.getOrElse("")).append(" {\n")
+    out.indent()
+  }
+
+  /** A `node` or `edge` statement, if `attributes` is not empty. */
+  def defaults(out: RenderContext, keyword: String, attributes: Attributes): Unit =
+    if (!attributes.isEmpty) {
+      out.append(keyword).appendWithBrackets(attributes).append(";\n")
+    }
+
+  /** A node statement, e.g. `a [shape = box;];`. */
+  def node(out: RenderContext, id: String, attributes: Attributes): Unit =
+    out.append(id).appendWithBrackets(attributes).append(';')
+
+  def edge(out: RenderContext, from: String, to: String, attributes: Attributes): Unit =
+    out.append(from).append(" -> ").append(to).appendWithBrackets(attributes).append(';')
+
+  def close(out: RenderContext): Unit = {
+    out.dedent()
+    out.append("\n}\n")
   }
 }
 
@@ -98,8 +220,7 @@ case class Node(
   id: String,
   attributes: NodeAttributes = NodeAttributes()
 ) extends GraphElement {
-  override def render: String =
-    id + renderWithBrackets(attributes.toAttributeMap()) + ";"
+  override def renderTo(out: RenderContext): Unit = Blocks.node(out, id, attributes)
 }
 
 case class Edge(
@@ -107,6 +228,5 @@ case class Edge(
   to: String,
   attributes: EdgeAttributes = EdgeAttributes()
 ) extends GraphElement {
-  override def render: String =
-    from + " -> " + to + renderWithBrackets(attributes.toAttributeMap()) + ";"
+  override def renderTo(out: RenderContext): Unit = Blocks.edge(out, from, to, attributes)
 }
@@ -0,0 +1,75 @@
+package berlin.softwaretechnik.graphviz
+
+import java.io.Writer
+import java.lang.management.ManagementFactory
+
+import org.scalatest.funsuite.AnyFunSuite
+
+/**
+  * Fails when rendering the [[SyntheticCorpus]] allocates more bytes per node and edge than
+  * budgeted, so that allocation regressions break the build.
+  *
+  * Streaming a graph with `renderTo` or `writeTo` allocates nothing per element, so their
+  * budgets only cover the buffers of a render, spread over its 20,000 elements, while any
+  * allocation per element exceeds them. The other budgets are about one and a half times
+  * what was measured when they were set. When a change lowers the allocations for good,
+  * lower the budget with it; when it raises them on purpose, raise it in the same commit.
+  */
+class AllocationBudgetTest extends AnyFunSuite {
+  import AllocationBudgetTest._
+
+  private val threads = ManagementFactory.getThreadMXBean match {
+    case threads: com.sun.management.ThreadMXBean if threads.isThreadAllocatedMemorySupported => threads
+    case _ => null
+  }
+
+  /** The fewest bytes `render` allocated per node and edge of `graph` over a few runs, once warmed up. */
+  def bytesPerElement(graph: Graph, render: Graph => Unit): Double = {
+    (0 until 20).foreach(_ => render(graph))
+    val thread = Thread.currentThread().getId
+    val bytes = (0 until 5).map { _ =>
+      val before = threads.getThreadAllocatedBytes(thread)
+      render(graph)
+      threads.getThreadAllocatedBytes(thread) - before
+    }.min
+    bytes.toDouble / SyntheticCorpus.size(graph)
+  }
+
+  val renders: Seq[(String, Graph => Unit)] = Seq(
+    "renderTo" -> (_.renderTo(Writer.nullWriter())),
+    "writeTo" -> (_.writeTo(new CountingChannel)),
+    "render" -> (_.render)
+  )
+
+  SyntheticCorpus.all(20000).foreach { case (corpus, gen) =>
+    test(s"Rendering the $corpus corpus stays within its allocation budget") {
+      assume(threads != null, "The JVM does not measure allocated bytes per thread.")
+      val graph = SyntheticCorpus.sample(gen)
+      renders.foreach { case (name, render) =>
+        val budget = Budgets((corpus, name))
+        val measured = bytesPerElement(graph, render)
+        assert(measured <= budget, f"$name of a $corpus allocated $measured%.1f bytes per node and edge, the budget is $budget")
+      }
+    }
+  }
+}
+
+object AllocationBudgetTest {
+
+  /** Bytes allocated per node and edge, by corpus and way of rendering. */
+  val Budgets: Map[(String, String), Double] = Map(
+    ("dag", "renderTo") -> 4,
+    ("dag", "writeTo") -> 4,
+    ("dag", "render") -> 450,
+    ("service mesh", "renderTo") -> 4,
+    ("service mesh", "writeTo") -> 4,
+    ("service mesh", "render") -> 250,
+    ("nested clusters", "renderTo") -> 4,
+    ("nested clusters", "writeTo") -> 4,
+    ("nested clusters", "render") -> 480,
+    // Every node has a table of 101 cells, which is appended to the output cell by cell.
+    ("wide tables", "renderTo") -> 550,
+    ("wide tables", "writeTo") -> 550,
+    ("wide tables", "render") -> 24000
+  )
+}
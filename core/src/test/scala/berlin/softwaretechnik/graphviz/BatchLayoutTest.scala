@@ -0,0 +1,60 @@
+package berlin.softwaretechnik.graphviz
+
+import java.nio.charset.StandardCharsets.UTF_8
+import java.nio.file.Files
+
+import berlin.softwaretechnik.graphviz.attributes.{Plain, SubgraphAttributes}
+import org.scalatest.funsuite.AnyFunSuite
+
+class BatchLayoutTest extends AnyFunSuite {
+
+  val graphs: Seq[Graph] = (0 until 10).map(i => Graph(id = Some(s"G$i"), elements = Seq(
+    Node(s"a$i"),
+    SubGraph(attributes = SubgraphAttributes(label = Plain("Nested")), elements = Seq(Edge(s"a$i", s"b$i")))
+  )))
+
+  /** A shell script standing in for a Graphviz program. */
+  private def stub(script: String): String = {
+    val file = Files.createTempFile("graphviz-stub", ".sh")
+    Files.write(file, s"#!/bin/sh\n$script\n".getBytes(UTF_8))
+    file.toFile.setExecutable(true)
+    file.toFile.deleteOnExit()
+    file.toString
+  }
+
+  /** A stub that writes `output` for every input file next to it, as Graphviz does with `-O`. */
+  private def perFile(output: String): String =
+    stub(s"""for f; do case "$$f" in -T*) format=$${f#-T};; -*) ;; *) $output > "$$f.$$format";; esac; done""")
+
+  test("Graphs are laid out in batches and the outputs are kept apart") {
+    val invocations = Files.createTempFile("invocations", ".txt")
+    try {
+      val batch = new BatchLayout(stub(s"""echo run >> $invocations; ${perFile("cat \"$f\"")} "$$@""""), "dot", batchSize = 3)
+      val outputs = batch.layout(graphs)
+      assert(outputs.map(new String(_, UTF_8)) == graphs.map(_.render))
+      assert(Files.readAllLines(invocations).size == 4)
+    } finally {
+      Files.delete(invocations)
+    }
+  }
+
+  test("Outputs are kept apart whatever lines they contain") {
+    // Splitting the joint output of the graphs after lines like these cut outputs in two.
+    val batch = new BatchLayout(perFile("""printf '<svg>\n</svg>\n}\n%s\n</svg>\n' "$f""""), "svg", batchSize = 4)
+    val outputs = batch.layout(graphs).map(new String(_, UTF_8))
+    assert(outputs.size == graphs.size)
+    outputs.zipWithIndex.foreach { case (output, i) =>
+      assert(output.startsWith("<svg>\n</svg>\n}\n") && output.endsWith(s"g${i % 4}.gv\n</svg>\n"))
+    }
+  }
+
+  test("A batch fails if the program writes too few outputs") {
+    val batch = new BatchLayout(stub("""for f; do :; done; echo '</svg>' > "$f.svg""""), "svg")
+    assert(intercept[LayoutException](batch.layout(graphs)).getMessage.endsWith("wrote 1 outputs for 10 graphs"))
+  }
+
+  test("A batch fails if the program fails") {
+    val batch = new BatchLayout(stub("echo 'syntax error' >&2; exit 1"), "svg")
+    assert(intercept[LayoutException](batch.layout(graphs)).getMessage.contains("syntax error"))
+  }
+}
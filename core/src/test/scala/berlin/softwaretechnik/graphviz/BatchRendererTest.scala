@@ -0,0 +1,109 @@
+package berlin.softwaretechnik.graphviz
+
+import java.nio.charset.StandardCharsets.UTF_8
+import java.util.concurrent.CountDownLatch
+
+import berlin.softwaretechnik.graphviz.attributes.{NodeAttributes, Plain}
+import org.scalatest.funsuite.AnyFunSuite
+
+import scala.collection.mutable.ArrayBuffer
+
+class BatchRendererTest extends AnyFunSuite {
+
+  def graph(i: Int): Graph = Graph(id = Some(s"g$i"), elements = (0 until (if (i % 50 == 7) 5000 else i % 20)).map { n =>
+    if (n % 3 == 0) Node(s"n$n", NodeAttributes(label = Plain(s"Grüße $n 😀"))) else Edge(s"n${n - 1}", s"n$n")
+  })
+
+  test("Results are the rendered graphs, in order or as completed") {
+    val renderer = new BatchRenderer(maxBufferedBytes = 64 * 1024, maxInFlight = 32, segmentSize = 1024)
+    val inOrder = ArrayBuffer[(Long, String)]()
+    renderer.render((0 until 500).iterator.map(graph)) { result =>
+      inOrder += result.index -> new String(result.toByteArray, UTF_8)
+    }
+    assert(inOrder.map(_._1) == (0 until 500))
+    inOrder.foreach { case (i, text) => assert(text == graph(i.toInt).render) }
+
+    val asCompleted = ArrayBuffer[(Long, String)]()
+    renderer.render((0 until 500).map(graph), inOrder = false) { result =>
+      asCompleted += result.index -> new String(result.toByteArray, UTF_8)
+    }
+    assert(asCompleted.sortBy(_._1) == inOrder)
+    assert(renderer.bufferedBytes == 0)
+  }
+
+  test("Buffered bytes stay within the limit and the oldest graph") {
+    val limit = 32 * 1024
+    val renderer = new BatchRenderer(maxBufferedBytes = limit, maxInFlight = 64, segmentSize = 1024)
+    val largest = (0 until 300).map(i => graph(i).render.getBytes(UTF_8).length).max
+    // One graph is larger than the whole limit.
+    assert(largest > limit)
+    var maxBuffered = 0L
+    var delivered = 0
+    Seq(true, false).foreach { inOrder =>
+      renderer.render((0 until 300).iterator.map(graph), inOrder) { result =>
+        maxBuffered = math.max(maxBuffered, renderer.bufferedBytes)
+        delivered += 1
+        assert(result.size == result.graph.render.getBytes(UTF_8).length)
+      }
+    }
+    assert(delivered == 600)
+    assert(maxBuffered <= limit + largest + 2 * 1024)
+    assert(renderer.bufferedBytes == 0)
+  }
+
+  test("Failures are thrown once the renders in flight are done") {
+    val renderer = new BatchRenderer(maxBufferedBytes = 16 * 1024, segmentSize = 1024)
+    val failing = Graph(elements = Seq(ElementSource(() => throw new IllegalStateException("no rows"))))
+    val graphs = (0 until 100).map(i => if (i == 42) failing else graph(i))
+    var delivered = 0
+    val thrown = intercept[IllegalStateException](renderer.render(graphs)(_ => delivered += 1))
+    assert(thrown.getMessage == "no rows")
+    assert(delivered == 42)
+    assert(renderer.bufferedBytes == 0)
+
+    intercept[ArithmeticException](renderer.render(graphs.take(10))(result => if (result.index == 3) throw new ArithmeticException))
+    assert(renderer.bufferedBytes == 0)
+  }
+
+  test("Abandoned runs release the results that wait to be delivered") {
+    val renderer = new BatchRenderer(maxBufferedBytes = 16 * 1024, segmentSize = 1024)
+    val slowStarted, slowMayFinish, fastRendered = new CountDownLatch(1)
+    val slow = Graph(elements = Seq(ElementSource { () =>
+      slowStarted.countDown()
+      slowMayFinish.await()
+      Iterator(Node("slow"))
+    }))
+    val fast = Graph(elements = Seq(ElementSource { () =>
+      slowStarted.await()
+      fastRendered.countDown()
+      Iterator(Node("fast"))
+    }))
+    // The fast graph is done, but waits for the slow one to be delivered, when taking the
+    // next graph fails.
+    val graphs = new Iterator[Graph] {
+      private var taken = 0
+      override def hasNext: Boolean = {
+        if (taken == 2) {
+          fastRendered.await()
+          Thread.sleep(200)
+        }
+        true
+      }
+      override def next(): Graph = {
+        taken += 1
+        taken match {
+          case 1 => slow
+          case 2 => fast
+          case _ => throw new IllegalStateException("no more graphs")
+        }
+      }
+    }
+    var delivered = 0
+    intercept[IllegalStateException](renderer.render(graphs)(_ => delivered += 1))
+    assert(delivered == 0)
+    slowMayFinish.countDown()
+    val deadline = System.nanoTime() + 5000000000L
+    while (renderer.bufferedBytes > 0 && System.nanoTime() < deadline) Thread.sleep(10)
+    assert(renderer.bufferedBytes == 0)
+  }
+}
@@ -0,0 +1,53 @@
+package berlin.softwaretechnik.graphviz
+
+import berlin.softwaretechnik.graphviz.attributes._
+import org.scalatest.funsuite.AnyFunSuite
+
+class BatchesTest extends AnyFunSuite {
+
+  // Built anew on every call, so that equal batches share no arrays.
+  def nodes = new NodeBatch(
+    Array("a", "b", "c"),
+    Array("A", null, "A rather long label with \"quotes\", long enough to need several lines"),
+    NodeAttributes(color = Color("#FF0000"), label = Plain("default"), shape = Shape.box)
+  )
+
+  def edges = new EdgeBatch(
+    Array("a", "b", "c", "a"),
+    Array("b", "c", "a", "a"),
+    Array(null, "b to c", null, "loop"),
+    EdgeAttributes(arrowhead = ArrowType.vee, style = Style.dashed)
+  )
+
+  val bare = new EdgeBatch((0 until 1000).map(i => s"n$i").toArray, (0 until 1000).map(i => s"n${i / 2}").toArray)
+
+  /** The same graph with a [[Node]] or [[Edge]] for every row. */
+  def expanded(graph: Graph): Graph = graph.copy(elements = graph.elements.flatMap {
+    case batch: NodeBatch => batch.iterator.toSeq
+    case batch: EdgeBatch => batch.iterator.toSeq
+    case element => Seq(element)
+  })
+
+  test("Batches render like a node or an edge per row") {
+    val graph = Graph(elements = Seq(Node("x"), nodes, Edge("x", "a"), edges, bare, Node("y")))
+    assert(graph.render == expanded(graph).render)
+    assert(graph.render.contains("b [color = \"#FF0000\"; label = \"default\"; shape = box;];"))
+    assert(graph.render.contains("b -> c [arrowhead = vee; label = \"b to c\"; style = dashed;];"))
+    assert(new ParallelRenderer(chunkSize = 100).render(graph) == graph.render)
+  }
+
+  test("Batches are compared and hashed by their rows") {
+    val graph = Graph(elements = Seq(nodes, edges))
+    val same = Graph(elements = Seq(nodes, edges))
+    assert(same == graph)
+    assert(same.contentHash == graph.contentHash)
+    val other = Graph(elements = Seq(nodes, new EdgeBatch(Array("a"), Array("b"))))
+    assert(other != graph)
+    assert(other.contentHash != graph.contentHash)
+  }
+
+  test("All columns must have the same length") {
+    assertThrows[IllegalArgumentException](new EdgeBatch(Array("a"), Array("b", "c")))
+    assertThrows[IllegalArgumentException](new NodeBatch(Array("a"), Array("A", "B")))
+  }
+}
@@ -0,0 +1,62 @@
+package berlin.softwaretechnik.graphviz
+
+import berlin.softwaretechnik.graphviz.attributes._
+import berlin.softwaretechnik.graphviz.attributes.html._
+import org.scalatest.funsuite.AnyFunSuite
+
+class ContentHashTest extends AnyFunSuite {
+
+  // Built anew on every call, so that nothing is shared between two graphs.
+  private def graph(label: String = "Cluster"): Graph = Graph(
+    id = Some("G"),
+    attributes = GraphAttributes(rankdir = RankDir.LR),
+    nodeDefaults = NodeAttributes(shape = Shape.box),
+    elements = Seq(
+      Node(new String("a"), NodeAttributes(label = Table(rows = Seq(Seq(Cell(plain("x"))))), fontsize = 12)),
+      SubGraph(
+        id = Some("cluster_1"),
+        attributes = SubgraphAttributes(label = Plain(label)),
+        elements = Seq(Node("b", NodeAttributes(color = Color("#FF0000"))), Edge("b", "c", EdgeAttributes(weight = 2.0)))
+      ),
+      Edge("a", "b", EdgeAttributes(style = Style.dashed, constraint = false))
+    )
+  )
+
+  test("The hasher computes MurmurHash3 x64 128") {
+    val hasher = new ContentHasher
+    Seq(1L, 2L, 3L).foreach(hasher.update)
+    assert(hasher.result().toString == "b50a97f8b297f54157f6887b59f04f45")
+    assert(new ContentHasher().result() == ContentHash(0, 0))
+  }
+
+  test("Hashes are stable across runs") {
+    assert(graph().contentHash.toString == "17f411d3dde3adb5989f371cd21eabd0")
+  }
+
+  test("Equal graphs have equal hashes, which are computed once") {
+    val (first, second) = (graph(), graph())
+    assert(first.contentHash == second.contentHash)
+    assert(first.hashCode == second.hashCode)
+    assert(first == second)
+    assert(first.contentHash eq first.contentHash)
+  }
+
+  test("Any change of the content changes the hash") {
+    val original = graph()
+    val changed = Seq(
+      graph("Other"),
+      original.copy(id = None),
+      original.copy(attributes = GraphAttributes(rankdir = RankDir.TB)),
+      original.copy(nodeDefaults = NodeAttributes()),
+      original.copy(edgeDefaults = EdgeAttributes(arrowhead = ArrowType.vee)),
+      original.copy(elements = original.elements.reverse),
+      original.copy(elements = original.elements.init),
+      original.copy(elements = original.elements.updated(0, Node("a", NodeAttributes(fontsize = 12))))
+    )
+    changed.foreach { graph =>
+      assert(graph.contentHash != original.contentHash)
+      assert(graph != original)
+    }
+    assert(changed.map(_.contentHash).distinct.size == changed.size)
+  }
+}
@@ -0,0 +1,128 @@
+package berlin.softwaretechnik.graphviz
+
+import java.nio.charset.StandardCharsets.UTF_8
+import java.nio.file.Files
+
+import berlin.softwaretechnik.graphviz.attributes._
+import berlin.softwaretechnik.graphviz.attributes.html._
+import org.scalatest.funsuite.AnyFunSuite
+
+class DotParserTest extends AnyFunSuite {
+
+  val graph: Graph = Graph(
+    id = Some("G"),
+    attributes = GraphAttributes(fontname = "Helvetica", rankdir = RankDir.LR, label = Plain("A \"quoted\"\nlabel")),
+    nodeDefaults = NodeAttributes(shape = Shape.box, fontsize = 12),
+    edgeDefaults = EdgeAttributes(arrowhead = ArrowType.vee),
+    elements = Seq(
+      Node("a", NodeAttributes(label = Plain("Ä\\b"), color = Color("#FF0000"), fixedsize = true, peripheries = 2)),
+      SubGraph(
+        id = Some("cluster_1"),
+        attributes = SubgraphAttributes(label = Plain("Cluster"), style = Style.dashed),
+        nodeDefaults = NodeAttributes(style = Style.filled),
+        elements = Seq(Node("b"), Edge("b", "c", EdgeAttributes(weight = 2.0, dir = DirType.both)))
+      ),
+      SubGraph(elements = Seq(Node("d"))),
+      Edge("a", "d", EdgeAttributes(label = Plain("Edge"), tooltip = "Tip"))
+    )
+  )
+
+  test("Parsing rendered graphs gives back the same graph") {
+    assert(new DotParser().parse(graph.render) == graph)
+  }
+
+  test("Control characters survive a round trip") {
+    val text = "col1\tcol2\r\nback\bspace\f\u0001\u001F \"end\" \\"
+    val controls = Graph(elements = Seq(
+      Node("a", NodeAttributes(tooltip = text, label = Plain(text))),
+      Edge("a", "b", EdgeAttributes(label = Plain("x\ty")))
+    ))
+    val rendered = controls.render
+    assert(new DotParser().parse(rendered) == controls)
+    assert(new DotParser().parse(rendered).render == rendered)
+  }
+
+  test("Rendering parsed graphs gives back the same output") {
+    val withHtml = graph.copy(elements = graph.elements :+ Node("e", NodeAttributes(
+      label = Table(rows = Seq(Seq(Cell(b(plain("x"))), Cell(plain("y"))), Seq(Cell(plain("z")))))
+    )))
+    val rendered = withHtml.render
+    assert(new DotParser().parse(rendered).render == rendered)
+  }
+
+  test("DOT that the renderer does not write is understood") {
+    val parsed = new DotParser().parse(
+      """# preprocessor output
+        |/* A graph */ DiGraph "G" {
+        |  graph [fontname = Helvetica]; rankdir = LR // a comment
+        |  "a" [label = "multi" + "part", shape = "box"] [color = red]
+        |  b:p:n -> c -> "d e"
+        |  a -> { f g }
+        |  node [shape = ellipse]
+        |  h
+        |}""".stripMargin)
+    assert(parsed == Graph(
+      id = Some("G"),
+      attributes = GraphAttributes(fontname = "Helvetica", rankdir = RankDir.LR),
+      elements = Seq(
+        Node("a", NodeAttributes(label = Plain("multipart"), shape = Shape.box, color = Color("red"))),
+        Edge("b:p:n", "c"),
+        Edge("c", "\"d e\""),
+        SubGraph(elements = Seq(Node("f"), Node("g"))),
+        Edge("a", "f"),
+        Edge("a", "g"),
+        SubGraph(nodeDefaults = NodeAttributes(shape = Shape.ellipse), elements = Seq(Node("h")))
+      )
+    ))
+  }
+
+  test("Graphviz's own escape sequences are kept as they are") {
+    // As Graphviz writes DOT: \N stands for the name of the node, \l and \r end left- and
+    // right-justified lines, and a backslash at the end of a line continues the string.
+    val parsed = new DotParser().parse(
+      """digraph G {
+        |	node [label="\N"];
+        |	a	[label="left\lright\r",
+        |		tooltip="say \"hi\""];
+        |	b	[label="C:\\temp\nline two"];
+        |	a -> b	[label="from \T to \H, a label long enough for Graphviz to continue it on the next \
+        |line"];
+        |}""".stripMargin)
+    assert(parsed == Graph(
+      id = Some("G"),
+      nodeDefaults = NodeAttributes(label = EscString("\\N")),
+      elements = Seq(
+        Node("a", NodeAttributes(label = EscString("left\\lright\\r"), tooltip = "say \"hi\"")),
+        Node("b", NodeAttributes(label = Plain("C:\\temp\nline two"))),
+        Edge("a", "b", EdgeAttributes(label = EscString("from \\T to \\H, a label long enough for Graphviz to continue it on the next line")))
+      )
+    ))
+    val rendered = parsed.render
+    assert(rendered.contains("""node [label = "\N";];"""))
+    assert(rendered.contains("""a [label = "left\lright\r"; tooltip = "say \"hi\"";];"""))
+    assert(rendered.contains("""b [label = "C:\\temp\nline two";];"""))
+    assert(new DotParser().parse(rendered) == parsed)
+  }
+
+  test("Files are read across memory-mapped windows") {
+    val file = Files.createTempFile("graph", ".dot")
+    try {
+      Files.write(file, graph.render.getBytes(UTF_8))
+      Seq(1L, 7L, 1L << 30).foreach { windowSize =>
+        assert(new DotParser().parse(file, windowSize) == graph)
+      }
+    } finally {
+      Files.delete(file)
+    }
+  }
+
+  test("Unsupported input is reported with its line") {
+    val exception = intercept[DotParseException](new DotParser().parse("digraph {\n  a [foo = bar]\n}"))
+    assert(exception.line == 2)
+    assert(new DotParser(ignoreUnsupported = true).parse("digraph {\n  a [foo = bar]\n}") == Graph(elements = Seq(Node("a"))))
+    // Tooltips are strings, which have nothing to resolve \N to.
+    intercept[DotParseException](new DotParser().parse("digraph {\n  a [tooltip = \"\\N\"]\n}"))
+    intercept[DotParseException](new DotParser().parse("graph { a -- b }"))
+    intercept[DotParseException](new DotParser().parse("digraph { a -> }"))
+  }
+}
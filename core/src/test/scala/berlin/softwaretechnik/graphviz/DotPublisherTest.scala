@@ -0,0 +1,223 @@
+package berlin.softwaretechnik.graphviz
+
+import java.io.ByteArrayOutputStream
+import java.nio.ByteBuffer
+import java.nio.charset.StandardCharsets.UTF_8
+import java.util.concurrent.atomic.{AtomicBoolean, AtomicInteger}
+import java.util.concurrent.{CountDownLatch, Executor, Executors, Flow, TimeUnit}
+
+import berlin.softwaretechnik.graphviz.attributes.{EdgeAttributes, NodeAttributes, Plain, Style}
+import org.scalatest.funsuite.AnyFunSuite
+
+import scala.collection.mutable.ArrayBuffer
+
+/** Checks the rules of the Reactive Streams specification that concern backpressure. */
+class DotPublisherTest extends AnyFunSuite {
+
+  /** Runs tasks on the calling thread, so every signal is sent before `request` returns. */
+  val direct: Executor = _.run()
+
+  val graph: Graph = Graph(id = Some("G"), elements = Seq(
+    Node("a", NodeAttributes(label = Plain("Grüße 漢字 😀"))),
+    SubGraph(id = Some("cluster_1"), elements = (0 until 500).map(i => Node(s"n$i")) :+ SubGraph(elements = Seq(Node("deep")))),
+    new EdgeBatch((0 until 1000).map(i => s"n$i").toArray, (0 until 1000).map(i => s"n${i / 2}").toArray),
+    ElementSource(() => (0 until 1000).iterator.map(i => Edge("a", s"n$i", EdgeAttributes(style = Style.dashed))))
+  ))
+
+  class Recorder extends Flow.Subscriber[ByteBuffer] {
+    var subscription: Flow.Subscription = _
+    val chunks: ArrayBuffer[ByteBuffer] = ArrayBuffer()
+    var completed = 0
+    var errors: ArrayBuffer[Throwable] = ArrayBuffer()
+    val finished = new CountDownLatch(1)
+
+    override def onSubscribe(subscription: Flow.Subscription): Unit = this.subscription = subscription
+
+    override def onNext(item: ByteBuffer): Unit = chunks += item
+
+    override def onError(throwable: Throwable): Unit = {
+      errors += throwable
+      finished.countDown()
+    }
+
+    override def onComplete(): Unit = {
+      completed += 1
+      finished.countDown()
+    }
+
+    def text: String = {
+      val out = new ByteArrayOutputStream()
+      chunks.foreach(chunk => out.write(chunk.array(), chunk.arrayOffset + chunk.position(), chunk.remaining()))
+      new String(out.toByteArray, UTF_8)
+    }
+  }
+
+  test("Nothing is sent before it is requested, and never more than was requested") {
+    val recorder = new Recorder
+    new DotPublisher(graph, direct, chunkSize = 256).subscribe(recorder)
+    assert(recorder.subscription != null)
+    assert(recorder.chunks.isEmpty)
+    recorder.subscription.request(1)
+    assert(recorder.chunks.size == 1)
+    recorder.subscription.request(3)
+    assert(recorder.chunks.size == 4)
+    while (recorder.completed == 0) recorder.subscription.request(2)
+    assert(recorder.text == graph.render)
+    assert(recorder.errors.isEmpty)
+    assert(recorder.completed == 1)
+  }
+
+  test("Rendering stops while there is no demand") {
+    var pulled = 0
+    val source = Graph(elements = Seq(ElementSource(() => Iterator.from(0).take(100000).map { i =>
+      pulled += 1
+      Node(s"n$i")
+    })))
+    val recorder = new Recorder
+    new DotPublisher(source, direct, chunkSize = 1024).subscribe(recorder)
+    recorder.subscription.request(10)
+    // Ten chunks hold about a thousand nodes.
+    assert(recorder.chunks.size == 10)
+    assert(pulled < 2000)
+    recorder.subscription.request(Long.MaxValue)
+    recorder.subscription.request(Long.MaxValue)
+    assert(pulled == 100000)
+    assert(recorder.completed == 1)
+    assert(recorder.text == Graph(elements = (0 until 100000).map(i => Node(s"n$i"))).render)
+  }
+
+  test("Requesting from onNext does not recurse") {
+    class DepthRecorder extends Recorder {
+      var depth = 0
+      var maxDepth = 0
+
+      override def onNext(item: ByteBuffer): Unit = {
+        super.onNext(item)
+        depth += 1
+        maxDepth = math.max(maxDepth, depth)
+        subscription.request(1)
+        depth -= 1
+      }
+    }
+    val recorder = new DepthRecorder
+    new DotPublisher(graph, direct, chunkSize = 16).subscribe(recorder)
+    recorder.subscription.request(1)
+    assert(recorder.chunks.size > 1000)
+    assert(recorder.maxDepth == 1)
+    assert(recorder.text == graph.render)
+  }
+
+  test("Cancelling stops the signals and closes the sources being rendered") {
+    var closed = false
+    val stream = java.util.stream.IntStream.range(0, 100000).mapToObj[GraphElement](i => Node(s"n$i")).onClose(() => closed = true)
+    val recorder = new Recorder
+    new DotPublisher(Graph(elements = Seq(ElementSource.fromStream(stream))), direct, chunkSize = 64).subscribe(recorder)
+    recorder.subscription.request(5)
+    recorder.subscription.cancel()
+    assert(closed)
+    recorder.subscription.request(5)
+    assert(recorder.chunks.size == 5)
+    assert(recorder.completed == 0 && recorder.errors.isEmpty)
+  }
+
+  test("Non-positive requests are signalled as errors") {
+    Seq(0L, -1L).foreach { n =>
+      val recorder = new Recorder
+      new DotPublisher(graph, direct).subscribe(recorder)
+      recorder.subscription.request(n)
+      assert(recorder.errors.map(_.getClass) == Seq(classOf[IllegalArgumentException]))
+      recorder.subscription.request(1)
+      assert(recorder.chunks.isEmpty && recorder.completed == 0)
+    }
+    assertThrows[NullPointerException](new DotPublisher(graph, direct).subscribe(null))
+  }
+
+  test("Each subscriber gets the whole graph, also when signalled from a pool") {
+    val recorders = Seq.fill(4)(new Recorder {
+      override def onSubscribe(subscription: Flow.Subscription): Unit = {
+        super.onSubscribe(subscription)
+        subscription.request(1)
+      }
+
+      override def onNext(item: ByteBuffer): Unit = {
+        super.onNext(item)
+        subscription.request(1)
+      }
+    })
+    val publisher = graph.publisher()
+    recorders.foreach(publisher.subscribe(_))
+    recorders.foreach { recorder =>
+      assert(recorder.finished.await(10, TimeUnit.SECONDS))
+      assert(recorder.text == graph.render)
+    }
+  }
+
+  /** Runs `test` with a pool of several threads, so signals can overlap if they are not serial. */
+  def withPool(test: Executor => Unit): Unit = {
+    val pool = Executors.newFixedThreadPool(4)
+    try test(pool)
+    finally pool.shutdown()
+  }
+
+  test("Signals are serial on an asynchronous executor, onSubscribe included") {
+    withPool { pool =>
+      val active = new AtomicInteger
+      val overlapped = new AtomicBoolean
+      val recorder = new Recorder {
+        private def signal(body: => Unit): Unit = {
+          if (active.incrementAndGet() != 1) overlapped.set(true)
+          try body
+          finally active.decrementAndGet()
+        }
+
+        override def onSubscribe(subscription: Flow.Subscription): Unit = signal {
+          super.onSubscribe(subscription)
+          subscription.request(1)
+          // Time for the chunk to be sent, if it were not held back until this returns.
+          Thread.sleep(200)
+        }
+
+        override def onNext(item: ByteBuffer): Unit = signal {
+          super.onNext(item)
+          subscription.request(1)
+        }
+
+        override def onComplete(): Unit = signal(super.onComplete())
+      }
+      new DotPublisher(graph, pool, chunkSize = 256).subscribe(recorder)
+      assert(recorder.finished.await(10, TimeUnit.SECONDS))
+      assert(!overlapped.get)
+      assert(recorder.text == graph.render)
+      assert(recorder.completed == 1 && recorder.errors.isEmpty)
+    }
+  }
+
+  test("Cancelling from another thread stops the signals on an asynchronous executor") {
+    withPool { pool =>
+      val closed = new CountDownLatch(1)
+      val stream = java.util.stream.IntStream.range(0, 1000000).mapToObj[GraphElement](i => Node(s"n$i")).onClose(() => closed.countDown())
+      val received = new AtomicInteger
+      val started = new CountDownLatch(1)
+      val recorder = new Recorder {
+        override def onSubscribe(subscription: Flow.Subscription): Unit = {
+          super.onSubscribe(subscription)
+          subscription.request(Long.MaxValue)
+        }
+
+        // The source is open once the first chunk is sent, which closes it if cancelled.
+        override def onNext(item: ByteBuffer): Unit = {
+          received.incrementAndGet()
+          started.countDown()
+        }
+      }
+      new DotPublisher(Graph(elements = Seq(ElementSource.fromStream(stream))), pool, chunkSize = 64).subscribe(recorder)
+      assert(started.await(10, TimeUnit.SECONDS))
+      recorder.subscription.cancel()
+      assert(closed.await(10, TimeUnit.SECONDS))
+      val afterClose = received.get
+      Thread.sleep(100)
+      assert(received.get == afterClose)
+      assert(recorder.completed == 0 && recorder.errors.isEmpty)
+    }
+  }
+}
@@ -0,0 +1,164 @@
+package berlin.softwaretechnik.graphviz
+
+import java.io.{ByteArrayInputStream, InterruptedIOException}
+import java.nio.ByteBuffer
+import java.nio.channels.{Channels, ReadableByteChannel}
+import java.nio.charset.StandardCharsets.UTF_8
+
+import berlin.softwaretechnik.graphviz.attributes._
+import org.scalatest.funsuite.AnyFunSuite
+
+import scala.collection.mutable.ArrayBuffer
+
+class DotStreamingTest extends AnyFunSuite {
+
+  val graph: Graph = Graph(
+    id = Some("G"),
+    attributes = GraphAttributes(rankdir = RankDir.LR, label = Plain("Streamed")),
+    nodeDefaults = NodeAttributes(shape = Shape.box),
+    edgeDefaults = EdgeAttributes(color = Color("#999999")),
+    elements = (0 until 2000).map(i => Node(s"n$i", NodeAttributes(label = Plain(s"Grüße $i")))) ++ Seq(
+      SubGraph(
+        id = Some("cluster_tmp"),
+        attributes = SubgraphAttributes(label = Plain("Temporary")),
+        nodeDefaults = NodeAttributes(style = Style.filled),
+        elements = Seq(Node("tmp_1"), Edge("tmp_1", "n1"), SubGraph(elements = Seq(Node("tmp_2"))))
+      ),
+      Edge("n0", "tmp_2", EdgeAttributes(style = Style.dashed))
+    )
+  )
+
+  private def stream(dot: String, transform: DotTransform = DotTransform.identity): String = {
+    val out = new java.lang.StringBuilder
+    new DotParser().parse(dot, transform.to(new DotWriter(out)))
+    out.toString
+  }
+
+  test("Streaming a rendered graph writes it unchanged") {
+    assert(stream(graph.render) == graph.render)
+  }
+
+  test("Graphs are read from channels in chunks") {
+    val in = Channels.newChannel(new ByteArrayInputStream(graph.render.getBytes(UTF_8)))
+    val out = new java.lang.StringBuilder
+    new DotParser().parse(in, new DotWriter(out))
+    assert(out.toString == graph.render)
+  }
+
+  test("A channel without bytes yet is waited for without spinning") {
+    val in = Channels.newChannel(new ByteArrayInputStream(graph.render.getBytes(UTF_8)))
+    val until = System.nanoTime() + 20000000L
+    var calls = 0
+    val slow = new ReadableByteChannel {
+      override def read(dst: ByteBuffer): Int = {
+        calls += 1
+        if (System.nanoTime() < until) 0 else in.read(dst)
+      }
+
+      override def isOpen: Boolean = true
+
+      override def close(): Unit = ()
+    }
+    val out = new java.lang.StringBuilder
+    new DotParser().parse(slow, new DotWriter(out))
+    assert(out.toString == graph.render)
+    assert(calls < 1000)
+
+    val empty = new ReadableByteChannel {
+      override def read(dst: ByteBuffer): Int = 0
+
+      override def isOpen: Boolean = true
+
+      override def close(): Unit = ()
+    }
+    Thread.currentThread().interrupt()
+    assertThrows[InterruptedIOException](new DotParser().parse(empty, new DotWriter(new java.lang.StringBuilder)))
+    assert(!Thread.interrupted())
+  }
+
+  test("Transform stages are applied in order") {
+    val transform = DotTransform.filterNodes((id, _) => !id.startsWith("tmp_"))
+      .andThen(DotTransform.filterEdges((from, to, _) => !from.startsWith("tmp_") && !to.startsWith("tmp_")))
+      .andThen(DotTransform.renameNodes(id => id.toUpperCase))
+      .andThen(DotTransform.mapNodes((id, attributes) => attributes.copy(label = Plain(id))))
+      .andThen(DotTransform.mapEdges((_, _, attributes) => attributes.copy(color = Color("#FF0000"))))
+    val streamed = new DotParser().parse(stream(graph.render, transform))
+    assert(streamed == graph.copy(elements =
+      (0 until 2000).map(i => Node(s"N$i", NodeAttributes(label = Plain(s"N$i")))) :+
+        SubGraph(
+          id = Some("cluster_tmp"),
+          attributes = SubgraphAttributes(label = Plain("Temporary")),
+          nodeDefaults = NodeAttributes(style = Style.filled),
+          elements = Seq(SubGraph(elements = Nil))
+        )
+    ))
+  }
+
+  test("Statements are reported as they are written") {
+    val events = ArrayBuffer[String]()
+    new DotParser().parse(
+      "digraph { rankdir = LR; a; node [shape = box]; a -> { b c } [color = red]; subgraph s { d } }",
+      new DotHandler {
+        override def onGraphStart(id: Option[String]): Unit = events += s"start $id"
+        override def onGraphAttributes(attributes: GraphAttributes): Unit = events += s"graph ${attributes.rankdir}"
+        override def onSubgraphStart(id: Option[String]): Unit = events += s"subgraph $id"
+        override def onNodeDefaults(attributes: NodeAttributes): Unit = events += s"node ${attributes.shape}"
+        override def onNode(id: String, attributes: NodeAttributes): Unit = events += id
+        override def onEdge(from: String, to: String, attributes: EdgeAttributes): Unit =
+          events += s"$from -> $to ${attributes.color}"
+        override def onSubgraphEnd(): Unit = events += "end"
+        override def onGraphEnd(): Unit = events += "graph end"
+      }
+    )
+    assert(events == Seq(
+      "start None", "graph LR", "a", "node box",
+      "subgraph None", "b", "c", "end", "a -> b \"red\"", "a -> c \"red\"",
+      "subgraph Some(s)", "d", "end", "graph end"
+    ))
+  }
+
+  test("Unsupported attributes pass through transforms as they are written") {
+    val dot =
+      """digraph {
+        |  graph [fontname = "Helvetica"; forcelabels = true;];
+        |  node [shape = box; xlabel = "\N"];
+        |  a [label = "left\l"; xlabel = <<B>a</B>>];
+        |  b [tooltip = "\N"];
+        |  a -> b [label = "\E"; headlabel = "x"];
+        |}""".stripMargin
+    val out = new java.lang.StringBuilder
+    val transform = DotTransform.mapNodes((_, attributes) => attributes.copy(color = Color("gray")))
+      .andThen(DotTransform.renameNodes(_.toUpperCase))
+    new DotParser(ignoreUnsupported = true).parse(dot, transform.to(new DotWriter(out)))
+    assert(out.toString ==
+      """digraph  {
+        |  fontname = "Helvetica";
+        |  forcelabels = "true";
+        |  node [shape = box; xlabel = "\N";];
+        |  A [color = "gray"; label = "left\l"; xlabel = <<B>a</B>>;];
+        |  B [color = "gray"; tooltip = "\N";];
+        |  A -> B [headlabel = "x"; label = "\E";];
+        |}
+        |""".stripMargin)
+  }
+
+  test("Handlers that do not take unsupported attributes get the others") {
+    val labels = ArrayBuffer[Any]()
+    new DotParser(ignoreUnsupported = true).parse("digraph { a [label = \"a\\l\"; xlabel = x] }", new DotHandler {
+      override def onNode(id: String, attributes: NodeAttributes): Unit = labels += attributes.label
+    })
+    assert(labels == Seq(EscString("a\\l")))
+  }
+
+  test("Late defaults are written where they are") {
+    assert(stream("digraph { a; node [shape = box]; b }") == "digraph  {\n  \n  a;\n  node [shape = box;];\n  b;\n}\n")
+  }
+
+  test("Only subgraphs of a bounded size can be edge operands when streaming") {
+    val nodes = (0 to DotParser.MaxOperandIds).map(i => s"n$i").mkString("; ")
+    assert(new DotParser().parse(s"digraph { { $nodes } -> x }").elements.size == DotParser.MaxOperandIds + 2)
+    val exception = intercept[DotParseException](stream(s"digraph { { $nodes } -> x }"))
+    assert(exception.getMessage.contains("edge operands"))
+    assert(stream(s"digraph { { $nodes } { a } -> x }").contains("a -> x;"))
+  }
+}
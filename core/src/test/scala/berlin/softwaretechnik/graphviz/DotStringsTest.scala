@@ -0,0 +1,29 @@
+package berlin.softwaretechnik.graphviz
+
+import org.scalatest.funsuite.AnyFunSuite
+
+class DotStringsTest extends AnyFunSuite {
+
+  test("Strings without special characters are returned as they are") {
+    val s = "Hello World"
+    assert(DotStrings.escape(s) eq s)
+  }
+
+  test("Quotes, backslashes and line breaks are escaped, other control characters are not") {
+    assert(DotStrings.escape("say \"hi\"\\\n") == "say \\\"hi\\\"\\\\\\n")
+    val control = "col1\tcol2\r\b\f\u0001"
+    assert(DotStrings.escape(control) eq control)
+  }
+
+  test("Non-ASCII characters are passed through") {
+    assert(DotStrings.escape("Grüße 漢字") == "Grüße 漢字")
+  }
+
+  test("Unescaping resolves the escape sequences that mean the same to Graphviz") {
+    val s = "say \"hi\"\\\nnext\tline\r\u0001"
+    assert(DotStrings.unescape(DotStrings.escape(s)) == s)
+    val plain = "Hello World"
+    assert(DotStrings.unescape(plain) eq plain)
+    Seq("left\\l", "right\\r", "\\N", "tab\\t", "end\\").foreach(escString => assert(DotStrings.unescape(escString) == null))
+  }
+}
@@ -0,0 +1,62 @@
+package berlin.softwaretechnik.graphviz
+
+import java.lang.management.ManagementFactory
+
+import berlin.softwaretechnik.graphviz.attributes.{EdgeAttributes, Plain, SubgraphAttributes}
+import org.scalatest.funsuite.AnyFunSuite
+
+class ElementSourceTest extends AnyFunSuite {
+
+  val elements: Seq[GraphElement] = Seq(
+    Node("a"),
+    SubGraph(id = Some("cluster_1"), attributes = SubgraphAttributes(label = Plain("One")), elements = Seq(Node("b"))),
+    Edge("a", "b", EdgeAttributes(label = Plain("a to b")))
+  )
+
+  test("Sources render like the elements they produce") {
+    val expected = Graph(elements = Node("x") +: elements).render
+    val sources = Seq(
+      ElementSource(() => elements.iterator),
+      ElementSource.fromIterator(elements.iterator),
+      ElementSource.fromStream(java.util.stream.Stream.of(elements: _*)),
+      ElementSource.fromCallback(elements.iterator.concat(Iterator.single(null)).next _)
+    )
+    sources.foreach(source => assert(Graph(elements = Seq(Node("x"), source)).render == expected))
+    val nested = Graph(elements = Seq(Node("x"), SubGraph(elements = Seq(ElementSource(() => elements.iterator)))))
+    assert(nested.render == Graph(elements = Seq(Node("x"), SubGraph(elements = elements))).render)
+  }
+
+  test("Single-pass sources can be rendered once") {
+    var closed = false
+    val stream = java.util.stream.Stream.of(elements: _*).onClose(() => closed = true)
+    val graph = Graph(elements = Seq(ElementSource.fromStream(stream)))
+    graph.render
+    assert(closed)
+    assertThrows[IllegalStateException](graph.render)
+
+    val reusable = Graph(elements = Seq(ElementSource(() => elements.iterator)))
+    assert(reusable.render == reusable.render)
+  }
+
+  test("Rendering 50M edges from a source takes constant memory") {
+    val memory = ManagementFactory.getMemoryMXBean
+    def usedAfterGc(): Long = {
+      System.gc()
+      memory.getHeapMemoryUsage.getUsed
+    }
+    val total = 50000000
+    var afterWarmup = 0L
+    var atEnd = 0L
+    val edges = Iterator.range(0, total).map { i =>
+      if (i == 1000000) afterWarmup = usedAfterGc()
+      if (i == total - 1) atEnd = usedAfterGc()
+      Edge(s"n${i % 100000}", s"n${i % 99991}")
+    }
+    val out = new CountingChannel
+    Graph(elements = Seq(ElementSource.fromIterator(edges))).writeTo(out)
+
+    assert(out.bytes > 50L * total / 4)
+    // Holding on to the edges would take gigabytes.
+    assert(atEnd - afterWarmup < 16L * 1024 * 1024, s"${afterWarmup / 1048576} MB after 1M edges, ${atEnd / 1048576} MB at the end")
+  }
+}
@@ -0,0 +1,82 @@
+package berlin.softwaretechnik.graphviz
+
+import berlin.softwaretechnik.graphviz.attributes._
+import org.scalatest.funsuite.AnyFunSuite
+
+class GraphBuilderTest extends AnyFunSuite {
+
+  test("A builder renders like the graph it builds") {
+    val builder = new GraphBuilder(
+      id = Some("G"),
+      attributes = GraphAttributes(rankdir = RankDir.LR),
+      nodeDefaults = NodeAttributes(shape = Shape.box)
+    )
+    val a = builder.node("a")
+    val b = builder.node("b", NodeAttributes(label = Plain("B"), color = Color("#FF0000")))
+    builder.edge(a, b)
+    builder.edge(b, a, EdgeAttributes(style = Style.dashed))
+    builder.edge("b", "c")
+
+    val graph = Graph(
+      id = Some("G"),
+      attributes = GraphAttributes(rankdir = RankDir.LR),
+      nodeDefaults = NodeAttributes(shape = Shape.box),
+      elements = Seq(
+        Node("a"),
+        Node("b", NodeAttributes(label = Plain("B"), color = Color("#FF0000"))),
+        Node("c"),
+        Edge("a", "b"),
+        Edge("b", "a", EdgeAttributes(style = Style.dashed)),
+        Edge("b", "c")
+      )
+    )
+    assert(builder.result() == graph)
+    assert(builder.render == graph.render)
+    assert(new GraphBuilder().render == Graph(elements = Nil).render)
+  }
+
+  test("Node ids are numbered once, in the order they are added") {
+    val builder = new GraphBuilder()
+    val count = 100000
+    (0 until count).foreach(i => assert(builder.node(s"n$i") == i))
+    (0 until count by 7).foreach(i => builder.edge(s"n$i", s"n${(i * 31) % count}"))
+    assert(builder.nodeCount == count)
+    assert(builder.edgeCount == (count + 6) / 7)
+    assert(builder.node(new String("n42")) == 42)
+    assert(builder.indexOf("n99999") == 99999)
+    assert(builder.indexOf("m1") == -1)
+    assert(builder.nodeId(builder.edgeTarget(1)) == "n217")
+
+    builder.node("n1", NodeAttributes(fontsize = 8))
+    assert(builder.nodeAttributes(1) == NodeAttributes(fontsize = 8))
+    builder.node("n1", NodeAttributes())
+    assert(builder.nodeAttributes(1).isEmpty)
+  }
+
+  test("Attributes are stored sparsely and shared as they were given") {
+    val builder = new GraphBuilder()
+    val dashed = EdgeAttributes(style = Style.dashed)
+    val bold = SparseEdgeAttributes(style = Style.bold, label = Plain("Bold"))
+    builder.node("a", SparseNodeAttributes(shape = Shape.box))
+    builder.node("b", NodeAttributes(label = Plain("B")))
+    builder.edge(0, 1, dashed)
+    builder.edge(1, 0, dashed)
+    builder.edge(0, 1, bold)
+    builder.edge(1, 0, bold)
+
+    assert(builder.nodeAttributes(0) == NodeAttributes(shape = Shape.box))
+    assert(builder.edgeAttributes(2) == bold.toAttributes)
+    val edges = builder.result().elements.collect { case edge: Edge => edge.attributes }
+    assert(edges == Seq(dashed, dashed, bold.toAttributes, bold.toAttributes))
+    assert((edges(0) eq edges(1)) && (edges(2) eq edges(3)))
+    assert(builder.render == builder.result().render)
+  }
+
+  test("Edges can only refer to added nodes") {
+    val builder = new GraphBuilder()
+    builder.node("a")
+    assertThrows[IndexOutOfBoundsException](builder.edge(0, 1))
+    assertThrows[IndexOutOfBoundsException](builder.edgeSource(0))
+    assertThrows[IllegalArgumentException](builder.node(null))
+  }
+}
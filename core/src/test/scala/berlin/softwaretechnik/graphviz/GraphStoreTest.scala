@@ -0,0 +1,104 @@
+package berlin.softwaretechnik.graphviz
+
+import java.nio.file.{Files, Path}
+
+import berlin.softwaretechnik.graphviz.attributes._
+import org.scalatest.funsuite.AnyFunSuite
+
+import scala.util.Random
+
+class GraphStoreTest extends AnyFunSuite {
+
+  private def withStore(segmentSize: Int)(test: (GraphStore, Path) => Unit): Unit = {
+    val directory = Files.createTempDirectory("graph-store")
+    val store = new GraphStore(
+      directory,
+      id = Some("G"),
+      attributes = GraphAttributes(rankdir = RankDir.LR),
+      edgeDefaults = EdgeAttributes(color = Color("#999999")),
+      segmentSize = segmentSize
+    )
+    try test(store, directory)
+    finally {
+      store.close()
+      Files.deleteIfExists(directory)
+    }
+  }
+
+  test("A store renders like a builder given the same nodes and edges") {
+    Seq(256, 4096, 1 << 20).foreach { segmentSize =>
+      withStore(segmentSize) { (store, _) =>
+        val builder = new GraphBuilder(
+          id = Some("G"),
+          attributes = GraphAttributes(rankdir = RankDir.LR),
+          edgeDefaults = EdgeAttributes(color = Color("#999999"))
+        )
+        val random = new Random(segmentSize)
+        val styles = Seq(
+          EdgeAttributes(style = Style.dashed),
+          EdgeAttributes(label = Plain("A label long enough for the attributes to need several lines")),
+          EdgeAttributes(label = Plain("Grüße 漢字 😀"), weight = 2.0)
+        )
+        (0 until 5000).foreach { i =>
+          val id = if (i % 17 == 0) s""""Node ${random.nextInt(3000)} 😀"""" else s"n${random.nextInt(3000)}"
+          random.nextInt(4) match {
+            case 0 =>
+              val attributes = NodeAttributes(shape = Shape.box, label = Plain(s"Node $i"))
+              assert(store.node(id, attributes) == builder.node(id, attributes))
+            case 1 => assert(store.node(id) == builder.node(id))
+            case _ =>
+              val (from, to) = (random.nextInt(builder.nodeCount + 1), random.nextInt(builder.nodeCount + 1))
+              if (from < builder.nodeCount && to < builder.nodeCount) {
+                val attributes = if (random.nextBoolean()) EdgeAttributes() else styles(random.nextInt(styles.size))
+                store.edge(from, to, attributes)
+                builder.edge(from, to, attributes)
+              }
+          }
+        }
+        assert(store.nodeCount == builder.nodeCount)
+        assert(store.edgeCount == builder.edgeCount)
+        assert((0 until store.nodeCount).forall(node => store.nodeId(node) == builder.nodeId(node)))
+        assert(store.render == builder.render)
+        // Attributes on lines of their own take the indentation of the render.
+        def tabbed(graph: Renderable): String = {
+          val out = new java.lang.StringBuilder
+          val context = new RenderContext(out, indentation = "\t")
+          graph.renderTo(context)
+          context.flush()
+          out.toString
+        }
+        assert(tabbed(store) == tabbed(builder))
+        assert(tabbed(store).contains("\n\t\tlabel = "))
+      }
+    }
+  }
+
+  test("Closing a store deletes its files and directory") {
+    withStore(1 << 16) { (store, directory) =>
+      (0 until 5000).foreach(i => store.edge(s"n$i", "b"))
+      assert(Files.list(directory).count() > 0)
+      store.close()
+      assert(!Files.exists(directory))
+      assertThrows[IllegalStateException](store.node("c"))
+      assertThrows[IllegalStateException](store.nodeId(0))
+    }
+  }
+
+  test("Closing a store keeps a directory with other files in it") {
+    val directory = Files.createTempDirectory("graph-store")
+    val other = Files.createFile(directory.resolve("other"))
+    val store = new GraphStore(directory)
+    store.node("a")
+    store.close()
+    assert(Files.list(directory).toArray.toSeq == Seq(other))
+    Files.delete(other)
+    Files.delete(directory)
+  }
+
+  test("Strings must fit into a segment") {
+    withStore(64) { (store, _) =>
+      assert(store.node("a" * 30) == 0)
+      assertThrows[IllegalArgumentException](store.node("a" * 31))
+    }
+  }
+}
@@ -0,0 +1,49 @@
+package berlin.softwaretechnik.graphviz
+
+import berlin.softwaretechnik.graphviz.attributes._
+import berlin.softwaretechnik.graphviz.attributes.html._
+import org.scalatest.funsuite.AnyFunSuite
+
+class InternerTest extends AnyFunSuite {
+
+  // Built from scratch every time, so no two calls share any instances.
+  def attributes(): NodeAttributes = NodeAttributes(
+    fontname = new String("Helvetica"),
+    color = Color(new String("#FF0000")),
+    label = b(plain(new String("Label")))
+  )
+
+  test("Equal instances are interned to the same instance") {
+    val interner = new Interner()
+    val first = interner(attributes())
+    val second = interner(attributes())
+    assert(first eq second)
+    assert(interner(Color("#FF0000")) eq first.color)
+    assert(interner(new String("Helvetica")) eq first.fontname)
+  }
+
+  test("The values of distinct instances are interned") {
+    val interner = new Interner()
+    val first = interner(attributes())
+    val second = interner(attributes().copy(shape = Shape.box))
+    assert(first ne second)
+    assert(first.fontname eq second.fontname)
+    assert(first.color eq second.color)
+    assert(first.label eq second.label)
+  }
+
+  test("Interning a graph preserves its output") {
+    val graph = Graph(elements = (0 until 100).map { i =>
+      if (i % 2 == 0) Node(s"n${i % 10}", attributes())
+      else SubGraph(id = Some(s"cluster_$i"), elements = Seq(Edge(s"n${i % 10}", s"n$i", EdgeAttributes(color = Color(new String("#FF0000"))))))
+    })
+    val interner = new Interner()
+    val interned = interner(graph)
+    assert(interned == graph)
+    assert(interned.render == graph.render)
+
+    val nodes = interned.elements.collect { case node: Node => node }
+    assert(nodes.forall(_.attributes eq nodes.head.attributes))
+    assert(nodes.filter(_.id == "n0").map(_.id).forall(_ eq nodes.head.id))
+  }
+}
@@ -0,0 +1,126 @@
+package berlin.softwaretechnik.graphviz
+
+import java.nio.ByteBuffer
+import java.nio.charset.StandardCharsets.UTF_8
+import java.nio.file.{Files, Path}
+import java.util.Comparator
+import java.util.concurrent.{Callable, CyclicBarrier, Executors, TimeUnit}
+
+import org.scalatest.funsuite.AnyFunSuite
+
+import scala.jdk.CollectionConverters._
+
+class LayoutCacheTest extends AnyFunSuite {
+
+  private def graph(i: Int): Graph = Graph(id = Some(s"G$i"), elements = (0 until 100).map(n => Node(s"n$n")))
+
+  /** A stand-in for a Graphviz program that counts its runs in `runs`. */
+  private def stub(runs: Path): String = {
+    val file = Files.createTempFile("graphviz-stub", ".sh")
+    Files.write(file, s"#!/bin/sh\necho run >> $runs\ncat\n".getBytes(UTF_8))
+    file.toFile.setExecutable(true)
+    file.toFile.deleteOnExit()
+    file.toString
+  }
+
+  private def withDirectory(test: Path => Unit): Unit = {
+    val directory = Files.createTempDirectory("layout-cache")
+    try test(directory)
+    finally Files.walk(directory).sorted(Comparator.reverseOrder()).iterator.asScala.foreach(Files.delete)
+  }
+
+  private def runs(file: Path): Int = if (Files.exists(file)) Files.readAllLines(file).size else 0
+
+  test("Hits are served without running the program") {
+    withDirectory { directory =>
+      val engine = stub(directory.resolve("runs"))
+      val cache = new LayoutCache(directory.resolve("cache"))
+      val first = cache.layout(graph(1), engine, "dot")
+      val second = cache.layout(graph(1), engine, "dot")
+      assert(new String(second, UTF_8) == graph(1).render)
+      assert(second.sameElements(first))
+      assert(runs(directory.resolve("runs")) == 1)
+      assert((cache.hits, cache.misses, cache.hitRatio, cache.bytesSaved) == ((1L, 1L, 0.5, first.length.toLong)))
+
+      // Anything that changes the output is part of the key.
+      cache.layout(graph(2), engine, "dot")
+      cache.layout(graph(1), engine, "canon")
+      cache.layout(graph(1), engine, "dot", Seq("-Gdpi=300"))
+      assert(runs(directory.resolve("runs")) == 4)
+
+      // Results survive the cache instance.
+      new LayoutCache(directory.resolve("cache")).layout(graph(1), engine, "dot")
+      assert(runs(directory.resolve("runs")) == 4)
+    }
+  }
+
+  test("The least recently used results are evicted beyond the size limit") {
+    withDirectory { directory =>
+      val engine = stub(directory.resolve("runs"))
+      val size = graph(1).render.length
+      val cache = new LayoutCache(directory.resolve("cache"), maxBytes = 2 * size)
+      cache.layout(graph(1), engine, "dot")
+      Thread.sleep(20)
+      cache.layout(graph(2), engine, "dot")
+      Thread.sleep(20)
+      cache.layout(graph(1), engine, "dot")
+      Thread.sleep(20)
+      cache.layout(graph(3), engine, "dot")
+      assert(cache.evictions == 1)
+      assert(runs(directory.resolve("runs")) == 3)
+      cache.layout(graph(1), engine, "dot")
+      cache.layout(graph(3), engine, "dot")
+      assert(runs(directory.resolve("runs")) == 3)
+      cache.layout(graph(2), engine, "dot")
+      assert(runs(directory.resolve("runs")) == 4)
+    }
+  }
+
+  test("Caches sharing a directory can be used concurrently") {
+    withDirectory { directory =>
+      val engine = stub(directory.resolve("runs"))
+      val size = graph(1).render.length
+      val caches = Seq.fill(2)(new LayoutCache(directory.resolve("cache"), maxBytes = 5 * size))
+      val pool = Executors.newFixedThreadPool(4)
+      try {
+        val results = pool.invokeAll((0 until 60).map { i =>
+          (() => caches(i % 2).layout(graph(i % 10), engine, "dot")): Callable[Array[Byte]]
+        }.asJava)
+        results.asScala.zipWithIndex.foreach { case (result, i) =>
+          assert(new String(result.get(), UTF_8) == graph(i % 10).render)
+        }
+      } finally {
+        pool.shutdown()
+        pool.awaitTermination(1, TimeUnit.MINUTES)
+      }
+      val stored = Files.walk(directory.resolve("cache")).iterator.asScala
+        .filter(file => Files.isRegularFile(file) && file.getFileName.toString != ".lock")
+        .toSeq
+      assert(stored.forall(file => !file.getFileName.toString.endsWith(".tmp")))
+      assert(stored.map(Files.size).sum <= 5 * size)
+    }
+  }
+
+  test("A result stored by several caches at once is counted once") {
+    withDirectory { directory =>
+      val engine = stub(directory.resolve("runs"))
+      val caches = Seq.fill(8)(new LayoutCache(directory.resolve("cache")))
+      val start = new CyclicBarrier(caches.size)
+      val pool = Executors.newFixedThreadPool(caches.size)
+      try {
+        val results = pool.invokeAll(caches.map { cache =>
+          (() => {
+            start.await()
+            cache.layout(graph(1), engine, "dot")
+          }): Callable[Array[Byte]]
+        }.asJava)
+        results.asScala.foreach(result => assert(new String(result.get(), UTF_8) == graph(1).render))
+      } finally {
+        pool.shutdown()
+        pool.awaitTermination(1, TimeUnit.MINUTES)
+      }
+      val total = ByteBuffer.wrap(Files.readAllBytes(directory.resolve("cache").resolve(".lock"))).getLong
+      assert(total == graph(1).render.length)
+    }
+  }
+}
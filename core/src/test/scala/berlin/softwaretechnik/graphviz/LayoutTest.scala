@@ -0,0 +1,64 @@
+package berlin.softwaretechnik.graphviz
+
+import java.nio.charset.StandardCharsets.UTF_8
+import java.nio.file.{Files, Path}
+
+import berlin.softwaretechnik.graphviz.attributes.{NodeAttributes, Plain}
+import org.scalatest.funsuite.AnyFunSuite
+
+import scala.concurrent.duration._
+
+class LayoutTest extends AnyFunSuite {
+
+  // Larger than a pipe buffer, so rendering and reading the output have to overlap.
+  val graph: Graph = Graph(elements = (0 until 20000).map(i => Node(s"n$i", NodeAttributes(label = Plain(s"Node $i")))))
+
+  /** A shell script standing in for a Graphviz program. */
+  private def stub(script: String): String = {
+    val file = Files.createTempFile("graphviz-stub", ".sh")
+    Files.write(file, s"#!/bin/sh\n$script\n".getBytes(UTF_8))
+    file.toFile.setExecutable(true)
+    file.toFile.deleteOnExit()
+    file.toString
+  }
+
+  test("The output is read while the graph is written") {
+    assert(new String(graph.layout(stub("cat"), "dot").bytes(), UTF_8) == graph.render)
+  }
+
+  test("The output can be written to a file") {
+    val target = Files.createTempFile("layout", ".svg")
+    try {
+      assert(graph.layout(stub("cat"), "svg").writeTo(target) == target)
+      assert(new String(Files.readAllBytes(target), UTF_8) == graph.render)
+    } finally {
+      Files.delete(target)
+    }
+  }
+
+  test("The format and arguments are passed to the program") {
+    val output = graph.layout(stub("cat > /dev/null; echo \"$@\""), "png", Seq("-Gdpi=300")).bytes()
+    assert(new String(output, UTF_8).trim == "-Tpng -Gdpi=300")
+  }
+
+  test("Failures are reported with the program's error output") {
+    val exception = intercept[LayoutException](graph.layout(stub("echo 'syntax error' >&2; exit 3")).bytes())
+    assert(exception.getMessage.endsWith("exited with code 3: syntax error"))
+    intercept[LayoutException](graph.layout("/does/not/exist"))
+  }
+
+  test("Layouts that take too long are killed") {
+    val start = System.nanoTime()
+    val exception = intercept[LayoutException](graph.layout(stub("exec sleep 30"), timeout = 200.millis).bytes())
+    assert(exception.getMessage.endsWith("timed out after 200 milliseconds"))
+    assert((System.nanoTime() - start).nanos < 10.seconds)
+  }
+
+  test("Cancelled layouts are killed") {
+    val layout = graph.layout(stub("exec sleep 30"))
+    val in = layout.inputStream
+    layout.cancel()
+    val exception = intercept[LayoutException](in.read())
+    assert(exception.getMessage.endsWith("was cancelled"))
+  }
+}
@@ -0,0 +1,101 @@
+package berlin.softwaretechnik.graphviz
+
+import berlin.softwaretechnik.graphviz.attributes._
+import org.scalatest.funsuite.AnyFunSuite
+
+import scala.collection.mutable
+import scala.util.Random
+
+class OptimizerTest extends AnyFunSuite {
+
+  /**
+    * The attributes Graphviz ends up with for every node and every edge: defaults apply to
+    * nodes and edges when they are created, explicit attributes whenever they are given.
+    */
+  def effective(graph: Graph): (Map[String, Map[String, Any]], Seq[Map[String, Any]]) = {
+    val nodes = mutable.LinkedHashMap[String, Map[String, Any]]()
+    val edges = Seq.newBuilder[Map[String, Any]]
+    def create(id: String, defaults: Map[String, Any]): Unit =
+      if (!nodes.contains(id)) nodes(id) = defaults
+    def scope(nodeDefaults: Map[String, Any], edgeDefaults: Map[String, Any], elements: Seq[GraphElement]): Unit =
+      elements.foreach {
+        case Node(id, attributes) =>
+          create(id, nodeDefaults)
+          nodes(id) = nodes(id) ++ attributes.toAttributeMap()
+        case Edge(from, to, attributes) =>
+          create(from, nodeDefaults)
+          create(to, nodeDefaults)
+          edges += edgeDefaults ++ attributes.toAttributeMap()
+        case s: SubGraph =>
+          scope(nodeDefaults ++ s.nodeDefaults.toAttributeMap(), edgeDefaults ++ s.edgeDefaults.toAttributeMap(), s.elements)
+        case b: NodeBatch => scope(nodeDefaults, edgeDefaults, b.iterator.toSeq)
+        case b: EdgeBatch => scope(nodeDefaults, edgeDefaults, b.iterator.toSeq)
+      }
+    scope(graph.nodeDefaults.toAttributeMap().toMap, graph.edgeDefaults.toAttributeMap().toMap, graph.elements)
+    (nodes.toMap, edges.result())
+  }
+
+  val styled: NodeAttributes = NodeAttributes(shape = Shape.box, fontname = "Helvetica", color = Color("#FF0000"))
+
+  test("Attributes shared by all nodes and edges of a scope are hoisted into its defaults") {
+    val graph = Graph(elements = Seq(
+      SubGraph(id = Some("cluster_a"), elements = (0 until 10).map(i =>
+        Node(s"a$i", styled.copy(label = Plain(s"Node $i"), color = if (i == 3) Color("#00FF00") else styled.color))
+      )),
+      Node("b", NodeAttributes(shape = Shape.box))
+    ) ++ (1 until 10).map(i => Edge(s"a${i - 1}", s"a$i", EdgeAttributes(color = Color("#999999")))))
+
+    val optimized = Optimizer.hoistDefaults(graph)
+    assert(effective(optimized) == effective(graph))
+    assert(optimized.render.length < graph.render.length / 2)
+
+    val cluster = optimized.elements.head.asInstanceOf[SubGraph]
+    assert(cluster.nodeDefaults == NodeAttributes(shape = Shape.box, fontname = "Helvetica", color = Color("#FF0000")))
+    assert(cluster.elements(3) == Node("a3", NodeAttributes(color = Color("#00FF00"), label = Plain("Node 3"))))
+    assert(optimized.edgeDefaults == EdgeAttributes(color = Color("#999999")))
+    // Only one node in the root scope, there is nothing to gain there.
+    assert(optimized.nodeDefaults.isEmpty)
+  }
+
+  test("Node attributes are not hoisted over nodes created by edges") {
+    val graph = Graph(elements = Seq(
+      Node("a", styled),
+      Node("b", styled),
+      Edge("a", "c")
+    ))
+    assert(Optimizer.hoistDefaults(graph) == graph)
+  }
+
+  test("Hoisting never changes the attributes Graphviz sees") {
+    val random = new Random(42)
+    val values = Seq(Shape.box, Shape.ellipse, Shape.circle)
+    def attributes(): NodeAttributes = NodeAttributes(
+      shape = if (random.nextInt(4) == 0) null else values(random.nextInt(2)),
+      color = if (random.nextBoolean()) Color("#FF0000") else null
+    )
+    def elements(depth: Int): Seq[GraphElement] = (0 until random.nextInt(8)).map { _ =>
+      random.nextInt(8) match {
+        case 0 if depth < 3 =>
+          SubGraph(
+            id = Some(s"cluster_${random.nextInt(5)}"),
+            nodeDefaults = if (random.nextInt(3) == 0) attributes() else NodeAttributes(),
+            elements = elements(depth + 1)
+          )
+        case 1 => Edge(s"n${random.nextInt(12)}", s"n${random.nextInt(12)}", EdgeAttributes(style = if (random.nextBoolean()) Style.dashed else null))
+        case 2 =>
+          val rows = 1 + random.nextInt(3)
+          new EdgeBatch(
+            Array.fill(rows)(s"n${random.nextInt(12)}"),
+            Array.fill(rows)(s"n${random.nextInt(12)}"),
+            attributes = EdgeAttributes(style = if (random.nextBoolean()) Style.dashed else null)
+          )
+        case 3 => new NodeBatch(Array.fill(1 + random.nextInt(3))(s"n${random.nextInt(12)}"), attributes = attributes())
+        case _ => Node(s"n${random.nextInt(12)}", attributes())
+      }
+    }
+    (0 until 2000).foreach { _ =>
+      val graph = Graph(nodeDefaults = if (random.nextBoolean()) attributes() else NodeAttributes(), elements = elements(0))
+      assert(effective(Optimizer.hoistDefaults(graph)) == effective(graph), graph.render)
+    }
+  }
+}
@@ -0,0 +1,31 @@
+package berlin.softwaretechnik.graphviz
+
+import java.util.concurrent.ForkJoinPool
+
+import berlin.softwaretechnik.graphviz.attributes._
+import org.scalatest.funsuite.AnyFunSuite
+
+class ParallelRendererTest extends AnyFunSuite {
+
+  def scope(depth: Int): Seq[GraphElement] = (0 until 50).map { i =>
+    if (i % 10 == 9 && depth < 3)
+      SubGraph(id = Some(s"cluster_${depth}_$i"), attributes = SubgraphAttributes(label = Plain("Cluster")), elements = scope(depth + 1))
+    else if (i % 2 == 0)
+      Node(s"n${depth}_$i", NodeAttributes(label = Plain("A rather long label\nthat spans lines"), shape = Shape.box, fontsize = 12))
+    else
+      Edge(s"n${depth}_${i - 1}", s"n${depth}_$i")
+  }
+
+  val graph: Graph = Graph(attributes = GraphAttributes(fontname = "Helvetica"), elements = scope(0))
+
+  test("Parallel rendering produces the same output as sequential rendering") {
+    val pool = new ForkJoinPool(4)
+    try {
+      Seq(1, 3, 7, 1000).foreach { chunkSize =>
+        assert(new ParallelRenderer(pool, chunkSize).render(graph) == graph.render)
+      }
+    } finally {
+      pool.shutdown()
+    }
+  }
+}
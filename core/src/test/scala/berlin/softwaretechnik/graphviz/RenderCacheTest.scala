@@ -0,0 +1,65 @@
+package berlin.softwaretechnik.graphviz
+
+import berlin.softwaretechnik.graphviz.attributes._
+import berlin.softwaretechnik.graphviz.attributes.html._
+import org.scalatest.funsuite.AnyFunSuite
+
+class RenderCacheTest extends AnyFunSuite {
+
+  val label: Table = Table(rows = Seq(Seq(Cell(plain("a")), Cell(plain("b")))))
+
+  val cluster: SubGraph = SubGraph(
+    id = Some("cluster_shared"),
+    attributes = SubgraphAttributes(label = Plain("Shared")),
+    elements = Seq(
+      Node("a", NodeAttributes(label = label)),
+      SubGraph(elements = Seq(Node("b"), Edge("a", "b")))
+    )
+  )
+
+  val graph: Graph = Graph(elements = Seq(
+    cluster,
+    Node("c"),
+    SubGraph(id = Some("cluster_outer"), elements = Seq(cluster, Node("d", NodeAttributes(label = label))))
+  ))
+
+  test("Cached rendering produces the same output as uncached rendering") {
+    val cache = new RenderCache()
+    assert(cache.render(graph) == graph.render)
+    assert(cache.render(graph) == graph.render)
+    assert(new RenderCache(structural = true).render(graph) == graph.render)
+  }
+
+  test("Shared and re-rendered subtrees are served from the cache") {
+    val cache = new RenderCache()
+    cache.render(graph)
+    // cluster_shared with its nested subgraph and label, cluster_outer and the label of d.
+    assert(cache.misses == 4)
+    // cluster_shared in cluster_outer and the label of d.
+    assert(cache.hits == 2)
+
+    cache.render(graph)
+    assert(cache.misses == 4)
+    assert(cache.hits == 4)
+
+    val copy = graph.copy(elements = graph.elements.map {
+      case s: SubGraph => s.copy()
+      case e => e
+    })
+    cache.render(copy)
+    assert(cache.misses == 6)
+
+    val structural = new RenderCache(structural = true)
+    structural.render(graph)
+    structural.render(copy)
+    assert(structural.misses == 4)
+  }
+
+  test("The least recently used entries are evicted beyond the size limit") {
+    val cache = new RenderCache(maxChars = 200)
+    cache.render(graph)
+    assert(cache.size <= 200)
+    assert(cache.evictions > 0)
+    assert(cache.render(graph) == graph.render)
+  }
+}
@@ -0,0 +1,135 @@
+package berlin.softwaretechnik.graphviz
+
+import berlin.softwaretechnik.graphviz.attributes.html._
+import berlin.softwaretechnik.graphviz.attributes.{EdgeAttributes, EscString, NodeAttributes, Plain}
+import org.scalatest.funsuite.AnyFunSuite
+
+class RenderLimitsTest extends AnyFunSuite {
+
+  val graph: Graph = Graph(elements = Seq(
+    Node("a", NodeAttributes(label = Plain("A short label"))),
+    Node("b", NodeAttributes(label = Table(rows = Seq(Seq(Cell(plain("x"))))))),
+    SubGraph(id = Some("cluster_1"), elements = Seq(
+      Node("c"),
+      SubGraph(id = Some("cluster_2"), elements = Seq(Node("d"), Edge("d", "a")))
+    )),
+    new EdgeBatch(Array("a", "b", "c"), Array("b", "c", "d")),
+    ElementSource(() => Iterator(Edge("a", "d"), Edge("b", "d"))),
+    Edge("a", "b", EdgeAttributes(label = Plain("Grüße 😀😀")))
+  ))
+
+  test("Graphs within the limits render as without limits") {
+    val exact = RenderLimits(maxOutputChars = graph.render.length, maxElements = 13, maxDepth = 2, maxLabelLength = 40)
+    assert(exact.render(graph) == graph.render)
+    assert(exact.copy(truncate = true).render(graph) == graph.render)
+  }
+
+  test("Exceeding a limit throws, naming the limit") {
+    Seq(
+      RenderLimits(maxOutputChars = graph.render.length - 1) -> "maxOutputChars",
+      RenderLimits(maxElements = 12) -> "maxElements",
+      RenderLimits(maxDepth = 1) -> "maxDepth",
+      RenderLimits(maxLabelLength = 39) -> "maxLabelLength",
+      RenderLimits(maxLabelLength = 12) -> "maxLabelLength"
+    ).foreach { case (limits, limit) =>
+      val thrown = intercept[RenderLimitExceededException](limits.render(graph))
+      assert(thrown.limit == limit)
+    }
+  }
+
+  test("Truncated output is marked and stays valid DOT") {
+    val elements = RenderLimits(maxElements = 5, truncate = true).render(graph)
+    assert(elements ==
+      """digraph  {
+        |  
+        |  a [label = "A short label";];
+        |  b [label = <<TABLE >
+        |    <TR><TD >x</TD></TR>
+        |  </TABLE>>;];
+        |  subgraph cluster_1 {
+        |    
+        |    c;
+        |    subgraph cluster_2 {
+        |      
+        |      // Truncated: more than 5 elements
+        |    }
+        |  }
+        |}
+        |""".stripMargin)
+    assert(new DotParser().parse(elements).elements.size == 3)
+
+    val depth = RenderLimits(maxDepth = 1, maxLabelLength = 8, truncate = true).render(graph)
+    assert(depth.contains("    c;\n    // Truncated: a subgraph nested deeper than 1\n  }"))
+    assert(depth.contains("""a [label = "A short…";];"""))
+    assert(depth.contains("""b [label = "…";];"""))
+    // Surrogate pairs are not split.
+    assert(depth.contains("""a -> b [label = "Grüße …";];"""))
+    assert(new DotParser().parse(depth).elements.size == 9)
+  }
+
+  test("Elements after a subgraph nested too deep are still rendered") {
+    val deep = SubGraph(id = Some("cluster_2"), elements = Seq(Node("deep")))
+    val siblings = Graph(elements = Seq(
+      SubGraph(id = Some("cluster_1"), elements = Seq(deep, Node("sibling"))),
+      SubGraph(id = Some("cluster_3"), elements = Seq(ElementSource(() => Iterator(deep, Node("pulled")))))
+    ))
+    val truncated = RenderLimits(maxDepth = 1, truncate = true).render(siblings)
+    assert(truncated.contains("    // Truncated: a subgraph nested deeper than 1\n    sibling;\n  }"))
+    assert(truncated.contains("    // Truncated: a subgraph nested deeper than 1\n    pulled;\n  }"))
+    assert(!truncated.contains("deep;"))
+    assert(new DotParser().parse(truncated).elements.size == 2)
+  }
+
+  test("Truncated labels keep their escape sequences whole") {
+    val escaped = Graph(elements = Seq(Node("a", NodeAttributes(label = EscString("ab\\lcd\\l")))))
+    assert(RenderLimits(maxLabelLength = 4, truncate = true).render(escaped).contains("""a [label = "ab…";];"""))
+    assert(RenderLimits(maxLabelLength = 5, truncate = true).render(escaped).contains("""a [label = "ab\l…";];"""))
+  }
+
+  test("Rendering stops at the limit, however many elements there are") {
+    var pulled = 0
+    val endless = Graph(elements = Seq(ElementSource(() => Iterator.from(0).map { i =>
+      pulled += 1
+      Node(s"node$i")
+    })))
+    val truncated = RenderLimits(maxOutputChars = 100000, truncate = true).render(endless)
+    assert(truncated.length < 100100)
+    assert(truncated.endsWith("// Truncated: more than 100000 characters\n}\n"))
+
+    pulled = 0
+    val out = new java.lang.StringBuilder
+    intercept[RenderLimitExceededException](RenderLimits(maxOutputChars = 100000).renderTo(endless, out))
+    assert(out.length <= 100000)
+    assert(pulled < 20000)
+
+    val rows = Graph(elements = Seq(new NodeBatch(Array.tabulate(100000)(i => s"n$i"))))
+    assert(intercept[RenderLimitExceededException](RenderLimits(maxElements = 1000).render(rows)).limit == "maxElements")
+  }
+
+  test("Builders and stores are limited per node and edge") {
+    val directory = java.nio.file.Files.createTempDirectory("graph-store")
+    val builder = new GraphBuilder
+    val store = new GraphStore(directory)
+    try {
+      (0 until 5000).foreach { i =>
+        builder.edge(s"n$i", "b")
+        store.edge(s"n$i", "b")
+      }
+      Seq(builder, store).foreach { graph =>
+        assert(intercept[RenderLimitExceededException](RenderLimits(maxElements = 10).render(graph)).limit == "maxElements")
+        val elements = RenderLimits(maxElements = 10, truncate = true).render(graph)
+        assert(elements.endsWith("  n8;\n  // Truncated: more than 10 elements\n}\n"))
+        assert(new DotParser().parse(elements).elements.size == 10)
+
+        val out = new java.lang.StringBuilder
+        intercept[RenderLimitExceededException](RenderLimits(maxOutputChars = 1000).renderTo(graph, out))
+        assert(out.length <= 1000)
+        val chars = RenderLimits(maxOutputChars = 1000, truncate = true).render(graph)
+        assert(chars.length < 1100)
+        assert(chars.endsWith("// Truncated: more than 1000 characters\n}\n"))
+      }
+    } finally {
+      store.close()
+    }
+  }
+}
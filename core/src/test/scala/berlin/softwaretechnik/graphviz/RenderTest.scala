@@ -0,0 +1,134 @@
+package berlin.softwaretechnik.graphviz
+
+import berlin.softwaretechnik.graphviz.attributes.Shape.box
+import berlin.softwaretechnik.graphviz.attributes._
+import org.scalatest.funsuite.AnyFunSuite
+
+/**
+  * Pins the rendered output byte for byte, including its quirks: the indented blank line an empty
+  * attribute list leaves, the one after a subgraph, and the double space in front of the
+  * defaults of a subgraph.
+  */
+class RenderTest extends AnyFunSuite {
+
+  test("The example renders as in the documentation") {
+    assert(GraphExample.dotString ==
+      """digraph  {
+        |  node [fontname = "Helvetica"; fontsize = 16.0;];
+        |  edge [fontname = "Helvetica"; fontsize = 16.0;];
+        |  fontname = "Helvetica";
+        |  fontsize = 16.0;
+        |  A [
+        |    label = <<TABLE border="0" cellBorder="1" cellPadding="3" cellSpacing="0" color="gray">
+        |      <TR><TD >Good <I>bye!</I></TD></TR>
+        |      <TR><TD align="Left"><B><U>Hello!</U></B></TD></TR>
+        |      <TR><TD align="Left"><B><U>Hello!</U>No underline.</B></TD></TR>
+        |      <TR><TD align="Left"><B><FONT color="#00D000">Does this work?</FONT></B></TD></TR>
+        |    </TABLE>>;
+        |    shape = none;
+        |  ];
+        |  C;
+        |  subgraph  {
+        |    rank = same;
+        |    B [label = "Two\nLines"; shape = box;];
+        |    D [color = "#FF0000";];
+        |  }
+        |  
+        |  A -> B [label = "This is a label";];
+        |  A -> C;
+        |  B -> C;
+        |  B -> D [style = dashed;];
+        |}
+        |""".stripMargin)
+  }
+
+  val nested: Graph = Graph(
+    id = Some("nested"),
+    attributes = GraphAttributes(rankdir = RankDir.LR),
+    elements = Seq(
+      Node("a"),
+      SubGraph(
+        id = Some("cluster_outer"),
+        attributes = SubgraphAttributes(label = Plain("Outer"), style = Style.dashed),
+        nodeDefaults = NodeAttributes(shape = box),
+        edgeDefaults = EdgeAttributes(color = Color("gray")),
+        elements = Seq(
+          Node("b", NodeAttributes(label = Plain("say \"hi\""))),
+          SubGraph(id = Some("cluster_inner"), elements = Seq(
+            Node("c", NodeAttributes(label = Plain("A label long enough to need lines"), shape = box, color = Color("#FF0000"))),
+            Edge("b", "c")
+          )),
+          Edge("a", "b")
+        )
+      ),
+      Edge("a", "c")
+    )
+  )
+
+  val nestedDot: String =
+    """digraph nested {
+      |  rankdir = LR;
+      |  a;
+      |  subgraph cluster_outer {
+      |    node  [shape = box;];
+      |    edge  [color = "gray";];
+      |    label = "Outer";
+      |    style = dashed;
+      |    b [label = "say \"hi\"";];
+      |    subgraph cluster_inner {
+      |      
+      |      c [
+      |        color = "#FF0000";
+      |        label = "A label long enough to need lines";
+      |        shape = box;
+      |      ];
+      |      b -> c;
+      |    }
+      |    
+      |    a -> b;
+      |  }
+      |  
+      |  a -> c;
+      |}
+      |""".stripMargin
+
+  test("Nested subgraphs are indented by their depth") {
+    assert(nested.render == nestedDot)
+  }
+
+  test("All ways of rendering give the same output") {
+    val out = new java.lang.StringBuilder
+    nested.renderTo(out)
+    assert(out.toString == nestedDot)
+
+    val bytes = new java.io.ByteArrayOutputStream
+    nested.writeTo(bytes)
+    assert(bytes.toString("UTF-8") == nestedDot)
+  }
+
+  test("Attributes go on lines of their own from 60 characters on") {
+    // Without the brackets and the spaces between them, the attributes of the first node and
+    // edge take 59 characters, those of the second ones 60.
+    val graph = Graph(elements = Seq(
+      Node("fits", NodeAttributes(label = Plain("x" * 48))),
+      Node("wraps", NodeAttributes(label = Plain("x" * 49))),
+      Edge("fits", "wraps", EdgeAttributes(label = Plain("x" * 18), color = Color("gray"), style = Style.dashed)),
+      Edge("wraps", "fits", EdgeAttributes(label = Plain("x" * 19), color = Color("gray"), style = Style.dashed))
+    ))
+    assert(graph.render ==
+      s"""digraph  {
+         |  
+         |  fits [label = "${"x" * 48}";];
+         |  wraps [
+         |    label = "${"x" * 49}";
+         |  ];
+         |  fits -> wraps [color = "gray"; label = "${"x" * 18}"; style = dashed;];
+         |  wraps -> fits [
+         |    color = "gray";
+         |    label = "${"x" * 19}";
+         |    style = dashed;
+         |  ];
+         |}
+         |""".stripMargin)
+  }
+}
@@ -0,0 +1,44 @@
+package berlin.softwaretechnik.graphviz
+
+import berlin.softwaretechnik.graphviz.attributes.Shape.box
+import berlin.softwaretechnik.graphviz.attributes._
+import org.scalatest.funsuite.AnyFunSuite
+
+class SparseAttributesTest extends AnyFunSuite {
+
+  val attributes: NodeAttributes = NodeAttributes(shape = box, label = Plain("Label"), color = Color("#FF0000"))
+
+  test("Sparse attributes hold the same attributes as the case class") {
+    val sparse = SparseNodeAttributes.from(attributes)
+    assert(sparse.shape == box)
+    assert(sparse.label == Plain("Label"))
+    assert(sparse.fontname == null)
+    assert(sparse.toAttributes == attributes)
+    assert(sparse.toAttributeMap() == attributes.toAttributeMap())
+    assert(sparse == SparseNodeAttributes(shape = box, label = Plain("Label"), color = Color("#FF0000")))
+    assert(SparseNodeAttributes.from(NodeAttributes()).isEmpty)
+  }
+
+  test("Sparse attributes are copied like the case class") {
+    val sparse = SparseEdgeAttributes(label = Plain("Label"))
+    val copy = sparse.copy(label = null, style = Style.dashed)
+    assert(copy.toAttributes == EdgeAttributes(style = Style.dashed))
+    assert(sparse.label == Plain("Label"))
+  }
+
+  test("Sparse attributes render like the case class") {
+    val sparse = SparseNodeAttributes.from(attributes)
+    val out = new java.lang.StringBuilder
+    val context = new RenderContext(out)
+    context.appendWithBrackets(sparse)
+    context.flush()
+    assert(out.toString == """ [color = "#FF0000"; label = "Label"; shape = box;]""")
+  }
+
+  test("Node and edge attributes are case classes") {
+    assert(attributes.copy(label = null) == NodeAttributes(shape = box, color = Color("#FF0000")))
+    assert(attributes.productArity == NodeAttributes.attributeCount)
+    assert(attributes.productIterator.count(_ != null) == 3)
+    assert(EdgeAttributes(label = Plain("Label")).productIterator.contains(Plain("Label")))
+  }
+}
@@ -0,0 +1,143 @@
+package berlin.softwaretechnik.graphviz
+
+import berlin.softwaretechnik.graphviz.attributes._
+import berlin.softwaretechnik.graphviz.attributes.html._
+import org.scalacheck.Gen
+import org.scalacheck.rng.Seed
+
+/**
+  * Generators of synthetic graphs shaped like the ones rendered in practice. They can be
+  * used as properties' inputs, or sampled deterministically with [[sample]] for tests that
+  * need the same graph every run.
+  */
+object SyntheticCorpus {
+
+  /** The graph `gen` generates from `seed`. */
+  def sample[T](gen: Gen[T], seed: Long = 42): T = gen.pureApply(Gen.Parameters.default, Seed(seed))
+
+  /** The corpus used by tests, with graphs of about `elements` nodes and edges each. */
+  def all(elements: Int): Seq[(String, Gen[Graph])] = Seq(
+    "dag" -> dag(elements / 4, 3),
+    "service mesh" -> serviceMesh(elements / 4),
+    "nested clusters" -> nestedClusters(depth = 12, width = elements / 13),
+    "wide tables" -> wideTables(tables = elements / 100, columns = 20, rows = 5)
+  )
+
+  val colors: Gen[Color] = Gen.oneOf("#FF0000", "#00A000", "#0000FF", "gray", "black").map(Color(_))
+
+  val labels: Gen[String] = Gen.oneOf(
+    Gen.alphaNumStr.map(_.take(20)),
+    Gen.listOfN(3, Gen.oneOf("Grüße", "漢字", "\"quoted\"", "line\nbreak", "back\\slash", "😀")).map(_.mkString(" "))
+  )
+
+  val nodeAttributes: Gen[NodeAttributes] = Gen.frequency(
+    6 -> Gen.const(NodeAttributes()),
+    3 -> colors.map(color => NodeAttributes(color = color)),
+    1 -> Gen.zip(labels, Gen.oneOf(Shape.box, Shape.ellipse, Shape.circle)).map { case (label, shape) =>
+      NodeAttributes(shape = shape, label = Plain(label))
+    }
+  )
+
+  val edgeAttributes: Gen[EdgeAttributes] = Gen.frequency(
+    8 -> Gen.const(EdgeAttributes()),
+    1 -> Gen.const(EdgeAttributes(style = Style.dashed)),
+    1 -> labels.map(label => EdgeAttributes(label = Plain(label), color = Color("gray")))
+  )
+
+  /**
+    * A directed acyclic graph of `nodes` nodes with about `edgesPerNode` edges each, every
+    * edge leading to a node declared later, like a build or task graph.
+    */
+  def dag(nodes: Int, edgesPerNode: Int): Gen[Graph] = for {
+    attributes <- Gen.listOfN(nodes, nodeAttributes)
+    edges <- Gen.listOfN(nodes * edgesPerNode, Gen.zip(Gen.choose(0, nodes - 2), Gen.choose(0, nodes - 1), edgeAttributes))
+  } yield Graph(
+    id = Some("dag"),
+    attributes = GraphAttributes(rankdir = RankDir.LR),
+    elements = attributes.zipWithIndex.map { case (a, i) => Node(s"task$i", a) } ++
+      edges.map { case (i, j, a) =>
+        val (from, to) = if (i < j) (i, j) else if (i > j) (j, i) else (i, i + 1)
+        Edge(s"task$from", s"task$to", a)
+      }
+  )
+
+  /**
+    * Services calling each other, grouped into clusters by team. A new service calls ones
+    * picked in proportion to how often they are called already, so a few services are called
+    * by most others, as in real service meshes.
+    */
+  def serviceMesh(services: Int, callsPerService: Int = 3, teams: Int = 8): Gen[Graph] =
+    Gen.listOfN((services - 1) * callsPerService, Gen.choose(0.0, 1.0)).flatMap { draws =>
+      // Preferential attachment: a call goes to the callee of a random earlier call or, with
+      // a small chance, to a random earlier service.
+      val callees = new Array[Int](draws.length)
+      var i = 0
+      draws.foreach { draw =>
+        val service = i / callsPerService + 1
+        callees(i) =
+          if (i == 0 || draw < 0.1) (draw * 10 * service).toInt min (service - 1)
+          else callees((draw * i).toInt)
+        i += 1
+      }
+      Gen.listOfN(services, nodeAttributes).map { attributes =>
+        val clusters = (0 until teams).map { team =>
+          SubGraph(
+            id = Some(s"cluster_team$team"),
+            attributes = SubgraphAttributes(label = Plain(s"Team $team"), style = Style.dashed),
+            elements = (team until services by teams).map(s => Node(s"svc$s", attributes(s)))
+          )
+        }
+        val calls = callees.indices.map(c => Edge(s"svc${c / callsPerService + 1}", s"svc${callees(c)}"))
+        Graph(id = Some("mesh"), nodeDefaults = NodeAttributes(shape = Shape.box), elements = clusters ++ calls)
+      }
+    }
+
+  /** Clusters nested `depth` levels deep, each holding `width` nodes and edges of its own. */
+  def nestedClusters(depth: Int, width: Int): Gen[Graph] = {
+    def level(d: Int): Gen[Seq[GraphElement]] = for {
+      attributes <- Gen.listOfN(width / 2, nodeAttributes)
+      edges <- Gen.listOfN(width - width / 2, edgeAttributes)
+      inner <- if (d < depth) level(d + 1).map(elements => Seq(SubGraph(
+        id = Some(s"cluster_$d"),
+        attributes = SubgraphAttributes(label = Plain(s"Level $d")),
+        elements = elements
+      ))) else Gen.const(Nil)
+    } yield {
+      val nodes = attributes.zipWithIndex.map { case (a, i) => Node(s"l${d}n$i", a) }
+      val links = edges.zipWithIndex.map { case (a, i) => Edge(s"l${d}n${i % nodes.size}", s"l${(d + 1) min depth}n${(i * 7) % nodes.size}", a) }
+      nodes ++ inner ++ links
+    }
+    level(0).map(elements => Graph(id = Some("nested"), elements = elements))
+  }
+
+  /**
+    * `tables` nodes labelled with HTML-like tables of `columns` columns and `rows` rows, like
+    * an entity-relationship diagram, linked into a tree.
+    */
+  def wideTables(tables: Int, columns: Int, rows: Int): Gen[Graph] =
+    Gen.listOfN(tables, Gen.listOfN(columns * rows, labels)).map { contents =>
+      val nodes = contents.zipWithIndex.map { case (cells, t) =>
+        val header = Seq(Cell(TableCellAttributes(colspan = columns, bgcolor = Color("#DDDDDD")), b(s"table_$t")))
+        val body = cells.grouped(columns).zipWithIndex.map { case (row, r) =>
+          row.zipWithIndex.map { case (text, c) =>
+            if (c == 0) Cell(TableCellAttributes(align = Align.Left, port = s"r$r"), i(text))
+            else Cell(plain(text))
+          }
+        }.toSeq
+        Node(s"table_$t", NodeAttributes(shape = Shape.none, label = Table(TableAttributes(border = 0, cellBorder = 1), header +: body)))
+      }
+      val links = (1 until tables).map(t => Edge(s"table_$t", s"table_${t / 2}"))
+      Graph(id = Some("tables"), nodeDefaults = NodeAttributes(fontname = "Helvetica"), elements = nodes ++ links)
+    }
+
+  /** The number of nodes and edges in `graph`, counting every row of a batch. */
+  def size(graph: Graph): Int = {
+    def count(elements: Seq[GraphElement]): Int = elements.map {
+      case subGraph: SubGraph => count(subGraph.elements)
+      case batch: NodeBatch => batch.size
+      case batch: EdgeBatch => batch.size
+      case _ => 1
+    }.sum
+    count(graph.elements)
+  }
+}
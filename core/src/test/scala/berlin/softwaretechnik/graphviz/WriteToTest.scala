@@ -0,0 +1,76 @@
+package berlin.softwaretechnik.graphviz
+
+import java.io.ByteArrayOutputStream
+import java.lang.management.{BufferPoolMXBean, ManagementFactory}
+import java.nio.ByteBuffer
+import java.nio.channels.{Channels, WritableByteChannel}
+import java.nio.charset.StandardCharsets
+
+import scala.jdk.CollectionConverters._
+
+import berlin.softwaretechnik.graphviz.attributes.{NodeAttributes, Plain}
+import org.scalatest.funsuite.AnyFunSuite
+
+class WriteToTest extends AnyFunSuite {
+
+  val graph: Graph = Graph(elements = (0 until 1000).map(i =>
+    Node(s"n$i", NodeAttributes(label = Plain(s"Grüße 漢字 😀 $i")))
+  ))
+
+  test("writeTo produces the UTF-8 encoding of render") {
+    val out = new ByteArrayOutputStream()
+    graph.writeTo(out)
+    assert(out.toByteArray.sameElements(graph.render.getBytes(StandardCharsets.UTF_8)))
+  }
+
+  test("Characters are encoded correctly across buffer boundaries") {
+    val out = new ByteArrayOutputStream()
+    val writer = new Utf8ChannelWriter(Channels.newChannel(out), ByteBuffer.allocate(5))
+    graph.renderTo(writer)
+    writer.close()
+    assert(out.toByteArray.sameElements(graph.render.getBytes(StandardCharsets.UTF_8)))
+  }
+
+  test("A high surrogate at the end is written as '?', like String.getBytes does") {
+    val unpaired = new Renderable {
+      override def renderTo(out: RenderContext): Unit = out.append("end \uD83D")
+    }
+    val out = new ByteArrayOutputStream()
+    unpaired.writeTo(out)
+    assert(out.toByteArray.sameElements("end \uD83D".getBytes(StandardCharsets.UTF_8)))
+    assert(out.toString(StandardCharsets.UTF_8) == "end ?")
+  }
+
+  test("A channel that takes no bytes is waited for without spinning") {
+    val out = new ByteArrayOutputStream()
+    val target = Channels.newChannel(out)
+    val until = System.nanoTime() + 20000000L
+    var calls = 0
+    val slow = new WritableByteChannel {
+      override def write(src: ByteBuffer): Int = {
+        calls += 1
+        if (System.nanoTime() < until) 0 else target.write(src)
+      }
+
+      override def isOpen: Boolean = true
+
+      override def close(): Unit = ()
+    }
+    graph.writeTo(slow)
+    assert(out.toByteArray.sameElements(graph.render.getBytes(StandardCharsets.UTF_8)))
+    assert(calls < 1000)
+  }
+
+  test("Writes on new threads reuse pooled buffers") {
+    val direct = ManagementFactory.getPlatformMXBeans(classOf[BufferPoolMXBean]).asScala.find(_.getName == "direct").get
+    def write(): Unit = {
+      val thread = new Thread(() => graph.writeTo(new ByteArrayOutputStream()))
+      thread.start()
+      thread.join()
+    }
+    write()
+    val before = direct.getCount
+    (0 until 20).foreach(_ => write())
+    assert(direct.getCount - before < 5)
+  }
+}